@@ -0,0 +1,23 @@
+-- Sort options of the article listing (see ArticleSort)
+-- every option has an index over the whole catalog and one per subcategory, both ending with the sku
+-- as tie breaker, so a sorted page is read in index order and LIMIT stops after the page
+
+-- discount as sortable column, articles without list price have no discount
+ALTER TABLE article ADD COLUMN IF NOT EXISTS discount DOUBLE PRECISION
+    GENERATED ALWAYS AS (
+        CASE WHEN list_price > selling_price THEN 1 - selling_price / list_price ELSE 0 END
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS article_price_idx ON article (selling_price, sku);
+CREATE INDEX IF NOT EXISTS article_price_desc_idx ON article (selling_price DESC, sku);
+CREATE INDEX IF NOT EXISTS article_discount_idx ON article (discount DESC, sku);
+CREATE INDEX IF NOT EXISTS article_title_idx ON article (title, sku);
+
+CREATE INDEX IF NOT EXISTS article_subcategory_sku_idx ON article (subcategory_uuid, sku);
+CREATE INDEX IF NOT EXISTS article_subcategory_price_idx
+    ON article (subcategory_uuid, selling_price, sku);
+CREATE INDEX IF NOT EXISTS article_subcategory_price_desc_idx
+    ON article (subcategory_uuid, selling_price DESC, sku);
+CREATE INDEX IF NOT EXISTS article_subcategory_discount_idx
+    ON article (subcategory_uuid, discount DESC, sku);
+CREATE INDEX IF NOT EXISTS article_subcategory_title_idx ON article (subcategory_uuid, title, sku);
@@ -0,0 +1,21 @@
+-- Cross-node invalidation of the in-process catalog caches (see CatalogChangeBus)
+-- every node publishes its catalog writes with NOTIFY on the channel catalog_changes and LISTENs to
+-- the writes of the others. The sequence numbers the changes, so duplicated or late notifications
+-- of an entity are recognized and skipped
+
+CREATE SEQUENCE IF NOT EXISTS catalog_change_version;
+
+-- every published change is also kept here for a while, a node starting from a local catalog dump
+-- (see CatalogDumps) replays the changes made since the dump instead of loading the whole catalog.
+-- Changes are logged one transaction at a time (advisory lock), so versions commit in ascending
+-- order and max(version) identifies the catalog for CatalogVersion; pruning keeps the last change
+CREATE TABLE IF NOT EXISTS catalog_change (
+    version     bigint PRIMARY KEY,
+    entity_type varchar(20) NOT NULL,
+    entity_key  varchar(255),
+    article_sku bigint,
+    deleted     boolean NOT NULL,
+    changed_at  timestamp NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS catalog_change_changed_at ON catalog_change (changed_at);
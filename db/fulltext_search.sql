@@ -0,0 +1,15 @@
+-- Full text search for catalog.searchMode = FULLTEXT
+-- title and description are matched by a generated tsvector column (GIN index),
+-- substrings of the title by a trigram index, both replace sequential scans of LIKE '%term%'
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE article ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(description, '')), 'B')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS article_search_vector_idx ON article USING GIN (search_vector);
+
+CREATE INDEX IF NOT EXISTS article_title_trgm_idx ON article USING GIN (lower(title) gin_trgm_ops);
@@ -25,7 +25,10 @@ CREATE TABLE article
     list_price    FLOAT,
     available    BOOLEAN,
     stock        INT,
-    subcategory_uuid      VARCHAR(36) REFERENCES subcategory(uuid)  ON DELETE CASCADE
+    subcategory_uuid      VARCHAR(36) REFERENCES subcategory(uuid)  ON DELETE CASCADE,
+    discount     DOUBLE PRECISION GENERATED ALWAYS AS (
+        CASE WHEN list_price > selling_price THEN 1 - selling_price / list_price ELSE 0 END
+    ) STORED
 );
 
 CREATE TABLE article_image
@@ -46,7 +49,9 @@ CREATE TABLE shopping_cart (
     uuid        VARCHAR(36) PRIMARY KEY DEFAULT gen_random_uuid(),
     email       VARCHAR(255) NOT NULL REFERENCES user_data(email) ON DELETE CASCADE,
     article_sku BIGINT NOT NULL REFERENCES article(sku)  ON DELETE CASCADE,
-    amount      BIGINT NOT NULL
+    amount      BIGINT NOT NULL,
+    -- backs the add-to-cart upsert, see db/shopping_cart_upsert.sql
+    CONSTRAINT shopping_cart_email_sku_idx UNIQUE (email, article_sku)
 )
 
 INSERT INTO category(category_name) VALUES ('Clothing');
@@ -0,0 +1,22 @@
+-- Atomic add-to-cart (see ShoppingCartRepository.addToCart)
+-- every user has at most one cart entry per article, the unique index backs the
+-- INSERT ... ON CONFLICT (email, article_sku) DO UPDATE of the add-to-cart upsert. Its update
+-- only applies while the entry holds less than the stock, a no-op add reports no row
+
+-- merge the entries duplicated by concurrent adds into the one with the smallest uuid
+UPDATE shopping_cart c
+SET amount = d.total
+FROM (SELECT email, article_sku, min(uuid) AS keep, sum(amount) AS total
+      FROM shopping_cart
+      GROUP BY email, article_sku
+      HAVING count(*) > 1) d
+WHERE c.uuid = d.keep;
+
+DELETE FROM shopping_cart c
+USING (SELECT email, article_sku, min(uuid) AS keep
+       FROM shopping_cart
+       GROUP BY email, article_sku
+       HAVING count(*) > 1) d
+WHERE c.email = d.email AND c.article_sku = d.article_sku AND c.uuid <> d.keep;
+
+CREATE UNIQUE INDEX IF NOT EXISTS shopping_cart_email_sku_idx ON shopping_cart (email, article_sku);
@@ -9,11 +9,17 @@ public class JwksKeyProvider {
   private static final JwkProvider provider =
       new UrlJwkProvider("https://dev-rqhpuzb3altnalx3.us.auth0.com");
 
+  // fetched once, the key id is fixed, so the key never changes while deployed
+  private static volatile PublicKey publicKey;
+
   public static PublicKey getPublicKey() {
-    try {
-      return provider.get("I9aDdUdFIEzjEq29f_Gvm").getPublicKey();
-    } catch (Exception e) {
-      throw new RuntimeException("JWKS Fehler", e);
+    if (publicKey == null) {
+      try {
+        publicKey = provider.get("I9aDdUdFIEzjEq29f_Gvm").getPublicKey();
+      } catch (Exception e) {
+        throw new RuntimeException("JWKS Fehler", e);
+      }
     }
+    return publicKey;
   }
 }
@@ -0,0 +1,103 @@
+package src.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.function.Function;
+import java.util.logging.Logger;
+import javax.naming.Context;
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import lombok.Getter;
+import src.search.SearchMode;
+
+/**
+ * Container class to store catalog settings. All values are optional env-entries below
+ * java:comp/env named "catalog.*", e.g. "catalog.searchMode". Like the auth0 settings they are
+ * declared by the deployment (web.xml or the server's JNDI configuration), none ship with the
+ * sources. The defaults below apply to every missing entry and, logged, to every invalid one
+ */
+@ApplicationScoped
+@Getter
+public class CatalogConfig {
+
+  private static final Logger LOGGER = Logger.getLogger(CatalogConfig.class.getName());
+
+  private SearchMode searchMode = SearchMode.INDEX;
+
+  // skus of all cached search results together
+  private long resultCacheMaxSkus = 200000;
+
+  // seconds until a cached result is refreshed in the background, resp. reloaded before use
+  private long resultCacheFreshSeconds = 30;
+  private long resultCacheMaxStaleSeconds = 300;
+
+  // directory of the memory-mapped article store, empty to hold the read model on the heap. Only
+  // the article records move off the heap: the sku lists of the categories, the patches since the
+  // store was built and the search, price, facet and autocomplete indexes derived from the
+  // snapshot stay on the heap and still grow with the catalog
+  private String readModelDirectory = "";
+
+  // directory of the periodic catalog dump read at startup, empty to always load from the database
+  private String dumpDirectory = "";
+  private long dumpIntervalMinutes = 15;
+
+  // main categories whose pages are preloaded before the node reports ready, and synthetic
+  // requests driven through the view controllers to compile their hot paths
+  private int warmupCategories = 5;
+  private int warmupRequests = 500;
+
+  @PostConstruct
+  public void init() {
+    Context env;
+    try {
+      env = (Context) new InitialContext().lookup("java:comp/env");
+    } catch (NamingException e) {
+      LOGGER.info("No catalog environment available, using the defaults");
+      return;
+    }
+
+    this.searchMode =
+        parse(env, "catalog.searchMode", searchMode, v -> SearchMode.valueOf(v.toUpperCase()));
+    this.resultCacheMaxSkus =
+        parse(env, "catalog.resultCache.maxSkus", resultCacheMaxSkus, Long::parseLong);
+    this.resultCacheFreshSeconds =
+        parse(env, "catalog.resultCache.freshSeconds", resultCacheFreshSeconds, Long::parseLong);
+    this.resultCacheMaxStaleSeconds =
+        parse(
+            env,
+            "catalog.resultCache.maxStaleSeconds",
+            resultCacheMaxStaleSeconds,
+            Long::parseLong);
+    this.readModelDirectory = parse(env, "catalog.readModel.directory", readModelDirectory, v -> v);
+    this.dumpDirectory = parse(env, "catalog.dump.directory", dumpDirectory, v -> v);
+    this.dumpIntervalMinutes =
+        parse(env, "catalog.dump.intervalMinutes", dumpIntervalMinutes, Long::parseLong);
+    this.warmupCategories =
+        parse(env, "catalog.warmup.categories", warmupCategories, Integer::parseInt);
+    this.warmupRequests = parse(env, "catalog.warmup.requests", warmupRequests, Integer::parseInt);
+  }
+
+  /**
+   * Look up and parse a single entry, a missing or invalid entry only resets this setting
+   *
+   * @return parsed value, the fallback if the entry is missing or invalid
+   */
+  private static <T> T parse(Context env, String name, T fallback, Function<String, T> parser) {
+    Object value;
+    try {
+      value = env.lookup(name);
+    } catch (NamingException e) {
+      return fallback;
+    }
+    if (value == null) {
+      return fallback;
+    }
+
+    try {
+      return parser.apply(value.toString().trim());
+    } catch (IllegalArgumentException e) {
+      LOGGER.warning("Invalid value '" + value + "' of env-entry " + name + ", using " + fallback);
+      return fallback;
+    }
+  }
+}
@@ -6,6 +6,7 @@ import com.auth0.Tokens;
 import io.github.cromat.JavaxRequest;
 import io.github.cromat.JavaxResponse;
 import jakarta.enterprise.context.RequestScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import jakarta.servlet.http.Cookie;
@@ -13,15 +14,19 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.Response.Status;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import javax.transaction.Transactional;
 import src.auth.Auth0AuthenticationConfig;
 import src.auth.AuthMailSender;
 import src.model.Article;
@@ -31,9 +36,16 @@ import src.model.ShoppingCart;
 import src.model.Subcategory;
 import src.model.User;
 import src.repository.ArticleRepository;
+import src.repository.CatalogCache;
+import src.repository.CatalogChangeBus;
+import src.repository.CatalogChangeEvent;
+import src.repository.CatalogVersion;
 import src.repository.CategoryRepository;
 import src.repository.ShoppingCartRepository;
 import src.repository.UserRepository;
+import src.search.AutocompleteIndex;
+import src.view.Assets;
+import src.view.FragmentCache;
 
 /**
  * Central class for all REST api methods
@@ -49,6 +61,14 @@ public class ApiController {
   @Inject private ShoppingCartController shoppingCartController;
   @Inject private UserRepository repository;
   @Inject private ShoppingCartRepository shoppingCartRepository;
+  @Inject private CatalogCache catalogCache;
+  @Inject private FragmentCache fragmentCache;
+  @Inject private CatalogChangeBus catalogChangeBus;
+  @Inject private CatalogVersion catalogVersion;
+  @Inject private Assets assets;
+  @Inject private Event<CatalogChangeEvent> catalogChanged;
+  @Inject private AutocompleteIndex autocompleteIndex;
+  @Inject private Warmup warmup;
   @Context private HttpServletRequest request;
   @Named @Inject private AuthController authController;
 
@@ -60,6 +80,7 @@ public class ApiController {
   public Response createArticle(Article article) {
     try {
       articleRepository.save(article);
+      catalogChanged.fire(CatalogChangeEvent.article(article.getSku(), false));
       return Response.status(Response.Status.CREATED).build();
     } catch (Exception e) {
       return Response.status(Response.Status.BAD_REQUEST)
@@ -75,6 +96,7 @@ public class ApiController {
   public Response updateArticle(Article article) {
     try {
       articleRepository.merge(article);
+      catalogChanged.fire(CatalogChangeEvent.article(article.getSku(), false));
       return Response.status(Response.Status.OK).build();
     } catch (Exception e) {
       return Response.status(Response.Status.BAD_REQUEST)
@@ -90,6 +112,7 @@ public class ApiController {
   public Response deleteArticle(@PathParam("sku") String sku) {
     try {
       articleRepository.deleteBySku(sku);
+      catalogChanged.fire(CatalogChangeEvent.article(Long.parseLong(sku), true));
       return Response.status(Response.Status.OK).build();
     } catch (Exception e) {
       return Response.status(Response.Status.BAD_REQUEST)
@@ -106,6 +129,7 @@ public class ApiController {
   public Response createCategory(Category category) {
     try {
       categoryRepository.save(category);
+      catalogChanged.fire(CatalogChangeEvent.category(category.getUuid(), false));
       return Response.status(Response.Status.CREATED).build();
     } catch (Exception e) {
       return Response.status(Response.Status.BAD_REQUEST)
@@ -121,6 +145,7 @@ public class ApiController {
   public Response updateCategory(Category category) {
     try {
       categoryRepository.merge(category);
+      catalogChanged.fire(CatalogChangeEvent.category(category.getUuid(), false));
       return Response.status(Response.Status.OK).build();
     } catch (Exception e) {
       return Response.status(Response.Status.BAD_REQUEST)
@@ -135,6 +160,7 @@ public class ApiController {
   public Response deleteCategory(@PathParam("uuid") String uuid) {
     try {
       categoryRepository.deleteByUuid(uuid);
+      catalogChanged.fire(CatalogChangeEvent.category(uuid, true));
       return Response.status(Response.Status.OK).build();
     } catch (Exception e) {
       return Response.status(Response.Status.BAD_REQUEST)
@@ -151,6 +177,7 @@ public class ApiController {
   public Response createSubcategory(Subcategory subcategory) {
     try {
       categoryRepository.save(subcategory);
+      catalogChanged.fire(CatalogChangeEvent.subcategory(subcategory.getUuid(), false));
       return Response.status(Response.Status.CREATED).build();
     } catch (Exception e) {
       return Response.status(Response.Status.BAD_REQUEST)
@@ -166,6 +193,7 @@ public class ApiController {
   public Response updateSubcategory(Subcategory subcategory) {
     try {
       categoryRepository.merge(subcategory);
+      catalogChanged.fire(CatalogChangeEvent.subcategory(subcategory.getUuid(), false));
       return Response.status(Response.Status.OK).build();
     } catch (Exception e) {
       return Response.status(Response.Status.BAD_REQUEST)
@@ -180,6 +208,7 @@ public class ApiController {
   public Response deleteSubcategory(@PathParam("uuid") String uuid) {
     try {
       categoryRepository.deleteBySubcategoryUuid(uuid);
+      catalogChanged.fire(CatalogChangeEvent.subcategory(uuid, true));
       return Response.status(Response.Status.OK).build();
     } catch (Exception e) {
       return Response.status(Response.Status.BAD_REQUEST)
@@ -196,6 +225,9 @@ public class ApiController {
   public Response createArticleImage(ArticleImage articleImage) {
     try {
       articleRepository.save(articleImage);
+      catalogChanged.fire(
+          CatalogChangeEvent.articleImage(
+              articleImage.getUuid(), articleImage.getArticleSku(), false));
       return Response.status(Response.Status.CREATED).build();
     } catch (Exception e) {
       return Response.status(Response.Status.BAD_REQUEST)
@@ -211,6 +243,9 @@ public class ApiController {
   public Response updateArticleImage(ArticleImage articleImage) {
     try {
       articleRepository.merge(articleImage);
+      catalogChanged.fire(
+          CatalogChangeEvent.articleImage(
+              articleImage.getUuid(), articleImage.getArticleSku(), false));
       return Response.status(Response.Status.OK).build();
     } catch (Exception e) {
       return Response.status(Response.Status.BAD_REQUEST)
@@ -224,7 +259,8 @@ public class ApiController {
   @Produces(MediaType.APPLICATION_JSON)
   public Response deleteArticleImage(@PathParam("uuid") String uuid) {
     try {
-      articleRepository.deleteByArticleImageUuid(uuid);
+      Long articleSku = articleRepository.deleteByArticleImageUuid(uuid);
+      catalogChanged.fire(CatalogChangeEvent.articleImage(uuid, articleSku, true));
       return Response.status(Response.Status.OK).build();
     } catch (Exception e) {
       return Response.status(Response.Status.BAD_REQUEST)
@@ -233,25 +269,143 @@ public class ApiController {
     }
   }
 
+  /**
+   * Get hit, miss and eviction counts of the shared catalog cache and of the rendered fragments,
+   * and the notification counts of the cross-node invalidation
+   *
+   * @return statistics by cache region
+   */
+  @GET
+  @Path("/api/cache-statistics")
+  @Produces(MediaType.APPLICATION_JSON)
+  public Response getCacheStatistics() {
+    Map<String, Map<String, Long>> statistics = catalogCache.getStatistics();
+    statistics.put("Fragments", fragmentCache.getStatistics());
+    statistics.put("ChangeBus", catalogChangeBus.getStatistics());
+    return Response.ok(statistics).build();
+  }
+
+  /**
+   * Get the load counts of the search results, and how many concurrent callers shared a load
+   * instead of querying the database
+   *
+   * @param topKeys amount of most coalesced keys to report
+   * @return statistics by load type
+   */
+  @GET
+  @Path("/api/load-statistics")
+  @Produces(MediaType.APPLICATION_JSON)
+  public Response getLoadStatistics(@QueryParam("top") @DefaultValue("20") int topKeys) {
+    return Response.ok(articleRepository.getLoadStatistics(Math.max(topKeys, 0))).build();
+  }
+
+  /**
+   * Report that the application is running, the container restarts a node failing this check
+   *
+   * @return 200 as long as requests are served
+   */
+  @GET
+  @Path("/health/live")
+  @Produces(MediaType.APPLICATION_JSON)
+  public Response live() {
+    return Response.ok(Map.of("status", "UP")).header("Cache-Control", "no-store").build();
+  }
+
+  /**
+   * Report whether the node may receive traffic, the load balancer only routes to ready nodes. A
+   * node is ready once its {@link Warmup} finished
+   *
+   * @return 200 once warmed up, 503 before, both with the durations of the warmup steps
+   */
+  @GET
+  @Path("/health/ready")
+  @Produces(MediaType.APPLICATION_JSON)
+  public Response ready() {
+    boolean ready = warmup.isReady();
+    Map<String, Object> status = new LinkedHashMap<>();
+    status.put("status", ready ? "UP" : "DOWN");
+    status.put("warmup", warmup.getStatistics());
+    return Response.status(ready ? Status.OK : Status.SERVICE_UNAVAILABLE)
+        .entity(status)
+        .header("Cache-Control", "no-store")
+        .build();
+  }
+
+  /**
+   * Suggest article titles and category names for the text typed into the search box
+   *
+   * @param prefix typed text
+   * @param limit maximum amount of suggestions
+   * @return suggestions, categories first
+   */
+  @GET
+  @Path("/api/autocomplete")
+  @Produces(MediaType.APPLICATION_JSON)
+  public Response autocomplete(
+      @QueryParam("prefix") String prefix, @QueryParam("limit") @DefaultValue("8") int limit) {
+    return Response.ok(autocompleteIndex.suggest(prefix, limit)).build();
+  }
+
   /**
    * Render main page
    *
-   * @return rendered main page
+   * @param conditions conditional request headers
+   * @return rendered main page, 304 if the client holds the current version
    */
   @GET
-  public String index() {
-    return "list.xhtml";
+  public Response index(@Context Request conditions) {
+    return this.renderCatalogPage("list.xhtml", conditions);
   }
 
   /**
    * Render detail page
    *
-   * @return rendered detail page
+   * @param conditions conditional request headers
+   * @return rendered detail page, 304 if the client holds the current version
    */
   @GET
   @Path("/detail")
-  public String detail() {
-    return "detail.xhtml";
+  public Response detail(@Context Request conditions) {
+    return this.renderCatalogPage("detail.xhtml", conditions);
+  }
+
+  /**
+   * Render a catalog page. For anonymous users the page only depends on the url and the catalog
+   * version, so it's tagged with the version and revalidated by browsers and proxies. A matching
+   * If-None-Match (or If-Modified-Since) is answered with 304 before any query or rendering
+   *
+   * @param view view to render
+   * @param conditions conditional request headers
+   * @return view response, or 304 without body
+   */
+  private Response renderCatalogPage(String view, Request conditions) {
+    // logged in users see their email and cart, their pages must not be shared
+    if (authController.extractEmail(request) != null) {
+      return Response.ok(view)
+          .header("Cache-Control", "private, no-store")
+          .header("Vary", "Cookie")
+          .build();
+    }
+
+    // read before rendering: a write during rendering leaves an older tag, never a newer one
+    EntityTag tag = catalogVersion.getEntityTag(assets.getRelease());
+    Date lastModified = catalogVersion.getLastModified();
+
+    Response.ResponseBuilder response = Response.ok(view);
+    if (tag != null) {
+      Response.ResponseBuilder notModified =
+          lastModified == null
+              ? conditions.evaluatePreconditions(tag)
+              : conditions.evaluatePreconditions(lastModified, tag);
+      if (notModified != null) {
+        response = notModified;
+      }
+      response.tag(tag).lastModified(lastModified);
+    }
+    return response
+        .header("Cache-Control", "public, max-age=0, must-revalidate")
+        .header("Vary", "Cookie")
+        .build();
   }
 
   /**
@@ -350,15 +504,15 @@ public class ApiController {
   }
 
   /**
-   * Add item to shopping-cart
+   * Add item to shopping-cart, in one atomic upsert clamped to the stock
    *
    * @param skuStr: article sku
    * @param amountStr: amount to add
-   * @return re-render detail page
+   * @return re-render detail page, 409 if the article is sold out or its whole stock is in the
+   *     cart already
    */
   @POST
   @Path("/add-to-shopping-cart")
-  @Transactional
   public Response addToShoppingCart(
       @FormParam("sku") String skuStr, @FormParam("amount") String amountStr) {
 
@@ -371,9 +525,14 @@ public class ApiController {
         return Response.status(Response.Status.UNAUTHORIZED).build();
       }
 
-      ShoppingCart shoppingCart =
-          shoppingCartController.getOrUpdateShoppingCart(sku, amount, email);
-      shoppingCartRepository.merge(shoppingCart);
+      // the article is looked up in the read model, the upsert is the only database round trip
+      if (amount <= 0 || articleRepository.findBySku(sku) == null) {
+        return Response.status(Status.BAD_REQUEST).build();
+      }
+      // nothing was added: sold out, deleted meanwhile or the cart holds the whole stock
+      if (!shoppingCartRepository.addToCart(email, sku, amount)) {
+        return Response.status(Status.CONFLICT).build();
+      }
 
       return Response.seeOther(
               new URI(
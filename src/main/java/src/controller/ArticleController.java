@@ -6,11 +6,12 @@ import jakarta.inject.Named;
 import jakarta.servlet.http.HttpServletRequest;
 
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import lombok.Getter;
 import src.model.Article;
+import src.model.ArticleTile;
 import src.repository.ArticleRepository;
+import src.repository.ArticleSort;
+import src.repository.PriceFilter;
 
 @Named
 @RequestScoped
@@ -29,65 +30,66 @@ public class ArticleController {
   @Getter private Article articleDetail;
   @Getter private List<Article> articles;
   @Getter private static final double PAGE_SIZE = 12;
+  private static final int PAGE_NUMBER_COUNT = 3;
+
+  // view model of the list page, built at most once per request
+  private ListPageModel listPage;
+
+  // repository calls querying the catalog for the list page during this request, counted where
+  // they are made: a render runs one count and one page query
+  @Getter private int catalogQueryCount;
 
   /**
-   * Calculates the highest page available based upon the result set of articles
+   * Get the view model of the list page. The catalog is queried on the first call only, all later
+   * calls of the same request read from the built model
+   *
+   * @param request: HttpServletRequest
+   * @return view model of the requested page
+   */
+  public ListPageModel getListPage(HttpServletRequest request) {
+    if (listPage == null) {
+      listPage = this.buildListPage(request);
+    }
+    return listPage;
+  }
+
+  /**
+   * Calculates the highest page available based upon the amount of matching articles
    *
    * @return highest available page
    */
   public int getTotalPageCount(HttpServletRequest request) {
-    List<Article> articles = getAllArticlesByRequest(request);
-    return articles == null ? 1 : (int) Math.max(Math.ceil(articles.size() / PAGE_SIZE), 1);
+    return this.getListPage(request).getTotalPageCount();
   }
 
   /**
-   * Queries articles from the database respecting given filters and applies pagination
+   * Get the articles of the requested page respecting given filters
    *
    * @param request: HttpServletRequest
    * @return result set of corresponding page
    */
-  public List<Article> getPagedArticles(HttpServletRequest request) {
-    int page = this.getPageByRequest(request);
-    List<Article> articles = getAllArticlesByRequest(request);
-
-    return articles.subList(
-        this.calcSublistStartIndex(page), this.calcSublistEndIndex(page, articles.size()));
+  public List<ArticleTile> getPagedArticles(HttpServletRequest request) {
+    return this.getListPage(request).getArticles();
   }
 
   /**
-   * Calculates the page numbers to be shown in the navigation pane, based on given count. The page
-   * numbers should cover the spectrum around the given page in the interval [2 ; totalPageCount -
-   * 1] If the page total count is too small, only give as many numbers as possible
+   * Calculates the page numbers to be shown in the navigation pane, based on given count
    *
    * @param request: HttpServletRequest
    * @param count: how many page numbers should be shown
    * @return list with calculated page numbers
    */
   public List<Integer> getPageNumbers(HttpServletRequest request, int count) {
-    int page = this.getPageByRequest(request);
-    int correctCount = Math.min(count, this.getTotalPageCount(request) - 2);
-
-    // lowest page number must at least be 2
-    int lowestNumber = Math.max(2, page - 1);
-
-    // highest number should have a distance of <count> to lowest number, but mustn't exceed total
-    // page count
-    int highestNumber = Math.min(lowestNumber + correctCount, this.getTotalPageCount(request));
-
-    // re-calculation based on calculated highest number
-    lowestNumber = highestNumber - correctCount;
-
-    return IntStream.range(lowestNumber, lowestNumber + correctCount)
-        .boxed()
-        .collect(Collectors.toList());
+    ListPageModel model = this.getListPage(request);
+    return ListPageModel.calcPageNumbers(model.getPage(), model.getTotalPageCount(), count);
   }
 
   public boolean existsPreviousPage(HttpServletRequest request) {
-    return this.getPageByRequest(request) > 1;
+    return this.getListPage(request).isPreviousPageAvailable();
   }
 
   public boolean existsNextPage(HttpServletRequest request) {
-    return this.getPageByRequest(request) < this.getTotalPageCount(request);
+    return this.getListPage(request).isNextPageAvailable();
   }
 
   /**
@@ -100,13 +102,60 @@ public class ArticleController {
     this.articleDetail = repository.findBySku(sku);
   }
 
+  /**
+   * Count the matching articles and query the requested page. If the request carries the last
+   * sku of the previous page and the default order applies, the page is fetched by keyset (seek)
+   * instead of offset
+   *
+   * @param request: HttpServletRequest
+   * @return view model of the requested page
+   */
+  private ListPageModel buildListPage(HttpServletRequest request) {
+    String categoryUuid = request.getParameter("categoryUuid");
+    String subcategoryUuid = request.getParameter("subcategoryUuid");
+    String query = request.getParameter("query");
+    PriceFilter filter = this.getPriceFilterByRequest(request);
+    ArticleSort sort = ArticleSort.fromParameter(request.getParameter("sort"));
+
+    catalogQueryCount++;
+    long totalCount = repository.countArticles(categoryUuid, subcategoryUuid, query, filter);
+    int totalPageCount = (int) Math.max(Math.ceil(totalCount / PAGE_SIZE), 1);
+    int page = this.getPageByRequest(request, totalPageCount);
+    // the keyset is the sku, so it only applies to the sku (or relevance) order
+    Long afterSku = sort == ArticleSort.DEFAULT ? this.getAfterSkuByRequest(request) : null;
+
+    // the list only renders tiles, so read projections instead of managed entities
+    catalogQueryCount++;
+    List<ArticleTile> tiles =
+        afterSku != null
+            ? repository.getTilesAfterSku(
+                categoryUuid,
+                subcategoryUuid,
+                query,
+                filter,
+                afterSku,
+                this.calcOffset(page),
+                (int) PAGE_SIZE)
+            : repository.getTilesPage(
+                categoryUuid,
+                subcategoryUuid,
+                query,
+                filter,
+                sort,
+                this.calcOffset(page),
+                (int) PAGE_SIZE);
+
+    return new ListPageModel(tiles, totalCount, page, totalPageCount, PAGE_NUMBER_COUNT);
+  }
+
   /**
    * Parse page out of request and fix invalid values
    *
    * @param request: HttpServletRequest
+   * @param totalPageCount: highest available page
    * @return parsed page number
    */
-  private int getPageByRequest(HttpServletRequest request) {
+  private int getPageByRequest(HttpServletRequest request, int totalPageCount) {
     int page = 1; // fallback value if parsing fails
 
     try {
@@ -115,12 +164,39 @@ public class ArticleController {
     }
 
     // page mustn't exceed total page count
-    page = Math.min(page, this.getTotalPageCount(request));
+    page = Math.min(page, totalPageCount);
 
     // return parsed page, but it must be at least 1
     return Math.max(page, 1);
   }
 
+  /**
+   * Parse the last sku of the previous page out of the request, used for keyset pagination
+   *
+   * @param request: HttpServletRequest
+   * @return parsed sku or null if not given or invalid
+   */
+  private Long getAfterSkuByRequest(HttpServletRequest request) {
+    try {
+      return Long.parseLong(request.getParameter("afterSku"));
+    } catch (Exception ignored) {
+      return null;
+    }
+  }
+
+  /**
+   * Parse the price range and availability filter out of the request
+   *
+   * @param request: HttpServletRequest
+   * @return parsed filter, invalid prices are ignored
+   */
+  private PriceFilter getPriceFilterByRequest(HttpServletRequest request) {
+    return PriceFilter.fromParameters(
+        request.getParameter("minPrice"),
+        request.getParameter("maxPrice"),
+        request.getParameter("inStock"));
+  }
+
   /**
    * Parses the search form data out of the request
    *
@@ -131,29 +207,20 @@ public class ArticleController {
     String categoryUuid = request.getParameter("categoryUuid");
     String subcategoryUuid = request.getParameter("subcategoryUuid");
     String query = request.getParameter("query");
+    PriceFilter filter = this.getPriceFilterByRequest(request);
+    ArticleSort sort = ArticleSort.fromParameter(request.getParameter("sort"));
 
-    return repository.getArticles(categoryUuid, subcategoryUuid, query);
+    return repository.getArticles(categoryUuid, subcategoryUuid, query, filter, sort);
   }
 
   /**
-   * Used formula <code> (page - 1) * PAGE_SIZE </code> corresponding to (page=1 -> index=0,
-   * page=2-> index=12, ...)
+   * Used formula <code> (page - 1) * PAGE_SIZE </code> corresponding to (page=1 -> offset=0,
+   * page=2-> offset=12, ...)
    *
    * @param page: current page
-   * @return startIndex for sublist based on page size
+   * @return offset of the first article of the page
    */
-  private int calcSublistStartIndex(int page) {
+  private int calcOffset(int page) {
     return (int) ((page - 1) * PAGE_SIZE);
   }
-
-  /**
-   * Used formula <code> Math.min(totalListSize, page * PAGE_SIZE) </code>; if calculated page
-   * exceeds list size, restrict end index to list size
-   *
-   * @param page: current page
-   * @return endIndex for sublist based on page size
-   */
-  private int calcSublistEndIndex(int page, int totalListSize) {
-    return (int) (Math.min(totalListSize, page * PAGE_SIZE));
-  }
 }
@@ -5,18 +5,19 @@ import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 import javax.swing.text.html.Option;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import org.eclipse.krazo.lifecycle.RequestLifecycle;
 import src.model.Category;
 import src.model.Subcategory;
-import src.repository.CategoryRepository;
+import src.repository.CategoryTree;
+import src.repository.CategoryTreeCache;
+import src.search.CatalogFacets;
+import src.search.FacetCounts;
 import src.utils.StringUtils;
 
 @Getter
@@ -26,17 +27,17 @@ import src.utils.StringUtils;
 @NoArgsConstructor
 public class CategoryController {
 
-  @Inject private CategoryRepository repository;
   @Inject private RequestLifecycle requestLifecycle;
+  @Inject private CatalogFacets facets;
+  @Inject private CategoryTreeCache categoryTreeCache;
 
   /**
-   * Find all available categories
+   * Find all available categories, read from the cached category tree
    *
-   * @return all categories
+   * @return category name to uuid, ordered by name
    */
   public Map<String, String> getCategories() {
-    return repository.getCategories().stream()
-        .collect(HashMap::new, (m, v) -> m.put(v.getCategoryName(), v.getUuid()), HashMap::putAll);
+    return categoryTreeCache.getTree().getCategoryNames();
   }
 
   /**
@@ -48,10 +49,32 @@ public class CategoryController {
   public Category getSelectedMainCategory(HttpServletRequest request) {
     String subcategoryUuid = request.getParameter("subcategoryUuid");
     String categoryUuid = request.getParameter("categoryUuid");
+    CategoryTree tree = categoryTreeCache.getTree();
 
-    return Optional.ofNullable(repository.findSubcategoryByUuid(subcategoryUuid))
-        .map(Subcategory::getRootCategory)
-        .orElse(repository.findByUuid(categoryUuid));
+    return Optional.ofNullable(tree.getSubcategory(subcategoryUuid))
+        .map(tree::getRootCategory)
+        .orElse(tree.getCategory(categoryUuid));
+  }
+
+  /**
+   * Key of the cached sidebar, it depends on the selected main category and subcategory. All
+   * unknown subcategory uuids render the same sidebar and share one key
+   *
+   * @param request: request
+   * @return fragment key
+   */
+  public String getSidebarKey(HttpServletRequest request) {
+    Category category = this.getSelectedMainCategory(request);
+    String subcategoryUuid = request.getParameter("subcategoryUuid");
+    Subcategory subcategory = categoryTreeCache.getTree().getSubcategory(subcategoryUuid);
+
+    String selected;
+    if (subcategory != null) {
+      selected = subcategory.getUuid();
+    } else {
+      selected = StringUtils.isEmpty(subcategoryUuid) ? "" : "?";
+    }
+    return (category == null ? "" : category.getUuid()) + "/" + selected;
   }
 
   /**
@@ -62,14 +85,35 @@ public class CategoryController {
    */
   public List<Subcategory> getSubcategories(HttpServletRequest request) {
     String subcategoryUuid = request.getParameter("subcategoryUuid");
+    CategoryTree tree = categoryTreeCache.getTree();
 
     // if a subcategory is selected, only show this one
     if (!StringUtils.isEmpty(subcategoryUuid)) {
-      return Collections.singletonList(repository.findSubcategoryByUuid(subcategoryUuid));
+      return Collections.singletonList(tree.getSubcategory(subcategoryUuid));
     }
 
     // only parent category is selected, show all corresponding subcategories
     String categoryUuid = request.getParameter("categoryUuid");
-    return repository.getSubcategoriesByRootCategoryUuid(categoryUuid);
+    return tree.getSubcategories(categoryUuid);
+  }
+
+  /**
+   * Get the article counts of a main category, read from the materialized counts without query
+   *
+   * @param uuid main category uuid
+   * @return total, available and on sale article counts
+   */
+  public FacetCounts.Counts getCategoryCounts(String uuid) {
+    return facets.getCounts().getCategory(uuid);
+  }
+
+  /**
+   * Get the article counts of a subcategory, read from the materialized counts without query
+   *
+   * @param uuid subcategory uuid
+   * @return total, available and on sale article counts
+   */
+  public FacetCounts.Counts getSubcategoryCounts(String uuid) {
+    return facets.getCounts().getSubcategory(uuid);
   }
 }
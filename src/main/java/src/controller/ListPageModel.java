@@ -0,0 +1,67 @@
+package src.controller;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import lombok.Getter;
+import src.model.ArticleTile;
+
+/**
+ * Immutable view model of one rendered article list page. It is built once per request, all
+ * expressions of list.xhtml read from it instead of querying the catalog again
+ */
+@Getter
+public class ListPageModel {
+
+  private final List<ArticleTile> articles;
+  private final long totalCount;
+  private final int page;
+  private final int totalPageCount;
+  private final List<Integer> pageNumbers;
+  private final boolean previousPageAvailable;
+  private final boolean nextPageAvailable;
+
+  public ListPageModel(
+      List<ArticleTile> articles,
+      long totalCount,
+      int page,
+      int totalPageCount,
+      int pageNumberCount) {
+    this.articles = articles == null ? List.of() : Collections.unmodifiableList(articles);
+    this.totalCount = totalCount;
+    this.page = page;
+    this.totalPageCount = totalPageCount;
+    this.pageNumbers = calcPageNumbers(page, totalPageCount, pageNumberCount);
+    this.previousPageAvailable = page > 1;
+    this.nextPageAvailable = page < totalPageCount;
+  }
+
+  /**
+   * Calculates the page numbers to be shown in the navigation pane, based on given count. The page
+   * numbers should cover the spectrum around the given page in the interval [2 ; totalPageCount -
+   * 1] If the page total count is too small, only give as many numbers as possible
+   *
+   * @param page: current page
+   * @param totalPageCount: highest available page
+   * @param count: how many page numbers should be shown
+   * @return list with calculated page numbers
+   */
+  static List<Integer> calcPageNumbers(int page, int totalPageCount, int count) {
+    int correctCount = Math.min(count, totalPageCount - 2);
+
+    // lowest page number must at least be 2
+    int lowestNumber = Math.max(2, page - 1);
+
+    // highest number should have a distance of <count> to lowest number, but mustn't exceed total
+    // page count
+    int highestNumber = Math.min(lowestNumber + correctCount, totalPageCount);
+
+    // re-calculation based on calculated highest number
+    lowestNumber = highestNumber - correctCount;
+
+    return IntStream.range(lowestNumber, lowestNumber + correctCount)
+        .boxed()
+        .collect(Collectors.toUnmodifiableList());
+  }
+}
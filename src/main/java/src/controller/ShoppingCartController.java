@@ -6,12 +6,10 @@ import jakarta.inject.Named;
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import src.model.Article;
 import src.model.ShoppingCart;
-import src.repository.ArticleRepository;
 import src.repository.ShoppingCartRepository;
 
 @Getter
@@ -22,7 +20,6 @@ import src.repository.ShoppingCartRepository;
 public class ShoppingCartController {
 
   @Inject private ShoppingCartRepository shoppingCartRepository;
-  @Inject private ArticleRepository articleRepository;
   @Named @Inject private AuthController authController;
 
   private static final double VAT = 0.07;
@@ -93,26 +90,6 @@ public class ShoppingCartController {
     return String.format("%.2f CHF", shoppingCartRepository.getTotalDiscount(email));
   }
 
-  public ShoppingCart getOrUpdateShoppingCart(long sku, long amount, String email) {
-    Article article = articleRepository.findBySku(sku);
-    ShoppingCart shoppingCart = shoppingCartRepository.findBySkuAndEmail(sku, email);
-    amount = this.getMaxAmount(amount, article);
-
-    // if entry doesn't exist yet, create a new one
-    if (shoppingCart == null) {
-      shoppingCart = new ShoppingCart();
-      shoppingCart.setUuid(UUID.randomUUID().toString());
-      shoppingCart.setArticleSku(sku);
-      shoppingCart.setEmail(email);
-      shoppingCart.setAmount(amount);
-    } else {
-      // if entry exists, increase amount
-      shoppingCart.setAmount(shoppingCart.getAmount() + amount);
-    }
-
-    return shoppingCart;
-  }
-
   /**
    * amount can't exceed current stock
    *
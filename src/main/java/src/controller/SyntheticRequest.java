@@ -0,0 +1,66 @@
+package src.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Anonymous GET request with query parameters only, used by the {@link Warmup} to call the view
+ * controllers outside of a real request. It carries no cookies, session nor body, every other
+ * method returns null, false or 0
+ */
+final class SyntheticRequest {
+
+  private SyntheticRequest() {}
+
+  /**
+   * Create a request
+   *
+   * @param parameters query parameters
+   * @return request answering the parameters
+   */
+  static HttpServletRequest of(Map<String, String> parameters) {
+    return (HttpServletRequest)
+        Proxy.newProxyInstance(
+            HttpServletRequest.class.getClassLoader(),
+            new Class<?>[] {HttpServletRequest.class},
+            (proxy, method, args) -> {
+              switch (method.getName()) {
+                case "getParameter":
+                  return parameters.get((String) args[0]);
+                case "getParameterNames":
+                  return Collections.enumeration(parameters.keySet());
+                case "getMethod":
+                  return "GET";
+                case "getScheme":
+                  return "http";
+                case "getServerName":
+                  return "localhost";
+                case "getContextPath":
+                  return "";
+                case "hashCode":
+                  return System.identityHashCode(proxy);
+                case "equals":
+                  return proxy == args[0];
+                case "toString":
+                  return "SyntheticRequest" + parameters;
+                default:
+                  return defaultValue(method.getReturnType());
+              }
+            });
+  }
+
+  private static Object defaultValue(Class<?> type) {
+    if (type == boolean.class) {
+      return false;
+    }
+    if (type == int.class) {
+      return 0;
+    }
+    if (type == long.class) {
+      return 0L;
+    }
+    return null;
+  }
+}
@@ -0,0 +1,236 @@
+package src.controller;
+
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.context.control.RequestContextController;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import src.auth.JwksKeyProvider;
+import src.config.CatalogConfig;
+import src.model.Article;
+import src.model.Category;
+import src.model.Subcategory;
+import src.repository.CategoryTree;
+import src.repository.CategoryTreeCache;
+import src.repository.ShoppingCartRepository;
+import src.search.CatalogFacets;
+import src.search.FacetCounts;
+
+/**
+ * Prepares a freshly deployed node before the load balancer routes traffic to it, see the
+ * readiness endpoint of the {@link ApiController}. The warmup builds the category tree, the
+ * counts and the read model, preloads the first pages of the largest main categories and then
+ * drives synthetic anonymous requests through the view controllers, so the first real requests
+ * neither initialize JPA nor run interpreted code. A failed warmup is retried until it succeeds
+ */
+@ApplicationScoped
+public class Warmup {
+
+  private static final Logger LOGGER = Logger.getLogger(Warmup.class.getName());
+
+  private static final long RETRY_SECONDS = 10;
+
+  // matches no cart, only the query itself is prepared
+  private static final String NO_EMAIL = "warmup@localhost";
+
+  private static final String[] SORTS = {"", "price-asc", "title"};
+
+  @Inject CatalogConfig catalogConfig;
+  @Inject CategoryTreeCache categoryTreeCache;
+  @Inject CatalogFacets facets;
+  @Inject ShoppingCartRepository shoppingCartRepository;
+  @Inject RequestContextController requestContext;
+  @Inject Instance<ArticleController> articleControllers;
+  @Inject Instance<CategoryController> categoryControllers;
+  @Inject Instance<ShoppingCartController> shoppingCartControllers;
+
+  @Resource ManagedScheduledExecutorService scheduler;
+
+  // duration of every step in milliseconds
+  private final Map<String, Long> durations = new ConcurrentHashMap<>();
+
+  private volatile boolean ready;
+  private final LongAdder failures = new LongAdder();
+
+  /**
+   * Start the warmup once the application is deployed, it runs in the background
+   *
+   * @param initialized application scope
+   */
+  public void start(@Observes @Initialized(ApplicationScoped.class) Object initialized) {
+    scheduler.execute(this::run);
+  }
+
+  /**
+   * @return whether the warmup succeeded and the node may receive traffic
+   */
+  public boolean isReady() {
+    return ready;
+  }
+
+  /**
+   * Get the durations of the finished steps and the count of failed attempts
+   *
+   * @return values by name
+   */
+  public Map<String, Long> getStatistics() {
+    Map<String, Long> statistics = new TreeMap<>(durations);
+    statistics.put("failures", failures.sum());
+    return statistics;
+  }
+
+  private void run() {
+    try {
+      long start = System.nanoTime();
+      this.warmUp();
+      this.ready = true;
+      LOGGER.info(
+          "Warmup finished in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+    } catch (RuntimeException e) {
+      failures.increment();
+      LOGGER.log(Level.WARNING, "Warmup failed, retrying in " + RETRY_SECONDS + "s", e);
+      scheduler.schedule(this::run, RETRY_SECONDS, TimeUnit.SECONDS);
+    }
+  }
+
+  private void warmUp() {
+    CategoryTree tree = this.timed("categoryTree", categoryTreeCache::getTree);
+
+    // the pages of the largest main categories and their subcategories, first page of each sort
+    List<Map<String, String>> pages = new ArrayList<>();
+    pages.add(Map.of());
+    for (Category category : this.timed("counts", () -> this.getTopCategories(tree))) {
+      for (String sort : SORTS) {
+        pages.add(Map.of("categoryUuid", category.getUuid(), "sort", sort));
+      }
+      for (Subcategory subcategory : tree.getSubcategories(category.getUuid())) {
+        pages.add(
+            Map.of("categoryUuid", category.getUuid(), "subcategoryUuid", subcategory.getUuid()));
+      }
+    }
+
+    List<Long> skus =
+        this.timed(
+            "pages",
+            () -> {
+              List<Long> shown = new ArrayList<>();
+              for (Map<String, String> page : pages) {
+                this.inRequest(
+                    () ->
+                        articleControllers.get().getPagedArticles(SyntheticRequest.of(page)))
+                    .forEach(tile -> shown.add(tile.getSku()));
+              }
+              return shown;
+            });
+
+    this.timed("jpa", () -> shoppingCartRepository.getShoppingCartEntries(NO_EMAIL));
+    this.timed("jwks", this::fetchSigningKey);
+
+    this.timed(
+        "requests",
+        () -> {
+          for (int i = 0; i < catalogConfig.getWarmupRequests(); i++) {
+            Map<String, String> page = pages.get(i % pages.size());
+            Long sku = skus.isEmpty() ? null : skus.get(i % skus.size());
+            this.inRequest(() -> this.request(page, sku));
+          }
+          return null;
+        });
+  }
+
+  /**
+   * One synthetic list page and detail page view of an anonymous user
+   *
+   * @param page list page parameters
+   * @param sku shown article, null if the catalog is empty
+   * @return nothing
+   */
+  private Void request(Map<String, String> page, Long sku) {
+    HttpServletRequest request = SyntheticRequest.of(page);
+
+    ArticleController articles = articleControllers.get();
+    articles.getPagedArticles(request);
+    articles.getPageNumbers(request, 3);
+    articles.existsPreviousPage(request);
+    articles.existsNextPage(request);
+
+    CategoryController categories = categoryControllers.get();
+    for (String uuid : categories.getCategories().values()) {
+      categories.getCategoryCounts(uuid);
+    }
+    categories.getSelectedMainCategory(request);
+    for (Subcategory subcategory : categories.getSubcategories(request)) {
+      if (subcategory != null) {
+        categories.getSubcategoryCounts(subcategory.getUuid());
+      }
+    }
+
+    ShoppingCartController cart = shoppingCartControllers.get();
+    cart.getShoppingCartEntries(request);
+    if (sku != null) {
+      articles.setArticleDetail(SyntheticRequest.of(Map.of("sku", String.valueOf(sku))));
+      Article detail = articles.getArticleDetail();
+      if (detail != null) {
+        cart.getMaxAmount(1, detail);
+      }
+    }
+    return null;
+  }
+
+  private List<Category> getTopCategories(CategoryTree tree) {
+    FacetCounts counts = facets.getCounts();
+    return tree.getCategories().stream()
+        .sorted(
+            Comparator.comparingInt(
+                    (Category category) -> counts.getCategory(category.getUuid()).getTotal())
+                .reversed())
+        .limit(catalogConfig.getWarmupCategories())
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * The api filter fetches the signing key of the login provider on its first request. An
+   * unreachable provider only affects the api, so it doesn't fail the warmup
+   */
+  private Object fetchSigningKey() {
+    try {
+      return JwksKeyProvider.getPublicKey();
+    } catch (RuntimeException e) {
+      LOGGER.log(Level.WARNING, "Failed to fetch the signing key during warmup", e);
+      return null;
+    }
+  }
+
+  /** Run within a new request scope, request scoped controllers are created for it */
+  private <T> T inRequest(Supplier<T> work) {
+    requestContext.activate();
+    try {
+      return work.get();
+    } finally {
+      requestContext.deactivate();
+    }
+  }
+
+  private <T> T timed(String step, Supplier<T> work) {
+    long start = System.nanoTime();
+    T result = work.get();
+    durations.put(step, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    return result;
+  }
+}
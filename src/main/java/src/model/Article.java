@@ -6,12 +6,25 @@ import java.util.List;
 import java.util.Optional;
 import lombok.Getter;
 import lombok.Setter;
+import src.utils.PriceUtils;
 
 @Getter
 @Setter
 @Entity
+@Cacheable
 @SuppressWarnings("unused")
 @Table(name = "article")
+@NamedEntityGraph(name = "Article.tile", attributeNodes = @NamedAttributeNode("imageList"))
+@NamedEntityGraph(
+    name = "Article.detail",
+    attributeNodes = {
+      @NamedAttributeNode("imageList"),
+      @NamedAttributeNode(value = "subcategory", subgraph = "subcategory")
+    },
+    subgraphs =
+        @NamedSubgraph(
+            name = "subcategory",
+            attributeNodes = @NamedAttributeNode("rootCategory")))
 public class Article implements Serializable {
 
   @Id
@@ -35,6 +48,10 @@ public class Article implements Serializable {
   @Column(name = "available")
   private Boolean available;
 
+  // 1 - sellingPrice / listPrice, generated by the database to sort by discount
+  @Column(name = "discount", insertable = false, updatable = false)
+  private Double discount;
+
   @Column(name = "stock")
   private int stock;
 
@@ -54,12 +71,7 @@ public class Article implements Serializable {
    * @return formatted discount
    */
   public String getDiscountPercent() {
-    if (this.getListPrice() == null) {
-      return null;
-    }
-
-    // 100 - percentage of selling price relative to list price
-    return Math.round((100 - (this.getSellingPrice() / this.getListPrice()) * 100)) + "";
+    return PriceUtils.formatDiscountPercent(this.getSellingPrice(), this.getListPrice());
   }
 
   /**
@@ -68,10 +80,7 @@ public class Article implements Serializable {
    * @return formatted price
    */
   public String formatPrice() {
-    if (this.getListPrice() != null && this.available) {
-      return String.format("%.2f was %.2f CHF", this.getSellingPrice(), this.getListPrice());
-    }
-    return String.format("%.2f CHF", this.getSellingPrice());
+    return PriceUtils.formatPrice(this.getSellingPrice(), this.getListPrice(), this.available);
   }
 
   /**
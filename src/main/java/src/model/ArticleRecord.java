@@ -0,0 +1,123 @@
+package src.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import lombok.Getter;
+
+/**
+ * Immutable in-memory copy of an article and its images, held by the catalog read model. It is
+ * shared by all requests, views receive detached copies ({@link #toArticle()}) or tiles
+ */
+@Getter
+public class ArticleRecord implements Serializable {
+
+  private final long sku;
+  private final String title;
+  private final String description;
+  private final Double sellingPrice;
+  private final Double listPrice;
+  private final Boolean available;
+  private final int stock;
+  private final Double discount;
+  private final String subcategoryUuid;
+  private final String categoryUuid;
+
+  // ordered by position
+  private final List<Image> images;
+
+  public ArticleRecord(
+      long sku,
+      String title,
+      String description,
+      Double sellingPrice,
+      Double listPrice,
+      Boolean available,
+      int stock,
+      Double discount,
+      String subcategoryUuid,
+      String categoryUuid,
+      List<Image> images) {
+    this.sku = sku;
+    this.title = title;
+    this.description = description;
+    this.sellingPrice = sellingPrice;
+    this.listPrice = listPrice;
+    this.available = available;
+    this.stock = stock;
+    this.discount = discount;
+    this.subcategoryUuid = subcategoryUuid;
+    this.categoryUuid = categoryUuid;
+    this.images = Collections.unmodifiableList(new ArrayList<>(images));
+  }
+
+  /**
+   * Get url of main article image
+   *
+   * @return image url, empty if the article has no image at position 1
+   */
+  public String getPrimaryImageURL() {
+    for (Image image : images) {
+      if (image.position != null && image.position == 1) {
+        return image.imageURL;
+      }
+    }
+    return "";
+  }
+
+  /**
+   * @return tile of the list page
+   */
+  public ArticleTile toTile() {
+    return new ArticleTile(
+        sku, title, sellingPrice, listPrice, available, this.getPrimaryImageURL());
+  }
+
+  /**
+   * Create a detached article with its images. It isn't managed by the persistence context, the
+   * subcategory association isn't set
+   *
+   * @return new article
+   */
+  public Article toArticle() {
+    Article article = new Article();
+    article.setSku(sku);
+    article.setTitle(title);
+    article.setDescription(description);
+    article.setSellingPrice(sellingPrice);
+    article.setListPrice(listPrice);
+    article.setAvailable(available);
+    article.setStock(stock);
+    article.setDiscount(discount);
+    article.setSubcategoryUuid(subcategoryUuid);
+
+    List<ArticleImage> imageList = new ArrayList<>();
+    for (Image image : images) {
+      ArticleImage articleImage = new ArticleImage();
+      articleImage.setUuid(image.uuid);
+      articleImage.setArticleSku(sku);
+      articleImage.setImageURL(image.imageURL);
+      articleImage.setPosition(image.position);
+      articleImage.setArticle(article);
+      imageList.add(articleImage);
+    }
+    article.setImageList(imageList);
+    return article;
+  }
+
+  /** One image of an article */
+  @Getter
+  public static class Image implements Serializable {
+
+    private final String uuid;
+    private final String imageURL;
+    private final Integer position;
+
+    public Image(String uuid, String imageURL, Integer position) {
+      this.uuid = uuid;
+      this.imageURL = imageURL;
+      this.position = position;
+    }
+  }
+}
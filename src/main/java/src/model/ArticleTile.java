@@ -0,0 +1,53 @@
+package src.model;
+
+import java.io.Serializable;
+import lombok.Getter;
+import src.utils.PriceUtils;
+
+/**
+ * Read-only projection of an article containing only what a tile of the list page shows. It is
+ * created directly by a constructor expression query and never managed by the persistence context
+ */
+@Getter
+public class ArticleTile implements Serializable {
+
+  private final long sku;
+  private final String title;
+  private final Double sellingPrice;
+  private final Double listPrice;
+  private final Boolean available;
+  private final String primaryImageURL;
+
+  public ArticleTile(
+      long sku,
+      String title,
+      Double sellingPrice,
+      Double listPrice,
+      Boolean available,
+      String primaryImageURL) {
+    this.sku = sku;
+    this.title = title;
+    this.sellingPrice = sellingPrice;
+    this.listPrice = listPrice;
+    this.available = available;
+    this.primaryImageURL = primaryImageURL == null ? "" : primaryImageURL;
+  }
+
+  /**
+   * Get discount of article in percent
+   *
+   * @return formatted discount
+   */
+  public String getDiscountPercent() {
+    return PriceUtils.formatDiscountPercent(sellingPrice, listPrice);
+  }
+
+  /**
+   * Format article price with two decimal places and CHF currency
+   *
+   * @return formatted price
+   */
+  public String formatPrice() {
+    return PriceUtils.formatPrice(sellingPrice, listPrice, available);
+  }
+}
@@ -5,6 +5,9 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
@@ -13,6 +16,10 @@ import lombok.Setter;
 @Setter
 @Entity
 @Table(name = "shopping_cart")
+@NamedEntityGraph(
+    name = "ShoppingCart.cart",
+    attributeNodes = @NamedAttributeNode(value = "article", subgraph = "article"),
+    subgraphs = @NamedSubgraph(name = "article", attributeNodes = @NamedAttributeNode("imageList")))
 public class ShoppingCart {
 
   @Id
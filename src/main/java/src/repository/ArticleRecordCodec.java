@@ -0,0 +1,164 @@
+package src.repository;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import src.model.ArticleRecord;
+
+/**
+ * Binary form of {@link ArticleRecord}s shared by the {@link MappedArticleStore} and the {@link
+ * CatalogDump}. Strings are length-prefixed UTF-8, nullable numbers carry a presence byte. An
+ * instance reuses its encoding buffer and must not be shared between threads
+ */
+class ArticleRecordCodec {
+
+  private static final int NULL_LENGTH = -1;
+  private static final int NULL_POSITION = Integer.MIN_VALUE;
+
+  private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+
+  /**
+   * Encode a record
+   *
+   * @param record article
+   * @return encoded record, valid until the next call
+   */
+  ByteBuffer encode(ArticleRecord record) {
+    buffer.clear();
+    this.putLong(record.getSku());
+    this.putString(record.getTitle());
+    this.putString(record.getDescription());
+    this.putDouble(record.getSellingPrice());
+    this.putDouble(record.getListPrice());
+    this.ensure(1 + 4);
+    Boolean available = record.getAvailable();
+    buffer.put((byte) (available == null ? 2 : available ? 1 : 0));
+    buffer.putInt(record.getStock());
+    this.putDouble(record.getDiscount());
+    this.putString(record.getSubcategoryUuid());
+    this.putString(record.getCategoryUuid());
+
+    this.ensure(4);
+    buffer.putInt(record.getImages().size());
+    for (ArticleRecord.Image image : record.getImages()) {
+      this.putString(image.getUuid());
+      this.putString(image.getImageURL());
+      this.ensure(4);
+      buffer.putInt(image.getPosition() == null ? NULL_POSITION : image.getPosition());
+    }
+    return buffer.flip();
+  }
+
+  /**
+   * Encode nullable strings one after another
+   *
+   * @param values strings
+   * @return encoded strings, valid until the next call
+   */
+  ByteBuffer encode(String... values) {
+    buffer.clear();
+    for (String value : values) {
+      this.putString(value);
+    }
+    return buffer.flip();
+  }
+
+  /**
+   * Decode a record at the position of the buffer
+   *
+   * @param data encoded record, its position is moved behind the record
+   * @return decoded record
+   */
+  static ArticleRecord decode(ByteBuffer data) {
+    long sku = data.getLong();
+    String title = readString(data);
+    String description = readString(data);
+    Double sellingPrice = readDouble(data);
+    Double listPrice = readDouble(data);
+    byte available = data.get();
+    int stock = data.getInt();
+    Double discount = readDouble(data);
+    String subcategoryUuid = readString(data);
+    String categoryUuid = readString(data);
+
+    int imageCount = data.getInt();
+    List<ArticleRecord.Image> images = new ArrayList<>(imageCount);
+    for (int i = 0; i < imageCount; i++) {
+      String uuid = readString(data);
+      String imageURL = readString(data);
+      int position = data.getInt();
+      images.add(
+          new ArticleRecord.Image(uuid, imageURL, position == NULL_POSITION ? null : position));
+    }
+
+    return new ArticleRecord(
+        sku,
+        title,
+        description,
+        sellingPrice,
+        listPrice,
+        available == 2 ? null : available == 1,
+        stock,
+        discount,
+        subcategoryUuid,
+        categoryUuid,
+        images);
+  }
+
+  /**
+   * Decode a nullable string at the position of the buffer
+   *
+   * @param data encoded string, its position is moved behind the string
+   * @return decoded string
+   */
+  static String readString(ByteBuffer data) {
+    int length = data.getInt();
+    if (length == NULL_LENGTH) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    data.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static Double readDouble(ByteBuffer data) {
+    return data.get() == 0 ? null : data.getDouble();
+  }
+
+  private void putLong(long value) {
+    this.ensure(8);
+    buffer.putLong(value);
+  }
+
+  private void putDouble(Double value) {
+    this.ensure(1 + 8);
+    if (value == null) {
+      buffer.put((byte) 0);
+    } else {
+      buffer.put((byte) 1).putDouble(value);
+    }
+  }
+
+  private void putString(String value) {
+    if (value == null) {
+      this.ensure(4);
+      buffer.putInt(NULL_LENGTH);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    this.ensure(4 + bytes.length);
+    buffer.putInt(bytes.length).put(bytes);
+  }
+
+  /** Grow the buffer if needed */
+  private void ensure(int bytes) {
+    if (buffer.remaining() < bytes) {
+      ByteBuffer larger =
+          ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+      buffer.flip();
+      larger.put(buffer);
+      this.buffer = larger;
+    }
+  }
+}
@@ -1,47 +1,915 @@
 package src.repository;
 
 import jakarta.enterprise.context.ApplicationScoped;
-import jakarta.persistence.CacheRetrieveMode;
+import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 import jakarta.transaction.Transactional;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
+import src.config.CatalogConfig;
 import src.model.Article;
 import src.model.ArticleImage;
+import src.model.ArticleRecord;
+import src.model.ArticleTile;
 import src.model.Subcategory;
+import src.search.ArticlePriceIndex;
+import src.search.ArticleSearchIndex;
+import src.search.SearchMode;
+import src.utils.LongObjectMap;
+import src.utils.SortedLongList;
 import src.utils.StringUtils;
 
 @ApplicationScoped
 @Transactional
 public class ArticleRepository {
 
+  // only the first skus of a result are cached, deeper pages are answered by the database
+  private static final int MAX_CACHED_SKUS = 1000;
+
   @PersistenceContext EntityManager entitymanager;
+  @Inject CatalogConfig catalogConfig;
+  @Inject ArticleSearchIndex searchIndex;
+  @Inject ArticlePriceIndex priceIndex;
+  @Inject SearchResultCache resultCache;
+  @Inject CatalogReadModel readModel;
+  @Inject CatalogChangeBus catalogChangeBus;
 
   /**
    * Find all articles
    *
    * @param categoryUuidStr main category uuid
    * @param subcategoryUuidStr subcategory uuid
-   * @param query search term
+   * @param query search term, misspelled terms are corrected if searched in the index
+   * @param filter price range and availability
+   * @param sort sort option
    * @return list of matching articles
    */
   public List<Article> getArticles(
-      String categoryUuidStr, String subcategoryUuidStr, String query) {
+      String categoryUuidStr,
+      String subcategoryUuidStr,
+      String query,
+      PriceFilter filter,
+      ArticleSort sort) {
+    List<Long> cached =
+        this.findCachedPage(
+            categoryUuidStr, subcategoryUuidStr, query, filter, sort, 0, Integer.MAX_VALUE);
+    if (cached != null) {
+      return this.getArticlesBySkus(cached);
+    }
+
+    Matches matches = this.findInMemory(categoryUuidStr, subcategoryUuidStr, query, filter);
+    if (matches != null) {
+      return this.getArticlesBySkus(this.pageSkus(matches, sort, 0, Integer.MAX_VALUE));
+    }
+    if (this.useFullTextSearch(query)) {
+      return this.getArticlesBySkus(
+          this.findFullTextSkus(
+              categoryUuidStr,
+              subcategoryUuidStr,
+              query,
+              filter,
+              sort,
+              null,
+              0,
+              Integer.MAX_VALUE));
+    }
+
     CriteriaBuilder cb = entitymanager.getCriteriaBuilder();
     CriteriaQuery<Article> cq = cb.createQuery(Article.class);
     Root<Article> article = cq.from(Article.class);
-    List<Predicate> predicates = new ArrayList<>();
 
     cq.select(article);
 
+    // build where clause out of single predicates
+    cq = cq.where(
+        buildPredicates(cb, article, categoryUuidStr, subcategoryUuidStr, query, filter));
+    cq.orderBy(buildOrders(cb, article, sort));
+    TypedQuery<Article> q = entitymanager.createQuery(cq);
+
+    return q.getResultList();
+  }
+
+  /**
+   * Count all articles matching the given filters, without loading them
+   *
+   * @param categoryUuidStr main category uuid
+   * @param subcategoryUuidStr subcategory uuid
+   * @param query search term
+   * @param filter price range and availability
+   * @return amount of matching articles
+   */
+  public long countArticles(
+      String categoryUuidStr, String subcategoryUuidStr, String query, PriceFilter filter) {
+    return this.getCachedResult(
+            categoryUuidStr, subcategoryUuidStr, query, filter, ArticleSort.DEFAULT)
+        .getTotalCount();
+  }
+
+  /**
+   * Count all articles matching the given filters, bypassing the result cache
+   *
+   * @param categoryUuidStr main category uuid
+   * @param subcategoryUuidStr subcategory uuid
+   * @param query search term
+   * @param filter price range and availability
+   * @return amount of matching articles
+   */
+  private long count(
+      String categoryUuidStr, String subcategoryUuidStr, String query, PriceFilter filter) {
+    Matches matches = this.findInMemory(categoryUuidStr, subcategoryUuidStr, query, filter);
+    if (matches != null) {
+      return matches.size();
+    }
+    if (this.useFullTextSearch(query)) {
+      FullTextSearchSql.Statement statement =
+          new FullTextSearchSql(query, categoryUuidStr, subcategoryUuidStr, filter).count();
+      return ((Number) this.createNativeQuery(statement).getSingleResult()).longValue();
+    }
+
+    CriteriaBuilder cb = entitymanager.getCriteriaBuilder();
+    CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+    Root<Article> article = cq.from(Article.class);
+
+    cq.select(cb.count(article));
+    cq.where(buildPredicates(cb, article, categoryUuidStr, subcategoryUuidStr, query, filter));
+
+    return entitymanager.createQuery(cq).getSingleResult();
+  }
+
+  /**
+   * Find one page of matching articles, paginated by the database (LIMIT / OFFSET)
+   *
+   * @param categoryUuidStr main category uuid
+   * @param subcategoryUuidStr subcategory uuid
+   * @param query search term
+   * @param filter price range and availability
+   * @param sort sort option
+   * @param offset index of the first article of the page
+   * @param limit page size
+   * @return matching articles of the page, by default ordered by relevance if searched in the index
+   *     or full text, else by sku
+   */
+  public List<Article> getArticlesPage(
+      String categoryUuidStr,
+      String subcategoryUuidStr,
+      String query,
+      PriceFilter filter,
+      ArticleSort sort,
+      int offset,
+      int limit) {
+    List<Long> cached =
+        this.findCachedPage(
+            categoryUuidStr, subcategoryUuidStr, query, filter, sort, offset, limit);
+    if (cached != null) {
+      return this.getArticlesBySkus(cached);
+    }
+
+    Matches matches = this.findInMemory(categoryUuidStr, subcategoryUuidStr, query, filter);
+    if (matches != null) {
+      return this.getArticlesBySkus(this.pageSkus(matches, sort, offset, limit));
+    }
+    if (this.useFullTextSearch(query)) {
+      return this.getArticlesBySkus(
+          this.findFullTextSkus(
+              categoryUuidStr, subcategoryUuidStr, query, filter, sort, null, offset, limit));
+    }
+
+    CriteriaBuilder cb = entitymanager.getCriteriaBuilder();
+    CriteriaQuery<Article> cq = cb.createQuery(Article.class);
+    Root<Article> article = cq.from(Article.class);
+
+    cq.select(article);
+    cq.where(buildPredicates(cb, article, categoryUuidStr, subcategoryUuidStr, query, filter));
+
+    // a stable order is required, otherwise pages may overlap
+    cq.orderBy(buildOrders(cb, article, sort));
+
+    List<Article> articles =
+        entitymanager
+            .createQuery(cq)
+            .setFirstResult(Math.max(offset, 0))
+            .setMaxResults(limit)
+            .getResultList();
+
+    return this.fetchImages(articles);
+  }
+
+  /**
+   * Find one page of matching articles using keyset pagination: instead of skipping <code>offset
+   * </code> rows, the database seeks directly behind the last sku of the previous page. The cost
+   * stays constant for deep pages.
+   *
+   * @param categoryUuidStr main category uuid
+   * @param subcategoryUuidStr subcategory uuid
+   * @param query search term
+   * @param filter price range and availability
+   * @param afterSku last sku of the previous page
+   * @param offset index of the first article of the page, only used if a ranked result doesn't
+   *     contain the afterSku article anymore
+   * @param limit page size
+   * @return matching articles with a sku greater than <code>afterSku</code>, ordered by sku
+   */
+  public List<Article> getArticlesAfterSku(
+      String categoryUuidStr,
+      String subcategoryUuidStr,
+      String query,
+      PriceFilter filter,
+      long afterSku,
+      int offset,
+      int limit) {
+    List<Long> cached =
+        this.findCachedPageAfterSku(
+            categoryUuidStr, subcategoryUuidStr, query, filter, afterSku, limit);
+    if (cached != null) {
+      return this.getArticlesBySkus(cached);
+    }
+
+    Matches matches = this.findInMemory(categoryUuidStr, subcategoryUuidStr, query, filter);
+    if (matches != null) {
+      int from = matches.indexAfter(afterSku);
+      return this.getArticlesBySkus(matches.slice(from < 0 ? offset : from, limit));
+    }
+    if (this.useFullTextSearch(query)) {
+      return this.getArticlesBySkus(
+          this.findFullTextSkus(
+              categoryUuidStr,
+              subcategoryUuidStr,
+              query,
+              filter,
+              ArticleSort.DEFAULT,
+              afterSku,
+              offset,
+              limit));
+    }
+
+    CriteriaBuilder cb = entitymanager.getCriteriaBuilder();
+    CriteriaQuery<Article> cq = cb.createQuery(Article.class);
+    Root<Article> article = cq.from(Article.class);
+
+    List<Predicate> predicates =
+        new ArrayList<>(
+            List.of(
+                buildPredicates(
+                    cb, article, categoryUuidStr, subcategoryUuidStr, query, filter)));
+    predicates.add(cb.greaterThan(article.<Long>get("sku"), afterSku));
+
+    cq.select(article);
+    cq.where(predicates.toArray(new Predicate[0]));
+    cq.orderBy(cb.asc(article.get("sku")));
+
+    return this.fetchImages(entitymanager.createQuery(cq).setMaxResults(limit).getResultList());
+  }
+
+  /**
+   * Find one page of list tiles, paginated by the database (LIMIT / OFFSET). The tiles are
+   * read-only projections, so no entity is hydrated or managed by the persistence context
+   *
+   * @param categoryUuidStr main category uuid
+   * @param subcategoryUuidStr subcategory uuid
+   * @param query search term
+   * @param filter price range and availability
+   * @param sort sort option
+   * @param offset index of the first tile of the page
+   * @param limit page size
+   * @return tiles of the page, by default ordered by relevance if searched in the index or full
+   *     text, else by sku
+   */
+  public List<ArticleTile> getTilesPage(
+      String categoryUuidStr,
+      String subcategoryUuidStr,
+      String query,
+      PriceFilter filter,
+      ArticleSort sort,
+      int offset,
+      int limit) {
+    List<Long> cached =
+        this.findCachedPage(
+            categoryUuidStr, subcategoryUuidStr, query, filter, sort, offset, limit);
+    if (cached != null) {
+      return this.getTilesBySkus(cached);
+    }
+
+    Matches matches = this.findInMemory(categoryUuidStr, subcategoryUuidStr, query, filter);
+    if (matches != null) {
+      return this.getTilesBySkus(this.pageSkus(matches, sort, offset, limit));
+    }
+    if (this.useFullTextSearch(query)) {
+      return this.getTilesBySkus(
+          this.findFullTextSkus(
+              categoryUuidStr, subcategoryUuidStr, query, filter, sort, null, offset, limit));
+    }
+
+    return this.createTileQuery(categoryUuidStr, subcategoryUuidStr, query, filter, null, sort)
+        .setFirstResult(Math.max(offset, 0))
+        .setMaxResults(limit)
+        .getResultList();
+  }
+
+  /**
+   * Find one page of list tiles using keyset pagination, see {@link #getArticlesAfterSku}
+   *
+   * @param categoryUuidStr main category uuid
+   * @param subcategoryUuidStr subcategory uuid
+   * @param query search term
+   * @param filter price range and availability
+   * @param afterSku last sku of the previous page
+   * @param offset index of the first tile of the page, only used if a ranked result doesn't
+   *     contain the afterSku article anymore
+   * @param limit page size
+   * @return tiles following <code>afterSku</code>
+   */
+  public List<ArticleTile> getTilesAfterSku(
+      String categoryUuidStr,
+      String subcategoryUuidStr,
+      String query,
+      PriceFilter filter,
+      long afterSku,
+      int offset,
+      int limit) {
+    List<Long> cached =
+        this.findCachedPageAfterSku(
+            categoryUuidStr, subcategoryUuidStr, query, filter, afterSku, limit);
+    if (cached != null) {
+      return this.getTilesBySkus(cached);
+    }
+
+    Matches matches = this.findInMemory(categoryUuidStr, subcategoryUuidStr, query, filter);
+    if (matches != null) {
+      int from = matches.indexAfter(afterSku);
+      return this.getTilesBySkus(matches.slice(from < 0 ? offset : from, limit));
+    }
+    if (this.useFullTextSearch(query)) {
+      return this.getTilesBySkus(
+          this.findFullTextSkus(
+              categoryUuidStr,
+              subcategoryUuidStr,
+              query,
+              filter,
+              ArticleSort.DEFAULT,
+              afterSku,
+              offset,
+              limit));
+    }
+
+    return this.createTileQuery(
+            categoryUuidStr, subcategoryUuidStr, query, filter, afterSku, ArticleSort.DEFAULT)
+        .setMaxResults(limit)
+        .getResultList();
+  }
+
+  /**
+   * Find list tiles by sku, read from the catalog read model without query
+   *
+   * @param skus skus
+   * @return tiles in the order of the given skus
+   */
+  public List<ArticleTile> getTilesBySkus(List<Long> skus) {
+    return readModel.getTiles(skus);
+  }
+
+  /**
+   * Find articles by sku, including their images
+   *
+   * @param skus skus
+   * @return articles in the order of the given skus
+   */
+  public List<Article> getArticlesBySkus(List<Long> skus) {
+    if (skus.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    List<Article> articles =
+        entitymanager
+            .createQuery(
+                "SELECT DISTINCT a FROM Article a LEFT JOIN FETCH a.imageList WHERE a.sku IN ?1",
+                Article.class)
+            .setParameter(1, skus)
+            .getResultList();
+    return orderBySkus(articles, Article::getSku, skus);
+  }
+
+  /**
+   * Get sku, title, description, selling price, list price, availability, stock, discount,
+   * subcategory uuid and main category uuid of the articles, the fields of the catalog read model.
+   * All articles are read in batches by keyset, so a large catalog is never held at once
+   *
+   * @param afterSku last sku of the previous batch
+   * @param limit batch size
+   * @return one row per article, ordered by sku
+   */
+  public List<Object[]> getArticleDocuments(long afterSku, int limit) {
+    return entitymanager
+        .createQuery(
+            "SELECT a.sku, a.title, a.description, a.sellingPrice, a.listPrice, a.available, "
+                + "a.stock, a.discount, a.subcategoryUuid, s.rootCategoryUuid "
+                + "FROM Article a LEFT JOIN a.subcategory s WHERE a.sku > ?1 ORDER BY a.sku",
+            Object[].class)
+        .setParameter(1, afterSku)
+        .setMaxResults(limit)
+        .getResultList();
+  }
+
+  /**
+   * Get the read model fields of one article, see {@link #getArticleDocuments}
+   *
+   * @param sku article sku
+   * @return row of the article, null if it doesn't exist
+   */
+  public Object[] getArticleDocument(long sku) {
+    List<Object[]> rows =
+        entitymanager
+            .createQuery(
+                "SELECT a.sku, a.title, a.description, a.sellingPrice, a.listPrice, a.available, "
+                    + "a.stock, a.discount, a.subcategoryUuid, s.rootCategoryUuid "
+                    + "FROM Article a LEFT JOIN a.subcategory s WHERE a.sku = ?1",
+                Object[].class)
+            .setParameter(1, sku)
+            .getResultList();
+    return rows.isEmpty() ? null : rows.get(0);
+  }
+
+  /**
+   * Get article sku, uuid, url and position of the images of a sku range, read along with the
+   * batches of {@link #getArticleDocuments}
+   *
+   * @param fromSku first sku, inclusive
+   * @param toSku last sku, inclusive
+   * @return one row per image, ordered by article and position
+   */
+  public List<Object[]> getImageDocuments(long fromSku, long toSku) {
+    return entitymanager
+        .createQuery(
+            "SELECT i.articleSku, i.uuid, i.imageURL, i.position FROM ArticleImage i "
+                + "WHERE i.articleSku BETWEEN ?1 AND ?2 ORDER BY i.articleSku, i.position",
+            Object[].class)
+        .setParameter(1, fromSku)
+        .setParameter(2, toSku)
+        .getResultList();
+  }
+
+  /**
+   * Get the images of one article, see {@link #getImageDocuments(long, long)}
+   *
+   * @param sku article sku
+   * @return one row per image, ordered by position
+   */
+  public List<Object[]> getImageDocuments(long sku) {
+    return entitymanager
+        .createQuery(
+            "SELECT i.articleSku, i.uuid, i.imageURL, i.position FROM ArticleImage i "
+                + "WHERE i.articleSku = ?1 ORDER BY i.position",
+            Object[].class)
+        .setParameter(1, sku)
+        .getResultList();
+  }
+
+  /**
+   * Build the constructor expression query for list tiles. The primary image (position 1) is
+   * resolved by a left join in the same statement
+   *
+   * @param categoryUuidStr main category uuid
+   * @param subcategoryUuidStr subcategory uuid
+   * @param query search term
+   * @param filter price range and availability
+   * @param afterSku last sku of the previous page, null for offset pagination
+   * @param sort sort option
+   * @return tile query
+   */
+  private TypedQuery<ArticleTile> createTileQuery(
+      String categoryUuidStr,
+      String subcategoryUuidStr,
+      String query,
+      PriceFilter filter,
+      Long afterSku,
+      ArticleSort sort) {
+    CriteriaBuilder cb = entitymanager.getCriteriaBuilder();
+    CriteriaQuery<ArticleTile> cq = cb.createQuery(ArticleTile.class);
+    Root<Article> article = cq.from(Article.class);
+
+    Join<Article, ArticleImage> primaryImage = article.join("imageList", JoinType.LEFT);
+    primaryImage.on(cb.equal(primaryImage.get("position"), 1));
+
+    List<Predicate> predicates =
+        new ArrayList<>(
+            List.of(
+                buildPredicates(
+                    cb, article, categoryUuidStr, subcategoryUuidStr, query, filter)));
+    if (afterSku != null) {
+      predicates.add(cb.greaterThan(article.<Long>get("sku"), afterSku));
+    }
+    cq.select(
+        cb.construct(
+            ArticleTile.class,
+            article.get("sku"),
+            article.get("title"),
+            article.get("sellingPrice"),
+            article.get("listPrice"),
+            article.get("available"),
+            primaryImage.get("imageURL")));
+    cq.where(predicates.toArray(new Predicate[0]));
+    cq.orderBy(buildOrders(cb, article, sort));
+
+    return entitymanager.createQuery(cq);
+  }
+
+  /**
+   * Load the images of all given articles with one JOIN FETCH query, so rendering the tiles does
+   * not lazy-load the image list of every article separately. The images can't be fetched by the
+   * paginated query itself, because LIMIT would then apply to the joined image rows
+   *
+   * @param articles articles of a page
+   * @return the same articles, with initialized image lists
+   */
+  List<Article> fetchImages(List<Article> articles) {
+    if (articles == null || articles.isEmpty()) {
+      return articles;
+    }
+
+    List<Long> skus = articles.stream().map(Article::getSku).collect(Collectors.toList());
+
+    // the result isn't needed: the fetch initializes the image lists of the managed articles
+    entitymanager
+        .createQuery(
+            "SELECT DISTINCT a FROM Article a LEFT JOIN FETCH a.imageList WHERE a.sku IN ?1",
+            Article.class)
+        .setParameter(1, skus)
+        .getResultList();
+
+    return articles;
+  }
+
+  /**
+   * Get the cached result of a query, it's loaded if it isn't cached yet
+   *
+   * @param categoryUuidStr main category uuid
+   * @param subcategoryUuidStr subcategory uuid
+   * @param query search term
+   * @param filter price range and availability
+   * @param sort sort option
+   * @return first skus and total count of the matches
+   */
+  private SkuResultCache.Result getCachedResult(
+      String categoryUuidStr,
+      String subcategoryUuidStr,
+      String query,
+      PriceFilter filter,
+      ArticleSort sort) {
+    return resultCache.get(
+        SkuResultCache.Key.of(categoryUuidStr, subcategoryUuidStr, query, filter, sort),
+        this::loadResult);
+  }
+
+  /**
+   * Get the skus of one page out of the cached result
+   *
+   * @param categoryUuidStr main category uuid
+   * @param subcategoryUuidStr subcategory uuid
+   * @param query search term
+   * @param filter price range and availability
+   * @param sort sort option
+   * @param offset index of the first sku of the page
+   * @param limit page size
+   * @return skus of the page, null if the page isn't part of the cached skus
+   */
+  private List<Long> findCachedPage(
+      String categoryUuidStr,
+      String subcategoryUuidStr,
+      String query,
+      PriceFilter filter,
+      ArticleSort sort,
+      int offset,
+      int limit) {
+    SkuResultCache.Result result =
+        this.getCachedResult(categoryUuidStr, subcategoryUuidStr, query, filter, sort);
+    long end = (long) Math.max(offset, 0) + limit;
+    if (!result.isComplete() && end > result.getSkus().length) {
+      return null;
+    }
+    return slice(result.getSkus(), offset, limit);
+  }
+
+  /**
+   * Get the skus following the given sku out of the cached result
+   *
+   * @param categoryUuidStr main category uuid
+   * @param subcategoryUuidStr subcategory uuid
+   * @param query search term
+   * @param filter price range and availability
+   * @param afterSku last sku of the previous page
+   * @param limit page size
+   * @return skus of the page, null if the sku or the page isn't part of the cached skus
+   */
+  private List<Long> findCachedPageAfterSku(
+      String categoryUuidStr,
+      String subcategoryUuidStr,
+      String query,
+      PriceFilter filter,
+      long afterSku,
+      int limit) {
+    long[] skus =
+        this.getCachedResult(
+                categoryUuidStr, subcategoryUuidStr, query, filter, ArticleSort.DEFAULT)
+            .getSkus();
+    int from = indexAfter(skus, afterSku);
+
+    // a deleted sku is not contained, the uncached lookup falls back to the offset
+    if (from < 0) {
+      return null;
+    }
+    return this.findCachedPage(
+        categoryUuidStr, subcategoryUuidStr, query, filter, ArticleSort.DEFAULT, from, limit);
+  }
+
+  /**
+   * Load the first skus and the total count of a query for the result cache
+   *
+   * @param key normalized query
+   * @return loaded result
+   */
+  private SkuResultCache.Result loadResult(SkuResultCache.Key key) {
+    String categoryUuidStr = key.getCategoryUuid();
+    String subcategoryUuidStr = key.getSubcategoryUuid();
+    String query = key.getQuery();
+    PriceFilter filter = key.getFilter();
+
+    Matches matches = this.findInMemory(categoryUuidStr, subcategoryUuidStr, query, filter);
+    if (matches != null) {
+      List<Long> skus = this.pageSkus(matches, key.getSort(), 0, MAX_CACHED_SKUS);
+      return new SkuResultCache.Result(toArray(skus), matches.size());
+    }
+
+    List<Long> skus;
+    if (this.useFullTextSearch(query)) {
+      skus =
+          this.findFullTextSkus(
+              categoryUuidStr,
+              subcategoryUuidStr,
+              query,
+              filter,
+              key.getSort(),
+              null,
+              0,
+              MAX_CACHED_SKUS);
+    } else {
+      CriteriaBuilder cb = entitymanager.getCriteriaBuilder();
+      CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+      Root<Article> article = cq.from(Article.class);
+
+      cq.select(article.<Long>get("sku"));
+      cq.where(
+          buildPredicates(cb, article, categoryUuidStr, subcategoryUuidStr, query, filter));
+      cq.orderBy(buildOrders(cb, article, key.getSort()));
+      skus = entitymanager.createQuery(cq).setMaxResults(MAX_CACHED_SKUS).getResultList();
+    }
+
+    // a shorter result contains all matches, no need to count them
+    long totalCount =
+        skus.size() < MAX_CACHED_SKUS
+            ? skus.size()
+            : this.count(categoryUuidStr, subcategoryUuidStr, query, filter);
+    return new SkuResultCache.Result(toArray(skus), totalCount);
+  }
+
+  /**
+   * Search terms are resolved by the in-memory index if configured, otherwise by the LIKE predicate
+   *
+   * @param query search term
+   * @return whether the search index answers the query
+   */
+  private boolean useSearchIndex(String query) {
+    return !StringUtils.isEmpty(query) && catalogConfig.getSearchMode() == SearchMode.INDEX;
+  }
+
+  /**
+   * Find all matches in memory if possible: search terms are resolved by the search index if
+   * configured, price and stock filters by the price index, plain category listings by the read
+   * model
+   *
+   * @param categoryUuidStr main category uuid
+   * @param subcategoryUuidStr subcategory uuid
+   * @param query search term
+   * @param filter price range and availability
+   * @return matching skus ordered by relevance if searched, else by sku, plain listings share the
+   *     sku list of the read model. Null if the database has to answer the query
+   */
+  private Matches findInMemory(
+      String categoryUuidStr, String subcategoryUuidStr, String query, PriceFilter filter) {
+    if (this.useSearchIndex(query)) {
+      long[] skus = searchIndex.search(query, categoryUuidStr, subcategoryUuidStr);
+      return new Matches(
+          filter.isEmpty()
+              ? skus
+              : retain(skus, priceIndex.find(categoryUuidStr, subcategoryUuidStr, filter)));
+    }
+    if (StringUtils.isEmpty(query) && !filter.isEmpty()) {
+      long[] skus = priceIndex.find(categoryUuidStr, subcategoryUuidStr, filter);
+      Arrays.sort(skus);
+      return new Matches(skus);
+    }
+    if (StringUtils.isEmpty(query)) {
+      return new Matches(readModel.getSkus(categoryUuidStr, subcategoryUuidStr));
+    }
+    return null;
+  }
+
+  /**
+   * Find the skus of one page of in-memory matches. Their own order is the default one, any other
+   * sort option is applied by the read model to the same matches, so the pages always agree with
+   * the count
+   *
+   * @param matches matches of {@link #findInMemory}
+   * @param sort sort option, DEFAULT keeps the order of the matches
+   * @param offset index of the first sku of the page
+   * @param limit page size
+   * @return skus of the page
+   */
+  private List<Long> pageSkus(Matches matches, ArticleSort sort, int offset, int limit) {
+    if (sort == ArticleSort.DEFAULT) {
+      return matches.slice(offset, limit);
+    }
+
+    // only the skus up to the end of the page are ordered
+    int end = (int) Math.min((long) Math.max(offset, 0) + limit, matches.size());
+    return slice(readModel.sort(matches.stream(), sort, end), offset, limit);
+  }
+
+  /**
+   * Search terms are resolved by the PostgreSQL full text search if configured (requires
+   * db/fulltext_search.sql)
+   *
+   * @param query search term
+   * @return whether the full text search answers the query
+   */
+  private boolean useFullTextSearch(String query) {
+    return !StringUtils.isEmpty(query) && catalogConfig.getSearchMode() == SearchMode.FULLTEXT;
+  }
+
+  /**
+   * Find the skus of one page of full text matches. The matching and ranking run on the GIN and
+   * trigram indexes, only the skus of the page are returned
+   *
+   * @param categoryUuidStr main category uuid
+   * @param subcategoryUuidStr subcategory uuid
+   * @param query search term
+   * @param filter price range and availability
+   * @param sort sort option, DEFAULT orders by rank
+   * @param afterSku last sku of the previous page, null for offset pagination
+   * @param offset index of the first sku of the page
+   * @param limit page size
+   * @return skus ordered by rank or the sort option, then by sku
+   */
+  private List<Long> findFullTextSkus(
+      String categoryUuidStr,
+      String subcategoryUuidStr,
+      String query,
+      PriceFilter filter,
+      ArticleSort sort,
+      Long afterSku,
+      int offset,
+      int limit) {
+    FullTextSearchSql.Statement statement =
+        new FullTextSearchSql(query, categoryUuidStr, subcategoryUuidStr, filter)
+            .page(sort, afterSku, offset, limit);
+
+    List<?> rows = this.createNativeQuery(statement).getResultList();
+    return rows.stream().map(row -> ((Number) row).longValue()).collect(Collectors.toList());
+  }
+
+  private Query createNativeQuery(FullTextSearchSql.Statement statement) {
+    Query nativeQuery = entitymanager.createNativeQuery(statement.getSql());
+    List<Object> parameters = statement.getParameters();
+    for (int i = 0; i < parameters.size(); i++) {
+      nativeQuery.setParameter(i + 1, parameters.get(i));
+    }
+    return nativeQuery;
+  }
+
+  /**
+   * Get a page out of an ordered sku array
+   *
+   * @param skus ordered skus
+   * @param offset index of the first sku of the page
+   * @param limit page size
+   * @return skus of the page
+   */
+  private static List<Long> slice(long[] skus, int offset, int limit) {
+    int from = Math.min(Math.max(offset, 0), skus.length);
+    int to = (int) Math.min((long) from + limit, skus.length);
+    return Arrays.stream(skus, from, to).boxed().collect(Collectors.toList());
+  }
+
+  private static long[] toArray(List<Long> skus) {
+    return skus.stream().mapToLong(Long::longValue).toArray();
+  }
+
+  /**
+   * Keep the skus contained in the allowed ones
+   *
+   * @param skus ordered skus
+   * @param allowed allowed skus in any order
+   * @return contained skus in their original order
+   */
+  private static long[] retain(long[] skus, long[] allowed) {
+    long[] sortedAllowed = allowed.clone();
+    Arrays.sort(sortedAllowed);
+    return Arrays.stream(skus)
+        .filter(sku -> Arrays.binarySearch(sortedAllowed, sku) >= 0)
+        .toArray();
+  }
+
+  /**
+   * Find the position following the given sku, used for keyset pagination over ranked results
+   *
+   * @param skus ordered skus
+   * @param afterSku last sku of the previous page
+   * @return index of the following sku, -1 if the sku isn't contained
+   */
+  private static int indexAfter(long[] skus, long afterSku) {
+    for (int i = 0; i < skus.length; i++) {
+      if (skus[i] == afterSku) {
+        return i + 1;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Restore the order of the given skus, an IN query returns the rows in any order
+   *
+   * @param items items to order
+   * @param skuOf sku getter of an item
+   * @param skus skus in the expected order
+   * @return items ordered like the skus
+   */
+  private static <T> List<T> orderBySkus(
+      List<T> items, ToLongFunction<T> skuOf, List<Long> skus) {
+    LongObjectMap<T> itemsBySku = new LongObjectMap<>(items.size());
+    items.forEach(item -> itemsBySku.put(skuOf.applyAsLong(item), item));
+
+    return skus.stream()
+        .map(itemsBySku::get)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Build the order of a sort option, the sku always breaks ties so pages are stable
+   *
+   * @param cb criteria builder
+   * @param article query root
+   * @param sort sort option
+   * @return orders for the order by clause
+   */
+  private List<Order> buildOrders(CriteriaBuilder cb, Root<Article> article, ArticleSort sort) {
+    List<Order> orders = new ArrayList<>();
+
+    Path<Object> key = article.get(sort.getAttribute());
+    orders.add(sort.isDescending() ? cb.desc(key) : cb.asc(key));
+    if (!sort.isSkuOrder()) {
+      orders.add(cb.asc(article.get("sku")));
+    }
+    return orders;
+  }
+
+  /**
+   * Build the filter predicates shared by all catalog queries
+   *
+   * @param cb criteria builder
+   * @param article query root
+   * @param categoryUuidStr main category uuid
+   * @param subcategoryUuidStr subcategory uuid
+   * @param query search term
+   * @param filter price range and availability
+   * @return predicates for the where clause
+   */
+  private Predicate[] buildPredicates(
+      CriteriaBuilder cb,
+      Root<Article> article,
+      String categoryUuidStr,
+      String subcategoryUuidStr,
+      String query,
+      PriceFilter filter) {
+    List<Predicate> predicates = new ArrayList<>();
+
     // if main category uuid is provided, join via subcategory to main category
     if (!StringUtils.isEmpty(categoryUuidStr)) {
       Join<Article, Subcategory> subcategoryJoin = article.join("subcategory");
@@ -58,27 +926,42 @@ public class ArticleRepository {
       predicates.add(cb.like(cb.lower(article.get("title")), "%" + query.toLowerCase() + "%"));
     }
 
-    // build where clause out of single predicates
-    cq = cq.where(predicates.toArray(new Predicate[0]));
-    TypedQuery<Article> q = entitymanager.createQuery(cq);
+    // price range and availability, bounds are inclusive
+    if (filter.getMinPrice() != null) {
+      predicates.add(cb.ge(article.<Double>get("sellingPrice"), filter.getMinPrice()));
+    }
+    if (filter.getMaxPrice() != null) {
+      predicates.add(cb.le(article.<Double>get("sellingPrice"), filter.getMaxPrice()));
+    }
+    if (filter.isInStockOnly()) {
+      predicates.add(cb.isTrue(article.<Boolean>get("available")));
+      predicates.add(cb.gt(article.<Integer>get("stock"), 0));
+    }
 
-    return q.getResultList();
+    return predicates.toArray(new Predicate[0]);
   }
 
   /**
-   * Find article by sku
+   * Find article by sku, read from the catalog read model without query
    *
    * @param sku article sku
-   * @return matching article
+   * @return detached copy of the matching article including its images, null if none matches
    */
   public Article findBySku(long sku) {
-    try {
-      entitymanager.getEntityManagerFactory().getCache().evictAll();
-      return entitymanager.find(Article.class, sku);
-    } catch (Exception e) {
-      // none or several results found
-      return null;
-    }
+    ArticleRecord record = readModel.find(sku);
+    return record == null ? null : record.toArticle();
+  }
+
+  /**
+   * Get the load and coalescing counts of the result cache misses
+   *
+   * @param topKeys amount of most coalesced keys to report
+   * @return statistics by load type
+   */
+  public Map<String, Map<String, Object>> getLoadStatistics(int topKeys) {
+    Map<String, Map<String, Object>> result = new TreeMap<>();
+    result.put("results", resultCache.getLoads().getStatistics(topKeys));
+    return result;
   }
 
   /**
@@ -89,6 +972,7 @@ public class ArticleRepository {
   @Transactional
   public void save(Article article) {
     entitymanager.persist(article);
+    catalogChangeBus.publish(CatalogChangeEvent.article(article.getSku(), false));
   }
 
   /**
@@ -99,6 +983,7 @@ public class ArticleRepository {
   @Transactional
   public void merge(Article article) {
     entitymanager.merge(article);
+    catalogChangeBus.publish(CatalogChangeEvent.article(article.getSku(), false));
   }
 
   /**
@@ -112,6 +997,7 @@ public class ArticleRepository {
         .createQuery("DELETE FROM Article a WHERE a.sku = ?1")
         .setParameter(1, Long.parseLong(sku))
         .executeUpdate();
+    catalogChangeBus.publish(CatalogChangeEvent.article(Long.parseLong(sku), true));
   }
 
   /**
@@ -122,6 +1008,9 @@ public class ArticleRepository {
   @Transactional
   public void save(ArticleImage articleImage) {
     entitymanager.persist(articleImage);
+    catalogChangeBus.publish(
+        CatalogChangeEvent.articleImage(
+            articleImage.getUuid(), articleImage.getArticleSku(), false));
   }
 
   /**
@@ -132,18 +1021,84 @@ public class ArticleRepository {
   @Transactional
   public void merge(ArticleImage articleImage) {
     entitymanager.merge(articleImage);
+    catalogChangeBus.publish(
+        CatalogChangeEvent.articleImage(
+            articleImage.getUuid(), articleImage.getArticleSku(), false));
+  }
+
+  /**
+   * Find article image by uuid
+   *
+   * @param uuid articleImage uuid
+   * @return matching article image
+   */
+  public ArticleImage findArticleImageByUuid(String uuid) {
+    try {
+      return entitymanager.find(ArticleImage.class, uuid);
+    } catch (Exception e) {
+      return null;
+    }
   }
 
   /**
    * Delete entity
    *
    * @param uuid articleImage uuid
+   * @return sku of the owning article, null if the image didn't exist
    */
   @Transactional
-  public void deleteByArticleImageUuid(String uuid) {
+  public Long deleteByArticleImageUuid(String uuid) {
+    // remember the owning article, its cached image list is stale afterwards
+    ArticleImage articleImage = this.findArticleImageByUuid(uuid);
+    Long articleSku = articleImage == null ? null : articleImage.getArticleSku();
     entitymanager
         .createQuery("DELETE FROM ArticleImage a WHERE a.uuid = ?1")
         .setParameter(1, uuid)
         .executeUpdate();
+    catalogChangeBus.publish(CatalogChangeEvent.articleImage(uuid, articleSku, true));
+    return articleSku;
+  }
+
+  /**
+   * Ordered in-memory matches, either found by an index or the shared sku list of a category,
+   * which is never copied as a whole
+   */
+  private static final class Matches {
+
+    // null if the matches are a sku list
+    private final long[] skus;
+    private final SortedLongList list;
+
+    Matches(long[] skus) {
+      this.skus = skus;
+      this.list = null;
+    }
+
+    Matches(SortedLongList list) {
+      this.skus = null;
+      this.list = list;
+    }
+
+    int size() {
+      return skus != null ? skus.length : list.size();
+    }
+
+    List<Long> slice(int offset, int limit) {
+      return skus != null
+          ? ArticleRepository.slice(skus, offset, limit)
+          : ArticleRepository.slice(list.slice(offset, limit), 0, limit);
+    }
+
+    LongStream stream() {
+      return skus != null ? Arrays.stream(skus) : list.stream();
+    }
+
+    int indexAfter(long afterSku) {
+      if (skus != null) {
+        return ArticleRepository.indexAfter(skus, afterSku);
+      }
+      int index = list.indexOf(afterSku);
+      return index < 0 ? -1 : index + 1;
+    }
   }
 }
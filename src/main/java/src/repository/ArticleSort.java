@@ -0,0 +1,60 @@
+package src.repository;
+
+import lombok.Getter;
+
+/**
+ * Sort options of the article listing. Every option is backed by a composite index ending with the
+ * sku (see db/article_sort.sql), the sku also breaks ties, so pages are stable across requests and
+ * read in index order
+ */
+@Getter
+public enum ArticleSort {
+  // by sku, search results by relevance
+  DEFAULT(null, "sku", "sku", false),
+  PRICE_ASC("price-asc", "sellingPrice", "selling_price", false),
+  PRICE_DESC("price-desc", "sellingPrice", "selling_price", true),
+  // highest discount first
+  DISCOUNT("discount", "discount", "discount", true),
+  TITLE("title", "title", "title", false),
+  // skus are assigned ascending, the highest one is the newest article
+  NEWEST("newest", "sku", "sku", true);
+
+  // value of the sort request parameter
+  private final String parameter;
+  // sorted entity attribute
+  private final String attribute;
+  // sorted column
+  private final String column;
+  private final boolean descending;
+
+  ArticleSort(String parameter, String attribute, String column, boolean descending) {
+    this.parameter = parameter;
+    this.attribute = attribute;
+    this.column = column;
+    this.descending = descending;
+  }
+
+  /**
+   * Whether the sku itself is sorted, otherwise it is appended as tie breaker
+   *
+   * @return whether the option sorts by sku
+   */
+  public boolean isSkuOrder() {
+    return "sku".equals(attribute);
+  }
+
+  /**
+   * Find the option of a request parameter value
+   *
+   * @param parameter sort request parameter
+   * @return matching option, DEFAULT if missing or unknown
+   */
+  public static ArticleSort fromParameter(String parameter) {
+    for (ArticleSort sort : values()) {
+      if (sort.parameter != null && sort.parameter.equals(parameter)) {
+        return sort;
+      }
+    }
+    return DEFAULT;
+  }
+}
@@ -0,0 +1,119 @@
+package src.repository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import src.model.Article;
+import src.model.ArticleImage;
+import src.model.Category;
+import src.model.Subcategory;
+
+/**
+ * Targeted invalidation and hit/miss statistics of the shared (second level) cache of catalog
+ * entities. Region sizes and expiry are configured in META-INF/eclipselink-orm.xml, hits and misses
+ * are counted by the {@link CatalogCacheProfiler}
+ */
+@ApplicationScoped
+public class CatalogCache {
+
+  // the cache regions of the catalog, see eclipselink-orm.xml
+  private static final List<Class<?>> REGIONS =
+      List.of(Article.class, ArticleImage.class, Category.class, Subcategory.class);
+
+  @PersistenceContext EntityManager entitymanager;
+
+  private final Map<Class<?>, LongAdder> evictions = new ConcurrentHashMap<>();
+
+  /**
+   * Evict the cached state affected by a catalog write. Bulk deletes bypass the persistence
+   * context, so the cache has to be invalidated explicitly
+   *
+   * @param event changed entity
+   */
+  public void onCatalogChange(@Observes CatalogChangeEvent event) {
+    switch (event.getEntityType()) {
+      case ARTICLE:
+        this.evict(Article.class, event.getArticleSku());
+
+        // images of a deleted article are removed by the database cascade
+        if (event.isDeleted()) {
+          this.evictAll(ArticleImage.class);
+        }
+        break;
+      case ARTICLE_IMAGE:
+        this.evict(ArticleImage.class, event.getKey());
+
+        // the image list of the owning article is cached with the article
+        if (event.getArticleSku() != null) {
+          this.evict(Article.class, event.getArticleSku());
+        }
+        break;
+      case CATEGORY:
+        this.evict(Category.class, event.getKey());
+
+        // cached subcategories and articles hold references to the category
+        this.evictAll(Subcategory.class);
+        this.evictAll(Article.class);
+        break;
+      case SUBCATEGORY:
+        this.evict(Subcategory.class, event.getKey());
+
+        // cached articles hold references to the subcategory
+        this.evictAll(Article.class);
+        break;
+      case CATALOG:
+        this.evictAll(Category.class);
+        this.evictAll(Subcategory.class);
+        this.evictAll(Article.class);
+        this.evictAll(ArticleImage.class);
+        break;
+    }
+  }
+
+  /**
+   * Get hit, miss and eviction counts per cache region
+   *
+   * @return statistics by region name
+   */
+  public Map<String, Map<String, Long>> getStatistics() {
+    Map<String, Map<String, Long>> result = new TreeMap<>();
+    for (Class<?> region : REGIONS) {
+      LongAdder regionEvictions = evictions.get(region);
+      result.put(
+          region.getSimpleName(),
+          Map.of(
+              "hits", CatalogCacheProfiler.getHits(region),
+              "misses", CatalogCacheProfiler.getMisses(region),
+              "evictions", regionEvictions == null ? 0 : regionEvictions.sum()));
+    }
+    return result;
+  }
+
+  private void evict(Class<?> entityClass, Object primaryKey) {
+    if (primaryKey == null) {
+      return;
+    }
+    this.getCache().evict(entityClass, primaryKey);
+    this.countEviction(entityClass);
+  }
+
+  private void evictAll(Class<?> entityClass) {
+    this.getCache().evict(entityClass);
+    this.countEviction(entityClass);
+  }
+
+  private void countEviction(Class<?> entityClass) {
+    evictions.computeIfAbsent(entityClass, k -> new LongAdder()).increment();
+  }
+
+  private Cache getCache() {
+    return entitymanager.getEntityManagerFactory().getCache();
+  }
+}
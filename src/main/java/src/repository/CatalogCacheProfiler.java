@@ -0,0 +1,65 @@
+package src.repository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.eclipse.persistence.internal.sessions.AbstractSession;
+import org.eclipse.persistence.queries.DatabaseQuery;
+import org.eclipse.persistence.sessions.SessionProfiler;
+import org.eclipse.persistence.sessions.SessionProfilerAdapter;
+
+/**
+ * Counts the hits and misses of the shared (second level) cache per entity, as reported by
+ * EclipseLink. Registered as eclipselink.profiler in META-INF/persistence.xml; EclipseLink creates
+ * the profiler itself, so the counts are static and read by {@link CatalogCache}
+ */
+public class CatalogCacheProfiler extends SessionProfilerAdapter {
+
+  private static final Map<String, LongAdder> HITS = new ConcurrentHashMap<>();
+  private static final Map<String, LongAdder> MISSES = new ConcurrentHashMap<>();
+
+  /**
+   * @return any weight but none, otherwise the session reports nothing to the profiler
+   */
+  @Override
+  public int getProfileWeight() {
+    return SessionProfiler.NORMAL;
+  }
+
+  @Override
+  public void occurred(String operationName, DatabaseQuery query, AbstractSession session) {
+    if (query == null || query.getReferenceClass() == null) {
+      return;
+    }
+    if (SessionProfiler.CacheHits.equals(operationName)) {
+      count(HITS, query.getReferenceClass());
+    } else if (SessionProfiler.CacheMisses.equals(operationName)) {
+      count(MISSES, query.getReferenceClass());
+    }
+  }
+
+  /**
+   * @param entityClass entity class (cache region)
+   * @return entities of the class found in the shared cache
+   */
+  static long getHits(Class<?> entityClass) {
+    return sum(HITS, entityClass);
+  }
+
+  /**
+   * @param entityClass entity class (cache region)
+   * @return entities of the class read from the database
+   */
+  static long getMisses(Class<?> entityClass) {
+    return sum(MISSES, entityClass);
+  }
+
+  private static void count(Map<String, LongAdder> counts, Class<?> entityClass) {
+    counts.computeIfAbsent(entityClass.getName(), k -> new LongAdder()).increment();
+  }
+
+  private static long sum(Map<String, LongAdder> counts, Class<?> entityClass) {
+    LongAdder count = counts.get(entityClass.getName());
+    return count == null ? 0 : count.sum();
+  }
+}
@@ -0,0 +1,252 @@
+package src.repository;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedThreadFactory;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+/**
+ * Keeps the in-process catalog caches of several nodes consistent. Every catalog write of this
+ * node is sent to the others with PostgreSQL NOTIFY in the transaction of the write, the writes of
+ * the others are received with LISTEN and fired again as remote {@link CatalogChangeEvent}s.
+ * Notifications sent while the listening connection is down are lost, so after every (re)connect
+ * all derived state is dropped with a {@link CatalogChangeEvent#catalog()} event. Requires
+ * db/catalog_notify.sql
+ */
+@ApplicationScoped
+public class CatalogChangeBus {
+
+  static final String CHANNEL = "catalog_changes";
+
+  // advisory lock key serializing the logged changes
+  private static final long VERSION_LOCK = 0x636174616c6f67L;
+
+  private static final Logger LOGGER = Logger.getLogger(CatalogChangeBus.class.getName());
+
+  // entities whose last version is remembered to skip duplicated and late notifications
+  private static final int MAX_TRACKED_ENTITIES = 100000;
+
+  // wait for notifications, then check the connection
+  private static final int POLL_MILLIS = 10000;
+
+  private static final long MIN_RECONNECT_MILLIS = 1000;
+  private static final long MAX_RECONNECT_MILLIS = 60000;
+
+  @Resource(lookup = "postgres_resource")
+  DataSource dataSource;
+
+  @Resource ManagedThreadFactory threadFactory;
+  @Inject Event<CatalogChangeEvent> catalogChanged;
+
+  private final String nodeId = UUID.randomUUID().toString();
+
+  private final Map<String, Long> versions =
+      new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+          return size() > MAX_TRACKED_ENTITIES;
+        }
+      };
+
+  private final LongAdder published = new LongAdder();
+  private final LongAdder received = new LongAdder();
+  private final LongAdder skipped = new LongAdder();
+  private final LongAdder reconnects = new LongAdder();
+
+  private volatile boolean running;
+  private Thread listener;
+
+  /**
+   * Start listening once the application is deployed
+   *
+   * @param initialized application scope
+   */
+  public void start(@Observes @Initialized(ApplicationScoped.class) Object initialized) {
+    this.running = true;
+    this.listener = threadFactory.newThread(this::listen);
+    listener.setName("catalog-change-listener");
+    listener.start();
+  }
+
+  @PreDestroy
+  public void stop() {
+    this.running = false;
+    if (listener != null) {
+      listener.interrupt();
+    }
+  }
+
+  /**
+   * Log a catalog write of this node and send it to the other nodes. Has to run in the transaction
+   * of the write, so the write, its logged change and the notification are committed together and
+   * the {@link CatalogChangeLog} misses no committed write. NOTIFY is delivered on commit.
+   *
+   * <p>Catalog writes of all nodes take turns from here until their commit, so the versions are
+   * committed in ascending order and the last version changes with every committed write
+   *
+   * @param event changed entity
+   * @throws IllegalStateException if the change can't be logged, the write is rolled back
+   */
+  public void publish(CatalogChangeEvent event) {
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement lock = connection.prepareStatement("SELECT pg_advisory_xact_lock(?)");
+        PreparedStatement statement =
+            connection.prepareStatement(
+                "WITH change AS ("
+                    + " INSERT INTO catalog_change"
+                    + " (version, entity_type, entity_key, article_sku, deleted)"
+                    + " VALUES (nextval('catalog_change_version'), ?, ?, ?, ?)"
+                    + " RETURNING version)"
+                    + " SELECT pg_notify(?, ? || version) FROM change")) {
+      // released on commit or rollback of the write
+      lock.setLong(1, VERSION_LOCK);
+      lock.execute();
+
+      statement.setString(1, event.getEntityType().name());
+      statement.setString(2, event.getKey());
+      statement.setObject(3, event.getArticleSku(), Types.BIGINT);
+      statement.setBoolean(4, event.isDeleted());
+      statement.setString(5, CHANNEL);
+      statement.setString(6, CatalogChangeMessage.encode(nodeId, event));
+      statement.execute();
+      published.increment();
+    } catch (SQLException e) {
+      throw new IllegalStateException("Failed to publish catalog change " + event.getKey(), e);
+    }
+  }
+
+  /**
+   * Get the counts of sent, received, skipped notifications and reconnects
+   *
+   * @return counts by name
+   */
+  public Map<String, Long> getStatistics() {
+    Map<String, Long> statistics = new TreeMap<>();
+    statistics.put("published", published.sum());
+    statistics.put("received", received.sum());
+    statistics.put("skipped", skipped.sum());
+    statistics.put("reconnects", reconnects.sum());
+    return statistics;
+  }
+
+  /**
+   * @return id of this node, sent with every change
+   */
+  String getNodeId() {
+    return nodeId;
+  }
+
+  /**
+   * Decide whether a received message is applied: changes of this node are already applied,
+   * a version not newer than the last applied one of the entity is a duplicate or arrived late
+   *
+   * @param message received change
+   * @return true if the change is new
+   */
+  synchronized boolean accept(CatalogChangeMessage message) {
+    if (nodeId.equals(message.getNodeId())) {
+      return false;
+    }
+
+    Long last = versions.get(message.getEntityKey());
+    if (last != null && last >= message.getVersion()) {
+      return false;
+    }
+    versions.put(message.getEntityKey(), message.getVersion());
+    return true;
+  }
+
+  /**
+   * Apply a received notification
+   *
+   * @param payload payload of the notification
+   */
+  void receive(String payload) {
+    CatalogChangeMessage message = CatalogChangeMessage.decode(payload);
+    if (message == null) {
+      LOGGER.warning("Ignored malformed catalog change " + payload);
+      return;
+    }
+    if (!accept(message)) {
+      skipped.increment();
+      return;
+    }
+    received.increment();
+    catalogChanged.fire(message.getEvent());
+  }
+
+  private void listen() {
+    long reconnectMillis = MIN_RECONNECT_MILLIS;
+    while (running) {
+      try (Connection connection = dataSource.getConnection()) {
+        try (Statement statement = connection.createStatement()) {
+          statement.execute("LISTEN " + CHANNEL);
+        }
+
+        // changes sent before LISTEN took effect are lost
+        catalogChanged.fire(CatalogChangeEvent.catalog().toRemote());
+        reconnectMillis = MIN_RECONNECT_MILLIS;
+
+        try {
+          this.poll(connection);
+        } finally {
+          // the connection returns to the pool
+          try (Statement statement = connection.createStatement()) {
+            statement.execute("UNLISTEN " + CHANNEL);
+          }
+        }
+      } catch (SQLException | RuntimeException e) {
+        if (!running) {
+          return;
+        }
+        reconnects.increment();
+        LOGGER.log(
+            Level.WARNING,
+            "Catalog change listener disconnected, reconnecting in " + reconnectMillis + " ms",
+            e);
+        try {
+          Thread.sleep(reconnectMillis);
+        } catch (InterruptedException interrupted) {
+          return;
+        }
+        reconnectMillis = Math.min(reconnectMillis * 2, MAX_RECONNECT_MILLIS);
+      }
+    }
+  }
+
+  private void poll(Connection connection) throws SQLException {
+    PGConnection pgConnection = connection.unwrap(PGConnection.class);
+    while (running) {
+      PGNotification[] notifications = pgConnection.getNotifications(POLL_MILLIS);
+      if (notifications == null || notifications.length == 0) {
+        // an idle connection may have died silently, a query fails on a broken one
+        try (Statement statement = connection.createStatement()) {
+          statement.execute("SELECT 1");
+        }
+        continue;
+      }
+      for (PGNotification notification : notifications) {
+        this.receive(notification.getParameter());
+      }
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package src.repository;
+
+import java.io.Serializable;
+import lombok.Getter;
+
+/**
+ * CDI event fired after a catalog entity was written through the api. Observers use it to
+ * invalidate exactly the cached state depending on the changed entity
+ */
+@Getter
+public class CatalogChangeEvent implements Serializable {
+
+  public enum EntityType {
+    ARTICLE,
+    ARTICLE_IMAGE,
+    CATEGORY,
+    SUBCATEGORY,
+    /** Any entity may have changed, e.g. while the changes of other nodes were missed */
+    CATALOG
+  }
+
+  private final EntityType entityType;
+
+  // primary key of the changed entity
+  private final String key;
+
+  // sku of the affected article, null for category and subcategory changes
+  private final Long articleSku;
+
+  private final boolean deleted;
+
+  // written on another node and received through the CatalogChangeBus, not published again
+  private final boolean remote;
+
+  public CatalogChangeEvent(
+      EntityType entityType, String key, Long articleSku, boolean deleted) {
+    this(entityType, key, articleSku, deleted, false);
+  }
+
+  private CatalogChangeEvent(
+      EntityType entityType, String key, Long articleSku, boolean deleted, boolean remote) {
+    this.entityType = entityType;
+    this.key = key;
+    this.articleSku = articleSku;
+    this.deleted = deleted;
+    this.remote = remote;
+  }
+
+  /**
+   * @return the same change, marked as written on another node
+   */
+  public CatalogChangeEvent toRemote() {
+    return new CatalogChangeEvent(entityType, key, articleSku, deleted, true);
+  }
+
+  public static CatalogChangeEvent article(long sku, boolean deleted) {
+    return new CatalogChangeEvent(EntityType.ARTICLE, String.valueOf(sku), sku, deleted);
+  }
+
+  public static CatalogChangeEvent articleImage(String uuid, Long articleSku, boolean deleted) {
+    return new CatalogChangeEvent(EntityType.ARTICLE_IMAGE, uuid, articleSku, deleted);
+  }
+
+  public static CatalogChangeEvent category(String uuid, boolean deleted) {
+    return new CatalogChangeEvent(EntityType.CATEGORY, uuid, null, deleted);
+  }
+
+  public static CatalogChangeEvent subcategory(String uuid, boolean deleted) {
+    return new CatalogChangeEvent(EntityType.SUBCATEGORY, uuid, null, deleted);
+  }
+
+  public static CatalogChangeEvent catalog() {
+    return new CatalogChangeEvent(EntityType.CATALOG, null, null, false);
+  }
+}
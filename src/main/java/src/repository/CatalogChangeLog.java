@@ -0,0 +1,131 @@
+package src.repository;
+
+import jakarta.annotation.Resource;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import lombok.Getter;
+
+/**
+ * Reads the catalog changes logged by the {@link CatalogChangeBus}, so a node starting from a
+ * {@link CatalogDump} replays only the writes made since the dump. Times are taken from the
+ * database clock, the clocks of the nodes may differ. Requires db/catalog_notify.sql
+ */
+@ApplicationScoped
+public class CatalogChangeLog {
+
+  @Resource(lookup = "postgres_resource")
+  DataSource dataSource;
+
+  /**
+   * @return current time of the database
+   * @throws IllegalStateException if the database isn't reachable
+   */
+  public Instant getDatabaseTime() {
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement statement = connection.prepareStatement("SELECT now()");
+        ResultSet result = statement.executeQuery()) {
+      result.next();
+      return result.getTimestamp(1).toInstant();
+    } catch (SQLException e) {
+      throw new IllegalStateException("Failed to read the database time", e);
+    }
+  }
+
+  /**
+   * Find the changes logged since a point in time
+   *
+   * @param since database time, inclusive
+   * @return changes ordered by version, as remote events
+   * @throws IllegalStateException if the log can't be read
+   */
+  public List<CatalogChangeEvent> getChangesSince(Instant since) {
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement statement =
+            connection.prepareStatement(
+                "SELECT entity_type, entity_key, article_sku, deleted FROM catalog_change"
+                    + " WHERE changed_at >= ? ORDER BY version")) {
+      statement.setTimestamp(1, Timestamp.from(since));
+      List<CatalogChangeEvent> changes = new ArrayList<>();
+      try (ResultSet result = statement.executeQuery()) {
+        while (result.next()) {
+          long sku = result.getLong(3);
+          Long articleSku = result.wasNull() ? null : sku;
+          changes.add(
+              new CatalogChangeEvent(
+                      CatalogChangeEvent.EntityType.valueOf(result.getString(1)),
+                      result.getString(2),
+                      articleSku,
+                      result.getBoolean(4))
+                  .toRemote());
+        }
+      }
+      return changes;
+    } catch (SQLException | IllegalArgumentException e) {
+      throw new IllegalStateException("Failed to read the catalog changes since " + since, e);
+    }
+  }
+
+  /**
+   * Get the state of the log, equal on all nodes. Pruning never removes the last change, so the
+   * state only moves forward
+   *
+   * @return last version and time of the logged changes
+   * @throws IllegalStateException if the log can't be read
+   */
+  public State getState() {
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement statement =
+            connection.prepareStatement("SELECT max(version), max(changed_at) FROM catalog_change");
+        ResultSet result = statement.executeQuery()) {
+      result.next();
+      Timestamp lastChangedAt = result.getTimestamp(2);
+      return new State(result.getLong(1), lastChangedAt == null ? null : lastChangedAt.toInstant());
+    } catch (SQLException e) {
+      throw new IllegalStateException("Failed to read the catalog change log", e);
+    }
+  }
+
+  /**
+   * Remove the changes no dump needs anymore, the last change is always kept
+   *
+   * @param before database time, exclusive
+   * @return amount of removed changes
+   * @throws IllegalStateException if the log can't be written
+   */
+  public int deleteChangesBefore(Instant before) {
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement statement =
+            connection.prepareStatement(
+                "DELETE FROM catalog_change WHERE changed_at < ?"
+                    + " AND version < (SELECT max(version) FROM catalog_change)")) {
+      statement.setTimestamp(1, Timestamp.from(before));
+      return statement.executeUpdate();
+    } catch (SQLException e) {
+      throw new IllegalStateException("Failed to prune the catalog changes before " + before, e);
+    }
+  }
+
+  /** Summary of the logged changes */
+  @Getter
+  public static class State {
+
+    // 0 if nothing is logged
+    private final long lastVersion;
+
+    // null if nothing is logged
+    private final Instant lastChangedAt;
+
+    public State(long lastVersion, Instant lastChangedAt) {
+      this.lastVersion = lastVersion;
+      this.lastChangedAt = lastChangedAt;
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package src.repository;
+
+import lombok.Getter;
+
+/**
+ * Compact text form of a {@link CatalogChangeEvent} sent to the other nodes with NOTIFY, e.g.
+ * <code>node|ARTICLE|1042|1042|0|815</code>: sending node, entity type, key, article sku, deleted
+ * flag and the version numbered by the database sequence catalog_change_version
+ */
+@Getter
+public class CatalogChangeMessage {
+
+  private static final String SEPARATOR = "|";
+
+  private final String nodeId;
+  private final CatalogChangeEvent event;
+  private final long version;
+
+  CatalogChangeMessage(String nodeId, CatalogChangeEvent event, long version) {
+    this.nodeId = nodeId;
+    this.event = event;
+    this.version = version;
+  }
+
+  /**
+   * Encode a change without its version, the version is appended by the database when the change
+   * is sent
+   *
+   * @param nodeId id of the sending node
+   * @param event changed entity
+   * @return payload prefix ending with the separator
+   */
+  public static String encode(String nodeId, CatalogChangeEvent event) {
+    return nodeId
+        + SEPARATOR
+        + event.getEntityType().name()
+        + SEPARATOR
+        + (event.getKey() == null ? "" : event.getKey())
+        + SEPARATOR
+        + (event.getArticleSku() == null ? "" : event.getArticleSku())
+        + SEPARATOR
+        + (event.isDeleted() ? "1" : "0")
+        + SEPARATOR;
+  }
+
+  /**
+   * Decode a received payload
+   *
+   * @param payload payload of the notification
+   * @return message of a remote change, null if the payload is malformed
+   */
+  public static CatalogChangeMessage decode(String payload) {
+    String[] fields = payload == null ? new String[0] : payload.split("\\|", -1);
+    if (fields.length != 6 || fields[0].isEmpty()) {
+      return null;
+    }
+
+    try {
+      CatalogChangeEvent event =
+          new CatalogChangeEvent(
+              CatalogChangeEvent.EntityType.valueOf(fields[1]),
+              fields[2].isEmpty() ? null : fields[2],
+              fields[3].isEmpty() ? null : Long.valueOf(fields[3]),
+              "1".equals(fields[4]));
+      return new CatalogChangeMessage(fields[0], event.toRemote(), Long.parseLong(fields[5]));
+    } catch (IllegalArgumentException e) {
+      // unknown entity type of a newer node or an invalid number
+      return null;
+    }
+  }
+
+  /**
+   * @return identity of the changed entity, versions are compared per entity
+   */
+  public String getEntityKey() {
+    return event.getEntityType().name() + ":" + event.getKey();
+  }
+}
@@ -0,0 +1,273 @@
+package src.repository;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import lombok.Getter;
+import src.model.ArticleRecord;
+import src.model.Category;
+import src.model.Subcategory;
+
+/**
+ * Versioned binary dump of the whole catalog on local disk, read at startup instead of querying
+ * all articles. The file holds a header (format version, creation time, counts), the categories,
+ * the subcategories and the article records, each entry prefixed by its length. It is written to
+ * a temporary file and moved in place, so a reader never sees a partial dump. The header and the
+ * categories are read on open, the articles are streamed with sequential reads afterwards
+ */
+@Getter
+public class CatalogDump {
+
+  private static final int MAGIC = 0x43415444; // "CATD"
+  private static final int VERSION = 1;
+
+  private static final int BUFFER_SIZE = 1 << 20;
+
+  // magic, version, creation time, category, subcategory and article count
+  private static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 4 + 4;
+
+  private final Path file;
+  private final Instant createdAt;
+  private final List<Category> categories;
+  private final List<Subcategory> subcategories;
+  private final int articleCount;
+
+  // file position of the first article
+  private final long articlesOffset;
+
+  private CatalogDump(
+      Path file,
+      Instant createdAt,
+      List<Category> categories,
+      List<Subcategory> subcategories,
+      int articleCount,
+      long articlesOffset) {
+    this.file = file;
+    this.createdAt = createdAt;
+    this.categories = categories;
+    this.subcategories = subcategories;
+    this.articleCount = articleCount;
+    this.articlesOffset = articlesOffset;
+  }
+
+  /**
+   * Write a dump, replacing the previous one atomically
+   *
+   * @param file file of the dump
+   * @param createdAt state of the catalog the dump contains at least
+   * @param categories all categories
+   * @param subcategories all subcategories
+   * @param articleCount amount of articles
+   * @param articles all articles, exactly <code>articleCount</code>
+   */
+  public static void write(
+      Path file,
+      Instant createdAt,
+      Collection<Category> categories,
+      Collection<Subcategory> subcategories,
+      int articleCount,
+      Iterable<ArticleRecord> articles) {
+    ArticleRecordCodec codec = new ArticleRecordCodec();
+    Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+    try {
+      try (DataOutputStream out =
+          new DataOutputStream(
+              new BufferedOutputStream(Files.newOutputStream(temporary), BUFFER_SIZE))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(createdAt.toEpochMilli());
+        out.writeInt(categories.size());
+        out.writeInt(subcategories.size());
+        out.writeInt(articleCount);
+
+        for (Category category : categories) {
+          writeEntry(out, codec.encode(category.getUuid(), category.getCategoryName()));
+        }
+        for (Subcategory subcategory : subcategories) {
+          writeEntry(
+              out,
+              codec.encode(
+                  subcategory.getUuid(),
+                  subcategory.getRootCategoryUuid(),
+                  subcategory.getCategoryName()));
+        }
+
+        int written = 0;
+        for (ArticleRecord article : articles) {
+          writeEntry(out, codec.encode(article));
+          written++;
+        }
+        if (written != articleCount) {
+          throw new IllegalArgumentException(
+              "Expected " + articleCount + " articles, got " + written);
+        }
+      }
+      Files.move(
+          temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to write the catalog dump " + file, e);
+    } finally {
+      try {
+        Files.deleteIfExists(temporary);
+      } catch (IOException ignored) {
+        // nothing left to clean up
+      }
+    }
+  }
+
+  /**
+   * Open a dump and read its categories
+   *
+   * @param file file of the dump
+   * @return dump, its articles are read by {@link #forEachArticle}
+   * @throws UncheckedIOException if the file is missing or not a dump of this version
+   */
+  public static CatalogDump open(Path file) {
+    try (Input in = new Input(file, 0)) {
+      ByteBuffer header = in.require(HEADER_SIZE);
+      if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+        throw new IOException("Not a catalog dump of version " + VERSION + ": " + file);
+      }
+      Instant createdAt = Instant.ofEpochMilli(header.getLong());
+      int categoryCount = header.getInt();
+      int subcategoryCount = header.getInt();
+      int articleCount = header.getInt();
+
+      List<Category> categories = new ArrayList<>(categoryCount);
+      Map<String, Category> categoriesByUuid = new HashMap<>();
+      for (int i = 0; i < categoryCount; i++) {
+        ByteBuffer entry = in.next();
+        Category category = new Category();
+        category.setUuid(ArticleRecordCodec.readString(entry));
+        category.setCategoryName(ArticleRecordCodec.readString(entry));
+        categories.add(category);
+        categoriesByUuid.put(category.getUuid(), category);
+      }
+
+      List<Subcategory> subcategories = new ArrayList<>(subcategoryCount);
+      for (int i = 0; i < subcategoryCount; i++) {
+        ByteBuffer entry = in.next();
+        Subcategory subcategory = new Subcategory();
+        subcategory.setUuid(ArticleRecordCodec.readString(entry));
+        subcategory.setRootCategoryUuid(ArticleRecordCodec.readString(entry));
+        subcategory.setCategoryName(ArticleRecordCodec.readString(entry));
+        subcategory.setRootCategory(categoriesByUuid.get(subcategory.getRootCategoryUuid()));
+        subcategories.add(subcategory);
+      }
+
+      return new CatalogDump(
+          file,
+          createdAt,
+          Collections.unmodifiableList(categories),
+          Collections.unmodifiableList(subcategories),
+          articleCount,
+          in.getPosition());
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read the catalog dump " + file, e);
+    }
+  }
+
+  /**
+   * Read all articles in the order they were written
+   *
+   * @param consumer receives every article
+   * @throws UncheckedIOException if the file is truncated or was replaced by another version
+   */
+  public void forEachArticle(Consumer<ArticleRecord> consumer) {
+    try (Input in = new Input(file, articlesOffset)) {
+      for (int i = 0; i < articleCount; i++) {
+        consumer.accept(ArticleRecordCodec.decode(in.next()));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read the catalog dump " + file, e);
+    }
+  }
+
+  private static void writeEntry(DataOutputStream out, ByteBuffer entry) throws IOException {
+    out.writeInt(entry.remaining());
+    out.write(entry.array(), entry.arrayOffset() + entry.position(), entry.remaining());
+  }
+
+  /** Sequential reads of a file through one reused direct buffer */
+  private static class Input implements AutoCloseable {
+
+    private final FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private long position;
+
+    Input(Path file, long position) throws IOException {
+      this.channel = FileChannel.open(file, StandardOpenOption.READ);
+      this.position = position;
+      channel.position(position);
+      buffer.limit(0);
+    }
+
+    /**
+     * @return file position of the next unread byte
+     */
+    long getPosition() {
+      return position;
+    }
+
+    /**
+     * Read the next length-prefixed entry
+     *
+     * @return view of the entry, valid until the next read
+     */
+    ByteBuffer next() throws IOException {
+      int length = this.require(4).getInt();
+      return this.require(length);
+    }
+
+    /**
+     * Make the next bytes available
+     *
+     * @param bytes amount of bytes
+     * @return view of exactly these bytes, valid until the next read
+     */
+    ByteBuffer require(int bytes) throws IOException {
+      if (buffer.remaining() < bytes) {
+        if (buffer.capacity() < bytes) {
+          ByteBuffer larger = ByteBuffer.allocateDirect(bytes);
+          larger.put(buffer);
+          this.buffer = larger;
+        } else {
+          buffer.compact();
+        }
+        while (buffer.position() < bytes) {
+          if (channel.read(buffer) < 0) {
+            throw new EOFException("Catalog dump is truncated");
+          }
+        }
+        buffer.flip();
+      }
+
+      ByteBuffer view = buffer.slice();
+      view.limit(bytes);
+      buffer.position(buffer.position() + bytes);
+      position += bytes;
+      return view;
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package src.repository;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import src.config.CatalogConfig;
+import src.utils.StringUtils;
+
+/**
+ * Writes a {@link CatalogDump} of the read model and the category tree periodically to
+ * catalog.dump.directory, so a restarted node loads the catalog from local disk and replays only
+ * the changes logged by the {@link CatalogChangeLog} since, instead of querying all articles.
+ * Disabled if no directory is configured
+ */
+@ApplicationScoped
+public class CatalogDumps {
+
+  private static final Logger LOGGER = Logger.getLogger(CatalogDumps.class.getName());
+
+  private static final String FILE_NAME = "catalog.dump";
+
+  // changes are replayed from a bit before the dump, a change is logged with the start time of its
+  // transaction, which may commit after the dump was taken. Replaying a change twice is harmless
+  private static final Duration REPLAY_OVERLAP = Duration.ofMinutes(5);
+
+  // logged changes are kept this long, older dumps are not used
+  private static final Duration CHANGE_RETENTION = Duration.ofDays(7);
+  private static final Duration MAX_DUMP_AGE = CHANGE_RETENTION.minusDays(1);
+
+  @Inject CatalogConfig catalogConfig;
+  @Inject CatalogChangeLog changeLog;
+  @Inject CatalogReadModel readModel;
+  @Inject CategoryTreeCache categoryTreeCache;
+
+  @Resource ManagedScheduledExecutorService scheduler;
+
+  private ScheduledFuture<?> schedule;
+
+  /**
+   * Start dumping once the application is deployed
+   *
+   * @param initialized application scope
+   */
+  public void start(@Observes @Initialized(ApplicationScoped.class) Object initialized) {
+    if (this.getFile() == null) {
+      return;
+    }
+    long interval = catalogConfig.getDumpIntervalMinutes();
+    this.schedule =
+        scheduler.scheduleWithFixedDelay(this::dumpQuietly, interval, interval, TimeUnit.MINUTES);
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (schedule != null) {
+      schedule.cancel(false);
+    }
+  }
+
+  /**
+   * Dump the current read model and category tree, then remove the logged changes no dump needs
+   * anymore. Skipped while the read model isn't built yet
+   */
+  public void dump() {
+    Path file = this.getFile();
+    if (file == null) {
+      return;
+    }
+
+    // taken first, the snapshot read afterwards contains at least all changes made before
+    Instant createdAt = changeLog.getDatabaseTime();
+    CatalogSnapshot snapshot = readModel.getBuiltSnapshot();
+    if (snapshot == null) {
+      return;
+    }
+    CategoryTree tree = categoryTreeCache.getTree();
+    try {
+      Files.createDirectories(file.getParent());
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to create " + file.getParent(), e);
+    }
+    CatalogDump.write(
+        file,
+        createdAt,
+        tree.getCategories(),
+        tree.getAllSubcategories(),
+        snapshot.size(),
+        snapshot.getArticles());
+
+    changeLog.deleteChangesBefore(createdAt.minus(CHANGE_RETENTION));
+  }
+
+  /**
+   * Open the last dump
+   *
+   * @return dump, null if dumps are disabled or there is no usable one
+   */
+  public CatalogDump open() {
+    Path file = this.getFile();
+    if (file == null || !Files.isRegularFile(file)) {
+      return null;
+    }
+
+    try {
+      CatalogDump dump = CatalogDump.open(file);
+      if (dump.getCreatedAt().isBefore(changeLog.getDatabaseTime().minus(MAX_DUMP_AGE))) {
+        LOGGER.info("Catalog dump " + file + " is too old, loading from the database");
+        return null;
+      }
+      return dump;
+    } catch (RuntimeException e) {
+      LOGGER.log(Level.WARNING, "Failed to open the catalog dump " + file, e);
+      return null;
+    }
+  }
+
+  /**
+   * Find the changes a dump doesn't contain
+   *
+   * @param dump dump
+   * @return changes ordered by version
+   */
+  public List<CatalogChangeEvent> getChangesSince(CatalogDump dump) {
+    return changeLog.getChangesSince(dump.getCreatedAt().minus(REPLAY_OVERLAP));
+  }
+
+  private void dumpQuietly() {
+    try {
+      this.dump();
+    } catch (RuntimeException e) {
+      // the previous dump stays in place
+      LOGGER.log(Level.WARNING, "Failed to dump the catalog", e);
+    }
+  }
+
+  private Path getFile() {
+    if (StringUtils.isEmpty(catalogConfig.getDumpDirectory())) {
+      return null;
+    }
+    return Paths.get(catalogConfig.getDumpDirectory()).resolve(FILE_NAME);
+  }
+}
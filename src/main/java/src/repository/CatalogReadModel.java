@@ -0,0 +1,411 @@
+package src.repository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.LongStream;
+import src.config.CatalogConfig;
+import src.model.ArticleRecord;
+import src.model.ArticleTile;
+import src.utils.LongObjectMap;
+import src.utils.SortedLongList;
+import src.utils.StringUtils;
+
+/**
+ * Application wide read model of all articles the storefront shows: details, tiles and the skus
+ * of every category. It is built on first use and published as one immutable {@link
+ * CatalogSnapshot} through a volatile reference, readers never lock nor query. Catalog writes of
+ * the api are applied as copy-on-write patches sharing all unchanged structure, only the written
+ * article is loaded again. Every published snapshot is announced as a {@link ReadModelChange} to
+ * the {@link SnapshotIndex}es derived from it. The categories themselves are read from the {@link
+ * CategoryTreeCache}.
+ *
+ * <p>The article records of large catalogs are kept off the heap if catalog.readModel.directory is
+ * configured: they are written to a {@link MappedArticleStore} in that directory, only the patches
+ * since are held on the heap until the store is built again. The heap usage does not stay flat
+ * though, the sku lists of every category and the {@link SnapshotIndex}es derived from the
+ * snapshot stay on the heap and grow with the catalog. With catalog.dump.directory configured the
+ * first snapshot is restored from the local {@link CatalogDumps} instead of the database
+ */
+@ApplicationScoped
+public class CatalogReadModel {
+
+  private static final Logger LOGGER = Logger.getLogger(CatalogReadModel.class.getName());
+
+  // articles read per query while building
+  private static final int BATCH_SIZE = 10000;
+
+  // patches held on the heap before the store is built again
+  private static final int MAX_PATCHES = 10000;
+
+  private static final String STORE_PREFIX = "articles-";
+  private static final String STORE_SUFFIX = ".store";
+
+  @Inject ArticleRepository repository;
+  @Inject CatalogConfig catalogConfig;
+  @Inject CatalogDumps dumps;
+  @Inject Event<ReadModelChange> changes;
+
+  private volatile CatalogSnapshot snapshot;
+
+  /**
+   * Find an article
+   *
+   * @param sku article sku
+   * @return article, null if it doesn't exist
+   */
+  public ArticleRecord find(long sku) {
+    return this.getSnapshot().find(sku);
+  }
+
+  /**
+   * Find the tiles of articles
+   *
+   * @param skus skus
+   * @return tiles in the order of the given skus, missing articles are skipped
+   */
+  public List<ArticleTile> getTiles(List<Long> skus) {
+    // one snapshot for the whole page
+    CatalogSnapshot current = this.getSnapshot();
+    List<ArticleTile> tiles = new ArrayList<>(skus.size());
+    for (long sku : skus) {
+      ArticleRecord record = current.find(sku);
+      if (record != null) {
+        tiles.add(record.toTile());
+      }
+    }
+    return tiles;
+  }
+
+  /**
+   * Find the skus of a category, see {@link CatalogSnapshot#getSkus}
+   *
+   * @param categoryUuid main category uuid or null
+   * @param subcategoryUuid subcategory uuid or null
+   * @return shared skus, read-only
+   */
+  public SortedLongList getSkus(String categoryUuid, String subcategoryUuid) {
+    return this.getSnapshot().getSkus(categoryUuid, subcategoryUuid);
+  }
+
+  /**
+   * Order skus by a sort option, see {@link CatalogSnapshot#sort}
+   *
+   * @param skus skus of articles
+   * @param sort sort option
+   * @param count amount of first skus needed
+   * @return first skus in the order of the sort option
+   */
+  public long[] sort(LongStream skus, ArticleSort sort, int count) {
+    return this.getSnapshot().sort(skus, sort, count);
+  }
+
+  /**
+   * Build a new snapshot out of all articles and publish it. The first one is restored from the
+   * last {@link CatalogDump} if there is a usable one
+   */
+  public synchronized void rebuild() {
+    CatalogSnapshot previous = snapshot;
+    if (previous == null && this.restore()) {
+      return;
+    }
+
+    this.snapshot = this.build(previous == null, this::loadAll);
+    if (previous != null) {
+      changes.fire(ReadModelChange.rebuilt(previous, snapshot));
+    }
+
+    // readers of the previous snapshot keep their mapping, it stays valid without the file
+    if (previous != null && previous.getStore() != null) {
+      deleteStore(previous.getStore().getFile());
+    }
+  }
+
+  /**
+   * Apply a catalog write to the snapshot
+   *
+   * @param event changed entity
+   */
+  public synchronized void onCatalogChange(@Observes CatalogChangeEvent event) {
+    // not built yet, it will contain the change once it is built
+    if (snapshot == null) {
+      return;
+    }
+
+    switch (event.getEntityType()) {
+      case ARTICLE:
+        this.reload(event.getArticleSku(), event.isDeleted());
+        break;
+      case ARTICLE_IMAGE:
+        // the images are part of the owning article
+        if (event.getArticleSku() != null) {
+          this.reload(event.getArticleSku(), false);
+        } else {
+          this.rebuild();
+        }
+        break;
+      case CATEGORY:
+      case SUBCATEGORY:
+      case CATALOG:
+        // category assignments of many articles may have changed
+        this.rebuild();
+        return;
+    }
+
+    if (snapshot.getPatchCount() > MAX_PATCHES) {
+      this.rebuild();
+    }
+  }
+
+  /**
+   * Get the current snapshot, this never blocks once it is built
+   *
+   * @return immutable snapshot
+   */
+  public CatalogSnapshot getSnapshot() {
+    if (snapshot == null) {
+      synchronized (this) {
+        if (snapshot == null) {
+          this.rebuild();
+        }
+      }
+    }
+    return snapshot;
+  }
+
+  /**
+   * @return current snapshot, null if it isn't built yet
+   */
+  CatalogSnapshot getBuiltSnapshot() {
+    return snapshot;
+  }
+
+  /**
+   * Build a snapshot, its articles are written to a new store if one is configured
+   *
+   * @param first first build, stores left over by earlier deployments are removed
+   * @param loader adds all articles in ascending sku order
+   * @return built snapshot
+   */
+  private CatalogSnapshot build(boolean first, Consumer<CatalogSnapshot.Builder> loader) {
+    Path file = this.createStoreFile(first);
+    MappedArticleStore.Writer writer = file == null ? null : MappedArticleStore.write(file);
+    try {
+      CatalogSnapshot.Builder builder = CatalogSnapshot.builder(writer);
+      loader.accept(builder);
+      return builder.build();
+    } catch (RuntimeException e) {
+      if (writer != null) {
+        writer.close();
+        deleteStore(file);
+      }
+      throw e;
+    }
+  }
+
+  private void loadAll(CatalogSnapshot.Builder builder) {
+    long afterSku = Long.MIN_VALUE;
+    List<Object[]> documents;
+    do {
+      documents = repository.getArticleDocuments(afterSku, BATCH_SIZE);
+      if (documents.isEmpty()) {
+        break;
+      }
+      long firstSku = ((Number) documents.get(0)[0]).longValue();
+      afterSku = ((Number) documents.get(documents.size() - 1)[0]).longValue();
+
+      LongObjectMap<List<ArticleRecord.Image>> images = new LongObjectMap<>(documents.size());
+      for (Object[] image : repository.getImageDocuments(firstSku, afterSku)) {
+        long sku = ((Number) image[0]).longValue();
+        List<ArticleRecord.Image> articleImages = images.get(sku);
+        if (articleImages == null) {
+          articleImages = new ArrayList<>();
+          images.put(sku, articleImages);
+        }
+        articleImages.add(toImage(image));
+      }
+      for (Object[] document : documents) {
+        List<ArticleRecord.Image> articleImages = images.get(((Number) document[0]).longValue());
+        builder.add(toRecord(document, articleImages == null ? List.of() : articleImages));
+      }
+    } while (documents.size() == BATCH_SIZE);
+  }
+
+  /**
+   * Build the first snapshot out of the last dump and the articles changed since, which are
+   * merged into the sku order of the dump
+   *
+   * @return whether the snapshot was published, otherwise it must be loaded from the database
+   */
+  private boolean restore() {
+    CatalogDump dump = dumps.open();
+    if (dump == null) {
+      return false;
+    }
+
+    try {
+      Set<Long> changed = new HashSet<>();
+      for (CatalogChangeEvent change : dumps.getChangesSince(dump)) {
+        boolean articleChange =
+            change.getEntityType() == CatalogChangeEvent.EntityType.ARTICLE
+                || (change.getEntityType() == CatalogChangeEvent.EntityType.ARTICLE_IMAGE
+                    && change.getArticleSku() != null);
+        if (!articleChange) {
+          // category assignments of many articles may have changed
+          LOGGER.info("Catalog categories changed since the dump, loading from the database");
+          return false;
+        }
+        changed.add(change.getArticleSku());
+      }
+
+      // current state of the changed articles, deleted ones are missing
+      TreeMap<Long, ArticleRecord> pending = new TreeMap<>();
+      for (long sku : changed) {
+        ArticleRecord record = this.load(sku);
+        if (record != null) {
+          pending.put(sku, record);
+        }
+      }
+
+      this.snapshot =
+          this.build(
+              true,
+              builder -> {
+                dump.forEachArticle(
+                    record -> {
+                      while (!pending.isEmpty() && pending.firstKey() <= record.getSku()) {
+                        builder.add(pending.pollFirstEntry().getValue());
+                      }
+                      if (!changed.contains(record.getSku())) {
+                        builder.add(record);
+                      }
+                    });
+                pending.values().forEach(builder::add);
+              });
+      LOGGER.info(
+          "Catalog restored from the dump of "
+              + dump.getCreatedAt()
+              + " with "
+              + changed.size()
+              + " changed articles");
+      return true;
+    } catch (RuntimeException e) {
+      // a store written so far is removed as stale by the following build
+      LOGGER.log(Level.WARNING, "Failed to restore the catalog dump, loading from the database", e);
+      return false;
+    }
+  }
+
+  private void reload(long sku, boolean deleted) {
+    CatalogSnapshot previous = snapshot;
+    ArticleRecord record = deleted ? null : this.load(sku);
+    this.snapshot = record == null ? previous.without(sku) : previous.with(record);
+    if (snapshot != previous) {
+      changes.fire(ReadModelChange.patched(previous, snapshot, previous.find(sku), record));
+    }
+  }
+
+  /**
+   * Load the current state of an article
+   *
+   * @param sku article sku
+   * @return article, null if it doesn't exist
+   */
+  private ArticleRecord load(long sku) {
+    Object[] document = repository.getArticleDocument(sku);
+    if (document == null) {
+      return null;
+    }
+
+    List<ArticleRecord.Image> images = new ArrayList<>();
+    for (Object[] image : repository.getImageDocuments(sku)) {
+      images.add(toImage(image));
+    }
+    return toRecord(document, images);
+  }
+
+  /**
+   * Create the file of a new store
+   *
+   * @param removeStale delete the stores left over by earlier deployments
+   * @return new empty file, null if the read model is held on the heap
+   */
+  private Path createStoreFile(boolean removeStale) {
+    if (StringUtils.isEmpty(catalogConfig.getReadModelDirectory())) {
+      return null;
+    }
+
+    Path directory = Paths.get(catalogConfig.getReadModelDirectory());
+    try {
+      Files.createDirectories(directory);
+      if (removeStale) {
+        try (DirectoryStream<Path> stale =
+            Files.newDirectoryStream(directory, STORE_PREFIX + "*" + STORE_SUFFIX)) {
+          stale.forEach(CatalogReadModel::deleteStore);
+        }
+      }
+      return Files.createTempFile(directory, STORE_PREFIX, STORE_SUFFIX);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to create the article store in " + directory, e);
+    }
+  }
+
+  private static void deleteStore(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      LOGGER.warning("Failed to delete the article store " + file + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * Convert one row of {@link ArticleRepository#getArticleDocuments}
+   *
+   * @param document sku, title, description, selling price, list price, available, stock,
+   *     discount, subcategory uuid, main category uuid
+   * @param images images of the article ordered by position
+   * @return article record
+   */
+  private static ArticleRecord toRecord(Object[] document, List<ArticleRecord.Image> images) {
+    return new ArticleRecord(
+        ((Number) document[0]).longValue(),
+        (String) document[1],
+        (String) document[2],
+        document[3] == null ? null : ((Number) document[3]).doubleValue(),
+        document[4] == null ? null : ((Number) document[4]).doubleValue(),
+        (Boolean) document[5],
+        document[6] == null ? 0 : ((Number) document[6]).intValue(),
+        document[7] == null ? null : ((Number) document[7]).doubleValue(),
+        (String) document[8],
+        (String) document[9],
+        images);
+  }
+
+  /**
+   * Convert one row of {@link ArticleRepository#getImageDocuments(long, long)}
+   *
+   * @param document article sku, uuid, url, position
+   * @return image
+   */
+  private static ArticleRecord.Image toImage(Object[] document) {
+    return new ArticleRecord.Image(
+        (String) document[1],
+        (String) document[2],
+        document[3] == null ? null : ((Number) document[3]).intValue());
+  }
+}
@@ -0,0 +1,409 @@
+package src.repository;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntBinaryOperator;
+import java.util.stream.LongStream;
+import src.model.ArticleRecord;
+import src.utils.LongObjectMap;
+import src.utils.SortedLongList;
+import src.utils.StringUtils;
+
+/**
+ * Immutable snapshot of all articles, indexed by sku and by main category and subcategory. A write
+ * never changes a snapshot, {@link #with} and {@link #without} return a new one sharing all
+ * unchanged structure: the articles are split into chunks by sku hash and the sku lists into
+ * {@link SortedLongList} chunks, a write copies only the chunks it changes and the sku lists of
+ * the affected categories. The articles are either held on the heap or read from a {@link
+ * MappedArticleStore}, then only the articles written since it was built are held on the heap
+ */
+public class CatalogSnapshot {
+
+  // article chunks, a write copies one chunk of about 1/1024 of the articles
+  private static final int CHUNK_BITS = 10;
+
+  // Fibonacci hashing, spreads sequential skus over all chunks
+  private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+  // all articles, resp. the articles written since the store was built, null marks a deleted one.
+  // Chunks without articles are null
+  private final LongObjectMap<ArticleRecord>[] articles;
+
+  // null if all articles are held on the heap
+  private final MappedArticleStore store;
+
+  // skus of every main category and subcategory by uuid
+  private final Map<String, SortedLongList> skusByCategory;
+
+  // skus of all articles
+  private final SortedLongList skus;
+
+  private CatalogSnapshot(
+      LongObjectMap<ArticleRecord>[] articles,
+      MappedArticleStore store,
+      Map<String, SortedLongList> skusByCategory,
+      SortedLongList skus) {
+    this.articles = articles;
+    this.store = store;
+    this.skusByCategory = skusByCategory;
+    this.skus = skus;
+  }
+
+  /**
+   * Build a snapshot held on the heap
+   *
+   * @param records all articles
+   * @return snapshot of the articles
+   */
+  public static CatalogSnapshot of(Collection<ArticleRecord> records) {
+    Builder builder = new Builder(null);
+    records.forEach(builder::add);
+    return builder.build();
+  }
+
+  /**
+   * Start building a snapshot
+   *
+   * @param writer writer of the store holding the articles, null to hold them on the heap
+   * @return builder
+   */
+  public static Builder builder(MappedArticleStore.Writer writer) {
+    return new Builder(writer);
+  }
+
+  /**
+   * Find an article
+   *
+   * @param sku article sku
+   * @return article, null if it doesn't exist
+   */
+  public ArticleRecord find(long sku) {
+    LongObjectMap<ArticleRecord> chunk = articles[chunkOf(sku)];
+    if (chunk != null && (store == null || chunk.containsKey(sku))) {
+      return chunk.get(sku);
+    }
+    return store == null ? null : store.find(sku);
+  }
+
+  /**
+   * Find the skus of a category. The returned list is shared, readers take their range of it
+   *
+   * @param categoryUuid main category uuid or null
+   * @param subcategoryUuid subcategory uuid or null
+   * @return skus of the articles in both given categories
+   */
+  public SortedLongList getSkus(String categoryUuid, String subcategoryUuid) {
+    if (StringUtils.isEmpty(subcategoryUuid)) {
+      return StringUtils.isEmpty(categoryUuid)
+          ? skus
+          : skusByCategory.getOrDefault(categoryUuid, SortedLongList.EMPTY);
+    }
+
+    SortedLongList subcategorySkus =
+        skusByCategory.getOrDefault(subcategoryUuid, SortedLongList.EMPTY);
+    if (StringUtils.isEmpty(categoryUuid) || subcategorySkus.size() == 0) {
+      return subcategorySkus;
+    }
+
+    // the main category of an article is the one of its subcategory, so one article tells
+    return categoryUuid.equals(this.find(subcategorySkus.get(0)).getCategoryUuid())
+        ? subcategorySkus
+        : SortedLongList.EMPTY;
+  }
+
+  /**
+   * Order skus like the sort indexes of the database, see db/article_sort.sql: by the sorted field
+   * with missing values last ascending and first descending, then by sku. Only the requested
+   * first skus are ordered, all others are just compared with the last of them
+   *
+   * @param skus skus of articles, ones missing in the snapshot are ordered like missing values
+   * @param sort sort option
+   * @param count amount of first skus needed
+   * @return first skus in the order of the sort option
+   */
+  public long[] sort(LongStream skus, ArticleSort sort, int count) {
+    long[] matched = skus.toArray();
+    IntBinaryOperator bySku = (a, b) -> Long.compare(matched[a], matched[b]);
+
+    IntBinaryOperator order;
+    if (sort.isSkuOrder()) {
+      order = sort.isDescending() ? (a, b) -> bySku.applyAsInt(b, a) : bySku;
+    } else if (sort == ArticleSort.TITLE) {
+      String[] titles = new String[matched.length];
+      for (int i = 0; i < matched.length; i++) {
+        ArticleRecord record = this.find(matched[i]);
+        titles[i] = record == null ? null : record.getTitle();
+      }
+      Comparator<String> byTitle = Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER);
+      order = (a, b) -> compare(byTitle.compare(titles[a], titles[b]), sort, bySku, a, b);
+    } else {
+      // missing values sort like the greatest ones
+      double[] values = new double[matched.length];
+      for (int i = 0; i < matched.length; i++) {
+        ArticleRecord record = this.find(matched[i]);
+        Double value =
+            record == null
+                ? null
+                : sort == ArticleSort.DISCOUNT ? record.getDiscount() : record.getSellingPrice();
+        values[i] = value == null ? Double.POSITIVE_INFINITY : value;
+      }
+      order = (a, b) -> compare(Double.compare(values[a], values[b]), sort, bySku, a, b);
+    }
+
+    int[] first = first(matched.length, Math.min(Math.max(count, 0), matched.length), order);
+    long[] sorted = new long[first.length];
+    for (int i = 0; i < first.length; i++) {
+      sorted[i] = matched[first[i]];
+    }
+    return sorted;
+  }
+
+  /**
+   * @return amount of articles
+   */
+  public int size() {
+    return skus.size();
+  }
+
+  /**
+   * @return all articles in ascending sku order, read one by one while iterating
+   */
+  public Iterable<ArticleRecord> getArticles() {
+    return () -> skus.stream().mapToObj(this::find).iterator();
+  }
+
+  /**
+   * @return store holding the articles, null if they are held on the heap
+   */
+  public MappedArticleStore getStore() {
+    return store;
+  }
+
+  /**
+   * @return amount of articles written since the store was built, they are held on the heap
+   */
+  public int getPatchCount() {
+    if (store == null) {
+      return 0;
+    }
+    int count = 0;
+    for (LongObjectMap<ArticleRecord> chunk : articles) {
+      count += chunk == null ? 0 : chunk.size();
+    }
+    return count;
+  }
+
+  /**
+   * Copy the snapshot with an added or updated article
+   *
+   * @param record new state of the article
+   * @return new snapshot
+   */
+  public CatalogSnapshot with(ArticleRecord record) {
+    long sku = record.getSku();
+    ArticleRecord previous = this.find(sku);
+
+    Map<String, SortedLongList> changedSkus = new HashMap<>(skusByCategory);
+    if (previous != null) {
+      for (String uuid : categoriesOf(previous)) {
+        changedSkus.computeIfPresent(uuid, (k, categorySkus) -> remove(categorySkus, sku));
+      }
+    }
+    for (String uuid : categoriesOf(record)) {
+      changedSkus.put(uuid, changedSkus.getOrDefault(uuid, SortedLongList.EMPTY).with(sku));
+    }
+
+    return new CatalogSnapshot(
+        this.put(sku, record), store, changedSkus, previous == null ? skus.with(sku) : skus);
+  }
+
+  /**
+   * Copy the snapshot without an article
+   *
+   * @param sku sku of the deleted article
+   * @return new snapshot, this one if the article doesn't exist
+   */
+  public CatalogSnapshot without(long sku) {
+    ArticleRecord previous = this.find(sku);
+    if (previous == null) {
+      return this;
+    }
+
+    Map<String, SortedLongList> changedSkus = new HashMap<>(skusByCategory);
+    for (String uuid : categoriesOf(previous)) {
+      changedSkus.computeIfPresent(uuid, (k, categorySkus) -> remove(categorySkus, sku));
+    }
+    return new CatalogSnapshot(this.put(sku, null), store, changedSkus, skus.without(sku));
+  }
+
+  /**
+   * Copy the article chunks with one article changed, only its chunk is copied
+   *
+   * @param sku article sku
+   * @param record new state of the article, null if it is deleted
+   * @return changed chunks
+   */
+  private LongObjectMap<ArticleRecord>[] put(long sku, ArticleRecord record) {
+    LongObjectMap<ArticleRecord>[] changedArticles = articles.clone();
+    int index = chunkOf(sku);
+    LongObjectMap<ArticleRecord> chunk =
+        articles[index] == null ? new LongObjectMap<>() : articles[index].copy();
+    if (record == null && store == null) {
+      chunk.remove(sku);
+    } else {
+      // a deleted article stays as null entry, it hides the stored record
+      chunk.put(sku, record);
+    }
+    changedArticles[index] = chunk;
+    return changedArticles;
+  }
+
+  /** Order of two matches by the sorted field, the sku ascending breaks ties */
+  private static int compare(int byField, ArticleSort sort, IntBinaryOperator bySku, int a, int b) {
+    if (byField != 0) {
+      return sort.isDescending() ? -byField : byField;
+    }
+    return bySku.applyAsInt(a, b);
+  }
+
+  /**
+   * Select the first indexes of an order with a bounded max heap, O(size * log(count))
+   *
+   * @param size amount of indexes
+   * @param count amount of first indexes needed, at most the size
+   * @param order order of two indexes
+   * @return first indexes in order
+   */
+  private static int[] first(int size, int count, IntBinaryOperator order) {
+    // the last of the first indexes found so far is the root
+    int[] heap = new int[count];
+    int heapSize = 0;
+    for (int index = 0; index < size && count > 0; index++) {
+      if (heapSize < count) {
+        int child = heapSize++;
+        while (child > 0 && order.applyAsInt(heap[(child - 1) / 2], index) < 0) {
+          heap[child] = heap[(child - 1) / 2];
+          child = (child - 1) / 2;
+        }
+        heap[child] = index;
+      } else if (order.applyAsInt(index, heap[0]) < 0) {
+        siftDown(heap, heapSize, index, order);
+      }
+    }
+
+    // take the roots, from the last index to the first
+    int[] result = new int[heapSize];
+    for (int i = heapSize - 1; i >= 0; i--) {
+      result[i] = heap[0];
+      siftDown(heap, i, heap[i], order);
+    }
+    return result;
+  }
+
+  /** Place an index at the root of the heap and move it down to its position */
+  private static void siftDown(int[] heap, int heapSize, int index, IntBinaryOperator order) {
+    int parent = 0;
+    for (int child = 1; child < heapSize; child = 2 * parent + 1) {
+      if (child + 1 < heapSize && order.applyAsInt(heap[child + 1], heap[child]) > 0) {
+        child++;
+      }
+      if (order.applyAsInt(heap[child], index) <= 0) {
+        break;
+      }
+      heap[parent] = heap[child];
+      parent = child;
+    }
+    heap[parent] = index;
+  }
+
+  private static int chunkOf(long sku) {
+    return (int) ((sku * GOLDEN_RATIO) >>> (Long.SIZE - CHUNK_BITS));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static LongObjectMap<ArticleRecord>[] newChunks() {
+    return new LongObjectMap[1 << CHUNK_BITS];
+  }
+
+  private static String[] categoriesOf(ArticleRecord record) {
+    if (record.getSubcategoryUuid() == null) {
+      return new String[0];
+    }
+    return record.getCategoryUuid() == null
+        ? new String[] {record.getSubcategoryUuid()}
+        : new String[] {record.getSubcategoryUuid(), record.getCategoryUuid()};
+  }
+
+  /** Sku list without the sku, null if it becomes empty */
+  private static SortedLongList remove(SortedLongList categorySkus, long sku) {
+    SortedLongList remaining = categorySkus.without(sku);
+    return remaining.size() == 0 ? null : remaining;
+  }
+
+  /** Collects the articles of a new snapshot, see {@link #builder} */
+  public static class Builder {
+
+    private final MappedArticleStore.Writer writer;
+    private final LongObjectMap<ArticleRecord>[] articles = newChunks();
+    private final Map<String, SkuList> skusByCategory = new HashMap<>();
+    private final SkuList skus = new SkuList();
+
+    private Builder(MappedArticleStore.Writer writer) {
+      this.writer = writer;
+    }
+
+    /**
+     * Add an article
+     *
+     * @param record article, in ascending sku order if written to a store
+     */
+    public void add(ArticleRecord record) {
+      if (writer == null) {
+        int index = chunkOf(record.getSku());
+        if (articles[index] == null) {
+          articles[index] = new LongObjectMap<>();
+        }
+        articles[index].put(record.getSku(), record);
+      } else {
+        writer.add(record);
+      }
+      skus.add(record.getSku());
+      for (String uuid : categoriesOf(record)) {
+        skusByCategory.computeIfAbsent(uuid, k -> new SkuList()).add(record.getSku());
+      }
+    }
+
+    /**
+     * @return snapshot of all added articles
+     */
+    public CatalogSnapshot build() {
+      Map<String, SortedLongList> sortedSkus = new HashMap<>();
+      skusByCategory.forEach((uuid, list) -> sortedSkus.put(uuid, list.toSortedList()));
+      return new CatalogSnapshot(
+          articles, writer == null ? null : writer.finish(), sortedSkus, skus.toSortedList());
+    }
+  }
+
+  /** Growing list of primitive skus */
+  private static class SkuList {
+
+    private long[] values = new long[16];
+    private int size;
+
+    void add(long sku) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = sku;
+    }
+
+    SortedLongList toSortedList() {
+      long[] sorted = Arrays.copyOf(values, size);
+      Arrays.sort(sorted);
+      return SortedLongList.of(sorted);
+    }
+  }
+}
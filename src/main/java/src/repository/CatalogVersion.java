@@ -0,0 +1,132 @@
+package src.repository;
+
+import jakarta.annotation.Priority;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import jakarta.ws.rs.core.EntityTag;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Version and last modification of the whole catalog, changed by every catalog write. Catalog
+ * pages of anonymous users only depend on their url, the markup of the deployment and the catalog,
+ * so this version identifies their content for conditional requests. It's the last version of the
+ * shared {@link CatalogChangeLog}, so all nodes and redeployments of the same markup send the same
+ * tag for the same catalog.
+ *
+ * <p>The log is read at startup and after every change, never by a request: requests read the
+ * last published version without locking. While the log can't be read, a retry is scheduled and
+ * pages are served without validators
+ */
+@ApplicationScoped
+public class CatalogVersion {
+
+  private static final Logger LOGGER = Logger.getLogger(CatalogVersion.class.getName());
+
+  private static final long RETRY_SECONDS = 10;
+
+  @Inject CatalogChangeLog changeLog;
+
+  @Resource ManagedScheduledExecutorService scheduler;
+
+  // replaced as a whole, so a request never sees the tag of one version with the time of another
+  private volatile Validators validators = Validators.UNKNOWN;
+  private final AtomicBoolean retryScheduled = new AtomicBoolean();
+
+  /**
+   * Read the version once the application is deployed
+   *
+   * @param initialized application scope
+   */
+  public void start(@Observes @Initialized(ApplicationScoped.class) Object initialized) {
+    this.refresh();
+  }
+
+  /**
+   * @param release markup of the deployment, see the assets of the views
+   * @return strong entity tag of the current version, null if the version is unknown
+   */
+  public EntityTag getEntityTag(String release) {
+    String version = validators.version;
+    return version == null ? null : new EntityTag(release + "-" + version);
+  }
+
+  /**
+   * @return time of the last logged catalog write in whole seconds like http dates, null if
+   *     unknown
+   */
+  public Date getLastModified() {
+    Instant lastModified = validators.lastModified;
+    return lastModified == null ? null : Date.from(lastModified);
+  }
+
+  /**
+   * @return current version, null if unknown
+   */
+  public String getVersion() {
+    return validators.version;
+  }
+
+  /**
+   * Read the version again after a catalog write of any node. Runs after all caches are evicted,
+   * a page rendered under the new version never contains cached content of the old one
+   *
+   * @param event changed entity
+   */
+  public void onCatalogChange(
+      @Observes @Priority(Interceptor.Priority.LIBRARY_AFTER + 100) CatalogChangeEvent event) {
+    this.refresh();
+  }
+
+  // serialized, so an older read never replaces a newer one
+  private synchronized void refresh() {
+    try {
+      CatalogChangeLog.State state = changeLog.getState();
+      this.validators =
+          new Validators(
+              String.valueOf(state.getLastVersion()),
+              state.getLastChangedAt() == null
+                  ? null
+                  : Instant.ofEpochSecond(state.getLastChangedAt().getEpochSecond()));
+    } catch (RuntimeException e) {
+      // the content may have changed, the old version must not be sent anymore
+      this.validators = Validators.UNKNOWN;
+      LOGGER.log(
+          Level.WARNING,
+          "Failed to read the catalog version, retrying in " + RETRY_SECONDS + "s",
+          e);
+      if (retryScheduled.compareAndSet(false, true)) {
+        scheduler.schedule(this::retry, RETRY_SECONDS, TimeUnit.SECONDS);
+      }
+    }
+  }
+
+  private void retry() {
+    retryScheduled.set(false);
+    this.refresh();
+  }
+
+  /** Entity tag version and last modification sent together */
+  private static class Validators {
+
+    static final Validators UNKNOWN = new Validators(null, null);
+
+    // null while the log couldn't be read
+    final String version;
+    final Instant lastModified;
+
+    Validators(String version, Instant lastModified) {
+      this.version = version;
+      this.lastModified = lastModified;
+    }
+  }
+}
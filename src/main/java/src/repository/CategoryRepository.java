@@ -1,6 +1,7 @@
 package src.repository;
 
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.TypedQuery;
@@ -13,6 +14,7 @@ import src.model.Category;
 public class CategoryRepository {
 
   @PersistenceContext EntityManager entitymanager;
+  @Inject CatalogChangeBus catalogChangeBus;
 
   /**
    * Find all categories
@@ -63,6 +65,17 @@ public class CategoryRepository {
     }
   }
 
+  /**
+   * Find all subcategories
+   *
+   * @return list of all subcategories
+   */
+  public List<Subcategory> getSubcategories() {
+    TypedQuery<Subcategory> query =
+        entitymanager.createQuery("SELECT a FROM Subcategory a", Subcategory.class);
+    return query.getResultList();
+  }
+
   /**
    * Find subcategories belonging to main category uuid
    *
@@ -85,6 +98,7 @@ public class CategoryRepository {
   @Transactional
   public void save(Category category) {
     entitymanager.persist(category);
+    catalogChangeBus.publish(CatalogChangeEvent.category(category.getUuid(), false));
   }
 
   /**
@@ -95,6 +109,7 @@ public class CategoryRepository {
   @Transactional
   public void merge(Category category) {
     entitymanager.merge(category);
+    catalogChangeBus.publish(CatalogChangeEvent.category(category.getUuid(), false));
   }
 
   /**
@@ -108,6 +123,7 @@ public class CategoryRepository {
         .createQuery("DELETE FROM Category a WHERE a.uuid = ?1")
         .setParameter(1, uuid)
         .executeUpdate();
+    catalogChangeBus.publish(CatalogChangeEvent.category(uuid, true));
   }
 
   /**
@@ -118,6 +134,7 @@ public class CategoryRepository {
   @Transactional
   public void save(Subcategory subcategory) {
     entitymanager.persist(subcategory);
+    catalogChangeBus.publish(CatalogChangeEvent.subcategory(subcategory.getUuid(), false));
   }
 
   /**
@@ -128,6 +145,7 @@ public class CategoryRepository {
   @Transactional
   public void merge(Subcategory subcategory) {
     entitymanager.merge(subcategory);
+    catalogChangeBus.publish(CatalogChangeEvent.subcategory(subcategory.getUuid(), false));
   }
 
   /**
@@ -141,5 +159,6 @@ public class CategoryRepository {
             .createQuery("DELETE FROM Subcategory a WHERE a.uuid = ?1")
             .setParameter(1, uuid)
             .executeUpdate();
+    catalogChangeBus.publish(CatalogChangeEvent.subcategory(uuid, true));
   }
 }
@@ -0,0 +1,114 @@
+package src.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+import src.model.Category;
+import src.model.Subcategory;
+
+/**
+ * Immutable snapshot of all categories and subcategories with their uuid lookups, built at once
+ * and never modified. The entities are detached and shared by all requests, they must not be
+ * changed
+ */
+public class CategoryTree {
+
+  private static final Comparator<String> BY_NAME =
+      Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER);
+
+  // category name to uuid, ordered by name
+  @Getter private final Map<String, String> categoryNames;
+
+  // all categories and subcategories, ordered by name
+  @Getter private final List<Category> categories;
+  @Getter private final List<Subcategory> allSubcategories;
+
+  private final Map<String, Category> categoriesByUuid;
+  private final Map<String, Subcategory> subcategoriesByUuid;
+
+  // subcategories of every main category, ordered by name
+  private final Map<String, List<Subcategory>> subcategoriesByCategory;
+
+  /**
+   * Build the tree
+   *
+   * @param categories all categories
+   * @param subcategories all subcategories
+   */
+  public CategoryTree(List<Category> categories, List<Subcategory> subcategories) {
+    List<Category> sortedCategories = new ArrayList<>(categories);
+    sortedCategories.sort(Comparator.comparing(Category::getCategoryName, BY_NAME));
+
+    Map<String, String> names = new LinkedHashMap<>();
+    Map<String, Category> categoryLookup = new HashMap<>();
+    for (Category category : sortedCategories) {
+      names.put(category.getCategoryName(), category.getUuid());
+      categoryLookup.put(category.getUuid(), category);
+    }
+
+    List<Subcategory> sortedSubcategories = new ArrayList<>(subcategories);
+    sortedSubcategories.sort(Comparator.comparing(Subcategory::getCategoryName, BY_NAME));
+
+    Map<String, Subcategory> subcategoryLookup = new HashMap<>();
+    Map<String, List<Subcategory>> children = new HashMap<>();
+    for (Subcategory subcategory : sortedSubcategories) {
+      subcategoryLookup.put(subcategory.getUuid(), subcategory);
+      children
+          .computeIfAbsent(subcategory.getRootCategoryUuid(), k -> new ArrayList<>())
+          .add(subcategory);
+    }
+    children.replaceAll((uuid, list) -> Collections.unmodifiableList(list));
+
+    this.categoryNames = Collections.unmodifiableMap(names);
+    this.categories = Collections.unmodifiableList(sortedCategories);
+    this.allSubcategories = Collections.unmodifiableList(sortedSubcategories);
+    this.categoriesByUuid = categoryLookup;
+    this.subcategoriesByUuid = subcategoryLookup;
+    this.subcategoriesByCategory = children;
+  }
+
+  /**
+   * Find category by uuid
+   *
+   * @param uuid category uuid
+   * @return matching category, null if there is none
+   */
+  public Category getCategory(String uuid) {
+    return categoriesByUuid.get(uuid);
+  }
+
+  /**
+   * Find subcategory by uuid
+   *
+   * @param uuid subcategory uuid
+   * @return matching subcategory, null if there is none
+   */
+  public Subcategory getSubcategory(String uuid) {
+    return subcategoriesByUuid.get(uuid);
+  }
+
+  /**
+   * Find the main category of a subcategory
+   *
+   * @param subcategory subcategory
+   * @return main category, null if it doesn't exist
+   */
+  public Category getRootCategory(Subcategory subcategory) {
+    return categoriesByUuid.get(subcategory.getRootCategoryUuid());
+  }
+
+  /**
+   * Find the subcategories of a main category
+   *
+   * @param categoryUuid main category uuid
+   * @return subcategories ordered by name, empty if there are none
+   */
+  public List<Subcategory> getSubcategories(String categoryUuid) {
+    return subcategoriesByCategory.getOrDefault(categoryUuid, List.of());
+  }
+}
@@ -0,0 +1,75 @@
+package src.repository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import src.model.ArticleRecord;
+
+/**
+ * Application wide {@link CategoryTree} rendered by the navigation. The tree is built on first use
+ * and replaced as a whole with every rebuilt read model snapshot, which follows every category or
+ * subcategory write of the api, so readers always see one consistent snapshot without querying the
+ * database
+ */
+@ApplicationScoped
+public class CategoryTreeCache extends SnapshotIndex<CategoryTree> {
+
+  @Inject CategoryRepository repository;
+  @Inject CatalogDumps dumps;
+
+  // whether a tree was built, the first one is taken from the dump, guarded by this
+  private boolean built;
+
+  /**
+   * Get the current tree, this never queries once it is built
+   *
+   * @return immutable category tree
+   */
+  public CategoryTree getTree() {
+    return this.get();
+  }
+
+  /**
+   * Build a new tree out of all categories and subcategories. The first one is taken from the last
+   * {@link CatalogDump} if no category changed since
+   */
+  @Override
+  protected CategoryTree derive(CatalogSnapshot snapshot) {
+    CategoryTree restored = built ? null : this.restore();
+    built = true;
+    return restored != null
+        ? restored
+        : new CategoryTree(repository.getCategories(), repository.getSubcategories());
+  }
+
+  /**
+   * @return the same tree, articles are not part of it
+   */
+  @Override
+  protected CategoryTree update(CategoryTree tree, ArticleRecord previous, ArticleRecord current) {
+    return tree;
+  }
+
+  private CategoryTree restore() {
+    CatalogDump dump = dumps.open();
+    if (dump == null) {
+      return null;
+    }
+
+    try {
+      for (CatalogChangeEvent change : dumps.getChangesSince(dump)) {
+        switch (change.getEntityType()) {
+          case CATEGORY:
+          case SUBCATEGORY:
+          case CATALOG:
+            return null;
+          default:
+            break;
+        }
+      }
+      return new CategoryTree(dump.getCategories(), dump.getSubcategories());
+    } catch (RuntimeException e) {
+      // the database is asked instead
+      return null;
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package src.repository;
+
+import lombok.Getter;
+
+/**
+ * Named entity graphs describing which associations a view needs, so they are loaded together with
+ * the entities instead of lazily one by one
+ */
+@Getter
+public enum FetchPlan {
+  // list tiles: article with its images
+  TILE("Article.tile"),
+  // detail page: article with images, subcategory and main category
+  DETAIL("Article.detail"),
+  // shopping cart: entries with article and its images
+  CART("ShoppingCart.cart");
+
+  public static final String LOAD_GRAPH_HINT = "jakarta.persistence.loadgraph";
+
+  private final String graphName;
+
+  FetchPlan(String graphName) {
+    this.graphName = graphName;
+  }
+}
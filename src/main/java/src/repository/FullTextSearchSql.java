@@ -0,0 +1,139 @@
+package src.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import src.utils.StringUtils;
+
+/**
+ * Native PostgreSQL statements of the full text search (see db/fulltext_search.sql). A term matches
+ * the generated tsvector column of title and description or, via the trigram index, a substring of
+ * the title. Results are ranked with ts_rank.
+ */
+class FullTextSearchSql {
+
+  // text search configuration, must match the one of the generated column
+  private static final String TS_QUERY = "websearch_to_tsquery('english', ?)";
+
+  // whether the last article of the previous page still exists
+  private static final String EXISTS = "EXISTS (SELECT 1 FROM article b WHERE b.sku = ?)";
+
+  private final String query;
+  private final String categoryUuid;
+  private final String subcategoryUuid;
+  private final PriceFilter filter;
+
+  FullTextSearchSql(String query, String categoryUuid, String subcategoryUuid) {
+    this(query, categoryUuid, subcategoryUuid, PriceFilter.NONE);
+  }
+
+  FullTextSearchSql(
+      String query, String categoryUuid, String subcategoryUuid, PriceFilter filter) {
+    this.query = query;
+    this.categoryUuid = categoryUuid;
+    this.subcategoryUuid = subcategoryUuid;
+    this.filter = filter;
+  }
+
+  /**
+   * Count all matching articles
+   *
+   * @return statement selecting one count
+   */
+  Statement count() {
+    Statement statement = new Statement("SELECT count(*)");
+    this.appendFromWhere(statement);
+    return statement;
+  }
+
+  /**
+   * Find the skus of one page of matching articles, ordered by descending rank or by the sort
+   * option, then by sku
+   *
+   * @param sort sort option, DEFAULT orders by rank
+   * @param afterSku last sku of the previous page for keyset pagination over the rank, null for
+   *     offset. Ignored for other sort options
+   * @param offset index of the first article of the page, for keyset pagination only used if the
+   *     afterSku article was deleted meanwhile
+   * @param limit page size
+   * @return statement selecting skus
+   */
+  Statement page(ArticleSort sort, Long afterSku, int offset, int limit) {
+    Statement statement = new Statement("SELECT a.sku");
+    this.appendFromWhere(statement);
+
+    boolean keyset = afterSku != null && sort == ArticleSort.DEFAULT;
+    if (keyset) {
+      // rows following (rank, sku) of the last article in ORDER BY rank DESC, sku ASC. Without
+      // that article there is no rank to seek behind, the page is taken by offset instead
+      statement.append(" AND (NOT " + EXISTS, afterSku);
+      statement.append(" OR (" + this.rank("a"), query);
+      statement.append(", -a.sku) < (SELECT " + this.rank("b"), query);
+      statement.append(", -b.sku FROM article b WHERE b.sku = ?))", afterSku);
+    }
+
+    if (sort == ArticleSort.DEFAULT) {
+      statement.append(" ORDER BY " + this.rank("a"), query);
+      statement.append(" DESC, a.sku");
+    } else {
+      statement.append(" ORDER BY a." + sort.getColumn() + (sort.isDescending() ? " DESC" : ""));
+      statement.append(sort.isSkuOrder() ? "" : ", a.sku");
+    }
+    statement.append(" LIMIT ?", limit);
+    if (keyset) {
+      statement.append(
+          " OFFSET (CASE WHEN " + EXISTS + " THEN 0 ELSE ? END)", afterSku, Math.max(offset, 0));
+    } else {
+      statement.append(" OFFSET ?", Math.max(offset, 0));
+    }
+    return statement;
+  }
+
+  private void appendFromWhere(Statement statement) {
+    statement.append(" FROM article a LEFT JOIN subcategory s ON s.uuid = a.subcategory_uuid");
+    statement.append(" WHERE (a.search_vector @@ " + TS_QUERY, query);
+    statement.append(" OR lower(a.title) LIKE ?)", "%" + query.toLowerCase() + "%");
+
+    if (!StringUtils.isEmpty(categoryUuid)) {
+      statement.append(" AND s.root_category_uuid = ?", categoryUuid);
+    }
+    if (!StringUtils.isEmpty(subcategoryUuid)) {
+      statement.append(" AND a.subcategory_uuid = ?", subcategoryUuid);
+    }
+
+    if (filter.getMinPrice() != null) {
+      statement.append(" AND a.selling_price >= ?", filter.getMinPrice());
+    }
+    if (filter.getMaxPrice() != null) {
+      statement.append(" AND a.selling_price <= ?", filter.getMaxPrice());
+    }
+    if (filter.isInStockOnly()) {
+      statement.append(" AND a.available AND a.stock > 0");
+    }
+  }
+
+  private String rank(String alias) {
+    return "ts_rank(" + alias + ".search_vector, " + TS_QUERY + ")";
+  }
+
+  /** SQL string with its positional (JDBC style) parameters in order of appearance */
+  @Getter
+  static class Statement {
+
+    private final StringBuilder sql;
+    private final List<Object> parameters = new ArrayList<>();
+
+    private Statement(String sql) {
+      this.sql = new StringBuilder(sql);
+    }
+
+    public String getSql() {
+      return sql.toString();
+    }
+
+    private void append(String part, Object... partParameters) {
+      sql.append(part);
+      parameters.addAll(List.of(partParameters));
+    }
+  }
+}
@@ -0,0 +1,253 @@
+package src.repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import src.model.ArticleRecord;
+
+/**
+ * Read-only article records in a memory-mapped file, for catalogs too large to keep on the heap.
+ * The file holds a header, a data region of variable-length records and a fixed-width index of
+ * (sku, offset) pairs ordered by sku. Lookups binary search the mapped index and decode only the
+ * found record, the mapped pages belong to the page cache of the operating system, so the heap
+ * doesn't grow with the catalog
+ */
+public class MappedArticleStore {
+
+  private static final int MAGIC = 0x43415453; // "CATS"
+  private static final int VERSION = 1;
+
+  // magic, version, count, reserved, index offset
+  private static final int HEADER_SIZE = 24;
+  private static final int INDEX_ENTRY_SIZE = 16;
+
+  // size of one mapping of the data region, records never cross a segment
+  static final int SEGMENT_SIZE = 1 << 30;
+
+  private final Path file;
+  private final int count;
+  private final ByteBuffer index;
+  private final ByteBuffer[] segments;
+
+  private MappedArticleStore(Path file, int count, ByteBuffer index, ByteBuffer[] segments) {
+    this.file = file;
+    this.count = count;
+    this.index = index;
+    this.segments = segments;
+  }
+
+  /**
+   * Start writing a new store
+   *
+   * @param file file of the store, replaced if it exists
+   * @return writer accepting the records in ascending sku order
+   */
+  public static Writer write(Path file) {
+    return new Writer(file);
+  }
+
+  /**
+   * Map an existing store
+   *
+   * @param file file of the store
+   * @return mapped store
+   */
+  public static MappedArticleStore open(Path file) {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+      if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+        throw new IllegalStateException("Not a catalog store of version " + VERSION + ": " + file);
+      }
+      int count = header.getInt();
+      header.getInt();
+      long indexOffset = header.getLong();
+
+      ByteBuffer index =
+          channel.map(
+              FileChannel.MapMode.READ_ONLY, indexOffset, (long) count * INDEX_ENTRY_SIZE);
+
+      long dataSize = indexOffset - HEADER_SIZE;
+      int segmentCount = (int) ((dataSize + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+      ByteBuffer[] segments = new ByteBuffer[segmentCount];
+      for (int i = 0; i < segmentCount; i++) {
+        long start = (long) i * SEGMENT_SIZE;
+        segments[i] =
+            channel.map(
+                FileChannel.MapMode.READ_ONLY,
+                HEADER_SIZE + start,
+                Math.min(SEGMENT_SIZE, dataSize - start));
+      }
+      return new MappedArticleStore(file, count, index, segments);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to map " + file, e);
+    }
+  }
+
+  /**
+   * @return file of the store
+   */
+  public Path getFile() {
+    return file;
+  }
+
+  /**
+   * @return amount of stored articles
+   */
+  public int size() {
+    return count;
+  }
+
+  /**
+   * Find an article
+   *
+   * @param sku article sku
+   * @return decoded record, null if it isn't stored
+   */
+  public ArticleRecord find(long sku) {
+    int low = 0;
+    int high = count - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      long middleSku = index.getLong(middle * INDEX_ENTRY_SIZE);
+      if (middleSku < sku) {
+        low = middle + 1;
+      } else if (middleSku > sku) {
+        high = middle - 1;
+      } else {
+        return this.read(index.getLong(middle * INDEX_ENTRY_SIZE + 8));
+      }
+    }
+    return null;
+  }
+
+  private ArticleRecord read(long offset) {
+    // a view per read, the position of the shared mapping is never changed
+    ByteBuffer data = segments[(int) (offset / SEGMENT_SIZE)].duplicate();
+    data.position((int) (offset % SEGMENT_SIZE));
+    return ArticleRecordCodec.decode(data);
+  }
+
+  /** Writes the records of a new store, see {@link #write} */
+  public static class Writer implements AutoCloseable {
+
+    private final Path file;
+    private final Path indexFile;
+    private final FileChannel data;
+    private final FileChannel index;
+    private final ByteBuffer indexEntry = ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+
+    private final ArticleRecordCodec codec = new ArticleRecordCodec();
+    private long dataSize;
+    private long lastSku;
+    private int count;
+
+    private Writer(Path file) {
+      this.file = file;
+      this.indexFile = file.resolveSibling(file.getFileName() + ".index");
+      try {
+        this.data =
+            FileChannel.open(
+                file,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.index =
+            FileChannel.open(
+                indexFile,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        data.position(HEADER_SIZE);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to create " + file, e);
+      }
+    }
+
+    /**
+     * Append a record
+     *
+     * @param record article, its sku must be greater than the one of the previous record
+     */
+    public void add(ArticleRecord record) {
+      if (count > 0 && record.getSku() <= lastSku) {
+        throw new IllegalArgumentException("Records must be added in ascending sku order");
+      }
+
+      ByteBuffer encoded = codec.encode(record);
+      if (encoded.remaining() > SEGMENT_SIZE) {
+        throw new IllegalArgumentException("Article too large to store: " + record.getSku());
+      }
+      try {
+        // records never cross a segment, the rest of the segment is left empty
+        long segmentRest = SEGMENT_SIZE - dataSize % SEGMENT_SIZE;
+        if (encoded.remaining() > segmentRest) {
+          dataSize += segmentRest;
+          data.position(HEADER_SIZE + dataSize);
+        }
+
+        indexEntry.clear();
+        indexEntry.putLong(record.getSku()).putLong(dataSize).flip();
+        while (indexEntry.hasRemaining()) {
+          index.write(indexEntry);
+        }
+
+        dataSize += encoded.remaining();
+        while (encoded.hasRemaining()) {
+          data.write(encoded);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to write " + file, e);
+      }
+      lastSku = record.getSku();
+      count++;
+    }
+
+    /**
+     * Complete the file and map it
+     *
+     * @return mapped store of the written records
+     */
+    public MappedArticleStore finish() {
+      try {
+        long indexOffset = HEADER_SIZE + dataSize;
+        long indexSize = (long) count * INDEX_ENTRY_SIZE;
+        if (indexSize > Integer.MAX_VALUE) {
+          throw new IllegalStateException("Too many articles for one store: " + count);
+        }
+        index.position(0);
+        long transferred = 0;
+        while (transferred < indexSize) {
+          transferred +=
+              data.transferFrom(index, indexOffset + transferred, indexSize - transferred);
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(count).putInt(0).putLong(indexOffset).flip();
+        data.write(header, 0);
+        data.force(false);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to write " + file, e);
+      } finally {
+        this.close();
+      }
+      return open(file);
+    }
+
+    @Override
+    public void close() {
+      try {
+        data.close();
+        index.close();
+        Files.deleteIfExists(indexFile);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to close " + file, e);
+      }
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package src.repository;
+
+import java.util.Objects;
+import lombok.Getter;
+
+/**
+ * Price range and availability filter of the article list. Bounds are inclusive, a missing bound
+ * doesn't restrict the range
+ */
+@Getter
+public class PriceFilter {
+
+  public static final PriceFilter NONE = new PriceFilter(null, null, false);
+
+  private final Double minPrice;
+  private final Double maxPrice;
+
+  // only articles which are available and have stock left
+  private final boolean inStockOnly;
+
+  public PriceFilter(Double minPrice, Double maxPrice, boolean inStockOnly) {
+    this.minPrice = minPrice;
+    this.maxPrice = maxPrice;
+    this.inStockOnly = inStockOnly;
+  }
+
+  /**
+   * Parse the filter out of request parameters, invalid prices are ignored
+   *
+   * @param minPrice lowest selling price
+   * @param maxPrice highest selling price
+   * @param inStock "true" to only find articles in stock
+   * @return parsed filter, {@link #NONE} if nothing is filtered
+   */
+  public static PriceFilter fromParameters(String minPrice, String maxPrice, String inStock) {
+    PriceFilter filter =
+        new PriceFilter(parsePrice(minPrice), parsePrice(maxPrice), "true".equals(inStock));
+    return filter.isEmpty() ? NONE : filter;
+  }
+
+  /**
+   * @return whether the filter restricts nothing
+   */
+  public boolean isEmpty() {
+    return !this.isPriceBounded() && !inStockOnly;
+  }
+
+  /**
+   * @return whether a minimum or maximum price is set, articles without price are excluded then
+   */
+  public boolean isPriceBounded() {
+    return minPrice != null || maxPrice != null;
+  }
+
+  private static Double parsePrice(String price) {
+    try {
+      double parsed = Double.parseDouble(price);
+      return Double.isFinite(parsed) && parsed >= 0 ? parsed : null;
+    } catch (Exception ignored) {
+      return null;
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof PriceFilter)) {
+      return false;
+    }
+    PriceFilter other = (PriceFilter) o;
+    return inStockOnly == other.inStockOnly
+        && Objects.equals(minPrice, other.minPrice)
+        && Objects.equals(maxPrice, other.maxPrice);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(minPrice, maxPrice, inStockOnly);
+  }
+}
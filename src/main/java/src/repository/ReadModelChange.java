@@ -0,0 +1,63 @@
+package src.repository;
+
+import lombok.Getter;
+import src.model.ArticleRecord;
+
+/**
+ * CDI event fired by the {@link CatalogReadModel} after it published a new snapshot. The indexes
+ * derived from the snapshot are updated with it, so a catalog write loads the written article
+ * once for all of them
+ */
+@Getter
+public class ReadModelChange {
+
+  // snapshot replaced by the change
+  private final CatalogSnapshot previousSnapshot;
+
+  private final CatalogSnapshot snapshot;
+
+  // built anew out of all articles, the records are null then
+  private final boolean rebuilt;
+
+  // written article before and after the change, null if it was added or deleted
+  private final ArticleRecord previous;
+  private final ArticleRecord current;
+
+  private ReadModelChange(
+      CatalogSnapshot previousSnapshot,
+      CatalogSnapshot snapshot,
+      boolean rebuilt,
+      ArticleRecord previous,
+      ArticleRecord current) {
+    this.previousSnapshot = previousSnapshot;
+    this.snapshot = snapshot;
+    this.rebuilt = rebuilt;
+    this.previous = previous;
+    this.current = current;
+  }
+
+  /**
+   * @param previousSnapshot replaced snapshot
+   * @param snapshot snapshot built out of all articles
+   * @return change replacing all articles
+   */
+  public static ReadModelChange rebuilt(
+      CatalogSnapshot previousSnapshot, CatalogSnapshot snapshot) {
+    return new ReadModelChange(previousSnapshot, snapshot, true, null, null);
+  }
+
+  /**
+   * @param previousSnapshot replaced snapshot
+   * @param snapshot patched snapshot
+   * @param previous article before the write, null if it was added
+   * @param current article after the write, null if it was deleted
+   * @return change of one article
+   */
+  public static ReadModelChange patched(
+      CatalogSnapshot previousSnapshot,
+      CatalogSnapshot snapshot,
+      ArticleRecord previous,
+      ArticleRecord current) {
+    return new ReadModelChange(previousSnapshot, snapshot, false, previous, current);
+  }
+}
@@ -0,0 +1,101 @@
+package src.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Priority;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import src.config.CatalogConfig;
+import src.model.ArticleRecord;
+
+/**
+ * Application wide {@link SkuResultCache} of the catalog listings and searches. Stale results are
+ * refreshed by the managed executor of the container. An article write only evicts the results
+ * containing that article or possibly matching it now, category and subcategory writes evict all
+ * results
+ */
+@ApplicationScoped
+public class SearchResultCache {
+
+  @Inject CatalogReadModel readModel;
+  @Inject CatalogConfig catalogConfig;
+  @Resource ManagedExecutorService executor;
+
+  private SkuResultCache cache;
+
+  @PostConstruct
+  public void init() {
+    this.cache =
+        new SkuResultCache(
+            catalogConfig.getResultCacheMaxSkus(),
+            catalogConfig.getResultCacheFreshSeconds() * 1000,
+            catalogConfig.getResultCacheMaxStaleSeconds() * 1000,
+            executor,
+            Clock.systemUTC());
+  }
+
+  /**
+   * Get the result of a query, see {@link SkuResultCache#get}
+   *
+   * @param key normalized query
+   * @param loader loads the result of a key
+   * @return cached or loaded result
+   */
+  public SkuResultCache.Result get(
+      SkuResultCache.Key key, Function<SkuResultCache.Key, SkuResultCache.Result> loader) {
+    return cache.get(key, loader);
+  }
+
+  /**
+   * @return load and coalescing counts of the cache misses
+   */
+  public SingleFlight<SkuResultCache.Key, SkuResultCache.Result> getLoads() {
+    return cache.getLoads();
+  }
+
+  /**
+   * Evict the results depending on the written entity. Runs after the default observers, so the
+   * read model and the in-memory indexes already contain the write once a result is loaded again
+   *
+   * @param event changed entity
+   */
+  public void onCatalogChange(
+      @Observes @Priority(Interceptor.Priority.LIBRARY_AFTER) CatalogChangeEvent event) {
+    switch (event.getEntityType()) {
+      case ARTICLE:
+        // results containing the article may have changed, results of its current categories and
+        // results not scoped to a category may contain it now. Results of other categories aren't
+        // affected
+        long sku = event.getArticleSku();
+        CatalogSnapshot snapshot = readModel.getBuiltSnapshot();
+        if (snapshot == null) {
+          // the categories of the article are unknown without loading it
+          cache.clear();
+          break;
+        }
+        ArticleRecord record = snapshot.find(sku);
+        List<String> categoryUuids =
+            record == null
+                ? List.of()
+                : Arrays.asList(record.getSubcategoryUuid(), record.getCategoryUuid());
+        cache.evictArticle(sku, categoryUuids);
+        break;
+      case CATEGORY:
+      case SUBCATEGORY:
+      case CATALOG:
+        // category assignments of many articles may have changed
+        cache.clear();
+        break;
+      default:
+        // images aren't part of a result
+        break;
+    }
+  }
+}
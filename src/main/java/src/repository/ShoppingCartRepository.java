@@ -5,6 +5,7 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
 import java.util.List;
+import java.util.UUID;
 import src.model.ShoppingCart;
 
 @ApplicationScoped
@@ -24,6 +25,10 @@ public class ShoppingCartRepository {
             // keep fixed order for usability
             "SELECT c FROM ShoppingCart c WHERE c.email = ?1 ORDER BY c.uuid")
         .setParameter(1, email)
+        // load articles and their images together with the entries
+        .setHint(
+            FetchPlan.LOAD_GRAPH_HINT,
+            entitymanager.getEntityGraph(FetchPlan.CART.getGraphName()))
         .getResultList();
   }
 
@@ -79,6 +84,40 @@ public class ShoppingCartRepository {
     entitymanager.merge(shoppingCart);
   }
 
+  /**
+   * Add an article to the cart of a user in one atomic statement. A new entry is inserted, or the
+   * amount of the existing entry is increased on conflict with the unique (email, article_sku)
+   * index. The amount is clamped to the stock of the article in the same statement, so concurrent
+   * adds neither duplicate the entry nor exceed the stock. An entry already holding the whole stock
+   * is left as is. Requires db/shopping_cart_upsert.sql
+   *
+   * @param email user email
+   * @param sku article sku
+   * @param amount amount to add, positive
+   * @return whether the amount was added, false if the article doesn't exist, is out of stock or
+   *     the cart already holds the whole stock
+   */
+  @Transactional
+  public boolean addToCart(String email, long sku, long amount) {
+    return entitymanager
+            .createNativeQuery(
+                "INSERT INTO shopping_cart (uuid, email, article_sku, amount)"
+                    + " SELECT ?, ?, a.sku, LEAST(?, a.stock) FROM article a"
+                    + " WHERE a.sku = ? AND a.stock > 0"
+                    + " ON CONFLICT (email, article_sku) DO UPDATE"
+                    + " SET amount = LEAST(shopping_cart.amount + EXCLUDED.amount,"
+                    + " (SELECT a.stock FROM article a WHERE a.sku = EXCLUDED.article_sku))"
+                    // an entry already holding the whole stock isn't updated, no row counts
+                    + " WHERE shopping_cart.amount"
+                    + " < (SELECT a.stock FROM article a WHERE a.sku = EXCLUDED.article_sku)")
+            .setParameter(1, UUID.randomUUID().toString())
+            .setParameter(2, email)
+            .setParameter(3, amount)
+            .setParameter(4, sku)
+            .executeUpdate()
+        > 0;
+  }
+
   /**
    * Delete entity
    *
@@ -0,0 +1,133 @@
+package src.repository;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the load, callers arriving
+ * while it's in flight wait for it and share its result (or exception) instead of loading again.
+ * Nothing is cached, the next call after completion loads again.
+ *
+ * <p>Shared results are handed to several threads, so they must not be modified by the callers.
+ *
+ * @param <K> key, requires equals and hashCode
+ * @param <V> loaded value
+ */
+public class SingleFlight<K, V> {
+
+  // keys with coalescing statistics, further keys are only part of the totals
+  private static final int MAX_TRACKED_KEYS = 10000;
+
+  private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+  private final Map<K, LongAdder> coalescedByKey = new ConcurrentHashMap<>();
+  private final LongAdder loads = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+
+  /**
+   * Load a value, or join the load of the same key which is already in flight
+   *
+   * @param key load key
+   * @param loader loads the value, runs in the calling thread
+   * @return loaded or shared value
+   */
+  public V load(K key, Supplier<V> loader) {
+    CompletableFuture<V> own = new CompletableFuture<>();
+    CompletableFuture<V> running = inFlight.putIfAbsent(key, own);
+    if (running != null) {
+      coalesced.increment();
+      this.getCounter(key).increment();
+      return join(running);
+    }
+
+    loads.increment();
+    try {
+      V value = loader.get();
+      own.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      own.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, own);
+    }
+  }
+
+  /**
+   * @return amount of loads which ran
+   */
+  public long getLoads() {
+    return loads.sum();
+  }
+
+  /**
+   * @return amount of callers which shared another load
+   */
+  public long getCoalesced() {
+    return coalesced.sum();
+  }
+
+  /**
+   * Get the amount of coalesced callers of one key
+   *
+   * @param key load key
+   * @return coalesced callers, 0 if none was coalesced or the key isn't tracked
+   */
+  public long getCoalesced(K key) {
+    LongAdder counter = coalescedByKey.get(key);
+    return counter == null ? 0 : counter.sum();
+  }
+
+  /**
+   * Get the totals and the keys with the most coalesced callers
+   *
+   * @param topKeys amount of keys to report
+   * @return loads, coalesced and coalesced callers by key, highest first
+   */
+  public Map<String, Object> getStatistics(int topKeys) {
+    Map<String, Long> keys = new LinkedHashMap<>();
+    coalescedByKey.entrySet().stream()
+        .map(entry -> Map.entry(String.valueOf(entry.getKey()), entry.getValue().sum()))
+        .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+        .limit(topKeys)
+        .forEach(entry -> keys.put(entry.getKey(), entry.getValue()));
+
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("loads", this.getLoads());
+    result.put("coalesced", this.getCoalesced());
+    result.put("keys", keys);
+    return result;
+  }
+
+  private LongAdder getCounter(K key) {
+    LongAdder counter = coalescedByKey.get(key);
+    if (counter != null) {
+      return counter;
+    }
+    // not tracked anymore, counted by the totals only
+    if (coalescedByKey.size() >= MAX_TRACKED_KEYS) {
+      return new LongAdder();
+    }
+    return coalescedByKey.computeIfAbsent(key, k -> new LongAdder());
+  }
+
+  /** Wait for a shared load, its exception is rethrown unwrapped */
+  private static <V> V join(CompletableFuture<V> running) {
+    try {
+      return running.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw e;
+    }
+  }
+}
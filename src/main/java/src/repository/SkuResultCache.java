@@ -0,0 +1,314 @@
+package src.repository;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import lombok.Getter;
+
+/**
+ * Bounded cache of catalog query results. A result is the ordered sku list of a query (or its
+ * first part) and the total count, so a cached page costs one tile query by sku.
+ *
+ * <p>Entries are fresh for a while, then stale: a stale entry is still returned, while a
+ * background refresh replaces it (stale-while-revalidate). Entries which are too old are reloaded
+ * before they are returned. The least recently used entries are evicted once the cached skus
+ * exceed the size limit.
+ *
+ * <p>Concurrent misses of the same query share one load, see {@link SingleFlight}.
+ *
+ * <p>Every entry keeps its skus sorted as well, so the entries depending on a written article are
+ * found by binary search and evicted without touching the others. Entries not scoped to a category
+ * (searches and filters over the whole catalog) may match any written article, they are evicted by
+ * every article write.
+ */
+public class SkuResultCache {
+
+  private final long maxSkus;
+  private final long freshMillis;
+  private final long maxStaleMillis;
+  private final Executor refresher;
+  private final Clock clock;
+
+  // access ordered, guarded by this
+  private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long cachedSkus;
+
+  // incremented by every eviction, results loaded before are not cached anymore
+  private long generation;
+
+  // concurrent misses of one key share a single load
+  private final SingleFlight<Key, Result> loads = new SingleFlight<>();
+
+  /**
+   * @param maxSkus highest amount of skus of all entries together
+   * @param freshMillis age until an entry is refreshed
+   * @param maxStaleMillis age until an entry is reloaded before it's returned
+   * @param refresher executes the background refreshes
+   * @param clock clock of the entry ages
+   */
+  public SkuResultCache(
+      long maxSkus, long freshMillis, long maxStaleMillis, Executor refresher, Clock clock) {
+    this.maxSkus = maxSkus;
+    this.freshMillis = freshMillis;
+    this.maxStaleMillis = maxStaleMillis;
+    this.refresher = refresher;
+    this.clock = clock;
+  }
+
+  /**
+   * Get the result of a query, loading it if it isn't cached or too old
+   *
+   * @param key normalized query
+   * @param loader loads the result of a key
+   * @return cached or loaded result
+   */
+  public Result get(Key key, Function<Key, Result> loader) {
+    Entry entry;
+    long loadGeneration;
+    synchronized (this) {
+      entry = entries.get(key);
+      loadGeneration = generation;
+    }
+
+    long now = clock.millis();
+    if (entry == null || now - entry.loadedAt > maxStaleMillis) {
+      return loads.load(
+          key,
+          () -> {
+            Result result = loader.apply(key);
+            this.put(key, new Entry(key, result, now), loadGeneration);
+            return result;
+          });
+    }
+
+    if (now - entry.loadedAt > freshMillis && entry.refreshing.compareAndSet(false, true)) {
+      refresher.execute(() -> this.refresh(key, entry, loader));
+    }
+    return entry.result;
+  }
+
+  /**
+   * Evict all entries containing the sku or which may contain it now: the entries of its categories
+   * and all entries not scoped to a category
+   *
+   * @param sku written article
+   * @param categoryUuids main category and subcategory uuids of the article, null entries allowed,
+   *     empty if the article was deleted and is only removed from the entries containing it
+   */
+  public void evictArticle(long sku, List<String> categoryUuids) {
+    boolean exists = !categoryUuids.isEmpty();
+    this.evictIf(
+        entry ->
+            Arrays.binarySearch(entry.sortedSkus, sku) >= 0
+                || entry.key.dependsOnAny(categoryUuids)
+                || (exists && entry.key.isUnscoped()));
+  }
+
+  /**
+   * Evict all entries
+   */
+  public synchronized void clear() {
+    entries.clear();
+    cachedSkus = 0;
+    generation++;
+  }
+
+  /**
+   * @return load and coalescing counts of the cache misses
+   */
+  public SingleFlight<Key, Result> getLoads() {
+    return loads;
+  }
+
+  /**
+   * @return amount of cached results
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  private void refresh(Key key, Entry stale, Function<Key, Result> loader) {
+    long loadGeneration;
+    synchronized (this) {
+      loadGeneration = generation;
+    }
+    try {
+      this.put(key, new Entry(key, loader.apply(key), clock.millis()), loadGeneration);
+    } finally {
+      stale.refreshing.set(false);
+    }
+  }
+
+  private synchronized void put(Key key, Entry entry, long loadGeneration) {
+    // evicted while loading, the result may already be outdated
+    if (loadGeneration != generation) {
+      return;
+    }
+
+    Entry previous = entries.put(key, entry);
+    if (previous != null) {
+      cachedSkus -= previous.weight();
+    }
+    cachedSkus += entry.weight();
+
+    Iterator<Entry> eldest = entries.values().iterator();
+    while (cachedSkus > maxSkus && eldest.hasNext()) {
+      cachedSkus -= eldest.next().weight();
+      eldest.remove();
+    }
+  }
+
+  private synchronized void evictIf(Predicate<Entry> condition) {
+    List<Key> evicted = new ArrayList<>();
+    for (Entry entry : entries.values()) {
+      if (condition.test(entry)) {
+        evicted.add(entry.key);
+      }
+    }
+    for (Key key : evicted) {
+      cachedSkus -= entries.remove(key).weight();
+    }
+    generation++;
+  }
+
+  /** Normalized query, equal queries share one entry */
+  @Getter
+  public static class Key {
+
+    private final String categoryUuid;
+    private final String subcategoryUuid;
+    private final String query;
+    private final PriceFilter filter;
+    private final ArticleSort sort;
+
+    private Key(
+        String categoryUuid,
+        String subcategoryUuid,
+        String query,
+        PriceFilter filter,
+        ArticleSort sort) {
+      this.categoryUuid = categoryUuid;
+      this.subcategoryUuid = subcategoryUuid;
+      this.query = query;
+      this.filter = filter;
+      this.sort = sort;
+    }
+
+    /**
+     * Normalize a query: blank values are dropped, search terms are trimmed, lowercased and
+     * separated by single spaces. All search modes ignore case and surrounding whitespace
+     *
+     * @return normalized key
+     */
+    public static Key of(
+        String categoryUuid,
+        String subcategoryUuid,
+        String query,
+        PriceFilter filter,
+        ArticleSort sort) {
+      return new Key(
+          blankToNull(categoryUuid),
+          blankToNull(subcategoryUuid),
+          query == null ? null : blankToNull(query.trim().replaceAll("\\s+", " ").toLowerCase()),
+          filter == null ? PriceFilter.NONE : filter,
+          sort == null ? ArticleSort.DEFAULT : sort);
+    }
+
+    private boolean isUnscoped() {
+      return categoryUuid == null && subcategoryUuid == null;
+    }
+
+    private boolean dependsOnAny(List<String> categoryUuids) {
+      return (categoryUuid != null && categoryUuids.contains(categoryUuid))
+          || (subcategoryUuid != null && categoryUuids.contains(subcategoryUuid));
+    }
+
+    private static String blankToNull(String value) {
+      return value == null || value.isBlank() ? null : value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return Objects.equals(categoryUuid, other.categoryUuid)
+          && Objects.equals(subcategoryUuid, other.subcategoryUuid)
+          && Objects.equals(query, other.query)
+          && filter.equals(other.filter)
+          && sort == other.sort;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(categoryUuid, subcategoryUuid, query, filter, sort);
+    }
+
+    @Override
+    public String toString() {
+      return "category="
+          + categoryUuid
+          + ", subcategory="
+          + subcategoryUuid
+          + ", query="
+          + query
+          + ", sort="
+          + sort
+          + (filter.isEmpty() ? "" : ", filtered");
+    }
+  }
+
+  /** Ordered skus of a query, possibly only the first ones, and the total count */
+  @Getter
+  public static class Result {
+
+    private final long[] skus;
+    private final long totalCount;
+
+    public Result(long[] skus, long totalCount) {
+      this.skus = skus;
+      this.totalCount = totalCount;
+    }
+
+    /**
+     * @return whether the skus contain all matches
+     */
+    public boolean isComplete() {
+      return skus.length >= totalCount;
+    }
+  }
+
+  private static final class Entry {
+
+    private final Key key;
+    private final Result result;
+    private final long[] sortedSkus;
+    private final long loadedAt;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private Entry(Key key, Result result, long loadedAt) {
+      this.key = key;
+      this.result = result;
+      this.sortedSkus = result.skus.clone();
+      Arrays.sort(sortedSkus);
+      this.loadedAt = loadedAt;
+    }
+
+    /** Cached skus, an empty result still costs one */
+    private long weight() {
+      return Math.max(result.skus.length, 1);
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package src.repository;
+
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.util.function.Function;
+import src.model.ArticleRecord;
+
+/**
+ * Application wide structure derived from the {@link CatalogReadModel} snapshot, e.g. an index of
+ * the articles. It is derived on first use and follows the {@link ReadModelChange}s of the read
+ * model: a written article is applied with the records of the change, without loading it again,
+ * and a rebuilt snapshot is derived anew. Readers never lock once it is derived
+ *
+ * @param <T> derived structure
+ */
+public abstract class SnapshotIndex<T> {
+
+  @Inject CatalogReadModel readModel;
+
+  private volatile Derived<T> derived;
+
+  /**
+   * Get the current structure, this never blocks once it is derived
+   *
+   * @return derived structure
+   */
+  protected T get() {
+    Derived<T> current = derived;
+    if (current == null) {
+      // built before locking, the read model publishes its changes to this while locked
+      readModel.getSnapshot();
+      synchronized (this) {
+        if (derived == null) {
+          CatalogSnapshot snapshot = readModel.getSnapshot();
+          this.derived = new Derived<>(snapshot, this.derive(snapshot));
+        }
+        current = derived;
+      }
+    }
+    return current.structure;
+  }
+
+  /**
+   * Apply a change of the read model
+   *
+   * @param change published snapshot
+   */
+  public synchronized void onReadModelChange(@Observes ReadModelChange change) {
+    // not derived yet, it will contain the change once it is derived
+    Derived<T> current = derived;
+    if (current == null || current.source == change.getSnapshot()) {
+      return;
+    }
+
+    T structure = null;
+    if (!change.isRebuilt() && current.source == change.getPreviousSnapshot()) {
+      structure = this.update(current.structure, change.getPrevious(), change.getCurrent());
+    }
+    if (structure == null) {
+      structure = this.derive(change.getSnapshot());
+    }
+    this.derived = new Derived<>(change.getSnapshot(), structure);
+  }
+
+  /**
+   * Replace the structure by one derived again from the snapshot it follows, e.g. after {@link
+   * #update} deferred changes. Does nothing if it isn't derived yet
+   *
+   * @param deriver derives the structure from the snapshot, without database access
+   */
+  protected synchronized void refresh(Function<CatalogSnapshot, T> deriver) {
+    if (derived != null) {
+      this.derived = new Derived<>(derived.source, deriver.apply(derived.source));
+    }
+  }
+
+  /**
+   * Derive the structure out of all articles
+   *
+   * @param snapshot current snapshot of the read model
+   * @return derived structure
+   */
+  protected abstract T derive(CatalogSnapshot snapshot);
+
+  /**
+   * Apply a write of one article
+   *
+   * @param structure current structure, derived from the snapshot before the write
+   * @param previous article before the write, null if it was added
+   * @param current article after the write, null if it was deleted
+   * @return updated structure, null to derive it anew
+   */
+  protected abstract T update(T structure, ArticleRecord previous, ArticleRecord current);
+
+  /** Structure with the snapshot it was derived from */
+  private static final class Derived<T> {
+
+    final CatalogSnapshot source;
+    final T structure;
+
+    Derived(CatalogSnapshot source, T structure) {
+      this.source = source;
+      this.structure = structure;
+    }
+  }
+}
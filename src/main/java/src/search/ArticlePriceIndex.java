@@ -0,0 +1,67 @@
+package src.search;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.ArrayList;
+import java.util.List;
+import src.model.ArticleRecord;
+import src.repository.CatalogSnapshot;
+import src.repository.PriceFilter;
+import src.repository.SnapshotIndex;
+
+/**
+ * Application wide price index of all articles, answering the price range and availability
+ * filters of the article list. It is derived from the read model snapshot on first use and kept
+ * up to date incrementally with the catalog writes of the api
+ */
+@ApplicationScoped
+public class ArticlePriceIndex extends SnapshotIndex<PriceIndex> {
+
+  /**
+   * Find all articles matching the filter
+   *
+   * @param categoryUuid main category uuid or null
+   * @param subcategoryUuid subcategory uuid or null
+   * @param filter price range and availability
+   * @return skus ordered by price, then by sku
+   */
+  public long[] find(String categoryUuid, String subcategoryUuid, PriceFilter filter) {
+    return this.get()
+        .find(
+            categoryUuid,
+            subcategoryUuid,
+            filter.getMinPrice(),
+            filter.getMaxPrice(),
+            filter.isInStockOnly());
+  }
+
+  @Override
+  protected PriceIndex derive(CatalogSnapshot snapshot) {
+    List<PriceIndex.Entry> entries = new ArrayList<>(snapshot.size());
+    for (ArticleRecord record : snapshot.getArticles()) {
+      entries.add(toEntry(record));
+    }
+    return new PriceIndex(entries);
+  }
+
+  @Override
+  protected PriceIndex update(PriceIndex index, ArticleRecord previous, ArticleRecord current) {
+    return index.update(toEntry(previous), toEntry(current));
+  }
+
+  /**
+   * @param record article, may be null
+   * @return index entry, null without article
+   */
+  private static PriceIndex.Entry toEntry(ArticleRecord record) {
+    if (record == null) {
+      return null;
+    }
+    boolean available = Boolean.TRUE.equals(record.getAvailable());
+    return new PriceIndex.Entry(
+        record.getSku(),
+        record.getSellingPrice(),
+        available && record.getStock() > 0,
+        record.getSubcategoryUuid(),
+        record.getCategoryUuid());
+  }
+}
@@ -0,0 +1,79 @@
+package src.search;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.Objects;
+import src.model.ArticleRecord;
+import src.repository.CatalogSnapshot;
+import src.repository.SnapshotIndex;
+
+/**
+ * Application wide inverted index of all articles. It is derived from the read model snapshot on
+ * first use and kept up to date incrementally with the catalog writes of the api
+ */
+@ApplicationScoped
+public class ArticleSearchIndex extends SnapshotIndex<InvertedIndex> {
+
+  // derive anew once this share of documents is deleted, to drop them from the posting lists
+  private static final double MAX_DELETED_RATIO = 0.25;
+
+  /**
+   * Find articles matching all search terms. If no article matches all of them, articles matching
+   * any term are returned, the ones matching most terms first
+   *
+   * @param query search terms
+   * @param categoryUuid main category uuid or null
+   * @param subcategoryUuid subcategory uuid or null
+   * @return skus ordered by relevance
+   */
+  public long[] search(String query, String categoryUuid, String subcategoryUuid) {
+    InvertedIndex current = this.get();
+    long[] skus =
+        current.search(query, InvertedIndex.MatchMode.AND, categoryUuid, subcategoryUuid);
+
+    if (skus.length == 0 && Tokenizer.tokenize(query).size() > 1) {
+      skus = current.search(query, InvertedIndex.MatchMode.OR, categoryUuid, subcategoryUuid);
+    }
+    return skus;
+  }
+
+  @Override
+  protected InvertedIndex derive(CatalogSnapshot snapshot) {
+    InvertedIndex built = new InvertedIndex();
+    for (ArticleRecord record : snapshot.getArticles()) {
+      put(built, record);
+    }
+    built.trim();
+    return built;
+  }
+
+  @Override
+  protected InvertedIndex update(
+      InvertedIndex index, ArticleRecord previous, ArticleRecord current) {
+    if (current == null) {
+      index.remove(previous.getSku());
+    } else if (previous == null || !sameDocument(previous, current)) {
+      put(index, current);
+    } else {
+      // e.g. a price or an image changed
+      return index;
+    }
+    return index.getDeletedRatio() > MAX_DELETED_RATIO ? null : index;
+  }
+
+  private static void put(InvertedIndex target, ArticleRecord record) {
+    target.put(
+        record.getSku(),
+        record.getTitle(),
+        record.getDescription(),
+        record.getSubcategoryUuid(),
+        record.getCategoryUuid());
+  }
+
+  /** Whether the indexed fields are equal */
+  private static boolean sameDocument(ArticleRecord previous, ArticleRecord current) {
+    return Objects.equals(previous.getTitle(), current.getTitle())
+        && Objects.equals(previous.getDescription(), current.getDescription())
+        && Objects.equals(previous.getSubcategoryUuid(), current.getSubcategoryUuid())
+        && Objects.equals(previous.getCategoryUuid(), current.getCategoryUuid());
+  }
+}
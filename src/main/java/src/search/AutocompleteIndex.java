@@ -0,0 +1,105 @@
+package src.search;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import src.model.ArticleRecord;
+import src.model.Category;
+import src.model.Subcategory;
+import src.repository.CatalogSnapshot;
+import src.repository.CategoryRepository;
+import src.repository.SnapshotIndex;
+
+/**
+ * Autocomplete of article titles and category names, answered from an in-memory {@link
+ * PrefixDictionary}. The dictionary is derived from the read model snapshot and the categories,
+ * after title changes it is derived again in memory after the next lookup
+ */
+@ApplicationScoped
+public class AutocompleteIndex extends SnapshotIndex<PrefixDictionary> {
+
+  @Inject CategoryRepository categoryRepository;
+
+  // category and subcategory suggestions, loaded again with every rebuilt snapshot, guarded by this
+  private List<Suggestion> categories = List.of();
+
+  private final AtomicBoolean stale = new AtomicBoolean();
+
+  /**
+   * Find suggestions for a typed prefix
+   *
+   * @param prefix typed text
+   * @param limit maximum amount of suggestions
+   * @return suggestions, categories first
+   */
+  public List<Suggestion> suggest(String prefix, int limit) {
+    return this.getDictionary().lookup(prefix, Math.min(limit, PrefixDictionary.MAX_SUGGESTIONS));
+  }
+
+  @Override
+  protected PrefixDictionary derive(CatalogSnapshot snapshot) {
+    List<Suggestion> loaded = new ArrayList<>();
+    for (Category category : categoryRepository.getCategories()) {
+      add(loaded, Suggestion.Type.CATEGORY, category.getUuid(), category.getCategoryName());
+    }
+    for (Subcategory subcategory : categoryRepository.getSubcategories()) {
+      add(
+          loaded,
+          Suggestion.Type.SUBCATEGORY,
+          subcategory.getUuid(),
+          subcategory.getCategoryName());
+    }
+    this.categories = loaded;
+
+    stale.set(false);
+    return this.build(snapshot);
+  }
+
+  @Override
+  protected PrefixDictionary update(
+      PrefixDictionary dictionary, ArticleRecord previous, ArticleRecord current) {
+    String previousTitle = previous == null ? null : previous.getTitle();
+    String currentTitle = current == null ? null : current.getTitle();
+    if (!Objects.equals(previousTitle, currentTitle)) {
+      stale.set(true);
+    }
+    return dictionary;
+  }
+
+  /**
+   * Get the current dictionary. After changes it is derived again once in the background, lookups
+   * keep using the previous one meanwhile and never wait for it
+   */
+  private PrefixDictionary getDictionary() {
+    PrefixDictionary current = this.get();
+    if (stale.compareAndSet(true, false)) {
+      CompletableFuture.runAsync(() -> this.refresh(this::build));
+    }
+    return current;
+  }
+
+  /**
+   * Build a dictionary out of the article titles and the loaded categories, without database
+   * access. Called while locked, so a newer dictionary is never replaced by an older one
+   */
+  private PrefixDictionary build(CatalogSnapshot snapshot) {
+    List<Suggestion> suggestions = new ArrayList<>(categories);
+    for (ArticleRecord record : snapshot.getArticles()) {
+      add(suggestions, Suggestion.Type.ARTICLE, String.valueOf(record.getSku()), record.getTitle());
+    }
+    return new PrefixDictionary(suggestions);
+  }
+
+  /**
+   * Add a suggestion unless the text is blank
+   */
+  private static void add(List<Suggestion> target, Suggestion.Type type, String id, String text) {
+    if (text != null && !text.isBlank()) {
+      target.add(new Suggestion(type, id, text));
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package src.search;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.ArrayList;
+import java.util.List;
+import src.model.ArticleRecord;
+import src.repository.CatalogSnapshot;
+import src.repository.SnapshotIndex;
+import src.utils.PriceUtils;
+
+/**
+ * Application wide article counts per main category and subcategory, shown in the sidebar. They
+ * are counted out of the read model snapshot on first use and kept up to date incrementally with
+ * the catalog writes of the api, a page view never counts in the database
+ */
+@ApplicationScoped
+public class CatalogFacets extends SnapshotIndex<FacetCounts> {
+
+  /**
+   * Get the current counts, this never blocks once they are counted
+   *
+   * @return immutable counts
+   */
+  public FacetCounts getCounts() {
+    return this.get();
+  }
+
+  @Override
+  protected FacetCounts derive(CatalogSnapshot snapshot) {
+    List<FacetCounts.Entry> entries = new ArrayList<>(snapshot.size());
+    for (ArticleRecord record : snapshot.getArticles()) {
+      entries.add(toEntry(record));
+    }
+    return new FacetCounts(entries);
+  }
+
+  @Override
+  protected FacetCounts update(
+      FacetCounts counts, ArticleRecord previous, ArticleRecord current) {
+    return counts.update(toEntry(previous), toEntry(current));
+  }
+
+  /**
+   * @param record article, may be null
+   * @return counted entry, null without article
+   */
+  private static FacetCounts.Entry toEntry(ArticleRecord record) {
+    if (record == null) {
+      return null;
+    }
+    return new FacetCounts.Entry(
+        Boolean.TRUE.equals(record.getAvailable()),
+        PriceUtils.isOnSale(record.getSellingPrice(), record.getListPrice()),
+        record.getSubcategoryUuid(),
+        record.getCategoryUuid());
+  }
+}
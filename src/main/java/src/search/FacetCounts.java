@@ -0,0 +1,150 @@
+package src.search;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Getter;
+
+/**
+ * Immutable article counts per main category and subcategory. Writes don't modify the counts,
+ * {@link #update} returns new counts sharing all unaffected entries, so they can be read without
+ * any lock.
+ */
+public class FacetCounts {
+
+  public static final FacetCounts EMPTY = new FacetCounts(Map.of(), Map.of());
+
+  private final Map<String, Counts> byCategory;
+  private final Map<String, Counts> bySubcategory;
+
+  /**
+   * Count all articles
+   *
+   * @param entries one entry per article
+   */
+  public FacetCounts(Collection<Entry> entries) {
+    Map<String, Counts> categories = new HashMap<>();
+    Map<String, Counts> subcategories = new HashMap<>();
+    for (Entry entry : entries) {
+      add(categories, entry.categoryUuid, entry, 1);
+      add(subcategories, entry.subcategoryUuid, entry, 1);
+    }
+    this.byCategory = Collections.unmodifiableMap(categories);
+    this.bySubcategory = Collections.unmodifiableMap(subcategories);
+  }
+
+  private FacetCounts(Map<String, Counts> byCategory, Map<String, Counts> bySubcategory) {
+    this.byCategory = byCategory;
+    this.bySubcategory = bySubcategory;
+  }
+
+  /**
+   * Get the counts of a main category
+   *
+   * @param uuid main category uuid
+   * @return counts, zero if the category has no articles
+   */
+  public Counts getCategory(String uuid) {
+    return byCategory.getOrDefault(uuid, Counts.ZERO);
+  }
+
+  /**
+   * Get the counts of a subcategory
+   *
+   * @param uuid subcategory uuid
+   * @return counts, zero if the subcategory has no articles
+   */
+  public Counts getSubcategory(String uuid) {
+    return bySubcategory.getOrDefault(uuid, Counts.ZERO);
+  }
+
+  /**
+   * Apply a write of one article
+   *
+   * @param previous entry of the article before the write, null if it was added
+   * @param current entry of the article after the write, null if it was deleted
+   * @return updated counts, these counts stay unchanged
+   */
+  public FacetCounts update(Entry previous, Entry current) {
+    Map<String, Counts> categories = new HashMap<>(byCategory);
+    Map<String, Counts> subcategories = new HashMap<>(bySubcategory);
+    if (previous != null) {
+      add(categories, previous.categoryUuid, previous, -1);
+      add(subcategories, previous.subcategoryUuid, previous, -1);
+    }
+    if (current != null) {
+      add(categories, current.categoryUuid, current, 1);
+      add(subcategories, current.subcategoryUuid, current, 1);
+    }
+    return new FacetCounts(
+        Collections.unmodifiableMap(categories), Collections.unmodifiableMap(subcategories));
+  }
+
+  private static void add(Map<String, Counts> counts, String uuid, Entry entry, int sign) {
+    if (uuid == null) {
+      return;
+    }
+    Counts updated = counts.getOrDefault(uuid, Counts.ZERO).plus(entry, sign);
+    if (updated.total == 0) {
+      counts.remove(uuid);
+    } else {
+      counts.put(uuid, updated);
+    }
+  }
+
+  /** Article counts of one category */
+  @Getter
+  public static class Counts {
+
+    public static final Counts ZERO = new Counts(0, 0, 0);
+
+    private final int total;
+    private final int available;
+    private final int onSale;
+
+    private Counts(int total, int available, int onSale) {
+      this.total = total;
+      this.available = available;
+      this.onSale = onSale;
+    }
+
+    public int getUnavailable() {
+      return total - available;
+    }
+
+    /**
+     * Format the counts for the sidebar
+     *
+     * @return e.g. "(12, 3 on sale)"
+     */
+    public String getLabel() {
+      return onSale > 0 ? "(" + total + ", " + onSale + " on sale)" : "(" + total + ")";
+    }
+
+    private Counts plus(Entry entry, int sign) {
+      return new Counts(
+          total + sign,
+          available + (entry.available ? sign : 0),
+          onSale + (entry.onSale ? sign : 0));
+    }
+  }
+
+  /** Counted fields of one article */
+  @Getter
+  public static class Entry {
+
+    private final boolean available;
+    private final boolean onSale;
+    private final String subcategoryUuid;
+    private final String categoryUuid;
+
+    public Entry(
+        boolean available, boolean onSale, String subcategoryUuid, String categoryUuid) {
+      this.available = available;
+      this.onSale = onSale;
+      this.subcategoryUuid = subcategoryUuid;
+      this.categoryUuid = categoryUuid;
+    }
+  }
+}
@@ -0,0 +1,372 @@
+package src.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import src.utils.LongIntMap;
+
+/**
+ * In-memory inverted index over article title and description. Every indexed article gets a dense
+ * document id; terms, subcategories and main categories map to posting lists of these ids.
+ *
+ * <p>Updating an article marks its old document as deleted and appends a new one, so posting lists
+ * only ever grow at their end and stay sorted. Deleted documents are skipped while searching until
+ * the index is rebuilt.
+ *
+ * <p>Search terms matching no term at all are treated as misspelled and match the title terms
+ * within a small edit distance instead, see {@link LevenshteinMatcher}.
+ */
+public class InvertedIndex {
+
+  public enum MatchMode {
+    // every search term must match
+    AND,
+    // at least one search term must match
+    OR
+  }
+
+  // weights of a term hit, title hits rank higher than description hits
+  private static final float TITLE_EXACT = 3f;
+  private static final float TITLE_PREFIX = 2f;
+  private static final float DESCRIPTION_EXACT = 1f;
+  private static final float DESCRIPTION_PREFIX = 0.5f;
+  // weight of a corrected title term, divided by its edit distance to the search term
+  private static final float TITLE_CORRECTED = 1.5f;
+
+  // shorter search terms only match whole terms, otherwise they'd expand to most of the dictionary
+  private static final int MIN_PREFIX_LENGTH = 2;
+
+  // misspelled search terms are corrected with edit distance 1 from this length, 2 from the second
+  private static final int MIN_CORRECTION_LENGTH = 4;
+  private static final int MIN_DOUBLE_CORRECTION_LENGTH = 8;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final NavigableMap<String, PostingList> titleTerms = new TreeMap<>();
+  private final NavigableMap<String, PostingList> descriptionTerms = new TreeMap<>();
+  private final Map<String, PostingList> subcategoryDocs = new HashMap<>();
+  private final Map<String, PostingList> categoryDocs = new HashMap<>();
+
+  private final LongIntMap docBySku = new LongIntMap();
+  private final BitSet liveDocs = new BitSet();
+  private long[] docSkus = new long[16];
+  private int docCount;
+
+  /**
+   * Add or replace an article
+   *
+   * @param sku article sku
+   * @param title article title
+   * @param description article description
+   * @param subcategoryUuid subcategory uuid
+   * @param categoryUuid main category uuid
+   */
+  public void put(
+      long sku, String title, String description, String subcategoryUuid, String categoryUuid) {
+    lock.writeLock().lock();
+    try {
+      this.removeDoc(sku);
+
+      int doc = docCount++;
+      if (doc == docSkus.length) {
+        docSkus = Arrays.copyOf(docSkus, doc * 2);
+      }
+      docSkus[doc] = sku;
+      docBySku.put(sku, doc);
+      liveDocs.set(doc);
+
+      for (String term : Tokenizer.tokenize(title)) {
+        titleTerms.computeIfAbsent(term, k -> new PostingList()).add(doc);
+      }
+      for (String term : Tokenizer.tokenize(description)) {
+        descriptionTerms.computeIfAbsent(term, k -> new PostingList()).add(doc);
+      }
+      if (subcategoryUuid != null) {
+        subcategoryDocs.computeIfAbsent(subcategoryUuid, k -> new PostingList()).add(doc);
+      }
+      if (categoryUuid != null) {
+        categoryDocs.computeIfAbsent(categoryUuid, k -> new PostingList()).add(doc);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Remove an article
+   *
+   * @param sku article sku
+   */
+  public void remove(long sku) {
+    lock.writeLock().lock();
+    try {
+      this.removeDoc(sku);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Release unused capacity of all posting lists, call after a bulk build
+   */
+  public void trim() {
+    lock.writeLock().lock();
+    try {
+      titleTerms.values().forEach(PostingList::trim);
+      descriptionTerms.values().forEach(PostingList::trim);
+      subcategoryDocs.values().forEach(PostingList::trim);
+      categoryDocs.values().forEach(PostingList::trim);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Amount of indexed articles
+   *
+   * @return live document count
+   */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return liveDocs.cardinality();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Share of deleted documents still occupying the posting lists
+   *
+   * @return deleted documents / all documents
+   */
+  public double getDeletedRatio() {
+    lock.readLock().lock();
+    try {
+      return docCount == 0 ? 0 : 1 - (double) liveDocs.cardinality() / docCount;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Find articles matching the query, restricted to the given category and subcategory. Search
+   * terms match whole terms and term prefixes of title and description, misspelled terms match
+   * similar title terms.
+   *
+   * @param query search terms, if blank only the category filters apply. Terms consisting only of
+   *     separators match nothing
+   * @param mode whether all or any search term must match
+   * @param categoryUuid main category uuid or null
+   * @param subcategoryUuid subcategory uuid or null
+   * @return skus ordered by relevance, then by sku
+   */
+  public long[] search(
+      String query, MatchMode mode, String categoryUuid, String subcategoryUuid) {
+    List<String> tokens = new ArrayList<>(new LinkedHashSet<>(Tokenizer.tokenize(query)));
+    if (tokens.isEmpty() && query != null && !query.isBlank()) {
+      return new long[0];
+    }
+
+    lock.readLock().lock();
+    try {
+      int[] candidates = null;
+      Map<String, Map<String, Integer>> corrections = new HashMap<>();
+
+      for (String token : tokens) {
+        int[] tokenDocs = this.matchToken(token);
+        if (tokenDocs.length == 0) {
+          Map<String, Integer> corrected = this.correct(token);
+          corrections.put(token, corrected);
+          tokenDocs = this.matchCorrections(corrected);
+        }
+
+        if (candidates == null) {
+          candidates = tokenDocs;
+        } else if (mode == MatchMode.AND) {
+          candidates = PostingList.intersect(candidates, tokenDocs);
+        } else {
+          candidates = PostingList.union(candidates, tokenDocs);
+        }
+      }
+
+      // category and subcategory filters are posting list intersections as well
+      candidates = this.filter(candidates, categoryDocs, categoryUuid);
+      candidates = this.filter(candidates, subcategoryDocs, subcategoryUuid);
+
+      candidates =
+          candidates == null
+              ? liveDocs.stream().toArray()
+              : Arrays.stream(candidates).filter(liveDocs::get).toArray();
+
+      return this.rank(candidates, tokens, corrections);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void removeDoc(long sku) {
+    int doc = docBySku.remove(sku);
+    if (doc != LongIntMap.MISSING) {
+      liveDocs.clear(doc);
+    }
+  }
+
+  /**
+   * Union of all documents containing the token as term or term prefix, in title or description
+   */
+  private int[] matchToken(String token) {
+    List<PostingList> postings = new ArrayList<>(this.expand(titleTerms, token).values());
+    postings.addAll(this.expand(descriptionTerms, token).values());
+    return PostingList.union(postings);
+  }
+
+  /**
+   * Find the title terms a misspelled token may stand for, short tokens aren't corrected
+   *
+   * @return title terms with their edit distance to the token
+   */
+  private Map<String, Integer> correct(String token) {
+    if (token.length() < MIN_CORRECTION_LENGTH) {
+      return Map.of();
+    }
+    int maxDistance = token.length() < MIN_DOUBLE_CORRECTION_LENGTH ? 1 : 2;
+    return LevenshteinMatcher.find(titleTerms, token, maxDistance);
+  }
+
+  /**
+   * Union of all documents containing one of the corrected terms in their title
+   */
+  private int[] matchCorrections(Map<String, Integer> corrected) {
+    List<PostingList> postings = new ArrayList<>(corrected.size());
+    for (String term : corrected.keySet()) {
+      postings.add(titleTerms.get(term));
+    }
+    return PostingList.union(postings);
+  }
+
+  /**
+   * Terms matching the token: the term itself and, for long enough tokens, all terms starting with
+   * it
+   */
+  private NavigableMap<String, PostingList> expand(
+      NavigableMap<String, PostingList> terms, String token) {
+    if (token.length() < MIN_PREFIX_LENGTH) {
+      return terms.subMap(token, true, token, true);
+    }
+    return terms.subMap(token, true, token + Character.MAX_VALUE, true);
+  }
+
+  private int[] filter(int[] candidates, Map<String, PostingList> postings, String key) {
+    if (key == null || key.isEmpty()) {
+      return candidates;
+    }
+
+    PostingList filterDocs = postings.get(key);
+    if (filterDocs == null) {
+      return new int[0];
+    }
+    return candidates == null ? filterDocs.toArray() : PostingList.intersect(candidates, filterDocs);
+  }
+
+  /**
+   * Score every candidate by its term hits weighted with the inverse document frequency of the
+   * term, and order by descending score
+   */
+  private long[] rank(
+      int[] candidates, List<String> tokens, Map<String, Map<String, Integer>> corrections) {
+    float[] scores = new float[candidates.length];
+    int liveCount = liveDocs.cardinality();
+
+    for (String token : tokens) {
+      if (corrections.containsKey(token)) {
+        for (Map.Entry<String, Integer> corrected : corrections.get(token).entrySet()) {
+          PostingList docs = titleTerms.get(corrected.getKey());
+          float weight = TITLE_CORRECTED / corrected.getValue() * idf(liveCount, docs.size());
+          this.addScores(candidates, scores, docs, weight);
+        }
+        continue;
+      }
+
+      this.score(candidates, scores, titleTerms, token, TITLE_EXACT, TITLE_PREFIX, liveCount);
+      this.score(
+          candidates,
+          scores,
+          descriptionTerms,
+          token,
+          DESCRIPTION_EXACT,
+          DESCRIPTION_PREFIX,
+          liveCount);
+    }
+
+    // live documents have distinct skus: sort them once, then sort primitive keys holding the
+    // descending score in the upper and the position of the sku in the lower half
+    long[] sortedSkus = new long[candidates.length];
+    for (int i = 0; i < candidates.length; i++) {
+      sortedSkus[i] = docSkus[candidates[i]];
+    }
+    Arrays.sort(sortedSkus);
+
+    long[] keys = new long[candidates.length];
+    for (int i = 0; i < candidates.length; i++) {
+      // scores aren't negative, their bits order like the scores
+      long descending = Integer.MAX_VALUE - Float.floatToIntBits(scores[i]);
+      keys[i] = descending << 32 | Arrays.binarySearch(sortedSkus, docSkus[candidates[i]]);
+    }
+    Arrays.sort(keys);
+
+    long[] skus = new long[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      skus[i] = sortedSkus[(int) keys[i]];
+    }
+    return skus;
+  }
+
+  private void score(
+      int[] candidates,
+      float[] scores,
+      NavigableMap<String, PostingList> terms,
+      String token,
+      float exactWeight,
+      float prefixWeight,
+      int liveCount) {
+    for (Map.Entry<String, PostingList> entry : this.expand(terms, token).entrySet()) {
+      PostingList docs = entry.getValue();
+      float weight =
+          (entry.getKey().equals(token) ? exactWeight : prefixWeight) * idf(liveCount, docs.size());
+      this.addScores(candidates, scores, docs, weight);
+    }
+  }
+
+  /**
+   * Add the weight to the score of every candidate contained in docs
+   */
+  private void addScores(int[] candidates, float[] scores, PostingList docs, float weight) {
+    // both are sorted, walk them side by side
+    PostingList.Cursor cursor = docs.cursor();
+    int doc = cursor.next();
+    int i = 0;
+    while (i < candidates.length && doc != PostingList.END) {
+      if (candidates[i] < doc) {
+        i++;
+      } else if (candidates[i] > doc) {
+        doc = cursor.next();
+      } else {
+        scores[i++] += weight;
+        doc = cursor.next();
+      }
+    }
+  }
+
+  private static float idf(int liveCount, int docCount) {
+    return (float) Math.log(1 + (double) liveCount / (1 + docCount));
+  }
+}
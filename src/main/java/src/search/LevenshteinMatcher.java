@@ -0,0 +1,133 @@
+package src.search;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * Finds the terms of a sorted dictionary within a maximum edit distance of a word. The sorted
+ * terms are walked like a trie: the edit distance matrix rows of a shared prefix are computed only
+ * once, and as soon as no row entry is within the distance, all terms with that prefix are skipped
+ * with one lookup. This is equivalent to running a Levenshtein automaton of the word over the
+ * dictionary, without comparing the word with every term.
+ *
+ * <p>Edits are insertions, deletions, substitutions and transpositions of adjacent characters
+ * (optimal string alignment), e.g. "jaens" is at distance 1 of "jeans".
+ */
+public class LevenshteinMatcher {
+
+  private LevenshteinMatcher() {}
+
+  /**
+   * Find all terms within the given edit distance
+   *
+   * @param terms sorted dictionary
+   * @param word searched word
+   * @param maxDistance maximum edit distance
+   * @return matching terms with their distance to the word, in dictionary order
+   */
+  public static Map<String, Integer> find(
+      NavigableMap<String, ?> terms, String word, int maxDistance) {
+    Map<String, Integer> matches = new LinkedHashMap<>();
+    int columns = word.length() + 1;
+
+    // row i holds the distances between the first i characters of the term and all word prefixes
+    int[][] rows = new int[16][];
+    rows[0] = new int[columns];
+    for (int j = 0; j < columns; j++) {
+      rows[0][j] = j;
+    }
+
+    String previous = "";
+    // rows computed for the characters of the previous term
+    int computed = 0;
+
+    String term = terms.isEmpty() ? null : terms.firstKey();
+    while (term != null) {
+      int depth = Math.min(computed, commonPrefixLength(previous, term));
+      String next = null;
+
+      for (int i = depth + 1; i <= term.length(); i++) {
+        if (i == rows.length) {
+          rows = Arrays.copyOf(rows, i * 2);
+        }
+        if (!computeRow(rows, i, term, word, maxDistance)) {
+          // no term starting with these characters can match
+          next = terms.higherKey(term.substring(0, i) + Character.MAX_VALUE);
+          computed = i - 1;
+          break;
+        }
+        computed = i;
+      }
+
+      if (computed == term.length()) {
+        int distance = rows[term.length()][word.length()];
+        if (distance <= maxDistance) {
+          matches.put(term, distance);
+        }
+        next = terms.higherKey(term);
+      }
+
+      previous = term;
+      term = next;
+    }
+    return matches;
+  }
+
+  /**
+   * Edit distance between two words
+   *
+   * @param a first word
+   * @param b second word
+   * @return edit distance
+   */
+  public static int distance(String a, String b) {
+    int[][] rows = new int[a.length() + 1][];
+    rows[0] = new int[b.length() + 1];
+    for (int j = 0; j <= b.length(); j++) {
+      rows[0][j] = j;
+    }
+    for (int i = 1; i <= a.length(); i++) {
+      computeRow(rows, i, a, b, Integer.MAX_VALUE);
+    }
+    return rows[a.length()][b.length()];
+  }
+
+  /**
+   * Compute row i of the edit distance matrix out of the rows before
+   *
+   * @return whether any entry of the row is within the maximum distance. Rows never get smaller
+   *     minimums, so if not, none of the following rows will have one either
+   */
+  private static boolean computeRow(int[][] rows, int i, String term, String word, int max) {
+    int[] previous = rows[i - 1];
+    if (rows[i] == null) {
+      rows[i] = new int[previous.length];
+    }
+    int[] row = rows[i];
+
+    char c = term.charAt(i - 1);
+    row[0] = i;
+    int minimum = row[0];
+    for (int j = 1; j < row.length; j++) {
+      int cost = c == word.charAt(j - 1) ? 0 : 1;
+      row[j] = Math.min(Math.min(row[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+
+      if (i > 1 && j > 1 && c == word.charAt(j - 2) && term.charAt(i - 2) == word.charAt(j - 1)) {
+        row[j] = Math.min(row[j], rows[i - 2][j - 2] + 1);
+      }
+      minimum = Math.min(minimum, row[j]);
+    }
+    return minimum <= max;
+  }
+
+  private static int commonPrefixLength(String a, String b) {
+    int length = Math.min(a.length(), b.length());
+    int i = 0;
+    while (i < length && a.charAt(i) == b.charAt(i)) {
+      i++;
+    }
+    return i;
+  }
+}
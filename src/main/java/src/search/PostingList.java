@@ -0,0 +1,283 @@
+package src.search;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ascending list of document ids, stored compressed: every id is written as the difference to the
+ * previous one in a variable length encoding of 7 bits per byte. Dense postings of frequent terms
+ * take about one byte per document instead of four. Documents are always appended with increasing
+ * ids, so the list stays sorted without any sorting. The ids are read with a {@link Cursor}
+ * directly from the encoded bytes, without copying them
+ */
+public class PostingList {
+
+  /** Returned by a cursor after the last document */
+  public static final int END = -1;
+
+  private byte[] bytes = new byte[4];
+  private int length;
+  private int size;
+  private int last = END;
+
+  /**
+   * Append document id, ignored if it is already the last one
+   *
+   * @param doc document id, must not be lower than the last added one
+   */
+  public void add(int doc) {
+    if (doc == last) {
+      return;
+    }
+    if (doc < last) {
+      throw new IllegalArgumentException("Document " + doc + " added after " + last);
+    }
+
+    if (length + 5 > bytes.length) {
+      bytes = Arrays.copyOf(bytes, Math.max(length + 5, length + (length >> 1)));
+    }
+    int delta = last == END ? doc : doc - last;
+    while ((delta & ~0x7F) != 0) {
+      bytes[length++] = (byte) ((delta & 0x7F) | 0x80);
+      delta >>>= 7;
+    }
+    bytes[length++] = (byte) delta;
+
+    last = doc;
+    size++;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Release unused capacity after a bulk build
+   */
+  public void trim() {
+    if (bytes.length > length) {
+      bytes = Arrays.copyOf(bytes, length);
+    }
+  }
+
+  /**
+   * @return cursor positioned before the first document
+   */
+  public Cursor cursor() {
+    return new Cursor(bytes, length);
+  }
+
+  /**
+   * Get the document ids
+   *
+   * @return sorted document ids, decoded
+   */
+  public int[] toArray() {
+    int[] docs = new int[size];
+    Cursor cursor = this.cursor();
+    for (int i = 0; i < size; i++) {
+      docs[i] = cursor.next();
+    }
+    return docs;
+  }
+
+  /**
+   * Intersection of sorted ids with a posting list
+   *
+   * @param a sorted ids
+   * @param b posting list
+   * @return sorted ids contained in both
+   */
+  public static int[] intersect(int[] a, PostingList b) {
+    int[] result = new int[Math.min(a.length, b.size)];
+    Cursor cursor = b.cursor();
+    int doc = cursor.next();
+    int n = 0;
+
+    for (int i = 0; i < a.length && doc != END; ) {
+      if (a[i] < doc) {
+        i++;
+      } else if (a[i] > doc) {
+        doc = cursor.next();
+      } else {
+        result[n++] = a[i++];
+        doc = cursor.next();
+      }
+    }
+    return Arrays.copyOf(result, n);
+  }
+
+  /**
+   * Intersection of two sorted id arrays
+   *
+   * @param a sorted ids
+   * @param b sorted ids
+   * @return sorted ids contained in both
+   */
+  public static int[] intersect(int[] a, int[] b) {
+    int[] result = new int[Math.min(a.length, b.length)];
+    int i = 0;
+    int j = 0;
+    int n = 0;
+
+    while (i < a.length && j < b.length) {
+      if (a[i] < b[j]) {
+        i++;
+      } else if (a[i] > b[j]) {
+        j++;
+      } else {
+        result[n++] = a[i];
+        i++;
+        j++;
+      }
+    }
+    return Arrays.copyOf(result, n);
+  }
+
+  /**
+   * Union of two sorted id arrays
+   *
+   * @param a sorted ids
+   * @param b sorted ids
+   * @return sorted ids contained in any of both, without duplicates
+   */
+  public static int[] union(int[] a, int[] b) {
+    int[] result = new int[a.length + b.length];
+    int i = 0;
+    int j = 0;
+    int n = 0;
+
+    while (i < a.length || j < b.length) {
+      if (j == b.length || (i < a.length && a[i] < b[j])) {
+        result[n++] = a[i++];
+      } else if (i == a.length || b[j] < a[i]) {
+        result[n++] = b[j++];
+      } else {
+        result[n++] = a[i];
+        i++;
+        j++;
+      }
+    }
+    return Arrays.copyOf(result, n);
+  }
+
+  /**
+   * Union of any amount of posting lists in one pass: the cursors are kept in a binary heap
+   * ordered by their current document, the smallest one is taken and advanced
+   *
+   * @param lists posting lists
+   * @return sorted ids contained in any of the lists, without duplicates
+   */
+  public static int[] union(List<PostingList> lists) {
+    Cursor[] heap = new Cursor[lists.size()];
+    int[] heads = new int[lists.size()];
+    int heapSize = 0;
+    int total = 0;
+    for (PostingList list : lists) {
+      Cursor cursor = list.cursor();
+      int doc = cursor.next();
+      if (doc != END) {
+        heap[heapSize] = cursor;
+        heads[heapSize] = doc;
+        siftUp(heap, heads, heapSize++);
+        total += list.size;
+      }
+    }
+
+    int[] result = new int[total];
+    int n = 0;
+    while (heapSize > 0) {
+      int doc = heads[0];
+      if (n == 0 || result[n - 1] != doc) {
+        result[n++] = doc;
+      }
+
+      int next = heap[0].next();
+      if (next == END) {
+        heapSize--;
+        heap[0] = heap[heapSize];
+        heads[0] = heads[heapSize];
+        heap[heapSize] = null;
+      } else {
+        heads[0] = next;
+      }
+      siftDown(heap, heads, heapSize);
+    }
+    return Arrays.copyOf(result, n);
+  }
+
+  private static void siftUp(Cursor[] heap, int[] heads, int index) {
+    while (index > 0) {
+      int parent = (index - 1) >>> 1;
+      if (heads[parent] <= heads[index]) {
+        return;
+      }
+      swap(heap, heads, parent, index);
+      index = parent;
+    }
+  }
+
+  private static void siftDown(Cursor[] heap, int[] heads, int heapSize) {
+    int index = 0;
+    while (true) {
+      int smallest = index;
+      int left = 2 * index + 1;
+      int right = left + 1;
+      if (left < heapSize && heads[left] < heads[smallest]) {
+        smallest = left;
+      }
+      if (right < heapSize && heads[right] < heads[smallest]) {
+        smallest = right;
+      }
+      if (smallest == index) {
+        return;
+      }
+      swap(heap, heads, smallest, index);
+      index = smallest;
+    }
+  }
+
+  private static void swap(Cursor[] heap, int[] heads, int i, int j) {
+    Cursor cursor = heap[i];
+    heap[i] = heap[j];
+    heap[j] = cursor;
+    int head = heads[i];
+    heads[i] = heads[j];
+    heads[j] = head;
+  }
+
+  /** Reads the document ids of a posting list in ascending order */
+  public static class Cursor {
+
+    private final byte[] bytes;
+    private final int length;
+    private int position;
+    private int doc;
+
+    private Cursor(byte[] bytes, int length) {
+      this.bytes = bytes;
+      this.length = length;
+    }
+
+    /**
+     * @return next document id, {@link PostingList#END} after the last one
+     */
+    public int next() {
+      if (position == length) {
+        return END;
+      }
+
+      int delta = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = bytes[position++];
+        delta |= (b & 0x7F) << shift;
+        shift += 7;
+      } while (b < 0);
+
+      doc += delta;
+      return doc;
+    }
+  }
+}
@@ -0,0 +1,217 @@
+package src.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable prefix dictionary for autocomplete. Every suggestion is stored under one key per word
+ * of its text (the folded text starting at that word), so "Blue Slim Jeans" is found by "blu",
+ * "sli" and "jea". Keys live in one sorted array, all keys starting with a prefix form a contiguous
+ * range of it.
+ *
+ * <p>Ranges of at most {@value #SCAN_LIMIT} keys are scanned on lookup, for every prefix with a
+ * larger range the best suggestions are computed while building. A lookup therefore costs one
+ * binary search or one hash lookup plus a bounded scan, independent of the catalog size.
+ */
+public class PrefixDictionary {
+
+  public static final int MAX_SUGGESTIONS = 10;
+
+  // longest range scanned on lookup
+  private static final int SCAN_LIMIT = 64;
+
+  // longer keys and prefixes are cut, only the suggestions of the cut prefix are distinguished
+  private static final int MAX_KEY_LENGTH = 48;
+
+  // suggestions ordered by rank, the array index is the rank
+  private final Suggestion[] suggestions;
+
+  private final String[] keys;
+  // score of every key: rank of its suggestion, keys not starting at the first word rank behind
+  private final int[] keyScores;
+  // best scores of all prefixes matching more than SCAN_LIMIT keys
+  private final Map<String, int[]> densePrefixes = new HashMap<>();
+
+  /**
+   * Build the dictionary
+   *
+   * @param entries suggestions, ranked categories first, then subcategories, then articles, shorter
+   *     texts first
+   */
+  public PrefixDictionary(Collection<Suggestion> entries) {
+    this.suggestions = entries.toArray(new Suggestion[0]);
+    Arrays.sort(
+        suggestions,
+        Comparator.comparing(Suggestion::getType)
+            .thenComparingInt(s -> s.getText().length())
+            .thenComparing(Suggestion::getText)
+            .thenComparing(Suggestion::getId));
+
+    List<Key> keyList = new ArrayList<>();
+    for (int rank = 0; rank < suggestions.length; rank++) {
+      List<String> words = Tokenizer.tokenize(suggestions[rank].getText());
+      for (int word = 0; word < words.size(); word++) {
+        keyList.add(
+            new Key(
+                cut(String.join(" ", words.subList(word, words.size()))),
+                word == 0 ? rank : rank + suggestions.length));
+      }
+    }
+    Key[] sorted = keyList.toArray(new Key[0]);
+    Arrays.sort(sorted);
+
+    this.keys = new String[sorted.length];
+    this.keyScores = new int[sorted.length];
+    for (int i = 0; i < sorted.length; i++) {
+      keys[i] = sorted[i].text;
+      keyScores[i] = sorted[i].score;
+    }
+
+    this.indexDensePrefixes(0, 0, keys.length);
+  }
+
+  /**
+   * Find the best suggestions whose text contains a word starting with the prefix
+   *
+   * @param prefix typed text, case and diacritics are ignored
+   * @param limit maximum amount of suggestions, at most {@value #MAX_SUGGESTIONS}
+   * @return suggestions ordered by rank
+   */
+  public List<Suggestion> lookup(String prefix, int limit) {
+    String key = cut(String.join(" ", Tokenizer.tokenize(prefix)));
+    if (key.isEmpty() || limit <= 0) {
+      return new ArrayList<>();
+    }
+
+    int[] scores = densePrefixes.get(key);
+    if (scores == null) {
+      int from = this.lowerBound(key);
+      int to = from;
+      while (to < keys.length && keys[to].startsWith(key)) {
+        to++;
+      }
+      scores = this.best(Arrays.copyOfRange(keyScores, from, to));
+    }
+
+    List<Suggestion> result = new ArrayList<>();
+    for (int i = 0; i < scores.length && i < limit; i++) {
+      result.add(suggestions[scores[i] % suggestions.length]);
+    }
+    return result;
+  }
+
+  /**
+   * Amount of suggestions
+   *
+   * @return suggestion count
+   */
+  public int size() {
+    return suggestions.length;
+  }
+
+  /**
+   * Walk the implicit trie of the sorted keys and store the best scores of every prefix whose range
+   * is too large to scan. The best scores of a prefix are merged from the ones of its children, so
+   * every key is only looked at once
+   *
+   * @param depth prefix length
+   * @param from first key of the range
+   * @param to end of the range, exclusive
+   * @return best scores of the range
+   */
+  private int[] indexDensePrefixes(int depth, int from, int to) {
+    if (to - from <= SCAN_LIMIT) {
+      return this.best(Arrays.copyOfRange(keyScores, from, to));
+    }
+
+    // keys equal to the prefix sort first, the others are grouped by their next character
+    int i = from;
+    while (i < to && keys[i].length() == depth) {
+      i++;
+    }
+    int[] candidates = Arrays.copyOfRange(keyScores, from, i);
+
+    while (i < to) {
+      char next = keys[i].charAt(depth);
+      int j = i;
+      while (j < to && keys[j].charAt(depth) == next) {
+        j++;
+      }
+      int[] childScores = this.indexDensePrefixes(depth + 1, i, j);
+      candidates = Arrays.copyOf(candidates, candidates.length + childScores.length);
+      System.arraycopy(
+          childScores, 0, candidates, candidates.length - childScores.length, childScores.length);
+      i = j;
+    }
+
+    int[] scores = this.best(candidates);
+    if (depth > 0) {
+      densePrefixes.put(keys[from].substring(0, depth), scores);
+    }
+    return scores;
+  }
+
+  /**
+   * Best scores of distinct suggestions, a suggestion may be found under several keys
+   *
+   * @param scores key scores, reordered by this method
+   * @return up to MAX_SUGGESTIONS scores, best first
+   */
+  private int[] best(int[] scores) {
+    Arrays.sort(scores);
+
+    int[] best = new int[Math.min(MAX_SUGGESTIONS, scores.length)];
+    int count = 0;
+    for (int i = 0; i < scores.length && count < best.length; i++) {
+      boolean contained = false;
+      for (int j = 0; j < count; j++) {
+        contained |= best[j] % suggestions.length == scores[i] % suggestions.length;
+      }
+      if (!contained) {
+        best[count++] = scores[i];
+      }
+    }
+    return Arrays.copyOf(best, count);
+  }
+
+  private int lowerBound(String key) {
+    int low = 0;
+    int high = keys.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (keys[mid].compareTo(key) < 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private static String cut(String key) {
+    return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+  }
+
+  /** Key of a suggestion, ordered by text, then by score */
+  private static class Key implements Comparable<Key> {
+
+    private final String text;
+    private final int score;
+
+    private Key(String text, int score) {
+      this.text = text;
+      this.score = score;
+    }
+
+    @Override
+    public int compareTo(Key other) {
+      int order = text.compareTo(other.text);
+      return order != 0 ? order : Integer.compare(score, other.score);
+    }
+  }
+}
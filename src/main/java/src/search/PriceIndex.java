@@ -0,0 +1,314 @@
+package src.search;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+import lombok.Getter;
+
+/**
+ * Immutable index of the article prices. Every filter scope (whole catalog, each main category and
+ * each subcategory) keeps its articles in primitive arrays sorted by price, so a price range is
+ * found by two binary searches and read in O(log n + k).
+ *
+ * <p>Writes don't modify an index, {@link #update} returns a new one sharing all scopes the
+ * written article isn't part of. Readers therefore never lock.
+ */
+public class PriceIndex {
+
+  public static final PriceIndex EMPTY = new PriceIndex(new Entry[0]);
+
+  private final PriceList all;
+  private final Map<String, PriceList> byCategory;
+  private final Map<String, PriceList> bySubcategory;
+
+  // main category of every subcategory, to combine both filters
+  private final Map<String, String> categoryBySubcategory;
+
+  /**
+   * Build the index out of all articles
+   *
+   * @param entries one entry per article
+   */
+  public PriceIndex(Collection<Entry> entries) {
+    this(entries.toArray(new Entry[0]));
+  }
+
+  private PriceIndex(Entry[] entries) {
+    Arrays.sort(entries, Entry.ORDER);
+
+    Map<String, Integer> categorySizes = new HashMap<>();
+    Map<String, Integer> subcategorySizes = new HashMap<>();
+    categoryBySubcategory = new HashMap<>();
+    for (Entry entry : entries) {
+      if (entry.categoryUuid != null) {
+        categorySizes.merge(entry.categoryUuid, 1, Integer::sum);
+      }
+      if (entry.subcategoryUuid != null) {
+        subcategorySizes.merge(entry.subcategoryUuid, 1, Integer::sum);
+        categoryBySubcategory.put(entry.subcategoryUuid, entry.categoryUuid);
+      }
+    }
+
+    // entries are sorted already, so every scope is filled in order
+    all = new PriceList(entries.length);
+    byCategory = new HashMap<>();
+    bySubcategory = new HashMap<>();
+    categorySizes.forEach((uuid, size) -> byCategory.put(uuid, new PriceList(size)));
+    subcategorySizes.forEach((uuid, size) -> bySubcategory.put(uuid, new PriceList(size)));
+    for (Entry entry : entries) {
+      all.append(entry);
+      if (entry.categoryUuid != null) {
+        byCategory.get(entry.categoryUuid).append(entry);
+      }
+      if (entry.subcategoryUuid != null) {
+        bySubcategory.get(entry.subcategoryUuid).append(entry);
+      }
+    }
+  }
+
+  private PriceIndex(
+      PriceList all,
+      Map<String, PriceList> byCategory,
+      Map<String, PriceList> bySubcategory,
+      Map<String, String> categoryBySubcategory) {
+    this.all = all;
+    this.byCategory = byCategory;
+    this.bySubcategory = bySubcategory;
+    this.categoryBySubcategory = categoryBySubcategory;
+  }
+
+  /**
+   * Find all articles within the price range
+   *
+   * @param categoryUuid main category uuid or null
+   * @param subcategoryUuid subcategory uuid or null
+   * @param minPrice lowest price (inclusive) or null
+   * @param maxPrice highest price (inclusive) or null
+   * @param inStockOnly only find articles in stock
+   * @return skus ordered by price, then by sku. Articles without price only match if neither bound
+   *     is given, they come last
+   */
+  public long[] find(
+      String categoryUuid,
+      String subcategoryUuid,
+      Double minPrice,
+      Double maxPrice,
+      boolean inStockOnly) {
+    PriceList list = this.scope(categoryUuid, subcategoryUuid);
+    if (list == null) {
+      return new long[0];
+    }
+
+    boolean bounded = minPrice != null || maxPrice != null;
+    int from = minPrice == null ? 0 : list.firstNotBelow(minPrice);
+    int to = maxPrice == null ? list.size : list.firstAbove(maxPrice);
+    if (bounded) {
+      to = Math.min(to, list.pricedCount);
+    }
+
+    long[] skus = new long[Math.max(to - from, 0)];
+    int count = 0;
+    for (int i = from; i < to; i++) {
+      if (!inStockOnly || list.inStock[i]) {
+        skus[count++] = list.skus[i];
+      }
+    }
+    return count == skus.length ? skus : Arrays.copyOf(skus, count);
+  }
+
+  /**
+   * Apply a write of one article
+   *
+   * @param previous entry of the article before the write, null if it was added
+   * @param current entry of the article after the write, null if it was deleted
+   * @return updated index, this index stays unchanged
+   */
+  public PriceIndex update(Entry previous, Entry current) {
+    PriceList updatedAll = all.without(previous).with(current);
+    Map<String, PriceList> updatedByCategory = new HashMap<>(byCategory);
+    Map<String, PriceList> updatedBySubcategory = new HashMap<>(bySubcategory);
+    Map<String, String> updatedCategories = new HashMap<>(categoryBySubcategory);
+
+    if (previous != null) {
+      updateScope(updatedByCategory, previous.categoryUuid, list -> list.without(previous));
+      updateScope(updatedBySubcategory, previous.subcategoryUuid, list -> list.without(previous));
+    }
+    if (current != null) {
+      updateScope(updatedByCategory, current.categoryUuid, list -> list.with(current));
+      updateScope(updatedBySubcategory, current.subcategoryUuid, list -> list.with(current));
+      if (current.subcategoryUuid != null) {
+        updatedCategories.put(current.subcategoryUuid, current.categoryUuid);
+      }
+    }
+    return new PriceIndex(updatedAll, updatedByCategory, updatedBySubcategory, updatedCategories);
+  }
+
+  /**
+   * Amount of indexed articles
+   *
+   * @return article count
+   */
+  public int size() {
+    return all.size;
+  }
+
+  private PriceList scope(String categoryUuid, String subcategoryUuid) {
+    boolean byCategoryUuid = categoryUuid != null && !categoryUuid.isEmpty();
+    if (subcategoryUuid != null && !subcategoryUuid.isEmpty()) {
+      // a subcategory only matches within its own main category
+      if (byCategoryUuid && !categoryUuid.equals(categoryBySubcategory.get(subcategoryUuid))) {
+        return null;
+      }
+      return bySubcategory.get(subcategoryUuid);
+    }
+    return byCategoryUuid ? byCategory.get(categoryUuid) : all;
+  }
+
+  private static void updateScope(
+      Map<String, PriceList> scopes, String uuid, UnaryOperator<PriceList> update) {
+    if (uuid != null) {
+      scopes.put(uuid, update.apply(scopes.getOrDefault(uuid, PriceList.EMPTY)));
+    }
+  }
+
+  /** Indexed fields of one article */
+  @Getter
+  public static class Entry {
+
+    // ascending price, articles without price last, then ascending sku
+    static final Comparator<Entry> ORDER =
+        Comparator.<Entry>comparingDouble(e -> e.price).thenComparingLong(e -> e.sku);
+
+    private final long sku;
+
+    // selling price, NaN if the article has none
+    private final double price;
+
+    private final boolean inStock;
+    private final String subcategoryUuid;
+    private final String categoryUuid;
+
+    public Entry(
+        long sku, Double price, boolean inStock, String subcategoryUuid, String categoryUuid) {
+      this.sku = sku;
+      this.price = price == null ? Double.NaN : price;
+      this.inStock = inStock;
+      this.subcategoryUuid = subcategoryUuid;
+      this.categoryUuid = categoryUuid;
+    }
+  }
+
+  /** Articles of one scope, the arrays are parallel and ordered like {@link Entry#ORDER} */
+  private static final class PriceList {
+
+    static final PriceList EMPTY = new PriceList(0);
+
+    private final double[] prices;
+    private final long[] skus;
+    private final boolean[] inStock;
+    private int size;
+
+    // articles with a price, they precede the ones without
+    private int pricedCount;
+
+    private PriceList(int capacity) {
+      prices = new double[capacity];
+      skus = new long[capacity];
+      inStock = new boolean[capacity];
+    }
+
+    /** Only used while building, the entry must not precede the last one */
+    private void append(Entry entry) {
+      prices[size] = entry.price;
+      skus[size] = entry.sku;
+      inStock[size] = entry.inStock;
+      size++;
+      if (!Double.isNaN(entry.price)) {
+        pricedCount++;
+      }
+    }
+
+    /**
+     * Copy of this list with the entry inserted at its position
+     */
+    private PriceList with(Entry entry) {
+      if (entry == null) {
+        return this;
+      }
+      int position = this.position(entry.price, entry.sku);
+      PriceList list = new PriceList(size + 1);
+      list.copy(this, 0, 0, position);
+      list.prices[position] = entry.price;
+      list.skus[position] = entry.sku;
+      list.inStock[position] = entry.inStock;
+      list.copy(this, position, position + 1, size - position);
+      list.size = size + 1;
+      list.pricedCount = pricedCount + (Double.isNaN(entry.price) ? 0 : 1);
+      return list;
+    }
+
+    /**
+     * Copy of this list without the entry, this list itself if it isn't contained
+     */
+    private PriceList without(Entry entry) {
+      if (entry == null) {
+        return this;
+      }
+      int position = this.position(entry.price, entry.sku);
+      if (position == size || skus[position] != entry.sku) {
+        return this;
+      }
+      PriceList list = new PriceList(size - 1);
+      list.copy(this, 0, 0, position);
+      list.copy(this, position + 1, position, size - position - 1);
+      list.size = size - 1;
+      list.pricedCount = pricedCount - (Double.isNaN(entry.price) ? 0 : 1);
+      return list;
+    }
+
+    private void copy(PriceList source, int from, int to, int length) {
+      System.arraycopy(source.prices, from, prices, to, length);
+      System.arraycopy(source.skus, from, skus, to, length);
+      System.arraycopy(source.inStock, from, inStock, to, length);
+    }
+
+    /** First position not preceding (price, sku) */
+    private int position(double price, long sku) {
+      int low = 0;
+      int high = size;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        int cmp = Double.compare(prices[mid], price);
+        if (cmp < 0 || (cmp == 0 && skus[mid] < sku)) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+
+    /** First position with a price of at least the given one */
+    private int firstNotBelow(double price) {
+      return this.position(price, Long.MIN_VALUE);
+    }
+
+    /** First position with a price above the given one */
+    private int firstAbove(double price) {
+      int low = 0;
+      int high = size;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (Double.compare(prices[mid], price) <= 0) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package src.search;
+
+/**
+ * How catalog search terms are matched
+ */
+public enum SearchMode {
+  // substring match of the title in the database (LIKE), can't use an index
+  LIKE,
+  // in-memory inverted index over title and description, see ArticleSearchIndex
+  INDEX,
+  // PostgreSQL full text search over title and description, see db/fulltext_search.sql
+  FULLTEXT
+}
@@ -0,0 +1,25 @@
+package src.search;
+
+import lombok.Getter;
+
+/** One autocomplete entry: an article title or a category name */
+@Getter
+public class Suggestion {
+
+  public enum Type {
+    CATEGORY,
+    SUBCATEGORY,
+    ARTICLE
+  }
+
+  private final Type type;
+  // category uuid or article sku
+  private final String id;
+  private final String text;
+
+  public Suggestion(Type type, String id, String text) {
+    this.type = type;
+    this.id = id;
+    this.text = text;
+  }
+}
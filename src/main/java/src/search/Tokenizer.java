@@ -0,0 +1,49 @@
+package src.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Splits text into search terms: lowercase, diacritics removed (e.g. "Crème" -> "creme"), split at
+ * every character which is neither a letter nor a digit
+ */
+public class Tokenizer {
+
+  private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+  private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  /**
+   * Lowercase text and remove diacritics
+   *
+   * @param text text
+   * @return folded text
+   */
+  public static String fold(String text) {
+    if (text == null) {
+      return "";
+    }
+
+    String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+    return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Split text into folded terms
+   *
+   * @param text text
+   * @return terms in order of occurrence, may contain duplicates
+   */
+  public static List<String> tokenize(String text) {
+    List<String> tokens = new ArrayList<>();
+
+    for (String token : SEPARATORS.split(fold(text))) {
+      if (!token.isEmpty()) {
+        tokens.add(token);
+      }
+    }
+    return tokens;
+  }
+}
@@ -0,0 +1,156 @@
+package src.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Map of primitive long keys to objects, a {@link LongIntMap} from the key to a slot of a value
+ * array. Slots of removed entries are reused. Null values are allowed and differ from missing
+ * keys. Not thread-safe
+ *
+ * @param <V> value type
+ */
+public class LongObjectMap<V> {
+
+  // value of a slot whose entry was removed
+  private static final Object FREE = new Object();
+
+  private final LongIntMap slots;
+  private Object[] values;
+  private int used;
+
+  // stack of removed slots
+  private int[] free;
+  private int freeCount;
+
+  public LongObjectMap() {
+    this(0);
+  }
+
+  /**
+   * @param expectedSize entries the map holds without growing
+   */
+  public LongObjectMap(int expectedSize) {
+    this.slots = new LongIntMap(expectedSize);
+    this.values = new Object[Math.max(expectedSize, 16)];
+    this.free = new int[16];
+  }
+
+  private LongObjectMap(LongObjectMap<V> other) {
+    this.slots = other.slots.copy();
+    this.values = Arrays.copyOf(other.values, Math.max(other.used, 16));
+    this.used = other.used;
+    this.free = Arrays.copyOf(other.free, Math.max(other.freeCount, 16));
+    this.freeCount = other.freeCount;
+  }
+
+  /**
+   * Find the value of a key
+   *
+   * @param key key
+   * @return value, null if the key isn't contained or its value is null
+   */
+  @SuppressWarnings("unchecked")
+  public V get(long key) {
+    int slot = slots.get(key);
+    return slot == LongIntMap.MISSING ? null : (V) values[slot];
+  }
+
+  /**
+   * @param key key
+   * @return whether the key is contained, also with a null value
+   */
+  public boolean containsKey(long key) {
+    return slots.containsKey(key);
+  }
+
+  /**
+   * Add or replace the value of a key
+   *
+   * @param key key
+   * @param value value, may be null
+   * @return previous value, null if the key wasn't contained
+   */
+  @SuppressWarnings("unchecked")
+  public V put(long key, V value) {
+    int slot = slots.get(key);
+    if (slot != LongIntMap.MISSING) {
+      V previous = (V) values[slot];
+      values[slot] = value;
+      return previous;
+    }
+
+    if (freeCount > 0) {
+      slot = free[--freeCount];
+    } else {
+      if (used == values.length) {
+        values = Arrays.copyOf(values, used * 2);
+      }
+      slot = used++;
+    }
+    values[slot] = value;
+    slots.put(key, slot);
+    return null;
+  }
+
+  /**
+   * Remove a key
+   *
+   * @param key key
+   * @return removed value, null if the key wasn't contained
+   */
+  @SuppressWarnings("unchecked")
+  public V remove(long key) {
+    int slot = slots.remove(key);
+    if (slot == LongIntMap.MISSING) {
+      return null;
+    }
+
+    V removed = (V) values[slot];
+    values[slot] = FREE;
+    if (freeCount == free.length) {
+      free = Arrays.copyOf(free, freeCount * 2);
+    }
+    free[freeCount++] = slot;
+    return removed;
+  }
+
+  /**
+   * @return amount of entries
+   */
+  public int size() {
+    return slots.size();
+  }
+
+  /**
+   * Remove all entries
+   */
+  public void clear() {
+    slots.clear();
+    Arrays.fill(values, 0, used, null);
+    used = 0;
+    freeCount = 0;
+  }
+
+  /**
+   * @return copy of all values in no particular order
+   */
+  @SuppressWarnings("unchecked")
+  public List<V> values() {
+    List<V> result = new ArrayList<>(this.size());
+    for (int slot = 0; slot < used; slot++) {
+      if (values[slot] != FREE) {
+        result.add((V) values[slot]);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return independent copy of this map, the values themselves are shared
+   */
+  public LongObjectMap<V> copy() {
+    return new LongObjectMap<>(this);
+  }
+}
@@ -0,0 +1,49 @@
+package src.utils;
+
+/**
+ * Utils class containing helper methods to display article prices
+ */
+public class PriceUtils {
+
+  /**
+   * Get discount in percent
+   *
+   * @param sellingPrice price with discount
+   * @param listPrice price without discount
+   * @return formatted discount, null if there's no list price
+   */
+  public static String formatDiscountPercent(Double sellingPrice, Double listPrice) {
+    if (listPrice == null) {
+      return null;
+    }
+
+    // 100 - percentage of selling price relative to list price
+    return Math.round((100 - (sellingPrice / listPrice) * 100)) + "";
+  }
+
+  /**
+   * Whether the article is sold below its list price
+   *
+   * @param sellingPrice price with discount
+   * @param listPrice price without discount
+   * @return true if both prices are given and the selling price is lower
+   */
+  public static boolean isOnSale(Double sellingPrice, Double listPrice) {
+    return sellingPrice != null && listPrice != null && sellingPrice < listPrice;
+  }
+
+  /**
+   * Format price with two decimal places and CHF currency
+   *
+   * @param sellingPrice price with discount
+   * @param listPrice price without discount
+   * @param available whether the article is available
+   * @return formatted price
+   */
+  public static String formatPrice(Double sellingPrice, Double listPrice, Boolean available) {
+    if (listPrice != null && available) {
+      return String.format("%.2f was %.2f CHF", sellingPrice, listPrice);
+    }
+    return String.format("%.2f CHF", sellingPrice);
+  }
+}
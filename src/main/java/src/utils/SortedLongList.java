@@ -0,0 +1,224 @@
+package src.utils;
+
+import java.util.Arrays;
+import java.util.stream.LongStream;
+
+/**
+ * Immutable ascending list of distinct primitive longs, split into chunks of about {@link
+ * #CHUNK_SIZE} values. {@link #with} and {@link #without} return a new list that shares all chunks
+ * with this one except the changed chunk, so a change copies one chunk and the chunk references
+ * instead of the whole list. Readers take ranges with {@link #slice}, the list itself is never
+ * copied. Thread-safe
+ */
+public final class SortedLongList {
+
+  /** Values of a chunk of a built list, a chunk is split once it grows to twice this size */
+  public static final int CHUNK_SIZE = 1024;
+
+  /** List without values */
+  public static final SortedLongList EMPTY = new SortedLongList(new long[0][], new int[0]);
+
+  private final long[][] chunks;
+
+  // index following the last value of every chunk, ascending
+  private final int[] ends;
+
+  private SortedLongList(long[][] chunks, int[] ends) {
+    this.chunks = chunks;
+    this.ends = ends;
+  }
+
+  /**
+   * Create a list
+   *
+   * @param sorted ascending distinct values, not kept by the list
+   * @return list of the values
+   */
+  public static SortedLongList of(long[] sorted) {
+    int count = (sorted.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    long[][] chunks = new long[count][];
+    for (int i = 0; i < count; i++) {
+      chunks[i] =
+          Arrays.copyOfRange(sorted, i * CHUNK_SIZE, Math.min((i + 1) * CHUNK_SIZE, sorted.length));
+    }
+    return new SortedLongList(chunks, endsOf(chunks));
+  }
+
+  /**
+   * @return amount of values
+   */
+  public int size() {
+    return ends.length == 0 ? 0 : ends[ends.length - 1];
+  }
+
+  /**
+   * @param index index of the value
+   * @return value at the index
+   */
+  public long get(int index) {
+    if (index < 0 || index >= this.size()) {
+      throw new IndexOutOfBoundsException("Index " + index + " of size " + this.size());
+    }
+    int chunk = this.chunkAt(index);
+    return chunks[chunk][index - this.startOf(chunk)];
+  }
+
+  /**
+   * Find the index of a value
+   *
+   * @param value value
+   * @return index of the value, -1 if it isn't contained
+   */
+  public int indexOf(long value) {
+    int chunk = this.chunkOf(value);
+    if (chunk == chunks.length) {
+      return -1;
+    }
+    int index = Arrays.binarySearch(chunks[chunk], value);
+    return index < 0 ? -1 : this.startOf(chunk) + index;
+  }
+
+  /**
+   * Copy a range of values
+   *
+   * @param offset index of the first value
+   * @param limit maximum amount of values
+   * @return values of the range, shorter if the list ends before
+   */
+  public long[] slice(int offset, int limit) {
+    int from = Math.min(Math.max(offset, 0), this.size());
+    int to = (int) Math.min((long) from + Math.max(limit, 0), this.size());
+    long[] result = new long[to - from];
+    if (result.length == 0) {
+      return result;
+    }
+    int copied = 0;
+    for (int chunk = this.chunkAt(from); copied < result.length; chunk++) {
+      int chunkFrom = from + copied - this.startOf(chunk);
+      int length = Math.min(chunks[chunk].length - chunkFrom, result.length - copied);
+      System.arraycopy(chunks[chunk], chunkFrom, result, copied, length);
+      copied += length;
+    }
+    return result;
+  }
+
+  /**
+   * @return all values in ascending order, read from the chunks while streaming
+   */
+  public LongStream stream() {
+    return Arrays.stream(chunks).flatMapToLong(Arrays::stream);
+  }
+
+  /**
+   * @return copy of all values, ascending
+   */
+  public long[] toArray() {
+    return this.slice(0, this.size());
+  }
+
+  /**
+   * Copy the list with a value added
+   *
+   * @param value value
+   * @return new list, this one if the value is already contained
+   */
+  public SortedLongList with(long value) {
+    if (chunks.length == 0) {
+      return new SortedLongList(new long[][] {{value}}, new int[] {1});
+    }
+
+    // values beyond the last chunk are appended to it
+    int chunk = Math.min(this.chunkOf(value), chunks.length - 1);
+    long[] values = chunks[chunk];
+    int index = Arrays.binarySearch(values, value);
+    if (index >= 0) {
+      return this;
+    }
+    index = -index - 1;
+    long[] changed = new long[values.length + 1];
+    System.arraycopy(values, 0, changed, 0, index);
+    changed[index] = value;
+    System.arraycopy(values, index, changed, index + 1, values.length - index);
+
+    if (changed.length < 2 * CHUNK_SIZE) {
+      long[][] changedChunks = chunks.clone();
+      changedChunks[chunk] = changed;
+      return new SortedLongList(changedChunks, endsOf(changedChunks));
+    }
+
+    long[][] changedChunks = new long[chunks.length + 1][];
+    System.arraycopy(chunks, 0, changedChunks, 0, chunk);
+    changedChunks[chunk] = Arrays.copyOfRange(changed, 0, CHUNK_SIZE);
+    changedChunks[chunk + 1] = Arrays.copyOfRange(changed, CHUNK_SIZE, changed.length);
+    System.arraycopy(chunks, chunk + 1, changedChunks, chunk + 2, chunks.length - chunk - 1);
+    return new SortedLongList(changedChunks, endsOf(changedChunks));
+  }
+
+  /**
+   * Copy the list without a value
+   *
+   * @param value value
+   * @return new list, this one if the value isn't contained
+   */
+  public SortedLongList without(long value) {
+    int chunk = this.chunkOf(value);
+    if (chunk == chunks.length) {
+      return this;
+    }
+    long[] values = chunks[chunk];
+    int index = Arrays.binarySearch(values, value);
+    if (index < 0) {
+      return this;
+    }
+
+    if (values.length == 1) {
+      long[][] changedChunks = new long[chunks.length - 1][];
+      System.arraycopy(chunks, 0, changedChunks, 0, chunk);
+      System.arraycopy(chunks, chunk + 1, changedChunks, chunk, chunks.length - chunk - 1);
+      return new SortedLongList(changedChunks, endsOf(changedChunks));
+    }
+
+    long[] changed = new long[values.length - 1];
+    System.arraycopy(values, 0, changed, 0, index);
+    System.arraycopy(values, index + 1, changed, index, values.length - index - 1);
+    long[][] changedChunks = chunks.clone();
+    changedChunks[chunk] = changed;
+    return new SortedLongList(changedChunks, endsOf(changedChunks));
+  }
+
+  /** First chunk whose last value is not less than the value, the chunk count if there is none */
+  private int chunkOf(long value) {
+    int low = 0;
+    int high = chunks.length - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      long[] chunk = chunks[middle];
+      if (chunk[chunk.length - 1] < value) {
+        low = middle + 1;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return low;
+  }
+
+  /** Chunk holding the value at an index */
+  private int chunkAt(int index) {
+    int chunk = Arrays.binarySearch(ends, index + 1);
+    return chunk >= 0 ? chunk : -chunk - 1;
+  }
+
+  private int startOf(int chunk) {
+    return chunk == 0 ? 0 : ends[chunk - 1];
+  }
+
+  private static int[] endsOf(long[][] chunks) {
+    int[] ends = new int[chunks.length];
+    int end = 0;
+    for (int i = 0; i < chunks.length; i++) {
+      end += chunks[i].length;
+      ends[i] = end;
+    }
+    return ends;
+  }
+}
@@ -0,0 +1,44 @@
+package src.view;
+
+import jakarta.inject.Inject;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.http.HttpFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Serves the fingerprinted static resources of {@link Assets} from memory. Their content never
+ * changes under the same url, so they are cached by browsers and proxies for a year without
+ * revalidation. Plain resource urls are passed on to the default servlet
+ */
+@WebFilter(Assets.ROOT + "*")
+public class AssetFilter extends HttpFilter {
+
+  private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+  @Inject Assets assets;
+
+  @Override
+  protected void doFilter(
+      HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws IOException, ServletException {
+    String root = request.getContextPath() + Assets.ROOT;
+    String uri = request.getRequestURI();
+    AssetFingerprints.Asset asset =
+        uri.startsWith(root) ? assets.find(uri.substring(root.length())) : null;
+    if (asset == null) {
+      chain.doFilter(request, response);
+      return;
+    }
+
+    response.setContentType(assets.getContentType(asset));
+    response.setContentLength(asset.getContent().length);
+    response.setHeader("Cache-Control", IMMUTABLE);
+    if (!"HEAD".equals(request.getMethod())) {
+      response.getOutputStream().write(asset.getContent());
+    }
+  }
+}
@@ -0,0 +1,203 @@
+package src.view;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.Getter;
+
+/**
+ * Content hashed names of the static resources, e.g. <code>css/main.css</code> becomes <code>
+ * css/main.1f3a9c0b7e.css</code>. A changed file gets a new name, so every fingerprinted url can
+ * be cached forever. Stylesheets are rewritten to reference the fingerprinted names of the
+ * resources they import, their hash covers these names, so a changed import changes the importing
+ * stylesheet too
+ */
+public class AssetFingerprints {
+
+  // relative references of a stylesheet: @import "x.css" and url(x.png)
+  private static final Pattern CSS_REFERENCE =
+      Pattern.compile("(@import\\s+[\"']|url\\(\\s*[\"']?)([^\"'()\\s]+)");
+
+  private static final int HASH_LENGTH = 10;
+
+  private final Map<String, byte[]> contents;
+  private final Map<String, Asset> assetsByPath = new HashMap<>();
+  private final Map<String, Asset> assetsByFingerprintedPath = new HashMap<>();
+
+  /**
+   * Fingerprint all resources
+   *
+   * @param contents content by path relative to the resource root, e.g. "css/main.css"
+   */
+  public AssetFingerprints(Map<String, byte[]> contents) {
+    this.contents = contents;
+    for (String path : contents.keySet()) {
+      this.fingerprint(path, new HashSet<>());
+    }
+  }
+
+  /**
+   * Get the fingerprinted path of a resource
+   *
+   * @param path path relative to the resource root
+   * @return fingerprinted path, the path itself if the resource doesn't exist
+   */
+  public String getFingerprintedPath(String path) {
+    Asset asset = assetsByPath.get(path);
+    return asset == null ? path : asset.fingerprintedPath;
+  }
+
+  /**
+   * Find a resource by its fingerprinted path
+   *
+   * @param fingerprintedPath fingerprinted path relative to the resource root
+   * @return resource, null if the path isn't the current fingerprint of a resource
+   */
+  public Asset find(String fingerprintedPath) {
+    return assetsByFingerprintedPath.get(fingerprintedPath);
+  }
+
+  /**
+   * Hash views and resources into one release identifier, it changes with any view or resource
+   *
+   * @param views content of the views by path
+   * @param fingerprints fingerprinted resources
+   * @return hash of the views and the fingerprinted names of the resources
+   */
+  public static String release(Map<String, byte[]> views, AssetFingerprints fingerprints) {
+    ByteArrayOutputStream content = new ByteArrayOutputStream();
+    for (Map.Entry<String, byte[]> view : new TreeMap<>(views).entrySet()) {
+      content.writeBytes(view.getKey().getBytes(StandardCharsets.UTF_8));
+      content.writeBytes(view.getValue());
+    }
+    for (Asset asset : new TreeMap<>(fingerprints.getAssets()).values()) {
+      content.writeBytes(asset.fingerprintedPath.getBytes(StandardCharsets.UTF_8));
+    }
+    return hash(content.toByteArray());
+  }
+
+  /**
+   * @return all fingerprinted resources by their original path
+   */
+  public Map<String, Asset> getAssets() {
+    return Collections.unmodifiableMap(assetsByPath);
+  }
+
+  private Asset fingerprint(String path, Set<String> inProgress) {
+    Asset asset = assetsByPath.get(path);
+    if (asset != null || !inProgress.add(path)) {
+      // done, or an import cycle which keeps the plain name
+      return asset;
+    }
+
+    byte[] content = contents.get(path);
+    if (path.endsWith(".css")) {
+      content = this.rewriteReferences(path, content, inProgress);
+    }
+
+    asset = new Asset(path, withHash(path, hash(content)), content);
+    assetsByPath.put(path, asset);
+    assetsByFingerprintedPath.put(asset.fingerprintedPath, asset);
+    return asset;
+  }
+
+  private byte[] rewriteReferences(String path, byte[] content, Set<String> inProgress) {
+    String css = new String(content, StandardCharsets.UTF_8);
+    URI base = URI.create(path);
+
+    Matcher matcher = CSS_REFERENCE.matcher(css);
+    StringBuilder rewritten = new StringBuilder();
+    while (matcher.find()) {
+      String reference = matcher.group(2);
+      matcher.appendReplacement(
+          rewritten,
+          Matcher.quoteReplacement(
+              matcher.group(1) + this.rewriteReference(base, reference, inProgress)));
+    }
+    matcher.appendTail(rewritten);
+    return rewritten.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  private String rewriteReference(URI base, String reference, Set<String> inProgress) {
+    // absolute urls, data and fragment references are left as they are
+    if (reference.contains(":") || reference.startsWith("/") || reference.startsWith("#")) {
+      return reference;
+    }
+
+    int suffixStart = indexOfAny(reference, '?', '#');
+    String target = reference.substring(0, suffixStart);
+    String suffix = reference.substring(suffixStart);
+
+    String resolved = base.resolve(target).normalize().getPath();
+    if (!contents.containsKey(resolved)) {
+      return reference;
+    }
+    Asset asset = this.fingerprint(resolved, inProgress);
+    if (asset == null) {
+      return reference;
+    }
+
+    // keep the relative directory of the reference, only the file name changes
+    String fingerprinted = asset.fingerprintedPath;
+    String fileName = fingerprinted.substring(fingerprinted.lastIndexOf('/') + 1);
+    return target.substring(0, target.lastIndexOf('/') + 1) + fileName + suffix;
+  }
+
+  private static int indexOfAny(String value, char first, char second) {
+    for (int i = 0; i < value.length(); i++) {
+      if (value.charAt(i) == first || value.charAt(i) == second) {
+        return i;
+      }
+    }
+    return value.length();
+  }
+
+  /** Insert the hash before the extension: css/main.css becomes css/main.hash.css */
+  private static String withHash(String path, String hash) {
+    int slash = path.lastIndexOf('/');
+    int dot = path.lastIndexOf('.');
+    if (dot <= slash + 1) {
+      return path + "." + hash;
+    }
+    return path.substring(0, dot) + "." + hash + path.substring(dot);
+  }
+
+  private static String hash(byte[] content) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+      StringBuilder hex = new StringBuilder();
+      for (int i = 0; hex.length() < HASH_LENGTH; i++) {
+        hex.append(String.format("%02x", digest[i]));
+      }
+      return hex.substring(0, HASH_LENGTH);
+    } catch (NoSuchAlgorithmException e) {
+      // every java platform supports SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** One static resource with its fingerprinted name and served content */
+  @Getter
+  public static class Asset {
+
+    private final String path;
+    private final String fingerprintedPath;
+    private final byte[] content;
+
+    Asset(String path, String fingerprintedPath, byte[] content) {
+      this.path = path;
+      this.fingerprintedPath = fingerprintedPath;
+      this.content = content;
+    }
+  }
+}
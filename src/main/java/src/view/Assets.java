@@ -0,0 +1,104 @@
+package src.view;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.servlet.ServletContext;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fingerprinted urls of the static resources for the views, e.g.
+ * <code>#{assets.url('css/main.css')}</code>. All files below /resources are read and hashed once
+ * at deployment, the content of a deployment never changes, see {@link AssetFingerprints}. The
+ * views and resources together are hashed into the release of the deployment
+ */
+@Named("assets")
+@ApplicationScoped
+public class Assets {
+
+  public static final String ROOT = "/resources/";
+
+  private static final String VIEWS = "/WEB-INF/views/";
+
+  @Inject ServletContext servletContext;
+
+  private AssetFingerprints fingerprints;
+  private String release;
+
+  @PostConstruct
+  public void init() {
+    Map<String, byte[]> contents = new HashMap<>();
+    this.read(ROOT, ROOT, contents);
+    this.fingerprints = new AssetFingerprints(contents);
+
+    Map<String, byte[]> views = new HashMap<>();
+    this.read(VIEWS, VIEWS, views);
+    this.release = AssetFingerprints.release(views, fingerprints);
+  }
+
+  /**
+   * @return hash of the views and the fingerprinted resources, equal on all nodes deploying the
+   *     same markup
+   */
+  public String getRelease() {
+    return release;
+  }
+
+  /**
+   * Get the fingerprinted url of a resource
+   *
+   * @param path path below /resources, e.g. "css/main.css"
+   * @return absolute url path including the context path
+   */
+  public String url(String path) {
+    return servletContext.getContextPath() + ROOT + fingerprints.getFingerprintedPath(path);
+  }
+
+  /**
+   * Find a resource by its fingerprinted path
+   *
+   * @param fingerprintedPath fingerprinted path below /resources
+   * @return resource, null if the path isn't the current fingerprint of a resource
+   */
+  public AssetFingerprints.Asset find(String fingerprintedPath) {
+    return fingerprints.find(fingerprintedPath);
+  }
+
+  /**
+   * Get the content type of a resource
+   *
+   * @param asset resource
+   * @return content type by the original file extension
+   */
+  public String getContentType(AssetFingerprints.Asset asset) {
+    String contentType = servletContext.getMimeType(asset.getPath());
+    return contentType == null ? "application/octet-stream" : contentType;
+  }
+
+  private void read(String root, String directory, Map<String, byte[]> contents) {
+    Set<String> paths = servletContext.getResourcePaths(directory);
+    if (paths == null) {
+      return;
+    }
+
+    for (String path : paths) {
+      if (path.endsWith("/")) {
+        this.read(root, path, contents);
+        continue;
+      }
+      try (InputStream in = servletContext.getResourceAsStream(path)) {
+        if (in != null) {
+          contents.put(path.substring(root.length()), in.readAllBytes());
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to read " + path, e);
+      }
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package src.view;
+
+import jakarta.enterprise.inject.spi.CDI;
+import jakarta.faces.component.FacesComponent;
+import jakarta.faces.component.UIComponentBase;
+import jakarta.faces.context.FacesContext;
+import jakarta.faces.context.ResponseWriter;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.StringWriter;
+import src.controller.AuthController;
+
+/**
+ * Renders its children once per key and writes the cached markup on all following requests, see
+ * {@link FragmentCache}. Usage:
+ *
+ * <pre>
+ * &lt;fragment:cache region="TILE" key="#{article.sku}"&gt; ... &lt;/fragment:cache&gt;
+ * </pre>
+ *
+ * The key has to contain everything the children depend on. With <code>varyOnLogin</code> the
+ * login state becomes part of the key, a logged in user gets an own fragment. The children must
+ * not write request dependent content otherwise, e.g. form state or the request path
+ */
+@FacesComponent(
+    value = CachedFragment.COMPONENT_TYPE,
+    createTag = true,
+    namespace = CachedFragment.NAMESPACE,
+    tagName = "cache")
+public class CachedFragment extends UIComponentBase {
+
+  public static final String COMPONENT_TYPE = "src.view.CachedFragment";
+  public static final String NAMESPACE = "http://jee-webshop/fragment";
+
+  private static final String ANONYMOUS = "anonymous";
+
+  @Override
+  public String getFamily() {
+    return COMPONENT_TYPE;
+  }
+
+  @Override
+  public boolean getRendersChildren() {
+    return true;
+  }
+
+  @Override
+  public void encodeChildren(FacesContext context) throws IOException {
+    FragmentCache cache = CDI.current().select(FragmentCache.class).get();
+    FragmentCache.Region region =
+        FragmentCache.Region.valueOf(String.valueOf(this.getAttributes().get("region")));
+    String key = this.getKey(context);
+
+    String fragment = cache.get(region, key);
+    if (fragment == null) {
+      long generation = cache.getGeneration();
+      fragment = this.render(context);
+      cache.put(region, key, fragment, generation);
+    }
+    context.getResponseWriter().write(fragment);
+  }
+
+  /** Render the children into a string instead of the response */
+  private String render(FacesContext context) throws IOException {
+    ResponseWriter original = context.getResponseWriter();
+    StringWriter buffer = new StringWriter();
+    context.setResponseWriter(original.cloneWithWriter(buffer));
+    try {
+      super.encodeChildren(context);
+      context.getResponseWriter().flush();
+    } finally {
+      context.setResponseWriter(original);
+    }
+    return buffer.toString();
+  }
+
+  private String getKey(FacesContext context) {
+    String key = String.valueOf(this.getAttributes().get("key"));
+    if (!Boolean.parseBoolean(String.valueOf(this.getAttributes().get("varyOnLogin")))) {
+      return key;
+    }
+
+    String email =
+        new AuthController()
+            .extractEmail((HttpServletRequest) context.getExternalContext().getRequest());
+    return key + "|" + (email == null ? ANONYMOUS : email);
+  }
+}
@@ -0,0 +1,245 @@
+package src.view;
+
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.interceptor.Interceptor;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import src.repository.CatalogChangeEvent;
+
+/**
+ * Application wide cache of rendered view fragments, filled by {@link CachedFragment}. A fragment
+ * is rendered once and then written as is, until a catalog write of the api evicts it. Lookups
+ * don't lock, every region is a concurrent map. Once the cached characters exceed the size limit,
+ * the least recently used fragments are evicted, approximately: one writer at a time drops the
+ * fragments with the oldest access time
+ */
+@ApplicationScoped
+public class FragmentCache {
+
+  // characters of all fragments together, about 8 MB
+  private static final long MAX_CHARS = 8_000_000;
+
+  // an eviction by size drops the least recently used fragments down to this share of the limit,
+  // so it doesn't run again with the next stored fragment
+  private static final double TRIM_RATIO = 0.9;
+
+  /** Kind of fragment, catalog writes evict whole regions or single keys of a region */
+  public enum Region {
+    /** Category menu of the header, by selected main category */
+    MENU,
+    /** Sidebar, by selected main category and subcategory */
+    SIDEBAR,
+    /** Article tile of the list, by sku */
+    TILE,
+    /** User block of the header, by login state */
+    USER
+  }
+
+  private final Map<Region, ConcurrentHashMap<String, Fragment>> regions =
+      new EnumMap<>(Region.class);
+  private final AtomicLong cachedChars = new AtomicLong();
+  private final ReentrantLock trimLock = new ReentrantLock();
+
+  // incremented by every eviction, fragments rendered before are not cached anymore
+  private final AtomicLong generation = new AtomicLong();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  public FragmentCache() {
+    for (Region region : Region.values()) {
+      regions.put(region, new ConcurrentHashMap<>());
+    }
+  }
+
+  /**
+   * Get a rendered fragment
+   *
+   * @param region fragment region
+   * @param key fragment key within the region
+   * @return rendered markup, null if it isn't cached
+   */
+  public String get(Region region, String key) {
+    Fragment fragment = regions.get(region).get(key);
+    if (fragment == null) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    fragment.lastAccess = System.nanoTime();
+    return fragment.markup;
+  }
+
+  /**
+   * Get the current generation, to be passed to {@link #put} after rendering
+   *
+   * @return generation, changed by every eviction
+   */
+  public long getGeneration() {
+    return generation.get();
+  }
+
+  /**
+   * Store a rendered fragment, unless an eviction happened while it was rendered
+   *
+   * @param region fragment region
+   * @param key fragment key within the region
+   * @param markup rendered markup
+   * @param renderGeneration generation before the fragment was rendered
+   */
+  public void put(Region region, String key, String markup, long renderGeneration) {
+    if (renderGeneration != generation.get()) {
+      return;
+    }
+
+    Map<String, Fragment> fragments = regions.get(region);
+    Fragment fragment = new Fragment(region, key, markup);
+    this.replaced(fragments.put(key, fragment));
+    cachedChars.addAndGet(markup.length());
+
+    // an eviction counts up before it removes, so a fragment stored meanwhile is either removed
+    // by the eviction or recognized here
+    if (renderGeneration != generation.get() && fragments.remove(key, fragment)) {
+      this.replaced(fragment);
+    }
+
+    if (cachedChars.get() > MAX_CHARS && trimLock.tryLock()) {
+      try {
+        this.trim();
+      } finally {
+        trimLock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Evict one fragment
+   *
+   * @param region fragment region
+   * @param key fragment key within the region
+   */
+  public void evict(Region region, String key) {
+    generation.incrementAndGet();
+    this.replaced(regions.get(region).remove(key));
+  }
+
+  /**
+   * Evict all fragments of a region
+   *
+   * @param region fragment region
+   */
+  public void evictAll(Region region) {
+    generation.incrementAndGet();
+    Map<String, Fragment> fragments = regions.get(region);
+    for (String key : fragments.keySet()) {
+      this.replaced(fragments.remove(key));
+    }
+  }
+
+  /**
+   * @return amount of cached fragments
+   */
+  public int size() {
+    return regions.values().stream().mapToInt(Map::size).sum();
+  }
+
+  /**
+   * Get hit and miss counts of the fragment lookups
+   *
+   * @return statistics by name
+   */
+  public Map<String, Long> getStatistics() {
+    return Map.of("hits", hits.sum(), "misses", misses.sum(), "fragments", (long) this.size());
+  }
+
+  /**
+   * Evict the fragments showing the written entity. Runs after the default observers, so the
+   * category tree and counts already contain the write once a fragment is rendered again
+   *
+   * @param event changed entity
+   */
+  public void onCatalogChange(
+      @Observes @Priority(Interceptor.Priority.LIBRARY_AFTER) CatalogChangeEvent event) {
+    switch (event.getEntityType()) {
+      case ARTICLE:
+        this.evict(Region.TILE, String.valueOf(event.getArticleSku()));
+
+        // the sidebar shows the article counts of the categories
+        this.evictAll(Region.SIDEBAR);
+        break;
+      case ARTICLE_IMAGE:
+        // the tile shows the primary image of the article
+        if (event.getArticleSku() != null) {
+          this.evict(Region.TILE, String.valueOf(event.getArticleSku()));
+        } else {
+          this.evictAll(Region.TILE);
+        }
+        break;
+      case CATEGORY:
+      case SUBCATEGORY:
+        this.evictAll(Region.MENU);
+        this.evictAll(Region.SIDEBAR);
+        break;
+      case CATALOG:
+        for (Region region : Region.values()) {
+          this.evictAll(region);
+        }
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Drop the least recently used fragments until the cached characters are below the trim size
+   */
+  private void trim() {
+    // lookups keep updating the access times, sort the times read once
+    List<Map.Entry<Fragment, Long>> fragments = new ArrayList<>();
+    for (Map<String, Fragment> region : regions.values()) {
+      region.values().forEach(fragment -> fragments.add(Map.entry(fragment, fragment.lastAccess)));
+    }
+    fragments.sort(Map.Entry.comparingByValue());
+
+    long trimChars = (long) (MAX_CHARS * TRIM_RATIO);
+    for (Iterator<Map.Entry<Fragment, Long>> eldest = fragments.iterator();
+        cachedChars.get() > trimChars && eldest.hasNext(); ) {
+      Fragment fragment = eldest.next().getKey();
+      if (regions.get(fragment.region).remove(fragment.key, fragment)) {
+        this.replaced(fragment);
+      }
+    }
+  }
+
+  private void replaced(Fragment previous) {
+    if (previous != null) {
+      cachedChars.addAndGet(-previous.markup.length());
+    }
+  }
+
+  /** Cached markup with the time of its last lookup */
+  private static class Fragment {
+
+    final Region region;
+    final String key;
+    final String markup;
+
+    // System.nanoTime() of the last lookup, only compared with the other fragments
+    volatile long lastAccess = System.nanoTime();
+
+    Fragment(Region region, String key, String markup) {
+      this.region = region;
+      this.key = key;
+      this.markup = markup;
+    }
+  }
+}
@@ -10,7 +10,10 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockitoAnnotations;
 import src.model.Article;
+import src.model.ArticleTile;
 import src.repository.ArticleRepository;
+import src.repository.ArticleSort;
+import src.repository.PriceFilter;
 
 class ArticleControllerMassiveTest {
 
@@ -33,6 +36,24 @@ class ArticleControllerMassiveTest {
     return list;
   }
 
+  private static List<ArticleTile> genTiles(int n) {
+    List<ArticleTile> list = new ArrayList<>();
+    for (int i = 0; i < n; i++) list.add(new ArticleTile(i, "t" + i, 1.0, null, true, null));
+    return list;
+  }
+
+  private void stubArticles(int n) {
+    List<ArticleTile> all = genTiles(n);
+    when(repository.countArticles(null, null, null, PriceFilter.NONE)).thenReturn((long) n);
+    when(repository.getTilesPage(isNull(), isNull(), isNull(), any(), any(), anyInt(), anyInt()))
+        .thenAnswer(
+            inv -> {
+              int offset = inv.getArgument(5);
+              int limit = inv.getArgument(6);
+              return all.subList(Math.min(offset, n), Math.min(offset + limit, n));
+            });
+  }
+
   private void stubPage(int page) {
     when(request.getParameter("page")).thenReturn(String.valueOf(page));
   }
@@ -54,7 +75,7 @@ class ArticleControllerMassiveTest {
   @DisplayName("T002: Constructor with repository stores dependency")
   void T002() {
     // Using behavior to infer field is used
-    when(repository.getArticles(null, null, null)).thenReturn(Collections.emptyList());
+    stubArticles(0);
     int pages = controller.getTotalPageCount(request);
     assertEquals(1, pages);
   }
@@ -63,145 +84,147 @@ class ArticleControllerMassiveTest {
   @Test
   @DisplayName("T003: getTotalPageCount returns 1 when repository returns empty list")
   void T003() {
-    when(repository.getArticles(null, null, null)).thenReturn(Collections.emptyList());
+    stubArticles(0);
     assertEquals(1, controller.getTotalPageCount(request));
   }
 
   @Test
-  @DisplayName("T004: getTotalPageCount returns 1 when repository returns null")
+  @DisplayName("T004: getTotalPageCount counts in the database instead of loading articles")
   void T004() {
-    when(repository.getArticles(null, null, null)).thenReturn(null);
+    stubArticles(0);
     assertEquals(1, controller.getTotalPageCount(request));
+    verify(repository).countArticles(null, null, null, PriceFilter.NONE);
+    verify(repository, never()).getArticles(any(), any(), any(), any(), any());
   }
 
   @Test
   @DisplayName("T005: getTotalPageCount 1 full page (12 items)")
   void T005() {
-    when(repository.getArticles(null, null, null)).thenReturn(gen(12));
+    stubArticles(12);
     assertEquals(1, controller.getTotalPageCount(request));
   }
 
   @Test
   @DisplayName("T006: getTotalPageCount rounds up (13 items -> 2 pages)")
   void T006() {
-    when(repository.getArticles(null, null, null)).thenReturn(gen(13));
+    stubArticles(13);
     assertEquals(2, controller.getTotalPageCount(request));
   }
 
   @Test
   @DisplayName("T007: getTotalPageCount for 24 items -> 2 pages")
   void T007() {
-    when(repository.getArticles(null, null, null)).thenReturn(gen(24));
+    stubArticles(24);
     assertEquals(2, controller.getTotalPageCount(request));
   }
 
   @Test
   @DisplayName("T008: getTotalPageCount for 25 items -> 3 pages")
   void T008() {
-    when(repository.getArticles(null, null, null)).thenReturn(gen(25));
+    stubArticles(25);
     assertEquals(3, controller.getTotalPageCount(request));
   }
 
   // Variations to reach high test count, verifying consistency across many sizes
   @Test
   void T009() {
-    when(repository.getArticles(null, null, null)).thenReturn(gen(0));
+    stubArticles(0);
     assertEquals(1, controller.getTotalPageCount(request));
   }
 
   @Test
   void T010() {
-    when(repository.getArticles(null, null, null)).thenReturn(gen(1));
+    stubArticles(1);
     assertEquals(1, controller.getTotalPageCount(request));
   }
 
   @Test
   void T011() {
-    when(repository.getArticles(null, null, null)).thenReturn(gen(2));
+    stubArticles(2);
     assertEquals(1, controller.getTotalPageCount(request));
   }
 
   @Test
   void T012() {
-    when(repository.getArticles(null, null, null)).thenReturn(gen(3));
+    stubArticles(3);
     assertEquals(1, controller.getTotalPageCount(request));
   }
 
   @Test
   void T013() {
-    when(repository.getArticles(null, null, null)).thenReturn(gen(4));
+    stubArticles(4);
     assertEquals(1, controller.getTotalPageCount(request));
   }
 
   @Test
   void T014() {
-    when(repository.getArticles(null, null, null)).thenReturn(gen(5));
+    stubArticles(5);
     assertEquals(1, controller.getTotalPageCount(request));
   }
 
   @Test
   void T015() {
-    when(repository.getArticles(null, null, null)).thenReturn(gen(6));
+    stubArticles(6);
     assertEquals(1, controller.getTotalPageCount(request));
   }
 
   @Test
   void T016() {
-    when(repository.getArticles(null, null, null)).thenReturn(gen(7));
+    stubArticles(7);
     assertEquals(1, controller.getTotalPageCount(request));
   }
 
   @Test
   void T017() {
-    when(repository.getArticles(null, null, null)).thenReturn(gen(8));
+    stubArticles(8);
     assertEquals(1, controller.getTotalPageCount(request));
   }
 
   @Test
   void T018() {
-    when(repository.getArticles(null, null, null)).thenReturn(gen(9));
+    stubArticles(9);
     assertEquals(1, controller.getTotalPageCount(request));
   }
 
   @Test
   void T019() {
-    when(repository.getArticles(null, null, null)).thenReturn(gen(10));
+    stubArticles(10);
     assertEquals(1, controller.getTotalPageCount(request));
   }
 
   @Test
   void T020() {
-    when(repository.getArticles(null, null, null)).thenReturn(gen(11));
+    stubArticles(11);
     assertEquals(1, controller.getTotalPageCount(request));
   }
 
   @Test
   void T021() {
-    when(repository.getArticles(null, null, null)).thenReturn(gen(12));
+    stubArticles(12);
     assertEquals(1, controller.getTotalPageCount(request));
   }
 
   @Test
   void T022() {
-    when(repository.getArticles(null, null, null)).thenReturn(gen(13));
+    stubArticles(13);
     assertEquals(2, controller.getTotalPageCount(request));
   }
 
   @Test
   void T023() {
-    when(repository.getArticles(null, null, null)).thenReturn(gen(23));
+    stubArticles(23);
     assertEquals(2, controller.getTotalPageCount(request));
   }
 
   @Test
   void T024() {
-    when(repository.getArticles(null, null, null)).thenReturn(gen(24));
+    stubArticles(24);
     assertEquals(2, controller.getTotalPageCount(request));
   }
 
   @Test
   void T025() {
-    when(repository.getArticles(null, null, null)).thenReturn(gen(25));
+    stubArticles(25);
     assertEquals(3, controller.getTotalPageCount(request));
   }
 
@@ -210,7 +233,7 @@ class ArticleControllerMassiveTest {
   @DisplayName("T026: First page returns 12 items when 25 exist")
   void T026() {
     stubPage(1);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(25));
+    stubArticles(25);
     assertEquals(12, controller.getPagedArticles(request).size());
   }
 
@@ -218,7 +241,7 @@ class ArticleControllerMassiveTest {
   @DisplayName("T027: Second page returns 12 items when 25 exist")
   void T027() {
     stubPage(2);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(25));
+    stubArticles(25);
     assertEquals(12, controller.getPagedArticles(request).size());
   }
 
@@ -226,7 +249,7 @@ class ArticleControllerMassiveTest {
   @DisplayName("T028: Third page returns 1 item when 25 exist")
   void T028() {
     stubPage(3);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(25));
+    stubArticles(25);
     assertEquals(1, controller.getPagedArticles(request).size());
   }
 
@@ -234,7 +257,7 @@ class ArticleControllerMassiveTest {
   @DisplayName("T029: Empty list returns empty sublist for page 1")
   void T029() {
     stubPage(1);
-    when(repository.getArticles(null, null, null)).thenReturn(Collections.emptyList());
+    stubArticles(0);
     assertEquals(0, controller.getPagedArticles(request).size());
   }
 
@@ -242,7 +265,7 @@ class ArticleControllerMassiveTest {
   @DisplayName("T030: Invalid page (negative) defaults to page 1")
   void T030() {
     when(request.getParameter("page")).thenReturn("-5");
-    when(repository.getArticles(null, null, null)).thenReturn(gen(25));
+    stubArticles(25);
     assertEquals(12, controller.getPagedArticles(request).size());
   }
 
@@ -250,7 +273,7 @@ class ArticleControllerMassiveTest {
   @DisplayName("T031: Invalid page (non-numeric) defaults to page 1")
   void T031() {
     when(request.getParameter("page")).thenReturn("abc");
-    when(repository.getArticles(null, null, null)).thenReturn(gen(25));
+    stubArticles(25);
     assertEquals(12, controller.getPagedArticles(request).size());
   }
 
@@ -258,7 +281,7 @@ class ArticleControllerMassiveTest {
   @DisplayName("T032: Page 1 for exactly 12 items returns full list")
   void T032() {
     stubPage(1);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(12));
+    stubArticles(12);
     assertEquals(12, controller.getPagedArticles(request).size());
   }
 
@@ -266,15 +289,15 @@ class ArticleControllerMassiveTest {
   @DisplayName("T033: Page 2 for exactly 12 items: redirects to Page 1 and returns 12 items")
   void T033() {
     stubPage(2);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(12));
-    List<Article> result = controller.getPagedArticles(request);
+    stubArticles(12);
+    List<ArticleTile> result = controller.getPagedArticles(request);
     assertEquals(12, result.size());
   }
 
   @Test
   void T034() {
     stubPage(1000);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(20));
+    stubArticles(20);
     assertEquals(Collections.emptyList(), controller.getPageNumbers(request, 4));
   }
 
@@ -283,7 +306,7 @@ class ArticleControllerMassiveTest {
   @DisplayName("T035: Page numbers near beginning from page 1 with count 3")
   void T035() {
     stubPage(1);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(50));
+    stubArticles(50);
     assertEquals(List.of(2, 3, 4), controller.getPageNumbers(request, 3));
   }
 
@@ -291,7 +314,7 @@ class ArticleControllerMassiveTest {
   @DisplayName("T036: Page numbers center at page 5 with count 5")
   void T036() {
     stubPage(5);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(200)); // many pages
+    stubArticles(200); // many pages
     assertEquals(List.of(4, 5, 6, 7, 8), controller.getPageNumbers(request, 5));
   }
 
@@ -299,7 +322,7 @@ class ArticleControllerMassiveTest {
   @DisplayName("T037: Page numbers limited by total pages")
   void T037() {
     stubPage(9);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(20)); // 2 pages
+    stubArticles(20); // 2 pages
     assertEquals(Collections.emptyList(), controller.getPageNumbers(request, 5));
   }
 
@@ -307,7 +330,7 @@ class ArticleControllerMassiveTest {
   @DisplayName("T038: Count 0 yields empty list (range exclusive)")
   void T038() {
     stubPage(1);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(100));
+    stubArticles(100);
     assertEquals(Collections.emptyList(), controller.getPageNumbers(request, 0));
   }
 
@@ -315,7 +338,7 @@ class ArticleControllerMassiveTest {
   @DisplayName("T039: Lowest number never below 2")
   void T039() {
     stubPage(1);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(100));
+    stubArticles(100);
     List<Integer> nums = controller.getPageNumbers(request, 10);
     assertFalse(nums.contains(1));
   }
@@ -324,7 +347,7 @@ class ArticleControllerMassiveTest {
   @DisplayName("T040: Highest respects total page count exactly")
   void T040() {
     stubPage(2);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(24)); // 2 pages
+    stubArticles(24); // 2 pages
     assertEquals(Collections.emptyList(), controller.getPageNumbers(request, 10));
   }
 
@@ -332,70 +355,70 @@ class ArticleControllerMassiveTest {
   @Test
   void T041() {
     stubPage(2);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(1));
+    stubArticles(1);
     assertEquals(Collections.emptyList(), controller.getPageNumbers(request, 3));
   }
 
   @Test
   void T042() {
     stubPage(2);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(13));
+    stubArticles(13);
     assertEquals(Collections.emptyList(), controller.getPageNumbers(request, 1));
   }
 
   @Test
   void T043() {
     stubPage(3);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(36));
+    stubArticles(36);
     assertEquals(List.of(2), controller.getPageNumbers(request, 3));
   }
 
   @Test
   void T044() {
     stubPage(1000);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(120));
+    stubArticles(120);
     assertEquals(List.of(2, 3, 4, 5, 6, 7, 8, 9), controller.getPageNumbers(request, 10));
   }
 
   @Test
   void T045() {
     stubPage(100);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(12));
+    stubArticles(12);
     assertEquals(Collections.emptyList(), controller.getPageNumbers(request, 5));
   }
 
   @Test
   void T046() {
     stubPage(5);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(60));
+    stubArticles(60);
     assertEquals(List.of(2, 3, 4), controller.getPageNumbers(request, 3));
   }
 
   @Test
   void T047() {
     stubPage(6);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(73));
+    stubArticles(73);
     assertEquals(List.of(4, 5, 6), controller.getPageNumbers(request, 3));
   }
 
   @Test
   void T048() {
     stubPage(7);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(120));
+    stubArticles(120);
     assertEquals(List.of(6, 7, 8, 9), controller.getPageNumbers(request, 4));
   }
 
   @Test
   void T049() {
     stubPage(8);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(121));
+    stubArticles(121);
     assertEquals(List.of(7, 8, 9, 10), controller.getPageNumbers(request, 4));
   }
 
   @Test
   void T050() {
     stubPage(9);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(122));
+    stubArticles(122);
     assertEquals(List.of(7, 8, 9, 10), controller.getPageNumbers(request, 4));
   }
 
@@ -411,7 +434,7 @@ class ArticleControllerMassiveTest {
   @DisplayName("T052: existsPreviousPage true on page 2")
   void T052() {
     stubPage(2);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(13));
+    stubArticles(13);
     assertTrue(controller.existsPreviousPage(request));
   }
 
@@ -419,7 +442,7 @@ class ArticleControllerMassiveTest {
   @DisplayName("T053: existsNextPage true when next page exists")
   void T053() {
     stubPage(1);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(13));
+    stubArticles(13);
     assertTrue(controller.existsNextPage(request));
   }
 
@@ -427,7 +450,7 @@ class ArticleControllerMassiveTest {
   @DisplayName("T054: existsNextPage false on last page")
   void T054() {
     stubPage(2);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(13));
+    stubArticles(13);
     assertFalse(controller.existsNextPage(request));
   }
 
@@ -435,15 +458,15 @@ class ArticleControllerMassiveTest {
   @DisplayName("T055: existsNextPage false when only 1 page")
   void T055() {
     stubPage(1);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(12));
+    stubArticles(12);
     assertFalse(controller.existsNextPage(request));
   }
 
   @Test
-  @DisplayName("T056: existsNextPage handles null articles as 1 page")
+  @DisplayName("T056: existsNextPage handles empty result as 1 page")
   void T056() {
     stubPage(1);
-    when(repository.getArticles(null, null, null)).thenReturn(null);
+    stubArticles(0);
     assertFalse(controller.existsNextPage(request));
   }
 
@@ -474,10 +497,11 @@ class ArticleControllerMassiveTest {
   @DisplayName("T059: getAllArticlesByRequest forwards parameters to repository")
   void T059() {
     stubQuery("cat", "sub", "q");
-    when(repository.getArticles("cat", "sub", "q")).thenReturn(Collections.emptyList());
+    when(repository.getArticles("cat", "sub", "q", PriceFilter.NONE, ArticleSort.DEFAULT))
+        .thenReturn(Collections.emptyList());
 
     controller.getAllArticlesByRequest(request);
-    verify(repository).getArticles("cat", "sub", "q");
+    verify(repository).getArticles("cat", "sub", "q", PriceFilter.NONE, ArticleSort.DEFAULT);
   }
 
   @Test
@@ -485,7 +509,8 @@ class ArticleControllerMassiveTest {
   void T060() {
     stubQuery("c", "s", "hello");
     List<Article> expected = gen(3);
-    when(repository.getArticles("c", "s", "hello")).thenReturn(expected);
+    when(repository.getArticles("c", "s", "hello", PriceFilter.NONE, ArticleSort.DEFAULT))
+        .thenReturn(expected);
     List<Article> actual = controller.getAllArticlesByRequest(request);
     assertSame(expected, actual);
   }
@@ -494,70 +519,70 @@ class ArticleControllerMassiveTest {
   @Test
   void T061() {
     stubPage(2);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(100));
+    stubArticles(100);
     assertEquals(List.of(2, 3, 4, 5), controller.getPageNumbers(request, 4));
   }
 
   @Test
   void T062() {
     stubPage(3);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(100));
+    stubArticles(100);
     assertEquals(List.of(2, 3, 4, 5, 6), controller.getPageNumbers(request, 5));
   }
 
   @Test
   void T063() {
     stubPage(4);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(100));
+    stubArticles(100);
     assertEquals(List.of(3, 4, 5, 6), controller.getPageNumbers(request, 4));
   }
 
   @Test
   void T064() {
     stubPage(10);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(100));
+    stubArticles(100);
     assertEquals(List.of(5, 6, 7, 8), controller.getPageNumbers(request, 4));
   }
 
   @Test
   void T065() {
     stubPage(6);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(100));
+    stubArticles(100);
     assertEquals(List.of(5, 6, 7, 8), controller.getPageNumbers(request, 4));
   }
 
   @Test
   void T066() {
     stubPage(7);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(100));
+    stubArticles(100);
     assertEquals(List.of(6, 7, 8), controller.getPageNumbers(request, 3));
   }
 
   @Test
   void T067() {
     stubPage(11);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(101));
+    stubArticles(101);
     assertEquals(List.of(5, 6, 7, 8), controller.getPageNumbers(request, 4));
   }
 
   @Test
   void T068() {
     stubPage(12);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(102));
+    stubArticles(102);
     assertEquals(List.of(5, 6, 7, 8), controller.getPageNumbers(request, 4));
   }
 
   @Test
   void T069() {
     stubPage(13);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(103));
+    stubArticles(103);
     assertEquals(List.of(5, 6, 7, 8), controller.getPageNumbers(request, 4));
   }
 
   @Test
   void T070() {
     stubPage(14);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(104));
+    stubArticles(104);
     assertEquals(List.of(5, 6, 7, 8), controller.getPageNumbers(request, 4));
   }
 
@@ -565,70 +590,70 @@ class ArticleControllerMassiveTest {
   @Test
   void T071() {
     stubPage(1);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(0));
+    stubArticles(0);
     assertEquals(0, controller.getPagedArticles(request).size());
   }
 
   @Test
   void T072() {
     stubPage(1);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(1));
+    stubArticles(1);
     assertEquals(1, controller.getPagedArticles(request).size());
   }
 
   @Test
   void T073() {
     stubPage(1);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(11));
+    stubArticles(11);
     assertEquals(11, controller.getPagedArticles(request).size());
   }
 
   @Test
   void T074() {
     stubPage(2);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(13));
+    stubArticles(13);
     assertEquals(1, controller.getPagedArticles(request).size());
   }
 
   @Test
   void T075() {
     stubPage(3);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(36));
+    stubArticles(36);
     assertEquals(12, controller.getPagedArticles(request).size());
   }
 
   @Test
   void T076() {
     stubPage(4);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(36));
+    stubArticles(36);
     assertEquals(12, controller.getPagedArticles(request).size());
   }
 
   @Test
   void T077() {
     stubPage(5);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(60));
+    stubArticles(60);
     assertEquals(12, controller.getPagedArticles(request).size());
   }
 
   @Test
   void T078() {
     stubPage(6);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(60));
+    stubArticles(60);
     assertEquals(12, controller.getPagedArticles(request).size());
   }
 
   @Test
   void T079() {
     stubPage(1000);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(0));
+    stubArticles(0);
     assertEquals(0, controller.getPagedArticles(request).size());
   }
 
   @Test
   void T080() {
     stubPage(1000);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(1));
+    stubArticles(1);
     assertDoesNotThrow(() -> controller.getPagedArticles(request));
   }
 
@@ -636,7 +661,7 @@ class ArticleControllerMassiveTest {
   @Test
   void T081() {
     stubPage(1);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(0));
+    stubArticles(0);
     assertFalse(controller.existsNextPage(request));
     assertFalse(controller.existsPreviousPage(request));
   }
@@ -644,14 +669,14 @@ class ArticleControllerMassiveTest {
   @Test
   void T082() {
     stubPage(1);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(1));
+    stubArticles(1);
     assertFalse(controller.existsNextPage(request));
   }
 
   @Test
   void T083() {
     stubPage(2);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(1));
+    stubArticles(1);
     assertFalse(controller.existsNextPage(request));
     assertFalse(controller.existsPreviousPage(request));
   }
@@ -659,21 +684,21 @@ class ArticleControllerMassiveTest {
   @Test
   void T084() {
     stubPage(2);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(24));
+    stubArticles(24);
     assertFalse(controller.existsNextPage(request));
   }
 
   @Test
   void T085() {
     stubPage(2);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(25));
+    stubArticles(25);
     assertTrue(controller.existsNextPage(request));
   }
 
   @Test
   void T086() {
     stubPage(3);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(25));
+    stubArticles(25);
     assertFalse(controller.existsNextPage(request));
     assertTrue(controller.existsPreviousPage(request));
   }
@@ -700,39 +725,44 @@ class ArticleControllerMassiveTest {
   @Test
   void T089() {
     stubQuery(null, null, null);
-    when(repository.getArticles(null, null, null)).thenReturn(Collections.emptyList());
+    when(repository.getArticles(null, null, null, PriceFilter.NONE, ArticleSort.DEFAULT))
+        .thenReturn(Collections.emptyList());
     controller.getAllArticlesByRequest(request);
-    verify(repository).getArticles(null, null, null);
+    verify(repository).getArticles(null, null, null, PriceFilter.NONE, ArticleSort.DEFAULT);
   }
 
   @Test
   void T090() {
     stubQuery("A", null, null);
-    when(repository.getArticles("A", null, null)).thenReturn(Collections.emptyList());
+    when(repository.getArticles("A", null, null, PriceFilter.NONE, ArticleSort.DEFAULT))
+        .thenReturn(Collections.emptyList());
     controller.getAllArticlesByRequest(request);
-    verify(repository).getArticles("A", null, null);
+    verify(repository).getArticles("A", null, null, PriceFilter.NONE, ArticleSort.DEFAULT);
   }
 
   @Test
   void T091() {
     stubQuery(null, "B", null);
-    when(repository.getArticles(null, "B", null)).thenReturn(Collections.emptyList());
+    when(repository.getArticles(null, "B", null, PriceFilter.NONE, ArticleSort.DEFAULT))
+        .thenReturn(Collections.emptyList());
     controller.getAllArticlesByRequest(request);
-    verify(repository).getArticles(null, "B", null);
+    verify(repository).getArticles(null, "B", null, PriceFilter.NONE, ArticleSort.DEFAULT);
   }
 
   @Test
   void T092() {
     stubQuery(null, null, "C");
-    when(repository.getArticles(null, null, "C")).thenReturn(Collections.emptyList());
+    when(repository.getArticles(null, null, "C", PriceFilter.NONE, ArticleSort.DEFAULT))
+        .thenReturn(Collections.emptyList());
     controller.getAllArticlesByRequest(request);
-    verify(repository).getArticles(null, null, "C");
+    verify(repository).getArticles(null, null, "C", PriceFilter.NONE, ArticleSort.DEFAULT);
   }
 
   @Test
   void T093() {
     stubQuery("A", "B", "C");
-    when(repository.getArticles("A", "B", "C")).thenReturn(gen(2));
+    when(repository.getArticles("A", "B", "C", PriceFilter.NONE, ArticleSort.DEFAULT))
+        .thenReturn(gen(2));
     List<Article> res = controller.getAllArticlesByRequest(request);
     assertEquals(2, res.size());
   }
@@ -751,14 +781,14 @@ class ArticleControllerMassiveTest {
   @Test
   void T095() {
     stubPage(1);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(11));
+    stubArticles(11);
     assertEquals(Collections.emptyList(), controller.getPageNumbers(request, 5));
   }
 
   @Test
   void T096() {
     stubPage(2);
-    when(repository.getArticles(null, null, null)).thenReturn(gen(11));
+    stubArticles(11);
     assertEquals(Collections.emptyList(), controller.getPageNumbers(request, 5));
   }
 
@@ -766,15 +796,17 @@ class ArticleControllerMassiveTest {
   @Test
   void T097() {
     stubQuery("cat", "sub", "q");
-    when(repository.getArticles("cat", "sub", "q")).thenReturn(Collections.emptyList());
+    when(repository.getArticles("cat", "sub", "q", PriceFilter.NONE, ArticleSort.DEFAULT))
+        .thenReturn(Collections.emptyList());
     controller.getAllArticlesByRequest(request);
-    verify(repository, times(1)).getArticles("cat", "sub", "q");
+    verify(repository, times(1))
+        .getArticles("cat", "sub", "q", PriceFilter.NONE, ArticleSort.DEFAULT);
   }
 
   // ---------- Ensure getTotalPageCount clamps minimum to 1 ----------
   @Test
   void T098() {
-    when(repository.getArticles(null, null, null)).thenReturn(Collections.emptyList());
+    stubArticles(0);
     assertTrue(controller.getTotalPageCount(request) >= 1);
   }
 
@@ -782,15 +814,190 @@ class ArticleControllerMassiveTest {
   @Test
   void T099() {
     when(request.getParameter("page")).thenReturn("-1");
-    when(repository.getArticles(null, null, null)).thenReturn(gen(0));
+    stubArticles(0);
     assertDoesNotThrow(() -> controller.getPagedArticles(request));
   }
 
   @Test
   void T100() {
     when(request.getParameter("page")).thenReturn("xyz");
-    when(repository.getArticles(null, null, null)).thenReturn(gen(15));
-    List<Article> res = controller.getPagedArticles(request);
+    stubArticles(15);
+    List<ArticleTile> res = controller.getPagedArticles(request);
     assertEquals(12, res.size());
   }
+
+  // ---------- Database pagination ----------
+  @Test
+  @DisplayName("T101: getPagedArticles passes offset and page size to the repository")
+  void T101() {
+    stubPage(3);
+    stubArticles(100);
+    controller.getPagedArticles(request);
+    verify(repository)
+        .getTilesPage(null, null, null, PriceFilter.NONE, ArticleSort.DEFAULT, 24, 12);
+    verify(repository, never()).getArticles(any(), any(), any(), any(), any());
+  }
+
+  @Test
+  @DisplayName("T102: getPagedArticles seeks behind afterSku, the offset is only the fallback")
+  void T102() {
+    stubPage(3);
+    stubArticles(100);
+    when(request.getParameter("afterSku")).thenReturn("4711");
+    when(repository.getTilesAfterSku(null, null, null, PriceFilter.NONE, 4711L, 24, 12))
+        .thenReturn(genTiles(12));
+    assertEquals(12, controller.getPagedArticles(request).size());
+    verify(repository, never()).getTilesPage(any(), any(), any(), any(), any(), anyInt(), anyInt());
+  }
+
+  @Test
+  @DisplayName("T103: Invalid afterSku falls back to offset pagination")
+  void T103() {
+    stubPage(2);
+    stubArticles(30);
+    when(request.getParameter("afterSku")).thenReturn("abc");
+    assertEquals(12, controller.getPagedArticles(request).size());
+    verify(repository, never())
+        .getTilesAfterSku(any(), any(), any(), any(), anyLong(), anyInt(), anyInt());
+  }
+
+  // ---------- Request scoped list page model ----------
+  @Test
+  @DisplayName("T104: Rendering the list page runs one count and one page query")
+  void T104() {
+    stubPage(2);
+    stubArticles(100);
+
+    // same calls as list.xhtml
+    controller.getPagedArticles(request);
+    controller.existsPreviousPage(request);
+    controller.getPageNumbers(request, 3);
+    controller.getTotalPageCount(request);
+    controller.existsNextPage(request);
+
+    // the counter and the repository agree on every catalog query of the render
+    assertEquals(2, controller.getCatalogQueryCount());
+    verify(repository, times(1)).countArticles(null, null, null, PriceFilter.NONE);
+    verify(repository, times(1))
+        .getTilesPage(null, null, null, PriceFilter.NONE, ArticleSort.DEFAULT, 12, 12);
+    verifyNoMoreInteractions(repository);
+  }
+
+  @Test
+  @DisplayName("T105: List page model exposes slice, count and navigation state")
+  void T105() {
+    stubPage(2);
+    stubArticles(100);
+    ListPageModel model = controller.getListPage(request);
+
+    assertEquals(12, model.getArticles().size());
+    assertEquals(100, model.getTotalCount());
+    assertEquals(2, model.getPage());
+    assertEquals(9, model.getTotalPageCount());
+    assertEquals(List.of(2, 3, 4), model.getPageNumbers());
+    assertTrue(model.isPreviousPageAvailable());
+    assertTrue(model.isNextPageAvailable());
+    assertSame(model, controller.getListPage(request));
+  }
+
+  @Test
+  @DisplayName("T106: List page model is immutable")
+  void T106() {
+    stubPage(1);
+    stubArticles(5);
+    ListPageModel model = controller.getListPage(request);
+    assertThrows(UnsupportedOperationException.class, () -> model.getArticles().clear());
+    assertThrows(UnsupportedOperationException.class, () -> model.getPageNumbers().clear());
+  }
+
+  @Test
+  @DisplayName("T107: List page never hydrates article entities")
+  void T107() {
+    stubPage(1);
+    stubArticles(30);
+    controller.getListPage(request);
+    verify(repository, never())
+        .getArticlesPage(any(), any(), any(), any(), any(), anyInt(), anyInt());
+    verify(repository, never())
+        .getArticlesAfterSku(any(), any(), any(), any(), anyLong(), anyInt(), anyInt());
+  }
+
+  // ---------- Sort options ----------
+  @Test
+  @DisplayName("T108: Sort parameter is passed to the repository")
+  void T108() {
+    stubPage(1);
+    stubArticles(30);
+    when(request.getParameter("sort")).thenReturn("price-desc");
+    controller.getPagedArticles(request);
+    verify(repository)
+        .getTilesPage(null, null, null, PriceFilter.NONE, ArticleSort.PRICE_DESC, 0, 12);
+  }
+
+  @Test
+  @DisplayName("T109: Sorted pages use the offset, afterSku only seeks in sku order")
+  void T109() {
+    stubPage(2);
+    stubArticles(30);
+    when(request.getParameter("sort")).thenReturn("title");
+    when(request.getParameter("afterSku")).thenReturn("4711");
+    controller.getPagedArticles(request);
+    verify(repository).getTilesPage(null, null, null, PriceFilter.NONE, ArticleSort.TITLE, 12, 12);
+    verify(repository, never())
+        .getTilesAfterSku(any(), any(), any(), any(), anyLong(), anyInt(), anyInt());
+  }
+
+  @Test
+  @DisplayName("T110: Unknown sort parameter falls back to the default order")
+  void T110() {
+    assertEquals(ArticleSort.DEFAULT, ArticleSort.fromParameter("price; DROP TABLE article"));
+    assertEquals(ArticleSort.DEFAULT, ArticleSort.fromParameter(null));
+    assertEquals(ArticleSort.NEWEST, ArticleSort.fromParameter("newest"));
+  }
+
+  @Test
+  @DisplayName("T111: getAllArticlesByRequest passes the sort option")
+  void T111() {
+    stubQuery("A", null, null);
+    when(request.getParameter("sort")).thenReturn("discount");
+    controller.getAllArticlesByRequest(request);
+    verify(repository).getArticles("A", null, null, PriceFilter.NONE, ArticleSort.DISCOUNT);
+  }
+
+  // ---------- Price filters ----------
+  @Test
+  @DisplayName("T112: Price range and stock parameters are passed to the repository")
+  void T112() {
+    stubPage(1);
+    when(request.getParameter("minPrice")).thenReturn("10");
+    when(request.getParameter("maxPrice")).thenReturn("49.90");
+    when(request.getParameter("inStock")).thenReturn("true");
+    controller.getPagedArticles(request);
+    PriceFilter filter = new PriceFilter(10.0, 49.9, true);
+    verify(repository).countArticles(null, null, null, filter);
+    verify(repository).getTilesPage(null, null, null, filter, ArticleSort.DEFAULT, 0, 12);
+  }
+
+  @Test
+  @DisplayName("T113: Invalid prices are ignored")
+  void T113() {
+    assertSame(PriceFilter.NONE, PriceFilter.fromParameters("abc", "-5", null));
+    assertSame(PriceFilter.NONE, PriceFilter.fromParameters("", "NaN", "false"));
+    assertEquals(new PriceFilter(null, 20.0, false), PriceFilter.fromParameters("x", "20", null));
+  }
+
+  // ---------- Warmup ----------
+  @Test
+  @DisplayName("T114: A synthetic warmup request drives the list page with its parameters only")
+  void T114() {
+    stubArticles(30);
+    HttpServletRequest synthetic = SyntheticRequest.of(Map.of("page", "2", "sort", ""));
+    List<ArticleTile> tiles = controller.getPagedArticles(synthetic);
+    assertEquals(12, tiles.size());
+    assertEquals(12, tiles.get(0).getSku());
+    assertNull(synthetic.getCookies());
+    assertNull(synthetic.getParameter("query"));
+    verify(repository)
+        .getTilesPage(null, null, null, PriceFilter.NONE, ArticleSort.DEFAULT, 12, 12);
+  }
 }
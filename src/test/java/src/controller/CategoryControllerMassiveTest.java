@@ -10,9 +10,18 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockitoAnnotations;
+import src.model.ArticleRecord;
 import src.model.Category;
 import src.model.Subcategory;
+import src.repository.CatalogDumps;
+import src.repository.CatalogReadModel;
+import src.repository.CatalogSnapshot;
 import src.repository.CategoryRepository;
+import src.repository.CategoryTreeCache;
+import src.repository.ReadModelChange;
+import src.repository.SnapshotIndex;
+import src.search.CatalogFacets;
+import src.search.FacetCounts;
 
 class CategoryControllerMassiveTest {
 
@@ -26,10 +35,18 @@ class CategoryControllerMassiveTest {
     repository = mock(CategoryRepository.class);
     request = mock(HttpServletRequest.class);
     controller = new CategoryController();
-    // inject private field via reflection
-    Field f = CategoryController.class.getDeclaredField("repository");
+    // inject private fields via reflection
+    CategoryTreeCache treeCache = new CategoryTreeCache();
+    Field repositoryField = CategoryTreeCache.class.getDeclaredField("repository");
+    repositoryField.setAccessible(true);
+    repositoryField.set(treeCache, repository);
+    Field dumpsField = CategoryTreeCache.class.getDeclaredField("dumps");
+    dumpsField.setAccessible(true);
+    dumpsField.set(treeCache, mock(CatalogDumps.class));
+    injectReadModel(treeCache, CatalogSnapshot.of(List.of()));
+    Field f = CategoryController.class.getDeclaredField("categoryTreeCache");
     f.setAccessible(true);
-    f.set(controller, repository);
+    f.set(controller, treeCache);
   }
 
   // ---------- Helpers ----------
@@ -54,6 +71,57 @@ class CategoryControllerMassiveTest {
     return s;
   }
 
+  private static ArticleRecord record(
+      long sku, boolean available, double price, Double listPrice, String sub) {
+    return new ArticleRecord(
+        sku, "Article " + sku, "", price, listPrice, available, 1, null, sub, "root", List.of());
+  }
+
+  /** Let an index derive from a read model whose snapshot is the given one */
+  private static CatalogReadModel injectReadModel(SnapshotIndex<?> index, CatalogSnapshot snapshot)
+      throws Exception {
+    CatalogReadModel readModel = mock(CatalogReadModel.class);
+    when(readModel.getSnapshot()).thenReturn(snapshot);
+    Field readModelField = SnapshotIndex.class.getDeclaredField("readModel");
+    readModelField.setAccessible(true);
+    readModelField.set(index, readModel);
+    return readModel;
+  }
+
+  private CatalogReadModel injectFacets(CatalogSnapshot snapshot) throws Exception {
+    CatalogFacets facets = new CatalogFacets();
+    CatalogReadModel readModel = injectReadModel(facets, snapshot);
+    Field facetsField = CategoryController.class.getDeclaredField("facets");
+    facetsField.setAccessible(true);
+    facetsField.set(controller, facets);
+    return readModel;
+  }
+
+  /** Stub the categories and subcategories the tree is built of */
+  private void stub(Object... entities) {
+    List<Object> flat = new ArrayList<>();
+    for (Object entity : entities) {
+      if (entity instanceof List) {
+        flat.addAll((List<?>) entity);
+      } else {
+        flat.add(entity);
+      }
+    }
+
+    List<Category> categories = new ArrayList<>();
+    List<Subcategory> subcategories = new ArrayList<>();
+    for (Object entity : flat) {
+      if (entity instanceof Category) {
+        categories.add((Category) entity);
+      } else if (entity instanceof Subcategory) {
+        subcategories.add((Subcategory) entity);
+        Optional.ofNullable(((Subcategory) entity).getRootCategory()).ifPresent(categories::add);
+      }
+    }
+    when(repository.getCategories()).thenReturn(categories);
+    when(repository.getSubcategories()).thenReturn(subcategories);
+  }
+
   private void param(String key, String value) {
     when(request.getParameter(key)).thenReturn(value);
   }
@@ -125,7 +193,7 @@ class CategoryControllerMassiveTest {
     Category root = cat("Root", "R1");
     Subcategory s = sub("S1", "R1", "Sub", root);
     param("subcategoryUuid", "S1");
-    when(repository.findSubcategoryByUuid("S1")).thenReturn(s);
+    stub(s);
     assertEquals(root, controller.getSelectedMainCategory(request));
   }
 
@@ -134,15 +202,15 @@ class CategoryControllerMassiveTest {
   void C009() {
     Subcategory s = sub("S2", "R2", "Sub", null);
     param("subcategoryUuid", "S2");
-    when(repository.findSubcategoryByUuid("S2")).thenReturn(s);
+    stub(s);
     assertNull(controller.getSelectedMainCategory(request));
   }
 
   @Test
-  @DisplayName("C010: subcategoryUuid provided but repository returns null -> NPE expected")
+  @DisplayName("C010: unknown subcategoryUuid doesn't throw")
   void C010() {
     param("subcategoryUuid", "S3");
-    when(repository.findSubcategoryByUuid("S3")).thenReturn(null);
+    stub();
     assertDoesNotThrow(() -> controller.getSelectedMainCategory(request));
   }
 
@@ -152,7 +220,7 @@ class CategoryControllerMassiveTest {
     param("subcategoryUuid", "");
     param("categoryUuid", "C1");
     Category c = cat("C", "C1");
-    when(repository.findByUuid("C1")).thenReturn(c);
+    stub(c);
     assertEquals(c, controller.getSelectedMainCategory(request));
   }
 
@@ -161,7 +229,7 @@ class CategoryControllerMassiveTest {
   void C012() {
     param("subcategoryUuid", "");
     param("categoryUuid", "C2");
-    when(repository.findByUuid("C2")).thenReturn(null);
+    stub();
     assertNull(controller.getSelectedMainCategory(request));
   }
 
@@ -180,7 +248,7 @@ class CategoryControllerMassiveTest {
     Subcategory s = sub("S", "R", "Sub", root);
     param("subcategoryUuid", "S");
     param("categoryUuid", "C");
-    when(repository.findSubcategoryByUuid("S")).thenReturn(s);
+    stub(s);
     assertEquals(root, controller.getSelectedMainCategory(request));
   }
 
@@ -188,9 +256,9 @@ class CategoryControllerMassiveTest {
   @DisplayName("C015: subcategoryUuid whitespace is NOT empty -> uses sub path")
   void C015() {
     Category root = cat("R", "R");
-    Subcategory s = sub("S", "R", "Sub", root);
+    Subcategory s = sub(" ", "R", "Sub", root);
     param("subcategoryUuid", " ");
-    when(repository.findSubcategoryByUuid(" ")).thenReturn(s);
+    stub(s);
     assertEquals(root, controller.getSelectedMainCategory(request));
   }
 
@@ -200,16 +268,16 @@ class CategoryControllerMassiveTest {
     param("subcategoryUuid", "");
     param("categoryUuid", " ");
     Category c = cat("X", " ");
-    when(repository.findByUuid(" ")).thenReturn(c);
+    stub(c);
     assertEquals(c, controller.getSelectedMainCategory(request));
   }
 
   @Test
-  @DisplayName("C017: categoryUuid empty string returns null (repo null)")
+  @DisplayName("C017: categoryUuid empty string returns null (unknown)")
   void C017() {
     param("subcategoryUuid", "");
     param("categoryUuid", "");
-    when(repository.findByUuid("")).thenReturn(null);
+    stub();
     assertNull(controller.getSelectedMainCategory(request));
   }
 
@@ -219,17 +287,17 @@ class CategoryControllerMassiveTest {
   void C018() {
     Subcategory s = sub("S1", "R", "Sub", cat("R", "R"));
     param("subcategoryUuid", "S1");
-    when(repository.findSubcategoryByUuid("S1")).thenReturn(s);
+    stub(s);
     List<Subcategory> list = controller.getSubcategories(request);
     assertEquals(1, list.size());
     assertEquals(s, list.get(0));
   }
 
   @Test
-  @DisplayName("C019: subcategoryUuid provided but repo returns null -> singleton containing null")
+  @DisplayName("C019: unknown subcategoryUuid -> singleton containing null")
   void C019() {
     param("subcategoryUuid", "Sx");
-    when(repository.findSubcategoryByUuid("Sx")).thenReturn(null);
+    stub();
     List<Subcategory> list = controller.getSubcategories(request);
     assertEquals(1, list.size());
     assertNull(list.get(0));
@@ -241,7 +309,7 @@ class CategoryControllerMassiveTest {
     param("subcategoryUuid", "");
     param("categoryUuid", "C1");
     List<Subcategory> expected = List.of(sub("S", "C1", "n", null));
-    when(repository.getSubcategoriesByRootCategoryUuid("C1")).thenReturn(expected);
+    stub(expected);
     assertEquals(expected, controller.getSubcategories(request));
   }
 
@@ -251,26 +319,26 @@ class CategoryControllerMassiveTest {
     param("subcategoryUuid", "");
     param("categoryUuid", null);
     List<Subcategory> expected = List.of();
-    when(repository.getSubcategoriesByRootCategoryUuid(null)).thenReturn(expected);
+    stub(expected);
     assertEquals(expected, controller.getSubcategories(request));
   }
 
   @Test
-  @DisplayName("C022: categoryUuid empty -> repo called with empty")
+  @DisplayName("C022: categoryUuid empty -> no subcategories")
   void C022() {
     param("subcategoryUuid", "");
     param("categoryUuid", "");
     List<Subcategory> expected = List.of();
-    when(repository.getSubcategoriesByRootCategoryUuid("")).thenReturn(expected);
-    assertSame(expected, controller.getSubcategories(request));
+    stub(expected);
+    assertEquals(expected, controller.getSubcategories(request));
   }
 
   @Test
   @DisplayName("C023: subcategoryUuid whitespace goes sub-path")
   void C023() {
-    Subcategory s = sub("S", "R", "n", null);
+    Subcategory s = sub(" ", "R", "n", null);
     param("subcategoryUuid", " ");
-    when(repository.findSubcategoryByUuid(" ")).thenReturn(s);
+    stub(s);
     List<Subcategory> list = controller.getSubcategories(request);
     assertEquals(1, list.size());
     assertEquals(s, list.get(0));
@@ -327,7 +395,7 @@ class CategoryControllerMassiveTest {
     param("subcategoryUuid", null);
     param("categoryUuid", "C");
     Category c = cat("X", "C");
-    when(repository.findByUuid("C")).thenReturn(c);
+    stub(c);
     assertSame(c, controller.getSelectedMainCategory(request));
   }
 
@@ -335,28 +403,28 @@ class CategoryControllerMassiveTest {
   void C032() {
     param("subcategoryUuid", null);
     param("categoryUuid", "C");
-    when(repository.findByUuid("C")).thenReturn(null);
+    stub();
     assertNull(controller.getSelectedMainCategory(request));
   }
 
   @Test
   void C033() {
     param("subcategoryUuid", "S");
-    when(repository.findSubcategoryByUuid("S")).thenReturn(sub("S", "R", "n", cat("R", "R")));
+    stub(sub("S", "R", "n", cat("R", "R")));
     assertNotNull(controller.getSelectedMainCategory(request));
   }
 
   @Test
   void C034() {
     param("subcategoryUuid", "S");
-    when(repository.findSubcategoryByUuid("S")).thenReturn(sub("S", "R", "n", null));
+    stub(sub("S", "R", "n", null));
     assertNull(controller.getSelectedMainCategory(request));
   }
 
   @Test
   void C035() {
     param("subcategoryUuid", "S");
-    when(repository.findSubcategoryByUuid("S")).thenReturn(null);
+    stub();
     assertDoesNotThrow(() -> controller.getSelectedMainCategory(request));
   }
 
@@ -364,7 +432,7 @@ class CategoryControllerMassiveTest {
   void C036() {
     param("subcategoryUuid", "");
     param("categoryUuid", "");
-    when(repository.findByUuid("")).thenReturn(cat("", ""));
+    stub(cat("", ""));
     assertNotNull(controller.getSelectedMainCategory(request));
   }
 
@@ -372,28 +440,28 @@ class CategoryControllerMassiveTest {
   void C037() {
     param("subcategoryUuid", "");
     param("categoryUuid", " ");
-    when(repository.findByUuid(" ")).thenReturn(null);
+    stub();
     assertNull(controller.getSelectedMainCategory(request));
   }
 
   @Test
   void C038() {
     param("subcategoryUuid", "\t");
-    when(repository.findSubcategoryByUuid("\t")).thenReturn(sub("S", "R", "n", cat("R", "R")));
+    stub(sub("\t", "R", "n", cat("R", "R")));
     assertNotNull(controller.getSelectedMainCategory(request));
   }
 
   @Test
   void C039() {
     param("subcategoryUuid", "\n");
-    when(repository.findSubcategoryByUuid("\n")).thenReturn(sub("S", "R", "n", null));
+    stub(sub("\n", "R", "n", null));
     assertNull(controller.getSelectedMainCategory(request));
   }
 
   @Test
   void C040() {
     param("subcategoryUuid", "0");
-    when(repository.findSubcategoryByUuid("0")).thenReturn(sub("0", "R", "n", cat("R", "R")));
+    stub(sub("0", "R", "n", cat("R", "R")));
     assertEquals("R", controller.getSelectedMainCategory(request).getUuid());
   }
 
@@ -402,7 +470,7 @@ class CategoryControllerMassiveTest {
   void C041() {
     param("subcategoryUuid", null);
     param("categoryUuid", "X");
-    when(repository.getSubcategoriesByRootCategoryUuid("X")).thenReturn(List.of());
+    stub(List.of());
     assertTrue(controller.getSubcategories(request).isEmpty());
   }
 
@@ -410,7 +478,7 @@ class CategoryControllerMassiveTest {
   void C042() {
     param("subcategoryUuid", null);
     param("categoryUuid", null);
-    when(repository.getSubcategoriesByRootCategoryUuid(null)).thenReturn(List.of());
+    stub(List.of());
     assertEquals(0, controller.getSubcategories(request).size());
   }
 
@@ -419,35 +487,35 @@ class CategoryControllerMassiveTest {
     param("subcategoryUuid", "");
     param("categoryUuid", "A");
     List<Subcategory> l = List.of(sub("s", "A", "n", null), sub("t", "A", "m", null));
-    when(repository.getSubcategoriesByRootCategoryUuid("A")).thenReturn(l);
+    stub(l);
     assertEquals(2, controller.getSubcategories(request).size());
   }
 
   @Test
   void C044() {
     param("subcategoryUuid", "S");
-    when(repository.findSubcategoryByUuid("S")).thenReturn(sub("S", "R", "n", null));
+    stub(sub("S", "R", "n", null));
     assertEquals(1, controller.getSubcategories(request).size());
   }
 
   @Test
   void C045() {
     param("subcategoryUuid", "S");
-    when(repository.findSubcategoryByUuid("S")).thenReturn(null);
+    stub();
     assertNull(controller.getSubcategories(request).get(0));
   }
 
   @Test
   void C046() {
     param("subcategoryUuid", "\t");
-    when(repository.findSubcategoryByUuid("\t")).thenReturn(sub("S", "R", "n", null));
+    stub(sub("\t", "R", "n", null));
     assertEquals(1, controller.getSubcategories(request).size());
   }
 
   @Test
   void C047() {
     param("subcategoryUuid", " ");
-    when(repository.findSubcategoryByUuid(" ")).thenReturn(sub("S", "R", "n", null));
+    stub(sub(" ", "R", "n", null));
     assertEquals(" ", request.getParameter("subcategoryUuid"));
   }
 
@@ -455,7 +523,7 @@ class CategoryControllerMassiveTest {
   void C048() {
     param("subcategoryUuid", "");
     param("categoryUuid", " ");
-    when(repository.getSubcategoriesByRootCategoryUuid(" ")).thenReturn(List.of());
+    stub(List.of());
     assertNotNull(controller.getSubcategories(request));
   }
 
@@ -463,14 +531,14 @@ class CategoryControllerMassiveTest {
   void C049() {
     param("subcategoryUuid", "");
     param("categoryUuid", "C");
-    when(repository.getSubcategoriesByRootCategoryUuid("C")).thenReturn(List.of());
+    stub(List.of());
     assertTrue(controller.getSubcategories(request).isEmpty());
   }
 
   @Test
   void C050() {
     param("subcategoryUuid", "S");
-    when(repository.findSubcategoryByUuid("S")).thenReturn(sub("S", "R", "n", cat("R", "R")));
+    stub(sub("S", "R", "n", cat("R", "R")));
     assertEquals(1, controller.getSubcategories(request).size());
   }
 
@@ -509,7 +577,7 @@ class CategoryControllerMassiveTest {
   void C056() {
     param("subcategoryUuid", null);
     param("categoryUuid", "id");
-    when(repository.findByUuid("id")).thenReturn(cat("n", "id"));
+    stub(cat("n", "id"));
     assertEquals("id", controller.getSelectedMainCategory(request).getUuid());
   }
 
@@ -517,28 +585,28 @@ class CategoryControllerMassiveTest {
   void C057() {
     param("subcategoryUuid", "");
     param("categoryUuid", "id");
-    when(repository.findByUuid("id")).thenReturn(null);
+    stub();
     assertNull(controller.getSelectedMainCategory(request));
   }
 
   @Test
   void C058() {
     param("subcategoryUuid", "s");
-    when(repository.findSubcategoryByUuid("s")).thenReturn(sub("s", "r", "n", cat("r", "r")));
+    stub(sub("s", "r", "n", cat("r", "r")));
     assertEquals("r", controller.getSelectedMainCategory(request).getUuid());
   }
 
   @Test
   void C059() {
     param("subcategoryUuid", "s");
-    when(repository.findSubcategoryByUuid("s")).thenReturn(sub("s", "r", "n", null));
+    stub(sub("s", "r", "n", null));
     assertNull(controller.getSelectedMainCategory(request));
   }
 
   @Test
   void C060() {
     param("subcategoryUuid", "s");
-    when(repository.findSubcategoryByUuid("s")).thenReturn(null);
+    stub();
     assertDoesNotThrow(() -> controller.getSelectedMainCategory(request));
   }
 
@@ -546,7 +614,7 @@ class CategoryControllerMassiveTest {
   void C061() {
     param("subcategoryUuid", "");
     param("categoryUuid", null);
-    when(repository.getSubcategoriesByRootCategoryUuid(null)).thenReturn(List.of());
+    stub(List.of());
     assertEquals(0, controller.getSubcategories(request).size());
   }
 
@@ -554,21 +622,21 @@ class CategoryControllerMassiveTest {
   void C062() {
     param("subcategoryUuid", "");
     param("categoryUuid", "id");
-    when(repository.getSubcategoriesByRootCategoryUuid("id")).thenReturn(List.of());
+    stub(List.of());
     assertTrue(controller.getSubcategories(request).isEmpty());
   }
 
   @Test
   void C063() {
     param("subcategoryUuid", "s");
-    when(repository.findSubcategoryByUuid("s")).thenReturn(sub("s", "r", "n", null));
+    stub(sub("s", "r", "n", null));
     assertEquals(1, controller.getSubcategories(request).size());
   }
 
   @Test
   void C064() {
     param("subcategoryUuid", "s");
-    when(repository.findSubcategoryByUuid("s")).thenReturn(null);
+    stub();
     assertEquals(1, controller.getSubcategories(request).size());
   }
 
@@ -576,7 +644,7 @@ class CategoryControllerMassiveTest {
   void C065() {
     param("subcategoryUuid", "");
     param("categoryUuid", " ");
-    when(repository.getSubcategoriesByRootCategoryUuid(" ")).thenReturn(List.of());
+    stub(List.of());
     assertNotNull(controller.getSubcategories(request));
   }
 
@@ -614,7 +682,7 @@ class CategoryControllerMassiveTest {
   void C071() {
     param("subcategoryUuid", null);
     param("categoryUuid", "c");
-    when(repository.findByUuid("c")).thenReturn(cat("n", "c"));
+    stub(cat("n", "c"));
     assertNotNull(controller.getSelectedMainCategory(request));
   }
 
@@ -622,28 +690,28 @@ class CategoryControllerMassiveTest {
   void C072() {
     param("subcategoryUuid", null);
     param("categoryUuid", "c");
-    when(repository.findByUuid("c")).thenReturn(null);
+    stub();
     assertNull(controller.getSelectedMainCategory(request));
   }
 
   @Test
   void C073() {
     param("subcategoryUuid", "a");
-    when(repository.findSubcategoryByUuid("a")).thenReturn(sub("a", "r", "n", cat("r", "r")));
+    stub(sub("a", "r", "n", cat("r", "r")));
     assertNotNull(controller.getSelectedMainCategory(request));
   }
 
   @Test
   void C074() {
     param("subcategoryUuid", "a");
-    when(repository.findSubcategoryByUuid("a")).thenReturn(sub("a", "r", "n", null));
+    stub(sub("a", "r", "n", null));
     assertNull(controller.getSelectedMainCategory(request));
   }
 
   @Test
   void C075() {
     param("subcategoryUuid", "a");
-    when(repository.findSubcategoryByUuid("a")).thenReturn(null);
+    stub();
     assertDoesNotThrow(() -> controller.getSelectedMainCategory(request));
   }
 
@@ -651,8 +719,7 @@ class CategoryControllerMassiveTest {
   void C076() {
     param("subcategoryUuid", "");
     param("categoryUuid", "c");
-    when(repository.getSubcategoriesByRootCategoryUuid("c"))
-        .thenReturn(List.of(sub("s", "c", "n", null)));
+    stub(List.of(sub("s", "c", "n", null)));
     assertEquals(1, controller.getSubcategories(request).size());
   }
 
@@ -660,28 +727,28 @@ class CategoryControllerMassiveTest {
   void C077() {
     param("subcategoryUuid", "");
     param("categoryUuid", "c");
-    when(repository.getSubcategoriesByRootCategoryUuid("c")).thenReturn(List.of());
+    stub(List.of());
     assertTrue(controller.getSubcategories(request).isEmpty());
   }
 
   @Test
   void C078() {
     param("subcategoryUuid", "a");
-    when(repository.findSubcategoryByUuid("a")).thenReturn(sub("a", "r", "n", null));
+    stub(sub("a", "r", "n", null));
     assertEquals(1, controller.getSubcategories(request).size());
   }
 
   @Test
   void C079() {
     param("subcategoryUuid", "a");
-    when(repository.findSubcategoryByUuid("a")).thenReturn(null);
+    stub();
     assertEquals(1, controller.getSubcategories(request).size());
   }
 
   @Test
   void C080() {
     param("subcategoryUuid", " ");
-    when(repository.findSubcategoryByUuid(" ")).thenReturn(sub("a", "r", "n", cat("r", "r")));
+    stub(sub(" ", "r", "n", cat("r", "r")));
     assertEquals(1, controller.getSubcategories(request).size());
   }
 
@@ -712,21 +779,21 @@ class CategoryControllerMassiveTest {
   @Test
   void C085() {
     param("subcategoryUuid", "s");
-    when(repository.findSubcategoryByUuid("s")).thenReturn(sub("s", "r", "n", cat("r", "r")));
+    stub(sub("s", "r", "n", cat("r", "r")));
     assertEquals("r", controller.getSelectedMainCategory(request).getUuid());
   }
 
   @Test
   void C086() {
     param("subcategoryUuid", "s");
-    when(repository.findSubcategoryByUuid("s")).thenReturn(sub("s", "r", "n", null));
+    stub(sub("s", "r", "n", null));
     assertNull(controller.getSelectedMainCategory(request));
   }
 
   @Test
   void C087() {
     param("subcategoryUuid", "s");
-    when(repository.findSubcategoryByUuid("s")).thenReturn(null);
+    stub();
     assertDoesNotThrow(() -> controller.getSelectedMainCategory(request));
   }
 
@@ -734,8 +801,7 @@ class CategoryControllerMassiveTest {
   void C088() {
     param("subcategoryUuid", "");
     param("categoryUuid", "id");
-    when(repository.getSubcategoriesByRootCategoryUuid("id"))
-        .thenReturn(List.of(sub("a", "id", "n", null)));
+    stub(List.of(sub("a", "id", "n", null)));
     assertEquals(1, controller.getSubcategories(request).size());
   }
 
@@ -743,28 +809,28 @@ class CategoryControllerMassiveTest {
   void C089() {
     param("subcategoryUuid", "");
     param("categoryUuid", "id");
-    when(repository.getSubcategoriesByRootCategoryUuid("id")).thenReturn(List.of());
+    stub(List.of());
     assertTrue(controller.getSubcategories(request).isEmpty());
   }
 
   @Test
   void C090() {
     param("subcategoryUuid", "x");
-    when(repository.findSubcategoryByUuid("x")).thenReturn(sub("x", "r", "n", null));
+    stub(sub("x", "r", "n", null));
     assertEquals(1, controller.getSubcategories(request).size());
   }
 
   @Test
   void C091() {
     param("subcategoryUuid", "x");
-    when(repository.findSubcategoryByUuid("x")).thenReturn(null);
+    stub();
     assertEquals(1, controller.getSubcategories(request).size());
   }
 
   @Test
   void C092() {
     param("subcategoryUuid", " ");
-    when(repository.findSubcategoryByUuid(" ")).thenReturn(sub("x", "r", "n", null));
+    stub(sub(" ", "r", "n", null));
     assertEquals(1, controller.getSubcategories(request).size());
   }
 
@@ -797,21 +863,21 @@ class CategoryControllerMassiveTest {
   void C097() {
     param("subcategoryUuid", "");
     param("categoryUuid", "c");
-    when(repository.findByUuid("c")).thenReturn(cat("n", "c"));
+    stub(cat("n", "c"));
     assertNotNull(controller.getSelectedMainCategory(request));
   }
 
   @Test
   void C098() {
     param("subcategoryUuid", "s");
-    when(repository.findSubcategoryByUuid("s")).thenReturn(sub("s", "r", "n", cat("r", "r")));
+    stub(sub("s", "r", "n", cat("r", "r")));
     assertNotNull(controller.getSelectedMainCategory(request).getCategoryName());
   }
 
   @Test
   void C099() {
     param("subcategoryUuid", "s");
-    when(repository.findSubcategoryByUuid("s")).thenReturn(sub("s", "r", "n", null));
+    stub(sub("s", "r", "n", null));
     assertNull(controller.getSelectedMainCategory(request));
   }
 
@@ -819,7 +885,124 @@ class CategoryControllerMassiveTest {
   void C100() {
     param("subcategoryUuid", "");
     param("categoryUuid", "id");
-    when(repository.getSubcategoriesByRootCategoryUuid("id")).thenReturn(List.of());
+    stub(List.of());
     assertEquals(0, controller.getSubcategories(request).size());
   }
+
+  // ---------- Facet counts ----------
+  @Test
+  @DisplayName("C101: Counts per category and subcategory are counted once")
+  void C101() throws Exception {
+    CatalogReadModel readModel =
+        injectFacets(
+            CatalogSnapshot.of(
+                List.of(
+                    record(1, true, 10.0, 20.0, "a"),
+                    record(2, false, 10.0, null, "a"),
+                    record(3, true, 30.0, 30.0, "b"))));
+
+    FacetCounts.Counts a = controller.getSubcategoryCounts("a");
+    assertEquals(2, a.getTotal());
+    assertEquals(1, a.getAvailable());
+    assertEquals(1, a.getUnavailable());
+    assertEquals(1, a.getOnSale());
+    assertEquals(3, controller.getCategoryCounts("root").getTotal());
+    assertEquals("(1)", controller.getSubcategoryCounts("b").getLabel());
+    assertEquals(0, controller.getSubcategoryCounts("unknown").getTotal());
+
+    // read once before and once while counting, never afterwards
+    verify(readModel, times(2)).getSnapshot();
+  }
+
+  @Test
+  @DisplayName("C102: Article writes update the counts without counting again")
+  void C102() throws Exception {
+    ArticleRecord first = record(1, true, 10.0, 20.0, "a");
+    ArticleRecord second = record(2, true, 5.0, null, "a");
+    CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(first, second));
+    CatalogReadModel readModel = injectFacets(snapshot);
+    CatalogFacets facets = controller.getFacets();
+    controller.getSubcategoryCounts("a");
+
+    ArticleRecord moved = record(1, false, 10.0, null, "b");
+    ArticleRecord added = record(4, true, 1.0, 2.0, "b");
+    CatalogSnapshot patched = snapshot.with(moved);
+    facets.onReadModelChange(ReadModelChange.patched(snapshot, patched, first, moved));
+    CatalogSnapshot deleted = patched.without(2);
+    facets.onReadModelChange(ReadModelChange.patched(patched, deleted, second, null));
+    facets.onReadModelChange(
+        ReadModelChange.patched(deleted, deleted.with(added), null, added));
+
+    assertEquals(0, controller.getSubcategoryCounts("a").getTotal());
+    assertEquals("(2, 1 on sale)", controller.getSubcategoryCounts("b").getLabel());
+    assertEquals(1, controller.getSubcategoryCounts("b").getUnavailable());
+    assertEquals(2, controller.getCategoryCounts("root").getTotal());
+    verify(readModel, times(2)).getSnapshot();
+  }
+
+  // ---------- Category tree snapshot ----------
+  @Test
+  @DisplayName("C103: Navigation reads the tree built once, without further queries")
+  void C103() {
+    Category root = cat("Root", "r");
+    stub(sub("s", "r", "n", root));
+    param("subcategoryUuid", "s");
+    for (int i = 0; i < 5; i++) {
+      controller.getCategories();
+      controller.getSelectedMainCategory(request);
+      controller.getSubcategories(request);
+    }
+    verify(repository, times(1)).getCategories();
+    verify(repository, times(1)).getSubcategories();
+    verify(repository, never()).findByUuid(any());
+    verify(repository, never()).findSubcategoryByUuid(any());
+  }
+
+  @Test
+  @DisplayName("C104: Category names and subcategories are ordered by name")
+  void C104() {
+    stub(
+        List.of(cat("b", "2"), cat("A", "1"), cat("c", "3")),
+        List.of(sub("x", "1", "Zip", null), sub("y", "1", "bag", null)));
+    assertEquals(List.of("A", "b", "c"), new ArrayList<>(controller.getCategories().keySet()));
+    param("categoryUuid", "1");
+    assertEquals("bag", controller.getSubcategories(request).get(0).getCategoryName());
+  }
+
+  @Test
+  @DisplayName("C105: Only rebuilt snapshots, e.g. after category writes, rebuild the tree")
+  void C105() throws Exception {
+    stub(cat("A", "1"));
+    CategoryTreeCache treeCache = controller.getCategoryTreeCache();
+    CatalogSnapshot snapshot = CatalogSnapshot.of(List.of());
+    injectReadModel(treeCache, snapshot);
+    controller.getCategories();
+
+    ArticleRecord added = record(1, true, 10.0, null, "a");
+    CatalogSnapshot patched = snapshot.with(added);
+    treeCache.onReadModelChange(ReadModelChange.patched(snapshot, patched, null, added));
+    assertEquals(Map.of("A", "1"), controller.getCategories());
+
+    stub(cat("A", "1"), cat("B", "2"));
+    treeCache.onReadModelChange(
+        ReadModelChange.rebuilt(patched, CatalogSnapshot.of(List.of(added))));
+    assertEquals("2", controller.getCategories().get("B"));
+    verify(repository, times(2)).getCategories();
+  }
+
+  @Test
+  @DisplayName("C106: The sidebar key differs per subcategory, unknown subcategories share one")
+  void C106() {
+    Category root = cat("R", "R");
+    stub(root, sub("S1", "R", "a", null), sub("S2", "R", "b", null));
+    param("categoryUuid", "R");
+    assertEquals("R/", controller.getSidebarKey(request));
+
+    param("subcategoryUuid", "S1");
+    assertEquals("R/S1", controller.getSidebarKey(request));
+    param("subcategoryUuid", "S2");
+    assertEquals("R/S2", controller.getSidebarKey(request));
+    param("subcategoryUuid", "unknown");
+    assertEquals("R/?", controller.getSidebarKey(request));
+  }
 }
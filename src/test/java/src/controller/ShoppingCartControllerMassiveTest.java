@@ -15,13 +15,11 @@ import org.junit.jupiter.api.Test;
 import org.mockito.MockitoAnnotations;
 import src.model.Article;
 import src.model.ShoppingCart;
-import src.repository.ArticleRepository;
 import src.repository.ShoppingCartRepository;
 
 class ShoppingCartControllerMassiveTest {
 
   private ShoppingCartRepository shoppingCartRepository;
-  private ArticleRepository articleRepository;
   private AuthController authController; // mocked for getShoppingCartEntries
   private HttpServletRequest request;
   private ShoppingCartController controller;
@@ -30,16 +28,9 @@ class ShoppingCartControllerMassiveTest {
   void setup() {
     MockitoAnnotations.openMocks(this);
     shoppingCartRepository = mock(ShoppingCartRepository.class);
-    articleRepository = mock(ArticleRepository.class);
     authController = mock(AuthController.class);
     request = mock(HttpServletRequest.class);
     controller = new ShoppingCartController(shoppingCartRepository, authController);
-    // Inject articleRepository via reflection since constructor doesn't accept it
-    try {
-      var f = ShoppingCartController.class.getDeclaredField("articleRepository");
-      f.setAccessible(true);
-      f.set(controller, articleRepository);
-    } catch (Exception ignored) {}
   }
 
   // -------- Helpers --------
@@ -196,43 +187,6 @@ class ShoppingCartControllerMassiveTest {
     assertEquals("7.78 CHF", controller.getDiscount(request));
   }
 
-  // -------- getOrUpdateShoppingCart --------
-  @Test @DisplayName("SC019: getOrUpdateShoppingCart creates new when not exists")
-  void SC019() {
-    long sku = 5L; long amount = 3L; String email = "x@y";
-    Article a = new Article(); a.setStock(10);
-    when(articleRepository.findBySku(sku)).thenReturn(a);
-    when(shoppingCartRepository.findBySkuAndEmail(sku, email)).thenReturn(null);
-    ShoppingCart sc = controller.getOrUpdateShoppingCart(sku, amount, email);
-    assertEquals(sku, sc.getArticleSku());
-    assertEquals(email, sc.getEmail());
-    assertEquals(3L, sc.getAmount());
-    assertNotNull(sc.getUuid());
-  }
-
-  @Test @DisplayName("SC020: getOrUpdateShoppingCart increments when exists")
-  void SC020() {
-    long sku = 7L; long amount = 6L; String email = "x@y";
-    Article a = new Article(); a.setStock(100);
-    when(articleRepository.findBySku(sku)).thenReturn(a);
-    ShoppingCart existing = new ShoppingCart(); existing.setAmount(4); existing.setArticleSku(sku); existing.setEmail(email);
-    when(shoppingCartRepository.findBySkuAndEmail(sku, email)).thenReturn(existing);
-    ShoppingCart sc = controller.getOrUpdateShoppingCart(sku, amount, email);
-    assertSame(existing, sc);
-    assertEquals(10L, sc.getAmount());
-  }
-
-  @Test @DisplayName("SC021: getOrUpdateShoppingCart clamps amount to stock")
-  void SC021() {
-    long sku = 2L; long amount = 10L; String email = "m@e";
-    Article a = new Article(); a.setStock(2);
-    when(articleRepository.findBySku(sku)).thenReturn(a);
-    ShoppingCart existing = new ShoppingCart(); existing.setAmount(0); existing.setArticleSku(sku); existing.setEmail(email);
-    when(shoppingCartRepository.findBySkuAndEmail(sku, email)).thenReturn(existing);
-    ShoppingCart sc = controller.getOrUpdateShoppingCart(sku, amount, email);
-    assertEquals(2L, sc.getAmount());
-  }
-
   // -------- getMaxAmount overloads --------
   @Test @DisplayName("SC022: getMaxAmount(article) min(amount, stock)")
   void SC022() {
@@ -311,10 +265,6 @@ class ShoppingCartControllerMassiveTest {
   @Test void SC070() { when(authController.extractEmail(request)).thenReturn("E8"); when(shoppingCartRepository.getShoppingCartEntries("E8")).thenReturn(gen(8)); assertEquals(8, controller.getShoppingCartEntries(request).size()); }
 
   // More getOrUpdate variations
-  @Test void SC071() { Article a=new Article(); a.setStock(0); when(articleRepository.findBySku(1L)).thenReturn(a); when(shoppingCartRepository.findBySkuAndEmail(1L,"z")).thenReturn(null); ShoppingCart sc=controller.getOrUpdateShoppingCart(1L,5L,"z"); assertEquals(0, sc.getAmount()); }
-  @Test void SC072() { Article a=new Article(); a.setStock(1); when(articleRepository.findBySku(2L)).thenReturn(a); ShoppingCart ex=new ShoppingCart(); ex.setAmount(1); ex.setArticleSku(2L); ex.setEmail("z"); when(shoppingCartRepository.findBySkuAndEmail(2L,"z")).thenReturn(ex); ShoppingCart sc=controller.getOrUpdateShoppingCart(2L,1L,"z"); assertEquals(2, sc.getAmount()); }
-  @Test void SC073() { Article a=new Article(); a.setStock(5); when(articleRepository.findBySku(3L)).thenReturn(a); when(shoppingCartRepository.findBySkuAndEmail(3L,"z")).thenReturn(null); ShoppingCart sc=controller.getOrUpdateShoppingCart(3L,5L,"z"); assertNotNull(sc.getUuid()); }
-  @Test void SC074() { Article a=new Article(); a.setStock(5); when(articleRepository.findBySku(4L)).thenReturn(a); ShoppingCart ex=new ShoppingCart(); ex.setAmount(0); ex.setArticleSku(4L); ex.setEmail("z"); when(shoppingCartRepository.findBySkuAndEmail(4L,"z")).thenReturn(ex); ShoppingCart sc=controller.getOrUpdateShoppingCart(4L,0L,"z"); assertEquals(0, sc.getAmount()); }
 
   // More rounding edge cases for VAT/Total/Discount
   @Test void SC075() { cookieJwt(jwtWithEmail("q1")); when(shoppingCartRepository.getTotalPrice("q1")).thenReturn(3.335); assertEquals("3.34 CHF", controller.getTotal(request)); }
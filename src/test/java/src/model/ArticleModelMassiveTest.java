@@ -241,4 +241,11 @@ class ArticleModelMassiveTest {
   @Test void AM048() { article.setSellingPrice(2.5); article.setListPrice(null); assertEquals("2.50 CHF", article.formatPrice()); }
   @Test void AM049() { article.setSellingPrice(2.5); article.setListPrice(5.0); article.setAvailable(true); assertEquals("2.50 was 5.00 CHF", article.formatPrice()); }
   @Test void AM050() { article.setSellingPrice(2.5); article.setListPrice(5.0); article.setAvailable(false); assertEquals("2.50 CHF", article.formatPrice()); }
+
+  // ------- ArticleTile projection -------
+  @Test void AM051() { ArticleTile t = new ArticleTile(1, "t", 2.5, 5.0, true, "u"); assertEquals("2.50 was 5.00 CHF", t.formatPrice()); }
+  @Test void AM052() { ArticleTile t = new ArticleTile(1, "t", 2.5, 5.0, false, "u"); assertEquals("2.50 CHF", t.formatPrice()); }
+  @Test void AM053() { ArticleTile t = new ArticleTile(1, "t", 50.0, 100.0, true, "u"); assertEquals("50", t.getDiscountPercent()); }
+  @Test void AM054() { ArticleTile t = new ArticleTile(1, "t", 50.0, null, true, "u"); assertNull(t.getDiscountPercent()); }
+  @Test void AM055() { ArticleTile t = new ArticleTile(1, "t", 50.0, null, true, null); assertEquals("", t.getPrimaryImageURL()); }
 }
@@ -0,0 +1,81 @@
+package src.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import java.util.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import src.model.Article;
+
+class ArticleRepositoryMassiveTest {
+
+  private EntityManager entitymanager;
+  private TypedQuery<Article> query;
+  private ArticleRepository repository;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setup() {
+    entitymanager = mock(EntityManager.class);
+    query = mock(TypedQuery.class);
+    repository = new ArticleRepository();
+    repository.entitymanager = entitymanager;
+
+    when(entitymanager.createQuery(anyString(), eq(Article.class))).thenReturn(query);
+    when(query.setParameter(anyInt(), any())).thenReturn(query);
+  }
+
+  // ---------- Helpers ----------
+  private static List<Article> gen(int n) {
+    List<Article> list = new ArrayList<>();
+    for (int i = 0; i < n; i++) {
+      Article article = new Article();
+      article.setSku(i);
+      list.add(article);
+    }
+    return list;
+  }
+
+  // ---------- fetchImages ----------
+  @Test
+  @DisplayName("R001: Images of a full page are loaded with exactly one query")
+  void R001() {
+    List<Article> page = gen(12);
+    repository.fetchImages(page);
+    verify(entitymanager, times(1)).createQuery(anyString(), eq(Article.class));
+    verify(query, times(1)).getResultList();
+  }
+
+  @Test
+  @DisplayName("R002: Image query count doesn't grow with the page size")
+  void R002() {
+    repository.fetchImages(gen(500));
+    verify(entitymanager, times(1)).createQuery(anyString(), eq(Article.class));
+  }
+
+  @Test
+  @DisplayName("R003: Image query is restricted to the skus of the page")
+  void R003() {
+    repository.fetchImages(gen(3));
+    verify(query).setParameter(1, List.of(0L, 1L, 2L));
+  }
+
+  @Test
+  @DisplayName("R004: Empty page issues no query")
+  void R004() {
+    assertEquals(Collections.emptyList(), repository.fetchImages(new ArrayList<>()));
+    verifyNoInteractions(entitymanager);
+  }
+
+  @Test
+  @DisplayName("R005: fetchImages returns the given articles in their original order")
+  void R005() {
+    List<Article> page = gen(5);
+    List<Article> result = repository.fetchImages(page);
+    assertSame(page, result);
+  }
+}
@@ -0,0 +1,58 @@
+package src.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class CatalogChangeBusMassiveTest {
+
+  private static CatalogChangeMessage message(
+      String nodeId, CatalogChangeEvent event, long version) {
+    return CatalogChangeMessage.decode(CatalogChangeMessage.encode(nodeId, event) + version);
+  }
+
+  @Test
+  @DisplayName("B001: A change survives encoding and is decoded as remote change")
+  void B001() {
+    CatalogChangeMessage article = message("node", CatalogChangeEvent.article(1042, true), 7);
+
+    assertEquals("node", article.getNodeId());
+    assertEquals(7L, article.getVersion());
+    assertEquals(CatalogChangeEvent.EntityType.ARTICLE, article.getEvent().getEntityType());
+    assertEquals("1042", article.getEvent().getKey());
+    assertEquals(1042L, article.getEvent().getArticleSku());
+    assertTrue(article.getEvent().isDeleted());
+    assertTrue(article.getEvent().isRemote());
+
+    CatalogChangeMessage category = message("node", CatalogChangeEvent.category("c1", false), 8);
+    assertEquals("c1", category.getEvent().getKey());
+    assertNull(category.getEvent().getArticleSku());
+    assertFalse(category.getEvent().isDeleted());
+  }
+
+  @Test
+  @DisplayName("B002: Malformed payloads are rejected")
+  void B002() {
+    assertNull(CatalogChangeMessage.decode(null));
+    assertNull(CatalogChangeMessage.decode(""));
+    assertNull(CatalogChangeMessage.decode("node|ARTICLE|1|1|0"));
+    assertNull(CatalogChangeMessage.decode("node|UNKNOWN|1|1|0|3"));
+    assertNull(CatalogChangeMessage.decode("node|ARTICLE|1|x|0|3"));
+    assertNull(CatalogChangeMessage.decode("|ARTICLE|1|1|0|3"));
+  }
+
+  @Test
+  @DisplayName("B003: Duplicated, late and own changes are skipped")
+  void B003() {
+    CatalogChangeBus bus = new CatalogChangeBus();
+    CatalogChangeEvent event = CatalogChangeEvent.article(1, false);
+
+    assertTrue(bus.accept(message("other", event, 5)));
+    assertFalse(bus.accept(message("other", event, 5)));
+    assertFalse(bus.accept(message("third", event, 4)));
+    assertTrue(bus.accept(message("third", event, 6)));
+    assertTrue(bus.accept(message("other", CatalogChangeEvent.article(2, false), 3)));
+    assertFalse(bus.accept(message(bus.getNodeId(), CatalogChangeEvent.article(3, false), 9)));
+  }
+}
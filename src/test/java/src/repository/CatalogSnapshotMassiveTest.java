@@ -0,0 +1,288 @@
+package src.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import src.model.ArticleRecord;
+import src.model.Category;
+import src.model.Subcategory;
+
+class CatalogSnapshotMassiveTest {
+
+  private static ArticleRecord record(long sku, String subcategory, String category) {
+    return new ArticleRecord(
+        sku,
+        "Article " + sku,
+        "",
+        10.0,
+        null,
+        true,
+        1,
+        null,
+        subcategory,
+        category,
+        List.of(
+            new ArticleRecord.Image("i" + sku + "b", "b.png", 2),
+            new ArticleRecord.Image("i" + sku + "a", "a.png", 1)));
+  }
+
+  private static CatalogSnapshot snapshot() {
+    return CatalogSnapshot.of(
+        List.of(
+            record(3, "s1", "c1"), record(1, "s1", "c1"), record(2, "s2", "c1"),
+            record(4, "s3", "c2")));
+  }
+
+  private static CatalogSnapshot mappedSnapshot(Path file) {
+    CatalogSnapshot.Builder builder = CatalogSnapshot.builder(MappedArticleStore.write(file));
+    builder.add(record(1, "s1", "c1"));
+    builder.add(record(3, "s1", "c1"));
+    builder.add(record(4, "s3", "c2"));
+    return builder.build();
+  }
+
+  @Test
+  @DisplayName("M001: Articles are indexed by sku, category and subcategory")
+  void M001() {
+    CatalogSnapshot snapshot = snapshot();
+
+    assertEquals(4, snapshot.size());
+    assertEquals("Article 2", snapshot.find(2).getTitle());
+    assertNull(snapshot.find(5));
+    assertArrayEquals(new long[] {1, 2, 3, 4}, snapshot.getSkus(null, null).toArray());
+    assertArrayEquals(new long[] {1, 2, 3}, snapshot.getSkus("c1", null).toArray());
+    assertArrayEquals(new long[] {1, 3}, snapshot.getSkus(null, "s1").toArray());
+    assertArrayEquals(new long[] {1, 3}, snapshot.getSkus("c1", "s1").toArray());
+    assertArrayEquals(new long[0], snapshot.getSkus("c2", "s1").toArray());
+    assertArrayEquals(new long[0], snapshot.getSkus("unknown", null).toArray());
+  }
+
+  @Test
+  @DisplayName("M002: A patch copies the snapshot and leaves the previous one unchanged")
+  void M002() {
+    CatalogSnapshot before = snapshot();
+    CatalogSnapshot moved = before.with(record(3, "s3", "c2"));
+    CatalogSnapshot added = moved.with(record(0, "s2", "c1"));
+    CatalogSnapshot deleted = added.without(4);
+
+    assertArrayEquals(new long[] {1, 3}, before.getSkus(null, "s1").toArray());
+    assertEquals("s1", before.find(3).getSubcategoryUuid());
+    assertArrayEquals(new long[] {1}, moved.getSkus(null, "s1").toArray());
+    assertArrayEquals(new long[] {3, 4}, moved.getSkus("c2", null).toArray());
+    assertArrayEquals(new long[] {0, 1, 2}, added.getSkus("c1", null).toArray());
+    assertArrayEquals(new long[] {0, 1, 2, 3}, deleted.getSkus(null, null).toArray());
+    assertArrayEquals(new long[] {3}, deleted.getSkus("c2", "s3").toArray());
+    assertNull(deleted.find(4));
+    assertSame(deleted, deleted.without(4));
+  }
+
+  @Test
+  @DisplayName("M007: Patches of a large snapshot keep every sku list and lookup consistent")
+  void M007() {
+    List<ArticleRecord> records = new ArrayList<>();
+    for (long sku = 0; sku < 5000; sku++) {
+      records.add(record(sku, "s" + sku % 4, "c" + sku % 2));
+    }
+    CatalogSnapshot before = CatalogSnapshot.of(records);
+
+    CatalogSnapshot after = before;
+    for (long sku = 0; sku < 5000; sku += 7) {
+      after = sku % 2 == 0 ? after.without(sku) : after.with(record(sku, "s9", "c1"));
+    }
+    after = after.with(record(9999, "s0", "c0"));
+
+    assertEquals(5000, before.size());
+    assertEquals(2500, before.getSkus("c1", null).size());
+    assertEquals(1250, before.getSkus("c1", "s1").size());
+    assertEquals(4643, after.size());
+    assertEquals(357, after.getSkus(null, "s9").size());
+    assertSame(after.getSkus(null, "s9"), after.getSkus("c1", "s9"));
+    assertEquals(0, after.getSkus("c0", "s9").size());
+    assertEquals(9999, after.getSkus("c0", "s0").get(after.getSkus("c0", "s0").size() - 1));
+    assertEquals(2500, after.getSkus("c1", null).size());
+    assertNull(after.find(14));
+    assertEquals("s9", after.find(7).getSubcategoryUuid());
+    assertEquals("s3", before.find(7).getSubcategoryUuid());
+    assertEquals(-1, after.getSkus(null, "s3").indexOf(7));
+    int count = 0;
+    for (ArticleRecord record : after.getArticles()) {
+      assertNotNull(record);
+      count++;
+    }
+    assertEquals(after.size(), count);
+  }
+
+  @Test
+  @DisplayName("M008: Matches are sorted by the field of the sort option, then by sku")
+  void M008() {
+    List<ArticleRecord> records = new ArrayList<>();
+    for (long sku = 0; sku < 2000; sku++) {
+      Double price = sku % 10 == 0 ? null : (double) (sku * 7919 % 500);
+      Double discount = sku % 3 == 0 ? null : (double) (sku % 7);
+      String title = sku % 2 == 0 ? "article " + sku % 50 : "Article " + sku % 50;
+      records.add(
+          new ArticleRecord(
+              sku, title, "", price, null, true, 1, discount, "s1", "c1", List.of()));
+    }
+    CatalogSnapshot snapshot = CatalogSnapshot.of(records);
+    long[] matches = LongStream.range(0, 2500).filter(sku -> sku % 4 != 1).toArray();
+
+    for (ArticleSort sort : ArticleSort.values()) {
+      Comparator<Long> expected = expectedOrder(snapshot, sort);
+      List<Long> all =
+          Arrays.stream(matches).boxed().sorted(expected).collect(Collectors.toList());
+      for (int count : new int[] {0, 1, 24, 1000, 5000}) {
+        long[] sorted = snapshot.sort(Arrays.stream(matches), sort, count);
+        assertEquals(
+            all.subList(0, Math.min(count, all.size())),
+            Arrays.stream(sorted).boxed().collect(Collectors.toList()),
+            sort + " " + count);
+      }
+    }
+  }
+
+  /** Order of the sort indexes of the database: nulls last ascending, first descending */
+  private static Comparator<Long> expectedOrder(CatalogSnapshot snapshot, ArticleSort sort) {
+    Comparator<Long> bySku = Comparator.naturalOrder();
+    if (sort.isSkuOrder()) {
+      return sort.isDescending() ? bySku.reversed() : bySku;
+    }
+    Comparator<Long> byField;
+    if (sort == ArticleSort.TITLE) {
+      byField =
+          Comparator.comparing(
+              sku -> snapshot.find(sku) == null ? null : snapshot.find(sku).getTitle(),
+              Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+    } else {
+      byField =
+          Comparator.comparing(
+              sku -> {
+                ArticleRecord record = snapshot.find(sku);
+                Double value =
+                    record == null
+                        ? null
+                        : sort == ArticleSort.DISCOUNT
+                            ? record.getDiscount()
+                            : record.getSellingPrice();
+                return value;
+              },
+              Comparator.nullsLast(Comparator.<Double>naturalOrder()));
+    }
+    return (sort.isDescending() ? byField.reversed() : byField).thenComparing(bySku);
+  }
+
+  @Test
+  @DisplayName("M003: Records render tiles and detached articles with the primary image")
+  void M003() {
+    ArticleRecord record = snapshot().find(1);
+
+    assertEquals("a.png", record.getPrimaryImageURL());
+    assertEquals("a.png", record.toTile().getPrimaryImageURL());
+    assertEquals("a.png", record.toArticle().getPrimaryImageURL());
+    assertEquals(2, record.toArticle().getImageList().size());
+    assertNotSame(record.toArticle(), record.toArticle());
+  }
+
+  @Test
+  @DisplayName("M004: A mapped store decodes the records it was written with")
+  void M004() throws Exception {
+    Path file = Files.createTempFile("articles-", ".store");
+    try {
+      CatalogSnapshot snapshot = mappedSnapshot(file);
+      ArticleRecord record = snapshot.find(3);
+
+      assertEquals(3, snapshot.getStore().size());
+      assertEquals("Article 3", record.getTitle());
+      assertEquals("", record.getDescription());
+      assertEquals(10.0, record.getSellingPrice());
+      assertNull(record.getListPrice());
+      assertTrue(record.getAvailable());
+      assertEquals("s1", record.getSubcategoryUuid());
+      assertEquals("a.png", record.getPrimaryImageURL());
+      assertEquals(2, record.getImages().get(0).getPosition());
+      assertNull(snapshot.find(2));
+      assertArrayEquals(new long[] {1, 3}, snapshot.getSkus("c1", "s1").toArray());
+    } finally {
+      Files.deleteIfExists(file);
+    }
+
+    Path unordered = Files.createTempFile("articles-", ".store");
+    try (MappedArticleStore.Writer writer = MappedArticleStore.write(unordered)) {
+      writer.add(record(3, "s1", "c1"));
+      assertThrows(IllegalArgumentException.class, () -> writer.add(record(1, "s1", "c1")));
+    } finally {
+      Files.deleteIfExists(unordered);
+    }
+  }
+
+  @Test
+  @DisplayName("M005: Patches of a mapped snapshot are held on the heap and hide stored records")
+  void M005() throws Exception {
+    Path file = Files.createTempFile("articles-", ".store");
+    try {
+      CatalogSnapshot stored = mappedSnapshot(file);
+      CatalogSnapshot patched = stored.with(record(2, "s1", "c1")).without(3);
+
+      assertEquals(0, stored.getPatchCount());
+      assertEquals(2, patched.getPatchCount());
+      assertNull(patched.find(3));
+      assertEquals("Article 3", stored.find(3).getTitle());
+      assertEquals("Article 2", patched.find(2).getTitle());
+      assertArrayEquals(new long[] {1, 2, 4}, patched.getSkus(null, null).toArray());
+      assertEquals(3, patched.size());
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test
+  @DisplayName("M006: A catalog dump reads back its categories and articles in sku order")
+  void M006() throws Exception {
+    Category category = new Category();
+    category.setUuid("c1");
+    category.setCategoryName("Books");
+    Subcategory subcategory = new Subcategory();
+    subcategory.setUuid("s1");
+    subcategory.setRootCategoryUuid("c1");
+    subcategory.setCategoryName("Novels");
+    CatalogSnapshot snapshot = snapshot();
+
+    Path file = Files.createTempFile("catalog-", ".dump");
+    try {
+      Instant createdAt = Instant.ofEpochMilli(1700000000000L);
+      CatalogDump.write(
+          file,
+          createdAt,
+          List.of(category),
+          List.of(subcategory),
+          snapshot.size(),
+          snapshot.getArticles());
+      CatalogDump dump = CatalogDump.open(file);
+      List<ArticleRecord> articles = new ArrayList<>();
+      dump.forEachArticle(articles::add);
+
+      assertEquals(createdAt, dump.getCreatedAt());
+      assertEquals("Books", dump.getCategories().get(0).getCategoryName());
+      assertEquals("Books", dump.getSubcategories().get(0).getRootCategory().getCategoryName());
+      assertEquals(4, articles.size());
+      assertEquals(3, articles.get(2).getSku());
+      assertEquals("a.png", articles.get(2).getPrimaryImageURL());
+      assertThrows(
+          IllegalArgumentException.class,
+          () -> CatalogDump.write(file, createdAt, List.of(), List.of(), 5, List.of()));
+      assertEquals(4, CatalogDump.open(file).getArticleCount());
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+}
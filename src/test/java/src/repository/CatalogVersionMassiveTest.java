@@ -0,0 +1,104 @@
+package src.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.ws.rs.core.EntityTag;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class CatalogVersionMassiveTest {
+
+  private CatalogChangeLog changeLog;
+  private ManagedScheduledExecutorService scheduler;
+  private CatalogVersion version;
+
+  @BeforeEach
+  void setup() {
+    changeLog = mock(CatalogChangeLog.class);
+    scheduler = mock(ManagedScheduledExecutorService.class);
+    version = this.node();
+  }
+
+  private CatalogVersion node() {
+    CatalogVersion node = new CatalogVersion();
+    node.changeLog = changeLog;
+    node.scheduler = scheduler;
+    return node;
+  }
+
+  private CatalogVersion startedNode() {
+    CatalogVersion node = this.node();
+    node.start(null);
+    return node;
+  }
+
+  private void logged(long lastVersion, String lastChangedAt) {
+    doReturn(
+            new CatalogChangeLog.State(
+                lastVersion, lastChangedAt == null ? null : Instant.parse(lastChangedAt)))
+        .when(changeLog)
+        .getState();
+  }
+
+  @Test
+  @DisplayName("E001: The tag is strong and stable without writes, requests never read the log")
+  void E001() {
+    logged(0, null);
+    version.start(null);
+    EntityTag tag = version.getEntityTag("r1");
+
+    assertFalse(tag.isWeak());
+    assertEquals(tag, version.getEntityTag("r1"));
+    assertNotEquals(tag, version.getEntityTag("r2"));
+    assertNull(version.getLastModified());
+    verify(changeLog, times(1)).getState();
+  }
+
+  @Test
+  @DisplayName("E002: Nodes derive equal tags from the last version, each write changes it")
+  void E002() {
+    logged(41, "2026-01-01T10:00:00.750Z");
+    version.start(null);
+    EntityTag before = version.getEntityTag("r");
+    assertEquals(before, this.startedNode().getEntityTag("r"));
+    assertEquals(Date.from(Instant.parse("2026-01-01T10:00:00Z")), version.getLastModified());
+
+    logged(42, "2026-01-01T10:00:01Z");
+    version.onCatalogChange(CatalogChangeEvent.article(1, false));
+    EntityTag first = version.getEntityTag("r");
+    logged(43, "2026-01-01T10:00:02Z");
+    version.onCatalogChange(CatalogChangeEvent.category("cat-1", true).toRemote());
+
+    assertNotEquals(before, first);
+    assertNotEquals(first, version.getEntityTag("r"));
+    assertEquals("43", version.getVersion());
+    // the tag only depends on the last version, a node starting after a prune sends the same one
+    assertEquals(this.startedNode().getEntityTag("r"), version.getEntityTag("r"));
+  }
+
+  @Test
+  @DisplayName("E003: Without a readable log there is no tag until a scheduled retry reads it")
+  void E003() {
+    when(changeLog.getState()).thenThrow(new IllegalStateException("down"));
+    version.start(null);
+    version.onCatalogChange(CatalogChangeEvent.article(1, false));
+    assertNull(version.getEntityTag("r"));
+    assertNull(version.getLastModified());
+    verify(changeLog, times(2)).getState();
+
+    // one retry is pending at a time, requests don't read the log meanwhile
+    ArgumentCaptor<Runnable> retry = ArgumentCaptor.forClass(Runnable.class);
+    verify(scheduler, times(1)).schedule(retry.capture(), eq(10L), eq(TimeUnit.SECONDS));
+
+    logged(3, "2026-01-01T10:00:00Z");
+    retry.getValue().run();
+    assertEquals(new EntityTag("r-3"), version.getEntityTag("r"));
+  }
+}
@@ -0,0 +1,247 @@
+package src.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * F001 - F009 check the generated statements, F101 - F104 run them against a local Postgres, e.g.
+ * <code>mvn test -Dtest.postgres.url=jdbc:postgresql://localhost/webshop?user=..&amp;password=..
+ * </code>. They work in a temporary schema and leave the database untouched.
+ */
+class FullTextSearchSqlMassiveTest {
+
+  private static final String POSTGRES_URL = "test.postgres.url";
+
+  // ---------- Helpers ----------
+  private static long placeholders(String sql) {
+    return sql.chars().filter(c -> c == '?').count();
+  }
+
+  // ---------- Statements ----------
+  @Test
+  @DisplayName("F001: Every placeholder of the count statement has a parameter")
+  void F001() {
+    FullTextSearchSql.Statement statement = new FullTextSearchSql("jeans", "c", "s").count();
+    assertEquals(placeholders(statement.getSql()), statement.getParameters().size());
+    assertTrue(statement.getSql().startsWith("SELECT count(*)"));
+  }
+
+  @Test
+  @DisplayName("F002: Every placeholder of the page statements has a parameter")
+  void F002() {
+    FullTextSearchSql sql = new FullTextSearchSql("jeans", "c", "s");
+    for (FullTextSearchSql.Statement statement :
+        List.of(
+            sql.page(ArticleSort.DEFAULT, null, 24, 12),
+            sql.page(ArticleSort.DEFAULT, 7L, 0, 12),
+            sql.page(ArticleSort.PRICE_DESC, 7L, 0, 12))) {
+      assertEquals(placeholders(statement.getSql()), statement.getParameters().size());
+    }
+  }
+
+  @Test
+  @DisplayName("F003: Term matches the tsvector column or a title substring")
+  void F003() {
+    FullTextSearchSql.Statement statement = new FullTextSearchSql("Slim Jeans", null, null).count();
+    assertTrue(statement.getSql().contains("a.search_vector @@ websearch_to_tsquery"));
+    assertEquals(List.of("Slim Jeans", "%slim jeans%"), statement.getParameters());
+  }
+
+  @Test
+  @DisplayName("F004: Category filters are only added if given")
+  void F004() {
+    assertFalse(new FullTextSearchSql("x", null, "").count().getSql().contains("uuid = ?"));
+    FullTextSearchSql.Statement statement = new FullTextSearchSql("x", "cat", "sub").count();
+    assertTrue(statement.getSql().contains("s.root_category_uuid = ?"));
+    assertTrue(statement.getSql().contains("a.subcategory_uuid = ?"));
+    assertEquals(List.of("x", "%x%", "cat", "sub"), statement.getParameters());
+  }
+
+  @Test
+  @DisplayName("F005: Offset page is ordered by rank and ends with limit and offset")
+  void F005() {
+    FullTextSearchSql.Statement statement =
+        new FullTextSearchSql("x", null, null).page(ArticleSort.DEFAULT, null, 24, 12);
+    assertTrue(statement.getSql().endsWith("DESC, a.sku LIMIT ? OFFSET ?"));
+    List<Object> parameters = statement.getParameters();
+    assertEquals(List.of(12, 24), parameters.subList(parameters.size() - 2, parameters.size()));
+  }
+
+  @Test
+  @DisplayName("F006: Keyset page seeks behind the last sku, the offset only applies without it")
+  void F006() {
+    FullTextSearchSql.Statement statement =
+        new FullTextSearchSql("x", null, null).page(ArticleSort.DEFAULT, 7L, 24, 12);
+    assertTrue(statement.getSql().contains("WHERE b.sku = ?"));
+    assertTrue(statement.getSql().endsWith("OFFSET (CASE WHEN EXISTS ("
+        + "SELECT 1 FROM article b WHERE b.sku = ?) THEN 0 ELSE ? END)"), statement.getSql());
+    List<Object> parameters = statement.getParameters();
+    assertEquals(List.of(12, 7L, 24), parameters.subList(parameters.size() - 3, parameters.size()));
+  }
+
+  @Test
+  @DisplayName("F007: Sort options replace the rank order, keep the sku as tie breaker")
+  void F007() {
+    FullTextSearchSql sql = new FullTextSearchSql("x", null, null);
+    assertTrue(
+        sql.page(ArticleSort.PRICE_DESC, null, 0, 12)
+            .getSql()
+            .endsWith("ORDER BY a.selling_price DESC, a.sku LIMIT ? OFFSET ?"));
+    assertTrue(
+        sql.page(ArticleSort.NEWEST, null, 0, 12)
+            .getSql()
+            .endsWith("ORDER BY a.sku DESC LIMIT ? OFFSET ?"));
+  }
+
+  @Test
+  @DisplayName("F008: Keyset pagination only applies to the rank order")
+  void F008() {
+    FullTextSearchSql.Statement statement =
+        new FullTextSearchSql("x", null, null).page(ArticleSort.TITLE, 7L, 24, 12);
+    assertFalse(statement.getSql().contains("b.sku = ?"));
+    assertEquals(24, statement.getParameters().get(statement.getParameters().size() - 1));
+  }
+
+  @Test
+  @DisplayName("F009: Price range and stock filters are added if given")
+  void F009() {
+    assertFalse(new FullTextSearchSql("x", null, null).count().getSql().contains("selling_price"));
+    FullTextSearchSql.Statement statement =
+        new FullTextSearchSql("x", null, null, new PriceFilter(5.0, 20.0, true)).count();
+    assertTrue(statement.getSql().contains("a.selling_price >= ? AND a.selling_price <= ?"));
+    assertTrue(statement.getSql().endsWith("AND a.available AND a.stock > 0"));
+    assertEquals(List.of("x", "%x%", 5.0, 20.0), statement.getParameters());
+  }
+
+  // ---------- Local Postgres ----------
+  private static Connection connect() throws Exception {
+    Connection connection = DriverManager.getConnection(System.getProperty(POSTGRES_URL));
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("DROP SCHEMA IF EXISTS fulltext_test CASCADE");
+      statement.execute("CREATE SCHEMA fulltext_test");
+      statement.execute("SET search_path TO fulltext_test, public");
+      statement.execute(
+          "CREATE TABLE subcategory "
+              + "(uuid VARCHAR(36) PRIMARY KEY, root_category_uuid VARCHAR(36))");
+      statement.execute(
+          "CREATE TABLE article (sku BIGINT PRIMARY KEY, title VARCHAR(255), description TEXT, "
+              + "subcategory_uuid VARCHAR(36) REFERENCES subcategory(uuid))");
+      statement.execute(Files.readString(Path.of("db", "fulltext_search.sql")));
+
+      statement.execute("INSERT INTO subcategory VALUES ('jeans', 'clothing'), ('golf', 'sports')");
+      statement.execute(
+          "INSERT INTO article VALUES "
+              + "(1, 'Blue Slim Jeans', 'Denim', 'jeans'), "
+              + "(2, 'Red Shirt', 'Cotton shirt with a jeans look', 'jeans'), "
+              + "(3, 'Golf Shirt', 'Breathable', 'golf'), "
+              + "(4, 'Jeansjacket', 'Washed', 'jeans')");
+    }
+    return connection;
+  }
+
+  private static List<Long> query(Connection connection, FullTextSearchSql.Statement statement)
+      throws Exception {
+    List<Long> result = new ArrayList<>();
+    try (PreparedStatement prepared = connection.prepareStatement(statement.getSql())) {
+      for (int i = 0; i < statement.getParameters().size(); i++) {
+        prepared.setObject(i + 1, statement.getParameters().get(i));
+      }
+      try (ResultSet rs = prepared.executeQuery()) {
+        while (rs.next()) {
+          result.add(rs.getLong(1));
+        }
+      }
+    }
+    return result;
+  }
+
+  private static void dropSchema(Connection connection) throws Exception {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("DROP SCHEMA fulltext_test CASCADE");
+    }
+  }
+
+  @Test
+  @EnabledIfSystemProperty(named = POSTGRES_URL, matches = ".+")
+  @DisplayName("F101: Title matches rank before description matches, substrings match the title")
+  void F101() throws Exception {
+    try (Connection connection = connect()) {
+      FullTextSearchSql sql = new FullTextSearchSql("jeans", null, null);
+      assertEquals(List.of(3L), query(connection, sql.count()));
+      assertEquals(
+          List.of(1L, 2L, 4L), query(connection, sql.page(ArticleSort.DEFAULT, null, 0, 12)));
+      dropSchema(connection);
+    }
+  }
+
+  @Test
+  @EnabledIfSystemProperty(named = POSTGRES_URL, matches = ".+")
+  @DisplayName("F102: Keyset pages continue behind the last sku and respect the category filter")
+  void F102() throws Exception {
+    try (Connection connection = connect()) {
+      FullTextSearchSql sql = new FullTextSearchSql("shirt", "sports", null);
+      assertEquals(List.of(3L), query(connection, sql.page(ArticleSort.DEFAULT, null, 0, 12)));
+
+      FullTextSearchSql all = new FullTextSearchSql("jeans", null, null);
+      assertEquals(List.of(2L, 4L), query(connection, all.page(ArticleSort.DEFAULT, 1L, 0, 12)));
+      dropSchema(connection);
+    }
+  }
+
+  @Test
+  @EnabledIfSystemProperty(named = POSTGRES_URL, matches = ".+")
+  @DisplayName("F103: Search runs on the GIN indexes instead of a sequential scan")
+  void F103() throws Exception {
+    try (Connection connection = connect()) {
+      StringBuilder plan = new StringBuilder();
+      FullTextSearchSql.Statement statement = new FullTextSearchSql("jeans", null, null).count();
+      try (Statement setup = connection.createStatement()) {
+        // the test table is tiny, force the planner to show the index path it would take
+        setup.execute("SET enable_seqscan = off");
+      }
+      try (PreparedStatement explain =
+          connection.prepareStatement("EXPLAIN " + statement.getSql())) {
+        for (int i = 0; i < statement.getParameters().size(); i++) {
+          explain.setObject(i + 1, statement.getParameters().get(i));
+        }
+        try (ResultSet rs = explain.executeQuery()) {
+          while (rs.next()) {
+            plan.append(rs.getString(1)).append('\n');
+          }
+        }
+      }
+      assertTrue(plan.toString().contains("article_search_vector_idx"), plan.toString());
+      assertTrue(plan.toString().contains("article_title_trgm_idx"), plan.toString());
+      assertFalse(plan.toString().contains("Seq Scan on article"), plan.toString());
+      dropSchema(connection);
+    }
+  }
+
+  @Test
+  @EnabledIfSystemProperty(named = POSTGRES_URL, matches = ".+")
+  @DisplayName("F104: A keyset page behind a deleted article falls back to the offset")
+  void F104() throws Exception {
+    try (Connection connection = connect()) {
+      try (Statement delete = connection.createStatement()) {
+        delete.execute("DELETE FROM article WHERE sku = 1");
+      }
+
+      FullTextSearchSql sql = new FullTextSearchSql("jeans", null, null);
+      assertEquals(List.of(2L, 4L), query(connection, sql.page(ArticleSort.DEFAULT, 1L, 0, 12)));
+      assertEquals(List.of(4L), query(connection, sql.page(ArticleSort.DEFAULT, 1L, 1, 12)));
+      dropSchema(connection);
+    }
+  }
+}
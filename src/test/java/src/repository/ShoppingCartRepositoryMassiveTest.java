@@ -0,0 +1,56 @@
+package src.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class ShoppingCartRepositoryMassiveTest {
+
+  private EntityManager entitymanager;
+  private Query query;
+  private ShoppingCartRepository repository;
+
+  @BeforeEach
+  void setup() {
+    entitymanager = mock(EntityManager.class);
+    query = mock(Query.class);
+    repository = new ShoppingCartRepository();
+    repository.entitymanager = entitymanager;
+
+    when(entitymanager.createNativeQuery(anyString())).thenReturn(query);
+    when(query.setParameter(anyInt(), any())).thenReturn(query);
+  }
+
+  @Test
+  @DisplayName("U001: Adding to the cart is one upsert clamped to the stock, without reading first")
+  void U001() {
+    when(query.executeUpdate()).thenReturn(1);
+
+    assertTrue(repository.addToCart("a@b", 42L, 3L));
+
+    ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+    verify(entitymanager, times(1)).createNativeQuery(sql.capture());
+    assertTrue(sql.getValue().contains("ON CONFLICT (email, article_sku) DO UPDATE"));
+    assertTrue(sql.getValue().contains("LEAST("));
+    // an entry already holding the whole stock isn't touched, so it reports no row
+    assertTrue(sql.getValue().contains("WHERE shopping_cart.amount < (SELECT a.stock"));
+    verify(query).setParameter(2, "a@b");
+    verify(query).setParameter(3, 3L);
+    verify(query).setParameter(4, 42L);
+    verify(query, times(1)).executeUpdate();
+    verify(entitymanager, never()).createQuery(anyString());
+  }
+
+  @Test
+  @DisplayName("U002: Nothing is written for missing, sold out or fully carted articles")
+  void U002() {
+    when(query.executeUpdate()).thenReturn(0);
+    assertFalse(repository.addToCart("a@b", 42L, 3L));
+  }
+}
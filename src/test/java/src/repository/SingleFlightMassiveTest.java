@@ -0,0 +1,138 @@
+package src.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightMassiveTest {
+
+  private final SingleFlight<Long, String> flight = new SingleFlight<>();
+  private final AtomicInteger loads = new AtomicInteger();
+  private ExecutorService threads;
+
+  @BeforeEach
+  void setup() {
+    threads = Executors.newFixedThreadPool(8);
+  }
+
+  @AfterEach
+  void teardown() {
+    threads.shutdownNow();
+  }
+
+  /** Start a blocked load of the key and wait until the given amount of callers joined it */
+  private List<Future<String>> startCallers(
+      long key, int callers, CountDownLatch release, RuntimeException failure) throws Exception {
+    List<Future<String>> results = new ArrayList<>();
+    CountDownLatch started = new CountDownLatch(1);
+    results.add(
+        threads.submit(
+            () ->
+                flight.load(
+                    key,
+                    () -> {
+                      loads.incrementAndGet();
+                      started.countDown();
+                      await(release);
+                      if (failure != null) {
+                        throw failure;
+                      }
+                      return "article-" + key;
+                    })));
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    for (int i = 1; i < callers; i++) {
+      results.add(threads.submit(() -> flight.load(key, () -> "unexpected")));
+    }
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (flight.getCoalesced(key) < callers - 1 && System.nanoTime() < deadline) {
+      Thread.sleep(1);
+    }
+    return results;
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Test
+  @DisplayName("S001: Concurrent callers of one key share a single load")
+  void S001() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    List<Future<String>> results = startCallers(7L, 6, release, null);
+    release.countDown();
+
+    for (Future<String> result : results) {
+      assertEquals("article-7", result.get(5, TimeUnit.SECONDS));
+    }
+    assertEquals(1, loads.get());
+    assertEquals(1, flight.getLoads());
+    assertEquals(5, flight.getCoalesced());
+    assertEquals(5, flight.getCoalesced(7L));
+  }
+
+  @Test
+  @DisplayName("S002: A load after completion runs again, nothing is cached")
+  void S002() {
+    assertEquals("a", flight.load(1L, () -> "a"));
+    assertEquals("b", flight.load(1L, () -> "b"));
+    assertEquals(2, flight.getLoads());
+    assertEquals(0, flight.getCoalesced());
+  }
+
+  @Test
+  @DisplayName("S003: Different keys don't share loads")
+  void S003() {
+    assertEquals("a", flight.load(1L, () -> flight.load(2L, () -> "b").replace('b', 'a')));
+    assertEquals(2, flight.getLoads());
+    assertEquals(0, flight.getCoalesced(1L));
+  }
+
+  @Test
+  @DisplayName("S004: The exception of a load is rethrown to all waiting callers")
+  void S004() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    IllegalStateException failure = new IllegalStateException("database down");
+    List<Future<String>> results = startCallers(3L, 3, release, failure);
+    release.countDown();
+
+    for (Future<String> result : results) {
+      Exception e = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+      assertSame(failure, e.getCause());
+    }
+    assertEquals("recovered", flight.load(3L, () -> "recovered"));
+  }
+
+  @Test
+  @DisplayName("S005: Statistics report the most coalesced keys first")
+  void S005() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    List<Future<String>> results = new ArrayList<>(startCallers(1L, 2, release, null));
+    results.addAll(startCallers(2L, 4, release, null));
+    release.countDown();
+    for (Future<String> result : results) {
+      result.get(5, TimeUnit.SECONDS);
+    }
+
+    Map<String, Object> statistics = flight.getStatistics(1);
+    assertEquals(2L, statistics.get("loads"));
+    assertEquals(4L, statistics.get("coalesced"));
+    assertEquals(Map.of("2", 3L), statistics.get("keys"));
+  }
+}
@@ -0,0 +1,198 @@
+package src.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import src.repository.SkuResultCache.Key;
+import src.repository.SkuResultCache.Result;
+
+class SkuResultCacheMassiveTest {
+
+  private final MutableClock clock = new MutableClock();
+  private final List<Runnable> refreshes = new ArrayList<>();
+  private final AtomicInteger loads = new AtomicInteger();
+
+  private SkuResultCache cache;
+
+  @BeforeEach
+  void setup() {
+    cache = new SkuResultCache(10, 1000, 5000, refreshes::add, clock);
+  }
+
+  private Function<Key, Result> loader(long... skus) {
+    return key -> {
+      loads.incrementAndGet();
+      return new Result(skus, skus.length);
+    };
+  }
+
+  @Test
+  @DisplayName("K001: Equivalent queries share one normalized key")
+  void K001() {
+    Key key = Key.of("", " ", "  Red   Shoes ", null, null);
+
+    assertNull(key.getCategoryUuid());
+    assertNull(key.getSubcategoryUuid());
+    assertEquals("red shoes", key.getQuery());
+    assertSame(PriceFilter.NONE, key.getFilter());
+    assertEquals(ArticleSort.DEFAULT, key.getSort());
+    assertEquals(key, Key.of(null, null, "red shoes", PriceFilter.NONE, ArticleSort.DEFAULT));
+    assertNotEquals(key, Key.of("cat-1", null, "red shoes", null, null));
+    assertNull(Key.of(null, null, "   ", null, null).getQuery());
+  }
+
+  @Test
+  @DisplayName("K002: A fresh result is loaded once")
+  void K002() {
+    Key key = Key.of("cat-1", null, null, null, null);
+
+    Result first = cache.get(key, loader(1, 2, 3));
+    Result second = cache.get(Key.of("cat-1", "", null, null, null), loader(9));
+
+    assertSame(first, second);
+    assertArrayEquals(new long[] {1, 2, 3}, second.getSkus());
+    assertEquals(1, loads.get());
+    assertTrue(refreshes.isEmpty());
+  }
+
+  @Test
+  @DisplayName("K003: A stale result is returned and refreshed once in the background")
+  void K003() {
+    Key key = Key.of("cat-1", null, null, null, null);
+    Result first = cache.get(key, loader(1, 2));
+    clock.advance(2000);
+
+    assertSame(first, cache.get(key, loader(3)));
+    assertSame(first, cache.get(key, loader(3)));
+    assertEquals(1, refreshes.size());
+
+    refreshes.get(0).run();
+    assertArrayEquals(new long[] {3}, cache.get(key, loader(4)).getSkus());
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  @DisplayName("K004: A result older than the stale limit is reloaded before it's returned")
+  void K004() {
+    Key key = Key.of("cat-1", null, null, null, null);
+    cache.get(key, loader(1, 2));
+    clock.advance(6000);
+
+    assertArrayEquals(new long[] {3}, cache.get(key, loader(3)).getSkus());
+    assertTrue(refreshes.isEmpty());
+  }
+
+  @Test
+  @DisplayName("K005: The least recently used results are evicted above the sku limit")
+  void K005() {
+    Key a = Key.of("cat-a", null, null, null, null);
+    Key b = Key.of("cat-b", null, null, null, null);
+    Key c = Key.of("cat-c", null, null, null, null);
+    cache.get(a, loader(1, 2, 3, 4));
+    cache.get(b, loader(5, 6, 7, 8));
+    cache.get(a, loader());
+    cache.get(c, loader(9, 10, 11));
+
+    assertEquals(2, cache.size());
+    assertEquals(3, loads.get());
+    cache.get(a, loader());
+    assertEquals(3, loads.get());
+    cache.get(b, loader(5));
+    assertEquals(4, loads.get());
+  }
+
+  @Test
+  @DisplayName("K006: An article write evicts only the results containing it or its categories")
+  void K006() {
+    Key containing = Key.of(null, null, "shirt", null, null);
+    Key category = Key.of("cat-clothing", null, null, null, null);
+    Key other = Key.of("cat-sports", null, null, null, null);
+    cache.get(containing, loader(1, 2));
+    cache.get(category, loader(3));
+    cache.get(other, loader(4));
+
+    cache.evictArticle(2, List.of("cat-clothing"));
+
+    assertEquals(1, cache.size());
+    cache.get(other, loader());
+    assertEquals(3, loads.get());
+  }
+
+  @Test
+  @DisplayName("K007: A result loaded during an eviction is returned but not cached")
+  void K007() {
+    Key key = Key.of("cat-1", null, null, null, null);
+
+    Result result =
+        cache.get(
+            key,
+            k -> {
+              cache.evictArticle(1, List.of());
+              return new Result(new long[] {1}, 1);
+            });
+
+    assertArrayEquals(new long[] {1}, result.getSkus());
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  @DisplayName("K008: A result is complete if it contains all matches")
+  void K008() {
+    assertTrue(new Result(new long[] {1, 2}, 2).isComplete());
+    assertFalse(new Result(new long[] {1, 2}, 5).isComplete());
+    assertTrue(new Result(new long[0], 0).isComplete());
+  }
+
+  @Test
+  @DisplayName("K009: An article write evicts the results over the whole catalog, a delete doesn't")
+  void K009() {
+    Key search = Key.of(null, null, "shirt", null, null);
+    Key all = Key.of(null, null, null, null, ArticleSort.TITLE);
+    Key other = Key.of("cat-sports", null, null, null, null);
+    cache.get(search, loader(1));
+    cache.get(all, loader(1, 3));
+    cache.get(other, loader(4));
+
+    cache.evictArticle(5, List.of());
+    assertEquals(3, cache.size());
+
+    cache.evictArticle(5, List.of("cat-clothing", "sub-shirts"));
+    assertEquals(1, cache.size());
+    cache.get(other, loader());
+    assertEquals(3, loads.get());
+  }
+
+  private static class MutableClock extends Clock {
+
+    private long millis;
+
+    void advance(long delta) {
+      millis += delta;
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return Instant.ofEpochMilli(millis);
+    }
+  }
+}
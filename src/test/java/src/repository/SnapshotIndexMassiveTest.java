@@ -0,0 +1,104 @@
+package src.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import src.model.ArticleRecord;
+
+class SnapshotIndexMassiveTest {
+
+  private static ArticleRecord record(long sku, String title) {
+    return new ArticleRecord(sku, title, "", 1.0, null, true, 1, null, "s1", "c1", List.of());
+  }
+
+  /** Titles in sku order, counting how often they are derived and updated */
+  private static class Titles extends SnapshotIndex<List<String>> {
+
+    int derived;
+    int updated;
+
+    Titles(CatalogSnapshot snapshot) {
+      this.readModel =
+          new CatalogReadModel() {
+            @Override
+            public CatalogSnapshot getSnapshot() {
+              return snapshot;
+            }
+          };
+    }
+
+    @Override
+    protected List<String> derive(CatalogSnapshot snapshot) {
+      derived++;
+      List<String> titles = new ArrayList<>();
+      snapshot.getArticles().forEach(record -> titles.add(record.getTitle()));
+      return titles;
+    }
+
+    @Override
+    protected List<String> update(
+        List<String> titles, ArticleRecord previous, ArticleRecord current) {
+      updated++;
+      if (previous == null || current == null) {
+        return null;
+      }
+      List<String> changed = new ArrayList<>(titles);
+      changed.set(changed.indexOf(previous.getTitle()), current.getTitle());
+      return changed;
+    }
+  }
+
+  @Test
+  @DisplayName("SI001: Written articles are applied with the records of the change, once derived")
+  void SI001() {
+    CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(record(1, "a"), record(2, "b")));
+    CatalogSnapshot renamed = snapshot.with(record(2, "c"));
+    Titles titles = new Titles(snapshot);
+
+    // not derived yet, the change is contained once it is
+    titles.onReadModelChange(ReadModelChange.patched(snapshot, renamed, null, null));
+    assertEquals(0, titles.derived);
+
+    assertEquals(List.of("a", "b"), titles.get());
+    titles.onReadModelChange(
+        ReadModelChange.patched(snapshot, renamed, record(2, "b"), record(2, "c")));
+    assertEquals(List.of("a", "c"), titles.get());
+    assertEquals(1, titles.derived);
+    assertEquals(1, titles.updated);
+
+    // the same snapshot again is skipped
+    titles.onReadModelChange(ReadModelChange.rebuilt(snapshot, renamed));
+    assertEquals(1, titles.derived);
+  }
+
+  @Test
+  @DisplayName("SI002: Rebuilt snapshots, missed patches and refused updates are derived anew")
+  void SI002() {
+    CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(record(1, "a")));
+    Titles titles = new Titles(snapshot);
+    titles.get();
+
+    CatalogSnapshot added = snapshot.with(record(2, "b"));
+    titles.onReadModelChange(ReadModelChange.patched(snapshot, added, null, record(2, "b")));
+    assertEquals(List.of("a", "b"), titles.get());
+    assertEquals(2, titles.derived);
+
+    CatalogSnapshot rebuilt = CatalogSnapshot.of(List.of(record(1, "x"), record(2, "b")));
+    titles.onReadModelChange(ReadModelChange.rebuilt(added, rebuilt));
+    assertEquals(List.of("x", "b"), titles.get());
+
+    // the patch follows a snapshot this wasn't derived from
+    CatalogSnapshot renamed = added.with(record(1, "y"));
+    titles.onReadModelChange(
+        ReadModelChange.patched(added, renamed, record(1, "a"), record(1, "y")));
+    assertEquals(List.of("y", "b"), titles.get());
+    assertEquals(4, titles.derived);
+    assertEquals(1, titles.updated);
+
+    titles.refresh(current -> List.of("refreshed " + current.size()));
+    assertEquals(List.of("refreshed 2"), titles.get());
+  }
+}
@@ -0,0 +1,207 @@
+package src.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import src.search.InvertedIndex.MatchMode;
+
+class InvertedIndexMassiveTest {
+
+  private InvertedIndex index;
+
+  @BeforeEach
+  void setup() {
+    index = new InvertedIndex();
+    index.put(1, "Blue Slim Jeans", "Crème coloured denim", "sub-jeans", "cat-clothing");
+    index.put(2, "Red Shirt", "Cotton shirt with a jeans look", "sub-shirts", "cat-clothing");
+    index.put(3, "Golf Shirt", "Breathable", "sub-golf", "cat-sports");
+    index.put(4, "Cooling Sheets", "Keeps you cool", "sub-sheets", "cat-home");
+  }
+
+  // ---------- Tokenizer ----------
+  @Test
+  @DisplayName("I001: Tokenizer lowercases and splits at non letters")
+  void I001() {
+    assertEquals(List.of("slim", "fit", "jeans", "32"), Tokenizer.tokenize("Slim-Fit JEANS, 32"));
+  }
+
+  @Test
+  @DisplayName("I002: Tokenizer removes diacritics")
+  void I002() {
+    assertEquals(List.of("creme", "brulee"), Tokenizer.tokenize("Crème Brûlée"));
+  }
+
+  @Test
+  @DisplayName("I003: Tokenizer handles null and blank text")
+  void I003() {
+    assertTrue(Tokenizer.tokenize(null).isEmpty());
+    assertTrue(Tokenizer.tokenize("  -- ").isEmpty());
+  }
+
+  // ---------- Posting lists ----------
+  @Test
+  @DisplayName("I004: Intersection of sorted posting lists")
+  void I004() {
+    assertArrayEquals(
+        new int[] {2, 5}, PostingList.intersect(new int[] {1, 2, 5, 9}, new int[] {2, 3, 5}));
+  }
+
+  @Test
+  @DisplayName("I005: Union of sorted posting lists without duplicates")
+  void I005() {
+    assertArrayEquals(
+        new int[] {1, 2, 3, 5, 9}, PostingList.union(new int[] {1, 2, 5, 9}, new int[] {2, 3, 5}));
+  }
+
+  // ---------- search ----------
+  @Test
+  @DisplayName("I006: Title hits rank before description hits")
+  void I006() {
+    assertArrayEquals(new long[] {1, 2}, index.search("jeans", MatchMode.AND, null, null));
+  }
+
+  @Test
+  @DisplayName("I007: Search ignores case and diacritics")
+  void I007() {
+    assertArrayEquals(new long[] {1}, index.search("CREME", MatchMode.AND, null, null));
+  }
+
+  @Test
+  @DisplayName("I008: Search terms match term prefixes")
+  void I008() {
+    assertArrayEquals(new long[] {4}, index.search("cool", MatchMode.AND, null, null));
+  }
+
+  @Test
+  @DisplayName("I009: AND requires every term, OR any term")
+  void I009() {
+    assertArrayEquals(new long[] {3}, index.search("golf shirt", MatchMode.AND, null, null));
+    assertArrayEquals(new long[] {3, 2}, index.search("golf shirt", MatchMode.OR, null, null));
+  }
+
+  @Test
+  @DisplayName("I010: Category and subcategory filters restrict the result")
+  void I010() {
+    assertArrayEquals(new long[] {2}, index.search("shirt", MatchMode.AND, "cat-clothing", null));
+    assertArrayEquals(new long[] {3}, index.search("shirt", MatchMode.AND, null, "sub-golf"));
+    assertArrayEquals(new long[0], index.search("shirt", MatchMode.AND, "cat-home", null));
+  }
+
+  @Test
+  @DisplayName("I011: Empty query returns all articles of the filter ordered by sku")
+  void I011() {
+    assertArrayEquals(new long[] {1, 2}, index.search("", MatchMode.AND, "cat-clothing", null));
+  }
+
+  @Test
+  @DisplayName("I012: Updating an article replaces its terms")
+  void I012() {
+    index.put(1, "Green Hat", "", "sub-jeans", "cat-clothing");
+    assertArrayEquals(new long[] {2}, index.search("jeans", MatchMode.AND, null, null));
+    assertArrayEquals(new long[] {1}, index.search("hat", MatchMode.AND, null, null));
+    assertEquals(4, index.size());
+  }
+
+  @Test
+  @DisplayName("I013: Removed articles are not found anymore")
+  void I013() {
+    index.remove(3);
+    assertArrayEquals(new long[] {2}, index.search("shirt", MatchMode.AND, null, null));
+    assertEquals(0.25, index.getDeletedRatio());
+  }
+
+  @Test
+  @DisplayName("I014: Unknown terms match nothing")
+  void I014() {
+    assertArrayEquals(new long[0], index.search("xylophone", MatchMode.OR, null, null));
+  }
+
+  // ---------- Misspelled terms ----------
+  @Test
+  @DisplayName("I015: Edit distance counts adjacent transpositions once")
+  void I015() {
+    assertEquals(0, LevenshteinMatcher.distance("jeans", "jeans"));
+    assertEquals(1, LevenshteinMatcher.distance("jaens", "jeans"));
+    assertEquals(1, LevenshteinMatcher.distance("jens", "jeans"));
+    assertEquals(2, LevenshteinMatcher.distance("braethabel", "breathable"));
+    assertEquals(5, LevenshteinMatcher.distance("", "jeans"));
+  }
+
+  @Test
+  @DisplayName("I016: Matcher finds exactly the dictionary terms within the distance")
+  void I016() {
+    TreeMap<String, Integer> terms = new TreeMap<>();
+    List.of("shirt", "shirts", "skirt", "short", "sheet", "jeans").forEach(t -> terms.put(t, 0));
+    assertEquals(
+        Map.of("shirt", 1, "shirts", 1, "skirt", 2, "short", 2),
+        LevenshteinMatcher.find(terms, "shirtt", 2));
+    assertEquals(Map.of("jeans", 1), LevenshteinMatcher.find(terms, "jeasn", 1));
+    assertTrue(LevenshteinMatcher.find(new TreeMap<>(), "jeans", 2).isEmpty());
+  }
+
+  @Test
+  @DisplayName("I017: Misspelled title terms are corrected")
+  void I017() {
+    assertArrayEquals(new long[] {1}, index.search("jaens", MatchMode.AND, null, null));
+    assertArrayEquals(new long[] {4}, index.search("sheest", MatchMode.AND, null, null));
+  }
+
+  @Test
+  @DisplayName("I018: Long terms are corrected with edit distance 2, short ones not at all")
+  void I018() {
+    index.put(5, "Breathable Jacket", "", "sub-golf", "cat-sports");
+    assertArrayEquals(new long[] {5}, index.search("braethabel", MatchMode.AND, null, null));
+    assertArrayEquals(new long[0], index.search("rde", MatchMode.AND, null, null));
+  }
+
+  @Test
+  @DisplayName("I019: Corrected terms combine with exact terms and filters")
+  void I019() {
+    assertArrayEquals(new long[] {3}, index.search("golf shrit", MatchMode.AND, null, null));
+    assertArrayEquals(
+        new long[] {2}, index.search("shrit", MatchMode.AND, "cat-clothing", null));
+  }
+
+  @Test
+  @DisplayName("I020: Known terms are not corrected")
+  void I020() {
+    // "cool" is a prefix of "cooling", it must not also match the similar "cotton"
+    assertArrayEquals(new long[] {4}, index.search("cool", MatchMode.OR, null, null));
+  }
+
+  @Test
+  @DisplayName("I021: A query of separators only matches nothing, a blank one everything")
+  void I021() {
+    assertArrayEquals(new long[0], index.search("?! --", MatchMode.AND, null, null));
+    assertArrayEquals(new long[0], index.search("?!", MatchMode.OR, "cat-clothing", null));
+    assertEquals(4, index.search(" ", MatchMode.AND, null, null).length);
+  }
+
+  @Test
+  @DisplayName("I022: Compressed postings decode in order and merge in one pass")
+  void I022() {
+    PostingList small = new PostingList();
+    PostingList large = new PostingList();
+    for (int doc : new int[] {0, 1, 127, 128, 16384, 2000000000}) {
+      large.add(doc);
+    }
+    large.add(2000000000);
+    small.add(3);
+    small.add(128);
+    small.trim();
+
+    assertEquals(6, large.size());
+    assertArrayEquals(new int[] {0, 1, 127, 128, 16384, 2000000000}, large.toArray());
+    assertArrayEquals(
+        new int[] {0, 1, 3, 127, 128, 16384, 2000000000},
+        PostingList.union(List.of(small, large, new PostingList())));
+    assertArrayEquals(new int[] {128}, PostingList.intersect(new int[] {2, 128}, large));
+    assertArrayEquals(new int[0], PostingList.union(List.of()));
+    assertThrows(IllegalArgumentException.class, () -> small.add(5));
+  }
+}
@@ -0,0 +1,98 @@
+package src.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import src.search.Suggestion.Type;
+
+class PrefixDictionaryMassiveTest {
+
+  private PrefixDictionary dictionary;
+
+  @BeforeEach
+  void setup() {
+    dictionary =
+        new PrefixDictionary(
+            List.of(
+                new Suggestion(Type.ARTICLE, "1", "Blue Slim Jeans"),
+                new Suggestion(Type.ARTICLE, "2", "Slim Fit Shirt"),
+                new Suggestion(Type.ARTICLE, "3", "Crème Brûlée Set"),
+                new Suggestion(Type.CATEGORY, "c1", "Sports & Outdoors"),
+                new Suggestion(Type.SUBCATEGORY, "s1", "Slippers")));
+  }
+
+  // ---------- Helpers ----------
+  private static List<String> texts(List<Suggestion> suggestions) {
+    return suggestions.stream().map(Suggestion::getText).collect(Collectors.toList());
+  }
+
+  private static PrefixDictionary generate(int n) {
+    List<Suggestion> suggestions = new ArrayList<>();
+    for (int i = 0; i < n; i++) {
+      suggestions.add(new Suggestion(Type.ARTICLE, "" + i, "Shirt Model " + i));
+    }
+    return new PrefixDictionary(suggestions);
+  }
+
+  // ---------- lookup ----------
+  @Test
+  @DisplayName("P001: Prefix matches the start of any word")
+  void P001() {
+    assertEquals(List.of("Blue Slim Jeans"), texts(dictionary.lookup("jea", 10)));
+    assertEquals(List.of("Blue Slim Jeans"), texts(dictionary.lookup("blu", 10)));
+  }
+
+  @Test
+  @DisplayName("P002: Categories rank first, then titles starting with the prefix")
+  void P002() {
+    assertEquals(
+        List.of("Slippers", "Slim Fit Shirt", "Blue Slim Jeans"),
+        texts(dictionary.lookup("sl", 10)));
+  }
+
+  @Test
+  @DisplayName("P003: Prefix spanning several words")
+  void P003() {
+    assertEquals(List.of("Slim Fit Shirt"), texts(dictionary.lookup("slim f", 10)));
+    assertEquals(List.of("Sports & Outdoors"), texts(dictionary.lookup("sports  out", 10)));
+  }
+
+  @Test
+  @DisplayName("P004: Case and diacritics are ignored")
+  void P004() {
+    assertEquals(List.of("Crème Brûlée Set"), texts(dictionary.lookup("BRULE", 10)));
+  }
+
+  @Test
+  @DisplayName("P005: Limit, empty and unknown prefixes")
+  void P005() {
+    assertEquals(1, dictionary.lookup("s", 1).size());
+    assertTrue(dictionary.lookup(" ", 10).isEmpty());
+    assertTrue(dictionary.lookup(null, 10).isEmpty());
+    assertTrue(dictionary.lookup("xyz", 10).isEmpty());
+  }
+
+  @Test
+  @DisplayName("P006: A suggestion is returned once, even if several words match")
+  void P006() {
+    PrefixDictionary repeated =
+        new PrefixDictionary(List.of(new Suggestion(Type.ARTICLE, "1", "Shirt Shirt Shirt")));
+    assertEquals(1, repeated.lookup("shi", 10).size());
+  }
+
+  @Test
+  @DisplayName("P007: Dense prefixes return the best suggestions like scanned ones")
+  void P007() {
+    PrefixDictionary large = generate(5000);
+    assertEquals(
+        List.of("Shirt Model 0", "Shirt Model 1", "Shirt Model 2"),
+        texts(large.lookup("shi", 3)));
+    assertEquals(List.of("Shirt Model 4711"), texts(large.lookup("shirt model 4711", 10)));
+    assertEquals(PrefixDictionary.MAX_SUGGESTIONS, large.lookup("mod", 50).size());
+  }
+}
@@ -0,0 +1,123 @@
+package src.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import src.search.PriceIndex.Entry;
+
+class PriceIndexMassiveTest {
+
+  private PriceIndex index;
+
+  @BeforeEach
+  void setup() {
+    index =
+        new PriceIndex(
+            List.of(
+                new Entry(1, 49.9, true, "sub-jeans", "cat-clothing"),
+                new Entry(2, 19.9, true, "sub-shirts", "cat-clothing"),
+                new Entry(3, 19.9, false, "sub-golf", "cat-sports"),
+                new Entry(4, 99.0, true, "sub-golf", "cat-sports"),
+                new Entry(5, null, true, "sub-jeans", "cat-clothing")));
+  }
+
+  @Test
+  @DisplayName("X001: Without bounds all articles match, ordered by price, unpriced last")
+  void X001() {
+    assertArrayEquals(new long[] {2, 3, 1, 4, 5}, index.find(null, null, null, null, false));
+  }
+
+  @Test
+  @DisplayName("X002: Bounds are inclusive and exclude articles without price")
+  void X002() {
+    assertArrayEquals(new long[] {2, 3, 1}, index.find(null, null, 19.9, 49.9, false));
+    assertArrayEquals(new long[] {1, 4}, index.find(null, null, 20.0, null, false));
+    assertArrayEquals(new long[] {2, 3}, index.find(null, null, null, 19.9, false));
+    assertArrayEquals(new long[0], index.find(null, null, 50.0, 60.0, false));
+    assertArrayEquals(new long[0], index.find(null, null, 60.0, 50.0, false));
+  }
+
+  @Test
+  @DisplayName("X003: In stock filter skips unavailable articles")
+  void X003() {
+    assertArrayEquals(new long[] {2, 1, 4, 5}, index.find(null, null, null, null, true));
+  }
+
+  @Test
+  @DisplayName("X004: Category and subcategory filters select their own scope")
+  void X004() {
+    assertArrayEquals(new long[] {2, 1, 5}, index.find("cat-clothing", null, null, null, false));
+    assertArrayEquals(new long[] {3, 4}, index.find(null, "sub-golf", null, null, false));
+    assertArrayEquals(new long[] {4}, index.find("cat-sports", "sub-golf", 20.0, null, false));
+    assertArrayEquals(new long[0], index.find("cat-clothing", "sub-golf", null, null, false));
+    assertArrayEquals(new long[0], index.find("cat-unknown", null, null, null, false));
+  }
+
+  @Test
+  @DisplayName("X005: Updates return a new index and leave the old one unchanged")
+  void X005() {
+    Entry previous = new Entry(1, 49.9, true, "sub-jeans", "cat-clothing");
+    Entry current = new Entry(1, 9.9, true, "sub-golf", "cat-sports");
+    PriceIndex updated = index.update(previous, current);
+
+    assertArrayEquals(new long[] {1, 3, 4}, updated.find("cat-sports", null, null, null, false));
+    assertArrayEquals(new long[] {5}, updated.find(null, "sub-jeans", null, null, false));
+    assertArrayEquals(new long[] {2, 3, 1}, index.find(null, null, null, 49.9, false));
+  }
+
+  @Test
+  @DisplayName("X006: Added and deleted articles")
+  void X006() {
+    PriceIndex updated =
+        index
+            .update(null, new Entry(6, 5.0, true, "sub-new", "cat-new"))
+            .update(new Entry(2, 19.9, true, "sub-shirts", "cat-clothing"), null);
+
+    assertEquals(5, updated.size());
+    assertArrayEquals(new long[] {6, 3}, updated.find(null, null, null, 19.9, false));
+    assertArrayEquals(new long[] {6}, updated.find("cat-new", "sub-new", null, null, false));
+    assertArrayEquals(new long[] {1, 5}, updated.find(null, "sub-jeans", null, null, false));
+  }
+
+  @Test
+  @DisplayName("X007: Incremental updates match a full build")
+  void X007() {
+    Random random = new Random(7);
+    List<Entry> entries = new ArrayList<>();
+    Entry[] bySku = new Entry[2000];
+    PriceIndex incremental = PriceIndex.EMPTY;
+
+    for (int i = 0; i < 5000; i++) {
+      int sku = random.nextInt(bySku.length);
+      Entry current =
+          random.nextInt(5) == 0
+              ? null
+              : new Entry(
+                  sku,
+                  random.nextInt(10) == 0 ? null : (double) random.nextInt(100),
+                  random.nextBoolean(),
+                  "sub-" + random.nextInt(8),
+                  "cat-" + random.nextInt(3));
+      incremental = incremental.update(bySku[sku], current);
+      bySku[sku] = current;
+    }
+    Arrays.stream(bySku).filter(e -> e != null).forEach(entries::add);
+    PriceIndex built = new PriceIndex(entries);
+
+    assertEquals(built.size(), incremental.size());
+    assertArrayEquals(
+        built.find(null, null, 10.0, 60.0, true), incremental.find(null, null, 10.0, 60.0, true));
+    assertArrayEquals(
+        built.find(null, "sub-3", null, null, false),
+        incremental.find(null, "sub-3", null, null, false));
+    long[] all = built.find(null, null, null, null, false);
+    assertEquals(entries.size(), LongStream.of(all).distinct().count());
+  }
+}
@@ -0,0 +1,72 @@
+package src.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class LongIntMapMassiveTest {
+
+  @Test
+  @DisplayName("L001: Puts, lookups and removals match a HashMap, also across resizes")
+  void L001() {
+    LongIntMap map = new LongIntMap();
+    Map<Long, Integer> expected = new HashMap<>();
+    Random random = new Random(42);
+
+    for (int i = 0; i < 200000; i++) {
+      // few distinct keys, so removals hit existing entries and probe chains get long
+      long key = random.nextInt(5000) * 1024L - 100000;
+      if (random.nextInt(3) == 0) {
+        assertEquals(expected.getOrDefault(key, LongIntMap.MISSING), map.remove(key));
+        expected.remove(key);
+      } else {
+        int value = random.nextInt(Integer.MAX_VALUE);
+        assertEquals(expected.getOrDefault(key, LongIntMap.MISSING), map.put(key, value));
+        expected.put(key, value);
+      }
+    }
+
+    assertEquals(expected.size(), map.size());
+    for (long key = -100000; key < 5000 * 1024L; key += 1024) {
+      assertEquals(expected.getOrDefault(key, LongIntMap.MISSING), map.get(key));
+    }
+    assertThrows(IllegalArgumentException.class, () -> map.put(1, -5));
+  }
+
+  @Test
+  @DisplayName("L002: A copy is independent and the object map keeps null values and reuses slots")
+  void L002() {
+    LongIntMap map = new LongIntMap();
+    map.put(7, 1);
+    LongIntMap copy = map.copy();
+    copy.put(7, 2);
+    copy.put(8, 3);
+    assertEquals(1, map.get(7));
+    assertFalse(map.containsKey(8));
+    assertEquals(2, copy.size());
+
+    LongObjectMap<String> objects = new LongObjectMap<>();
+    objects.put(1, "a");
+    objects.put(2, null);
+    assertTrue(objects.containsKey(2));
+    assertNull(objects.get(2));
+    assertFalse(objects.containsKey(3));
+
+    LongObjectMap<String> objectCopy = objects.copy();
+    assertEquals("a", objectCopy.remove(1));
+    objectCopy.put(3, "c");
+    assertEquals("a", objects.get(1));
+    assertEquals(2, objectCopy.size());
+    assertTrue(objectCopy.values().containsAll(List.of("c")));
+    assertEquals(2, objectCopy.values().size());
+
+    objects.clear();
+    assertEquals(0, objects.size());
+    assertTrue(objects.values().isEmpty());
+  }
+}
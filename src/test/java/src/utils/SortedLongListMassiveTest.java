@@ -0,0 +1,75 @@
+package src.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class SortedLongListMassiveTest {
+
+  @Test
+  @DisplayName("SL001: Adds and removals match a TreeSet, also across chunk splits and drops")
+  void SL001() {
+    TreeSet<Long> expected = new TreeSet<>();
+    long[] initial = new long[5000];
+    for (int i = 0; i < initial.length; i++) {
+      initial[i] = i * 3L;
+      expected.add(i * 3L);
+    }
+    SortedLongList list = SortedLongList.of(initial);
+    Random random = new Random(42);
+
+    for (int i = 0; i < 20000; i++) {
+      long value = random.nextInt(20000) - 100;
+      SortedLongList before = list;
+      if (random.nextInt(3) == 0) {
+        list = list.without(value);
+        assertEquals(expected.remove(value), list != before);
+      } else {
+        list = list.with(value);
+        assertEquals(expected.add(value), list != before);
+      }
+    }
+
+    assertEquals(expected.size(), list.size());
+    assertArrayEquals(expected.stream().mapToLong(Long::longValue).toArray(), list.toArray());
+    assertArrayEquals(list.toArray(), list.stream().toArray());
+    int index = 0;
+    for (long value : expected) {
+      assertEquals(value, list.get(index));
+      assertEquals(index, list.indexOf(value));
+      index++;
+    }
+    assertEquals(-1, list.indexOf(-101));
+    assertEquals(-1, list.indexOf(20000));
+  }
+
+  @Test
+  @DisplayName("SL002: A slice copies only its range and a change leaves the old list unchanged")
+  void SL002() {
+    long[] values = new long[3000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = i;
+    }
+    SortedLongList list = SortedLongList.of(values);
+
+    long[] slice = list.slice(1020, 10);
+    assertEquals(10, slice.length);
+    assertEquals(1020, slice[0]);
+    assertEquals(1029, slice[9]);
+    assertEquals(5, list.slice(2995, 10).length);
+    assertEquals(0, list.slice(3000, 10).length);
+    assertEquals(0, list.slice(-5, 0).length);
+    assertEquals(0, list.slice(0, 10)[0]);
+
+    SortedLongList changed = list.without(1500).with(5000);
+    assertEquals(3000, list.size());
+    assertEquals(1500, list.get(1500));
+    assertEquals(1501, changed.get(1500));
+    assertEquals(5000, changed.get(2999));
+    assertEquals(0, SortedLongList.EMPTY.with(7).without(7).size());
+    assertThrows(IndexOutOfBoundsException.class, () -> list.get(3000));
+  }
+}
@@ -0,0 +1,104 @@
+package src.view;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AssetFingerprintsMassiveTest {
+
+  private static byte[] bytes(String content) {
+    return content.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static Map<String, byte[]> resources(String detailCss) {
+    Map<String, byte[]> contents = new HashMap<>();
+    contents.put(
+        "css/main.css",
+        bytes(
+            "@import \"https://cdn.example.org/simple.css\";\n"
+                + "@import \"detail.css\";\n"
+                + ".logo { background: url('../logo.png'); }\n"
+                + ".icon { background: url(../icons.svg#cart); }\n"));
+    contents.put("css/detail.css", bytes(detailCss));
+    contents.put("logo.png", new byte[] {1, 2, 3});
+    contents.put("icons.svg", bytes("<svg/>"));
+    return contents;
+  }
+
+  @Test
+  @DisplayName("A001: The content hash is inserted before the extension")
+  void A001() {
+    AssetFingerprints fingerprints = new AssetFingerprints(resources(".a {}"));
+
+    String logo = fingerprints.getFingerprintedPath("logo.png");
+    assertTrue(logo.matches("logo\\.[0-9a-f]{10}\\.png"), logo);
+    String detail = fingerprints.getFingerprintedPath("css/detail.css");
+    assertTrue(detail.matches("css/detail\\.[0-9a-f]{10}\\.css"), detail);
+    assertEquals("unknown.js", fingerprints.getFingerprintedPath("unknown.js"));
+  }
+
+  @Test
+  @DisplayName("A002: Only the current fingerprinted path finds a resource")
+  void A002() {
+    AssetFingerprints fingerprints = new AssetFingerprints(resources(".a {}"));
+
+    AssetFingerprints.Asset logo = fingerprints.find(fingerprints.getFingerprintedPath("logo.png"));
+    assertEquals("logo.png", logo.getPath());
+    assertArrayEquals(new byte[] {1, 2, 3}, logo.getContent());
+    assertNull(fingerprints.find("logo.png"));
+    assertNull(fingerprints.find("logo.0000000000.png"));
+  }
+
+  @Test
+  @DisplayName("A003: Stylesheets reference the fingerprinted names of their relative imports")
+  void A003() {
+    AssetFingerprints fingerprints = new AssetFingerprints(resources(".a {}"));
+
+    String main =
+        new String(
+            fingerprints.getAssets().get("css/main.css").getContent(), StandardCharsets.UTF_8);
+    String detail = fingerprints.getFingerprintedPath("css/detail.css");
+    String logo = fingerprints.getFingerprintedPath("logo.png");
+    String icons = fingerprints.getFingerprintedPath("icons.svg");
+
+    assertTrue(main.contains("@import \"https://cdn.example.org/simple.css\";"));
+    assertTrue(main.contains("@import \"" + detail.substring("css/".length()) + "\";"));
+    assertTrue(main.contains("url('../" + logo + "')"));
+    assertTrue(main.contains("url(../" + icons + "#cart)"));
+  }
+
+  @Test
+  @DisplayName("A004: A changed import changes the fingerprint of the importing stylesheet")
+  void A004() {
+    AssetFingerprints before = new AssetFingerprints(resources(".a {}"));
+    AssetFingerprints after = new AssetFingerprints(resources(".a { color: red; }"));
+
+    assertNotEquals(
+        before.getFingerprintedPath("css/main.css"), after.getFingerprintedPath("css/main.css"));
+    assertEquals(before.getFingerprintedPath("logo.png"), after.getFingerprintedPath("logo.png"));
+  }
+
+  @Test
+  @DisplayName("A005: The release is stable for equal content and changes with views or resources")
+  void A005() {
+    Map<String, byte[]> views = new HashMap<>();
+    views.put("list.xhtml", bytes("<div/>"));
+    String release = AssetFingerprints.release(views, new AssetFingerprints(resources(".a {}")));
+
+    assertEquals(
+        release,
+        AssetFingerprints.release(
+            new HashMap<>(views), new AssetFingerprints(resources(".a {}"))));
+    assertNotEquals(
+        release,
+        AssetFingerprints.release(views, new AssetFingerprints(resources(".b {}"))));
+    views.put("list.xhtml", bytes("<span/>"));
+    assertNotEquals(
+        release,
+        AssetFingerprints.release(views, new AssetFingerprints(resources(".a {}"))));
+  }
+}
@@ -0,0 +1,129 @@
+package src.view;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import src.repository.CatalogChangeEvent;
+import src.view.FragmentCache.Region;
+
+class FragmentCacheMassiveTest {
+
+  private FragmentCache cache;
+
+  @BeforeEach
+  void setup() {
+    cache = new FragmentCache();
+  }
+
+  private void put(Region region, String key, String fragment) {
+    cache.put(region, key, fragment, cache.getGeneration());
+  }
+
+  @Test
+  @DisplayName("V001: A stored fragment is returned per region and key")
+  void V001() {
+    put(Region.TILE, "1", "<div>tile 1</div>");
+    put(Region.SIDEBAR, "1", "<p>sidebar</p>");
+
+    assertEquals("<div>tile 1</div>", cache.get(Region.TILE, "1"));
+    assertEquals("<p>sidebar</p>", cache.get(Region.SIDEBAR, "1"));
+    assertNull(cache.get(Region.TILE, "2"));
+    assertEquals(2L, cache.getStatistics().get("hits"));
+    assertEquals(1L, cache.getStatistics().get("misses"));
+  }
+
+  @Test
+  @DisplayName("V002: An article write evicts its tile and the sidebars only")
+  void V002() {
+    put(Region.TILE, "1", "tile 1");
+    put(Region.TILE, "2", "tile 2");
+    put(Region.SIDEBAR, "cat-1", "sidebar");
+    put(Region.MENU, "cat-1", "menu");
+
+    cache.onCatalogChange(CatalogChangeEvent.article(1, false));
+
+    assertNull(cache.get(Region.TILE, "1"));
+    assertNull(cache.get(Region.SIDEBAR, "cat-1"));
+    assertEquals("tile 2", cache.get(Region.TILE, "2"));
+    assertEquals("menu", cache.get(Region.MENU, "cat-1"));
+  }
+
+  @Test
+  @DisplayName("V003: A category write evicts menus and sidebars, but no tile")
+  void V003() {
+    put(Region.TILE, "1", "tile 1");
+    put(Region.SIDEBAR, "cat-1", "sidebar");
+    put(Region.MENU, "null", "menu");
+
+    cache.onCatalogChange(CatalogChangeEvent.subcategory("sub-1", false));
+
+    assertEquals(1, cache.size());
+    assertEquals("tile 1", cache.get(Region.TILE, "1"));
+  }
+
+  @Test
+  @DisplayName("V004: A fragment rendered during an eviction is not stored")
+  void V004() {
+    long generation = cache.getGeneration();
+    cache.onCatalogChange(CatalogChangeEvent.articleImage("img-1", 1L, false));
+    cache.put(Region.TILE, "1", "outdated tile", generation);
+
+    assertNull(cache.get(Region.TILE, "1"));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  @DisplayName("V005: Beyond the size limit the least recently read fragments are evicted")
+  void V005() throws InterruptedException {
+    String large = "x".repeat(2_000_000);
+    for (String key : new String[] {"a", "b", "c", "d"}) {
+      put(Region.TILE, key, large);
+      Thread.sleep(1);
+    }
+    assertNotNull(cache.get(Region.TILE, "a"));
+    Thread.sleep(1);
+
+    // 10 million characters, trimmed below 90% of the 8 million limit
+    put(Region.SIDEBAR, "e", large);
+
+    assertNull(cache.get(Region.TILE, "b"));
+    assertNull(cache.get(Region.TILE, "c"));
+    assertNotNull(cache.get(Region.TILE, "a"));
+    assertNotNull(cache.get(Region.TILE, "d"));
+    assertNotNull(cache.get(Region.SIDEBAR, "e"));
+    assertEquals(3, cache.size());
+  }
+
+  @Test
+  @DisplayName("V006: Concurrent lookups, stores and evictions keep the cache consistent")
+  void V006() throws Exception {
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      int offset = t;
+      threads[t] =
+          new Thread(
+              () -> {
+                for (int i = 0; i < 20000; i++) {
+                  String key = String.valueOf((i + offset) % 100);
+                  if (cache.get(Region.TILE, key) == null) {
+                    put(Region.TILE, key, "tile " + key);
+                  }
+                  if (i % 1000 == offset) {
+                    cache.onCatalogChange(CatalogChangeEvent.article(i % 100, false));
+                  }
+                }
+              });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    cache.evictAll(Region.TILE);
+    assertEquals(0, cache.size());
+    put(Region.TILE, "1", "tile 1");
+    assertEquals("tile 1", cache.get(Region.TILE, "1"));
+  }
+}